@@ -0,0 +1,58 @@
+package com.epic7.backend.benchmark;
+
+import com.epic7.backend.service.battle.engine.BattleEngine;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boucle de tour du BattleEngine : passage au tour suivant et tours automatiques du boss.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BattleEngineBenchmark {
+
+    // Les logs sont vidés régulièrement pour ne mesurer que le coût d'un tour
+    private static final int RESET_EVERY = 1024;
+
+    @Param({"2", "4", "8"})
+    public int heroCount;
+
+    private BattleEngine battleEngine;
+    private BattleState rtaState;
+    private BattleState bossState;
+    private int calls;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        battleEngine = BattleFixtures.battleEngine();
+        rtaState = BattleFixtures.rtaBattle(heroCount);
+        bossState = BattleFixtures.bossBattle(heroCount);
+    }
+
+    @Benchmark
+    public int nextTurn() {
+        battleEngine.nextTurn(rtaState);
+        if (++calls % RESET_EVERY == 0) {
+            BattleFixtures.reset(rtaState);
+        }
+        return rtaState.getCurrentTurnIndex();
+    }
+
+    @Benchmark
+    public int processUntilNextPlayer() {
+        // L'ordonnanceur donne la main au boss, qui joue jusqu'au tour d'un héros
+        BattleFixtures.untilBossTurn(battleEngine, bossState);
+        battleEngine.processUntilNextPlayer(bossState);
+        if (++calls % RESET_EVERY == 0) {
+            BattleFixtures.reset(bossState);
+        }
+        return bossState.getCurrentTurnIndex();
+    }
+}
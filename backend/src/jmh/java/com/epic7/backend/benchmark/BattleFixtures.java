@@ -0,0 +1,117 @@
+package com.epic7.backend.benchmark;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.service.battle.engine.BattleEngine;
+import com.epic7.backend.service.battle.engine.PassiveSkillProcessor;
+import com.epic7.backend.service.battle.engine.SkillEngine;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jeux de données synthétiques pour les benchmarks : combats de 2 à 8 héros,
+ * sans base de données ni contexte Spring.
+ */
+final class BattleFixtures {
+
+    static final long DAMAGE_SKILL_ID = 100L;
+    static final long HEAL_SKILL_ID = 101L;
+    static final long PASSIVE_SKILL_ID = 102L;
+
+    // PV très élevés : personne ne meurt pendant une itération de mesure
+    static final int HP = 1_000_000_000;
+
+    private static final List<SkillDTO> SKILLS = List.of(
+            SkillDTO.builder().id(DAMAGE_SKILL_ID).name("Strike").category("ACTIVE").position(0)
+                    .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.2).cooldown(0).build(),
+            SkillDTO.builder().id(PASSIVE_SKILL_ID).name("Focus").category("PASSIVE").position(1)
+                    .passiveBonus("DEFENSE_UP").bonusValue(0.0).triggerCondition("ON_TURN_START").build(),
+            SkillDTO.builder().id(HEAL_SKILL_ID).name("Mend").category("ACTIVE").position(2)
+                    .action("HEAL").targetGroup("SELF").scalingFactor(0.05).cooldown(0).build());
+
+    private BattleFixtures() {
+    }
+
+    static BattleEngine battleEngine() {
+        return new BattleEngine(new PassiveSkillProcessor());
+    }
+
+    static SkillEngine skillEngine(BattleEngine battleEngine) {
+        return new SkillEngine(battleEngine);
+    }
+
+    /**
+     * Combat RTA : les héros alternent entre le joueur "1" et le joueur "2".
+     */
+    static BattleState rtaBattle(int heroCount) {
+        List<BattleParticipant> participants = new ArrayList<>(heroCount);
+        for (int i = 0; i < heroCount; i++) {
+            String userId = (i % 2 == 0) ? "1" : "2";
+            participants.add(new BattleParticipant((long) i + 1, "Hero" + i, HP, HP,
+                    1000, 500, 200 - i, true, userId, 1L, -1));
+        }
+        BattleState state = newState(participants);
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        return state;
+    }
+
+    /**
+     * Combat de boss : un boss (slot 0, le plus rapide) contre heroCount - 1 héros.
+     */
+    static BattleState bossBattle(int heroCount) {
+        List<BattleParticipant> participants = new ArrayList<>(heroCount);
+        participants.add(new BattleParticipant(-1L, "Boss", HP, HP, 1500, 800, 300, false, null, null, -1));
+        for (int i = 1; i < heroCount; i++) {
+            participants.add(new BattleParticipant((long) i, "Hero" + i, HP, HP,
+                    1000, 500, 200 - i, true, null, 1L, -1));
+        }
+        return newState(participants);
+    }
+
+    /**
+     * Fait jouer l'ordonnanceur jusqu'au tour du boss : les tours des héros sont simplement passés.
+     */
+    static void untilBossTurn(BattleEngine battleEngine, BattleState state) {
+        while (state.getParticipants().get(state.getCurrentTurnIndex()).isPlayer()) {
+            battleEngine.nextTurn(state);
+        }
+    }
+
+    /**
+     * ID d'un ennemi vivant du participant dont c'est le tour.
+     */
+    static long enemyOfCurrent(BattleState state) {
+        BattleParticipant actor = state.getParticipants().get(state.getCurrentTurnIndex());
+        for (BattleParticipant p : state.getParticipants()) {
+            if (!actor.getUserId().equals(p.getUserId())) {
+                return p.getId();
+            }
+        }
+        throw new IllegalStateException("Aucun ennemi");
+    }
+
+    /**
+     * Remet tous les PV au maximum (le journal est borné, inutile de le vider).
+     */
+    static void reset(BattleState state) {
+        for (BattleParticipant p : state.getParticipants()) {
+            p.setCurrentHp(p.getMaxHp());
+        }
+        state.recountAlive();
+        state.setFinished(false);
+    }
+
+    private static BattleState newState(List<BattleParticipant> participants) {
+        BattleState state = new BattleState();
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> SKILLS));
+        state.setCurrentTurnIndex(0);
+        state.setRoundCount(1);
+        state.setFinished(false);
+        return state;
+    }
+}
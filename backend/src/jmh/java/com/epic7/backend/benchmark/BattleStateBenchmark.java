@@ -0,0 +1,70 @@
+package com.epic7.backend.benchmark;
+
+import com.epic7.backend.dto.boss.SimpleBattleStateDTO;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tenue des cooldowns et construction du DTO envoyé aux clients.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BattleStateBenchmark {
+
+    @Param({"2", "4", "8"})
+    public int heroCount;
+
+    private BattleState state;
+    private long[] heroIds;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        state = BattleFixtures.rtaBattle(heroCount);
+        heroIds = new long[heroCount];
+        for (int i = 0; i < heroCount; i++) {
+            BattleParticipant p = state.getParticipants().get(i);
+            heroIds[i] = p.getId();
+            state.putCooldown(p.getId(), BattleFixtures.DAMAGE_SKILL_ID, 3);
+            state.putCooldown(p.getId(), BattleFixtures.HEAL_SKILL_ID, 4);
+        }
+    }
+
+    @Benchmark
+    public int reduceCooldownsForHero() {
+        long heroId = heroIds[next];
+        next = (next + 1) % heroIds.length;
+        state.reduceCooldownsForHero(heroId);
+        // Remettre le cooldown pour que la décrémentation reste significative
+        state.putCooldown(heroId, BattleFixtures.DAMAGE_SKILL_ID, 3);
+        return state.getRemainingCooldown(heroId, BattleFixtures.HEAL_SKILL_ID);
+    }
+
+    @Benchmark
+    public int reduceCooldownsForSlot() {
+        int slot = next;
+        next = (next + 1) % heroIds.length;
+        state.reduceCooldownsForSlot(slot);
+        state.putCooldown(slot, 0, 3);
+        return state.getRemainingCooldown(slot, 1);
+    }
+
+    @Benchmark
+    public int remainingCooldownMiss() {
+        // Héros sans cooldown enregistré
+        return state.getRemainingCooldown(-42L, BattleFixtures.DAMAGE_SKILL_ID);
+    }
+
+    @Benchmark
+    public SimpleBattleStateDTO simpleBattleStateDTO() {
+        return new SimpleBattleStateDTO(state);
+    }
+}
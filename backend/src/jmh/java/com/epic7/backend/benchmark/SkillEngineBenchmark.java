@@ -0,0 +1,58 @@
+package com.epic7.backend.benchmark;
+
+import com.epic7.backend.dto.boss.SkillActionResultDTO;
+import com.epic7.backend.service.battle.engine.SkillEngine;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application d'une compétence complète (résolution, effet, cooldown, tour suivant).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SkillEngineBenchmark {
+
+    private static final int RESET_EVERY = 1024;
+
+    @Param({"2", "4", "8"})
+    public int heroCount;
+
+    private SkillEngine skillEngine;
+    private BattleState state;
+    private int calls;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        skillEngine = BattleFixtures.skillEngine(BattleFixtures.battleEngine());
+        state = BattleFixtures.rtaBattle(heroCount);
+    }
+
+    @Benchmark
+    public SkillActionResultDTO damage() {
+        long targetId = BattleFixtures.enemyOfCurrent(state);
+        SkillActionResultDTO result = skillEngine.useSkillWithResult(state, BattleFixtures.DAMAGE_SKILL_ID, targetId);
+        resetPeriodically();
+        return result;
+    }
+
+    @Benchmark
+    public SkillActionResultDTO heal() {
+        long selfId = state.getParticipants().get(state.getCurrentTurnIndex()).getId();
+        SkillActionResultDTO result = skillEngine.useSkillWithResult(state, BattleFixtures.HEAL_SKILL_ID, selfId);
+        resetPeriodically();
+        return result;
+    }
+
+    private void resetPeriodically() {
+        if (++calls % RESET_EVERY == 0) {
+            BattleFixtures.reset(state);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.epic7.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (@Scheduled), comme le nettoyage des combats RTA inactifs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,7 @@ package com.epic7.backend.config;
 
 import com.epic7.backend.utils.JwtUtil;
 import com.epic7.backend.service.UserDetailsServiceImpl;
+import com.epic7.backend.service.battle.engine.BattleMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +11,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -42,6 +44,7 @@ public class WebSocketConfig implements WebSocketConfigurer, WebSocketMessageBro
     private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
+    private final BattleMetrics battleMetrics;
     private final Map<String, Map<String, WebSocketSession>> battleSessions = new ConcurrentHashMap<>();
 
     @Override
@@ -63,6 +66,30 @@ public class WebSocketConfig implements WebSocketConfigurer, WebSocketMessageBro
         
         // Destination pour les messages spécifiques à un utilisateur
         config.setUserDestinationPrefix("/user");
+
+        // Taille des états de combat diffusés, mesurée sur le message déjà sérialisé.
+        // Les messages /user/... sont ignorés : ils repassent par ce canal une fois résolus.
+        config.configureBrokerChannel().interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                if (isBattleStateDestination(destination) && message.getPayload() instanceof byte[] payload) {
+                    battleMetrics.broadcast(payload.length);
+                }
+                return message;
+            }
+        });
+    }
+
+    /**
+     * Destinations qui portent un état de combat RTA (patch, état complet, état final).
+     */
+    private static boolean isBattleStateDestination(String destination) {
+        return destination != null
+                && (destination.startsWith("/topic/rta/patch/")
+                        || destination.startsWith("/queue/rta/state/")
+                        || destination.startsWith("/queue/rta/end/")
+                        || destination.startsWith("/topic/rta/end/"));
     }
 
     @Override
@@ -59,6 +59,7 @@ public void seedHeroesAndSkills() {
             heroRepo.findByName("Seaside Bellona").ifPresent(this::seedSkillsForSeasideBellona);
             heroRepo.findByName("Specter Tenebria").ifPresent(this::seedSkillsForSpecterTenebria);
             System.out.println("✅ Compétences des nouveaux héros créées.");
+            // Le catalogue de compétences (SkillCatalog) est chargé à ApplicationReadyEvent, après les seeders
 
         
         }
@@ -4,8 +4,8 @@ import com.epic7.backend.dto.boss.*;
 import com.epic7.backend.model.User;
 import com.epic7.backend.model.enums.ShopItemType;
 import com.epic7.backend.service.AuthService;
-import com.epic7.backend.service.battle.engine.BattleEngine;
 import com.epic7.backend.service.battle.manager.BossBattleManager;
+import com.epic7.backend.service.battle.manager.BossBattleSessionRegistry;
 import com.epic7.backend.service.battle.state.BattleState;
 import com.epic7.backend.utils.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +13,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/combat")
 @RequiredArgsConstructor
@@ -21,10 +23,7 @@ public class BossCombatController {
     private final BossBattleManager battleService;
     private final AuthService authService;
     private final JwtUtil jwtUtil;
-    private final BattleEngine battleEngine;
-
-    // État de combat en mémoire pour ce joueur
-    private BattleState currentBattleState;
+    private final BossBattleSessionRegistry battleSessions;
 
     private User getCurrentUser(HttpServletRequest request) {
         String token = jwtUtil.extractTokenFromHeader(request);
@@ -34,53 +33,74 @@ public class BossCombatController {
 
     /**
      * Lance un nouveau combat contre un boss.
+     * Le DTO renvoyé contient le battleId à fournir pour les appels suivants.
      */
     @PostMapping("/start")
     public ResponseEntity<SimpleBattleStateDTO> startCombat(HttpServletRequest request,
                                                             @RequestBody StartCombatRequest combatRequest) {
         User user = getCurrentUser(request);
-        currentBattleState = battleService.initBattle(user, combatRequest.getBossHeroId(), combatRequest.getSelectedPlayerHeroIds());
+        BattleState state = battleService.initBattle(user, combatRequest.getBossHeroId(), combatRequest.getSelectedPlayerHeroIds());
 
-        currentBattleState.setRewardType(ShopItemType.DIAMOND);
-        currentBattleState.setRewardAmount(1000);
+        state.setRewardType(ShopItemType.DIAMOND);
+        state.setRewardAmount(1000);
 
-        return ResponseEntity.ok(battleService.toDTO(currentBattleState));
+        battleSessions.register(user.getId(), state);
+        return ResponseEntity.ok(battleService.toDTO(state));
     }
 
     /**
      * Utilise une compétence active sur une cible.
      */
     @PostMapping("/action/skill")
-    public ResponseEntity<SkillActionResultDTO> useSkill(@RequestBody SimpleSkillActionRequest request) {
-        SkillActionResultDTO result = battleService.useSkill(currentBattleState, request);
-        return ResponseEntity.ok(result);
+    public ResponseEntity<SkillActionResultDTO> useSkill(HttpServletRequest request,
+                                                         @RequestBody SimpleSkillActionRequest actionRequest) {
+        User user = getCurrentUser(request);
+        return battleSessions.withBattle(user.getId(), actionRequest.getBattleId(),
+                        state -> battleService.useSkill(state, actionRequest))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
      * Récupère l’état actuel du combat.
+     * @param battleId identifiant reçu au démarrage du combat
+     * @param since curseur de logs (logSequence reçu précédemment) : seuls les logs suivants sont renvoyés
      */
     @GetMapping("/state")
-    public ResponseEntity<SimpleBattleStateDTO> getCombatState() {
-        if (currentBattleState == null) return ResponseEntity.badRequest().build();
-    
-        // Le boss joue automatiquement s’il doit jouer
-        currentBattleState = battleEngine.processUntilNextPlayer(currentBattleState);
-    
-        return ResponseEntity.ok(battleService.toDTO(currentBattleState));
+    public ResponseEntity<SimpleBattleStateDTO> getCombatState(HttpServletRequest request,
+                                                               @RequestParam String battleId,
+                                                               @RequestParam(defaultValue = "0") long since) {
+        User user = getCurrentUser(request);
+        return battleSessions.withBattle(user.getId(), battleId, state -> {
+                    // Le boss joue automatiquement s’il doit jouer
+                    battleService.playBossTurns(state);
+                    return battleService.toDTO(state, since);
+                })
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
-    
 
     /**
      * Attribue la récompense de victoire si le combat est terminé.
+     * Le combat est ensuite retiré : la récompense n'est distribuée qu'une fois.
      */
     @PostMapping("/reward")
-    public ResponseEntity<RewardDTO> giveVictoryReward(HttpServletRequest request) {
-        if (currentBattleState == null || !currentBattleState.isFinished()) {
+    public ResponseEntity<RewardDTO> giveVictoryReward(HttpServletRequest request, @RequestParam String battleId) {
+        User user = getCurrentUser(request);
+        Optional<Boolean> finished = battleSessions.withBattle(user.getId(), battleId, BattleState::isFinished);
+        if (finished.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!finished.get()) {
             return ResponseEntity.badRequest().build();
         }
 
-        User user = getCurrentUser(request);
-        RewardDTO reward = battleService.giveVictoryReward(user, currentBattleState);
+        BattleState state = battleSessions.remove(user.getId(), battleId);
+        if (state == null) {
+            // Récompense déjà réclamée par un appel concurrent
+            return ResponseEntity.notFound().build();
+        }
+        RewardDTO reward = battleService.giveVictoryReward(user, state);
         return ResponseEntity.ok(reward);
     }
 }
@@ -2,16 +2,20 @@ package com.epic7.backend.controller.rta;
 
 import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.epic7.backend.dto.rta.RtaMatchSummaryDTO;
 import com.epic7.backend.dto.rta.RtaRankingDTO;
 import com.epic7.backend.dto.rta.RtaTierInfoDTO;
 import com.epic7.backend.model.User;
 import com.epic7.backend.service.AuthService;
+import com.epic7.backend.service.rta.RtaMatchHistoryService;
 import com.epic7.backend.service.rta.RtaRankingService;
 import com.epic7.backend.utils.JwtUtil;
 
@@ -21,7 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Contrôleur REST pour les fonctionnalités RTA (Real Time Arena)
- * Gère le classement, les statistiques et les informations de rang
+ * Gère le classement, les statistiques, les informations de rang et l'historique des combats
  * @author hermas
  */
 @RestController
@@ -31,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 public class RtaController {
     
     private final RtaRankingService rtaRankingService;
+    private final RtaMatchHistoryService rtaMatchHistoryService;
     private final AuthService authService;
     private final JwtUtil jwtUtil;
 
@@ -89,6 +94,39 @@ public class RtaController {
         }
     }
 
+    /**
+     * Récupère les derniers combats RTA de l'utilisateur connecté
+     * @param request requête HTTP pour extraire le token
+     * @param limit nombre maximum de combats (défaut: 20, maximum: 100)
+     * @return combats du plus récent au plus ancien
+     */
+    @GetMapping("/matches")
+    public ResponseEntity<List<RtaMatchSummaryDTO>> getMyMatches(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            String token = jwtUtil.extractTokenFromHeader(request);
+            User user = authService.getUserByEmail(jwtUtil.extractEmail(token));
+
+            return ResponseEntity.ok(rtaMatchHistoryService.getRecentMatches(user, limit));
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de l'historique RTA", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Récupère le replay compact d'un combat RTA (format binaire de BattleReplay)
+     * @param battleId identifiant du combat
+     * @return le replay, ou 404 si le combat n'est pas enregistré
+     */
+    @GetMapping(value = "/matches/{battleId}/replay", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getReplay(@PathVariable String battleId) {
+        return rtaMatchHistoryService.getReplay(battleId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Récupère les statistiques générales RTA
      * @return statistiques sur la distribution des rangs
@@ -2,17 +2,28 @@ package com.epic7.backend.controller.rta;
 
 import java.security.Principal;
 
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import com.epic7.backend.dto.rta.JoinMatchMessage;
+import com.epic7.backend.event.RtaBattleEvictedEvent;
+import com.epic7.backend.event.RtaMatchFoundEvent;
+import com.epic7.backend.event.RtaQueueExpiredEvent;
+import com.epic7.backend.event.RtaQueueRejectedEvent;
+import com.epic7.backend.event.RtaPlayerDisconnectedEvent;
+import com.epic7.backend.dto.rta.RtaStatePatchDTO;
 import com.epic7.backend.dto.rta.SkillActionMessage;
 import com.epic7.backend.model.User;
 import com.epic7.backend.service.battle.manager.BattleManager;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.rta.BattleLaneExecutor;
+import com.epic7.backend.service.battle.rta.RtaBattleSessionStore;
 import com.epic7.backend.service.battle.rta.MatchmakingService;
-import com.epic7.backend.service.battle.rta.MatchmakingService.MatchResponse;
 
+import com.epic7.backend.service.battle.state.BattleEventType;
 import com.epic7.backend.service.battle.state.BattleState;
 import com.epic7.backend.repository.UserRepository;
 
@@ -27,12 +38,15 @@ public class RtaWebSocketController {
     private final BattleManager battleManager;
     private final SimpMessagingTemplate messaging;
     private final UserRepository userRepository;
+    private final BattleLaneExecutor battleLanes;
+    private final RtaBattleSessionStore sessionStore;
 
     /**
-     * Reçoit la demande de match (4 heroIds).  
+     * Reçoit la demande de match (2 heroIds).  
      * Répond :
-     * - "/user/queue/rta/match" → "waiting" ou battleId
-     * - si match, les deux joueurs reçoivent battleId
+     * - "/user/queue/rta/match" → "waiting"
+     * - dès qu'un adversaire est trouvé, les deux joueurs reçoivent battleId (voir onMatchFound)
+     * - "/user/queue/rta/expired" si l'attente dépasse le délai (voir onQueueExpired)
      */
     @MessageMapping("/rta/join")
     public void join(JoinMatchMessage msg, Principal principal) {
@@ -42,101 +56,82 @@ public class RtaWebSocketController {
 
         log.info("Demande de matchmaking pour l'utilisateur {} avec {} héros", user.getUsername(), msg.getHeroIds().size());
 
-        // 2) Appeler le matchmaking
-        MatchResponse resp = matchmakingService.join(user, msg.getHeroIds());
+        // 2) Entrer en file : l'adversaire est cherché par la boucle d'appariement
+        matchmakingService.join(user, msg.getHeroIds());
+        messaging.convertAndSendToUser(
+            user.getEmail(), // Utiliser l'email au lieu du nom d'utilisateur
+            "/queue/rta/match",
+            "waiting"
+        );
+    }
 
-        if (resp == null) {
-            // pas encore d'adversaire
-            log.info("Utilisateur {} mis en file d'attente", user.getUsername());
-            messaging.convertAndSendToUser(
-                user.getEmail(), // Utiliser l'email au lieu du nom d'utilisateur
-                "/queue/rta/match",
-                "waiting"
-            );
-        } else {
-            String battleId = resp.getBattleId();
-            log.info("Match trouvé pour {} contre {} - battleId: {}", 
-                    user.getUsername(), resp.getOpponent().getUsername(), battleId);
-            
-            // informer le demandeur
-            messaging.convertAndSendToUser(
-                user.getEmail(), // Utiliser l'email au lieu du nom d'utilisateur
-                "/queue/rta/match",
-                battleId
-            );
-            // informer l'adversaire
-            messaging.convertAndSendToUser(
-                resp.getOpponent().getEmail(), // Utiliser l'email au lieu du nom d'utilisateur
-                "/queue/rta/match",
-                battleId
-            );
-            
-            // Étape importante: envoyer l'état initial de la bataille aux deux joueurs
-            // Récupérer l'état actuel de la bataille
-            BattleState state = (BattleState) battleManager.getBattleState(battleId);
-            
-            // Créer une copie personnalisée pour chaque joueur
-            BattleState player1State = new BattleState();
-            BattleState player2State = new BattleState();
-            
-            // Copier les propriétés importantes
-            player1State.setParticipants(state.getParticipants());
-            player1State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            player1State.setRoundCount(state.getRoundCount());
-            player1State.setFinished(state.isFinished());
-            player1State.setLogs(state.getLogs());
-            player1State.setCooldowns(state.getCooldowns());
-            player1State.setPlayer1Id(state.getPlayer1Id());
-            player1State.setPlayer2Id(state.getPlayer2Id());
-            player1State.setPlayer1Name(state.getPlayer1Name());
-            player1State.setPlayer2Name(state.getPlayer2Name());
-            player1State.setCurrentUserId(state.getPlayer1Id()); // Indiquer que c'est le joueur 1
-            
-            // Copie pour le joueur 2
-            player2State.setParticipants(state.getParticipants());
-            player2State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            player2State.setRoundCount(state.getRoundCount());
-            player2State.setFinished(state.isFinished());
-            player2State.setLogs(state.getLogs());
-            player2State.setCooldowns(state.getCooldowns());
-            player2State.setPlayer1Id(state.getPlayer1Id());
-            player2State.setPlayer2Id(state.getPlayer2Id());
-            player2State.setPlayer1Name(state.getPlayer1Name());
-            player2State.setPlayer2Name(state.getPlayer2Name());
-            player2State.setCurrentUserId(state.getPlayer2Id()); // Indiquer que c'est le joueur 2
-            
-            // Envoyer l'état personnalisé à chaque joueur
-            messaging.convertAndSendToUser(
-                user.getEmail(),
-                "/queue/rta/state/" + battleId,
-                player1State
-            );
-            
-            messaging.convertAndSendToUser(
-                resp.getOpponent().getEmail(),
-                "/queue/rta/state/" + battleId,
-                player2State
-            );
-            
-            // Envoyer également le tour du premier joueur
-            String nextHeroName = state
-                .getParticipants()
-                .get(state.getCurrentTurnIndex())
-                .getName();
-            log.info("Premier tour dans combat {}: {}", battleId, nextHeroName);
-            messaging.convertAndSend(
-                "/topic/rta/turn/" + battleId,
-                nextHeroName
-            );
-        }
+    /**
+     * Attente trop longue : le joueur a été retiré de la file et doit relancer une recherche.
+     * Canal distinct de "/queue/rta/match", où tout message autre que "waiting" est un battleId.
+     */
+    @EventListener
+    public void onQueueExpired(RtaQueueExpiredEvent event) {
+        messaging.convertAndSendToUser(event.getUser().getEmail(), "/queue/rta/expired",
+                "Temps d'attente dépassé, relancez une recherche");
+    }
+
+    /**
+     * Combat impossible à créer à cause de l'équipe du joueur : il a été retiré de la file.
+     */
+    @EventListener
+    public void onQueueRejected(RtaQueueRejectedEvent event) {
+        messaging.convertAndSendToUser(event.getUser().getEmail(), "/queue/rta/error", event.getReason());
+    }
+
+    /**
+     * Combat créé par le matchmaking : les deux joueurs reçoivent le battleId
+     * puis leur état initial personnalisé.
+     */
+    @EventListener
+    public void onMatchFound(RtaMatchFoundEvent event) {
+        String battleId = event.getBattleId();
+        User player1 = event.getPlayer1();
+        User player2 = event.getPlayer2();
+        log.info("Match trouvé : {} contre {} - battleId: {}",
+                player1.getUsername(), player2.getUsername(), battleId);
+
+        messaging.convertAndSendToUser(player1.getEmail(), "/queue/rta/match", battleId);
+        messaging.convertAndSendToUser(player2.getEmail(), "/queue/rta/match", battleId);
+
+        // Étape importante: envoyer l'état initial de la bataille aux deux joueurs
+        BattleState state = (BattleState) battleManager.getBattleState(battleId);
+
+        // Snapshot initial (version 0) personnalisé pour chaque joueur ; les actions suivantes
+        // ne diffusent que des patchs sur "/topic/rta/patch/{battleId}"
+        messaging.convertAndSendToUser(
+            player1.getEmail(),
+            "/queue/rta/state/" + battleId,
+            viewFor(state, state.getPlayer1Id())
+        );
+        messaging.convertAndSendToUser(
+            player2.getEmail(),
+            "/queue/rta/state/" + battleId,
+            viewFor(state, state.getPlayer2Id())
+        );
+
+        // Envoyer également le tour du premier joueur
+        String nextHeroName = state
+            .getParticipants()
+            .get(state.getCurrentTurnIndex())
+            .getName();
+        log.info("Premier tour dans combat {}: {}", battleId, nextHeroName);
+        messaging.convertAndSend(
+            "/topic/rta/turn/" + battleId,
+            nextHeroName
+        );
     }
 
     /**
      * Reçoit une action (skillId + targetId + battleId).  
      * Applique l'action, puis :
-     * - "/topic/rta/state/{battleId}" → envoi du BattleState à tous  
+     * - "/topic/rta/patch/{battleId}" → patch versionné (uniquement ce qui a changé)
      * - "/topic/rta/turn/{battleId}" → notification du prochain joueur  
-     * - si fini → "/topic/rta/end/{battleId}"
+     * - si fini → "/user/queue/rta/end/{battleId}" (snapshot final personnalisé)
      */
     @MessageMapping("/rta/action")
     public void action(SkillActionMessage msg, Principal principal) {
@@ -156,6 +151,19 @@ public class RtaWebSocketController {
             return;
         }
 
+        sessionStore.touchPlayer(principal.getName());
+
+        // Les actions d'un même combat sont traitées une par une, dans l'ordre de réception
+        if (!executeInLane(battleId, () -> processAction(battleId, skillId, targetId, principal))) {
+            messaging.convertAndSendToUser(principal.getName(), "/queue/rta/error", "Bataille introuvable");
+        }
+    }
+
+    /**
+     * Traitement d'une action, exécuté dans le couloir du combat (jamais en parallèle
+     * d'une autre action, d'un abandon ou d'un resync du même combat).
+     */
+    private void processAction(String battleId, Long skillId, Long targetId, Principal principal) {
         try {
             // 1) Appliquer la compétence
             battleManager.applySkillAction(battleId, skillId, targetId);
@@ -164,104 +172,39 @@ public class RtaWebSocketController {
             // 2) Récupérer l'état à jour
             BattleState state = (BattleState) battleManager.getBattleState(battleId);
 
-            // 3) Créer des états personnalisés pour chaque joueur
-            BattleState player1State = new BattleState();
-            BattleState player2State = new BattleState();
-            
-            // Copier les propriétés importantes
-            player1State.setParticipants(state.getParticipants());
-            player1State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            player1State.setRoundCount(state.getRoundCount());
-            player1State.setFinished(state.isFinished());
-            player1State.setLogs(state.getLogs());
-            player1State.setCooldowns(state.getCooldowns());
-            player1State.setPlayer1Id(state.getPlayer1Id());
-            player1State.setPlayer2Id(state.getPlayer2Id());
-            player1State.setPlayer1Name(state.getPlayer1Name());
-            player1State.setPlayer2Name(state.getPlayer2Name());
-            player1State.setCurrentUserId(state.getPlayer1Id());
-            
-            player2State.setParticipants(state.getParticipants());
-            player2State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            player2State.setRoundCount(state.getRoundCount());
-            player2State.setFinished(state.isFinished());
-            player2State.setLogs(state.getLogs());
-            player2State.setCooldowns(state.getCooldowns());
-            player2State.setPlayer1Id(state.getPlayer1Id());
-            player2State.setPlayer2Id(state.getPlayer2Id());
-            player2State.setPlayer1Name(state.getPlayer1Name());
-            player2State.setPlayer2Name(state.getPlayer2Name());
-            player2State.setCurrentUserId(state.getPlayer2Id());
-            
-            // Envoyer l'état personnalisé à chaque joueur
-            User player1 = userRepository.findById(Long.parseLong(state.getPlayer1Id()))
-                .orElseThrow(() -> new RuntimeException("Joueur 1 non trouvé"));
-                
-            User player2 = userRepository.findById(Long.parseLong(state.getPlayer2Id()))
-                .orElseThrow(() -> new RuntimeException("Joueur 2 non trouvé"));
-                
-            messaging.convertAndSendToUser(
-                player1.getEmail(),
-                "/queue/rta/state/" + battleId,
-                player1State
-            );
-            
-            messaging.convertAndSendToUser(
-                player2.getEmail(),
-                "/queue/rta/state/" + battleId,
-                player2State
-            );
+            // 3) Diffuser uniquement les changements, identiques pour les deux joueurs :
+            //    un seul message sérialisé une seule fois
+            RtaStatePatchDTO patch = state.getBroadcastBaseline().diff(battleId, state);
+            messaging.convertAndSend("/topic/rta/patch/" + battleId, patch);
 
             if (state.isFinished()) {
                 // 4a) Fin de combat - envoyer l'état final personnalisé à chaque joueur
                 log.info("Combat {} terminé", battleId);
                 
+                String player1Email = emailOf(battleId, state.getPlayer1Id());
+                String player2Email = emailOf(battleId, state.getPlayer2Id());
+
                 // Créer des états personnalisés pour la fin du combat
-                BattleState finalPlayer1State = new BattleState();
-                BattleState finalPlayer2State = new BattleState();
-                
-                // Copier les propriétés pour le joueur 1
-                finalPlayer1State.setParticipants(state.getParticipants());
-                finalPlayer1State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-                finalPlayer1State.setRoundCount(state.getRoundCount());
-                finalPlayer1State.setFinished(state.isFinished());
-                finalPlayer1State.setLogs(state.getLogs());
-                finalPlayer1State.setCooldowns(state.getCooldowns());
-                finalPlayer1State.setPlayer1Id(state.getPlayer1Id());
-                finalPlayer1State.setPlayer2Id(state.getPlayer2Id());
-                finalPlayer1State.setPlayer1Name(state.getPlayer1Name());
-                finalPlayer1State.setPlayer2Name(state.getPlayer2Name());
-                finalPlayer1State.setCurrentUserId(state.getPlayer1Id()); // Important pour la détermination du résultat
-                
-                // Copier les propriétés pour le joueur 2
-                finalPlayer2State.setParticipants(state.getParticipants());
-                finalPlayer2State.setCurrentTurnIndex(state.getCurrentTurnIndex());
-                finalPlayer2State.setRoundCount(state.getRoundCount());
-                finalPlayer2State.setFinished(state.isFinished());
-                finalPlayer2State.setLogs(state.getLogs());
-                finalPlayer2State.setCooldowns(state.getCooldowns());
-                finalPlayer2State.setPlayer1Id(state.getPlayer1Id());
-                finalPlayer2State.setPlayer2Id(state.getPlayer2Id());
-                finalPlayer2State.setPlayer1Name(state.getPlayer1Name());
-                finalPlayer2State.setPlayer2Name(state.getPlayer2Name());
-                finalPlayer2State.setCurrentUserId(state.getPlayer2Id()); // Important pour la détermination du résultat
+                BattleState finalPlayer1State = viewFor(state, state.getPlayer1Id()); // Important pour la détermination du résultat
+                BattleState finalPlayer2State = viewFor(state, state.getPlayer2Id()); // Important pour la détermination du résultat
                 
                 // Envoyer les états finaux personnalisés
                 messaging.convertAndSendToUser(
-                    player1.getEmail(),
+                    player1Email,
                     "/queue/rta/end/" + battleId,
                     finalPlayer1State
                 );
                 
                 messaging.convertAndSendToUser(
-                    player2.getEmail(),
+                    player2Email,
                     "/queue/rta/end/" + battleId,
                     finalPlayer2State
                 );
                 
                 battleManager.endRtaBattle(battleId, null);
             } else {
-                // 4b) Tour suivant
+                // 4b) Sauvegarder l'état pour pouvoir reprendre le combat, puis tour suivant
+                sessionStore.checkpoint(battleId);
                 String nextHeroName = state
                     .getParticipants()
                     .get(state.getCurrentTurnIndex())
@@ -295,11 +238,17 @@ public class RtaWebSocketController {
         // Si en recherche de match, retirer de la file
         matchmakingService.leave(user);
         
-        // Si en combat, terminer le combat avec abandon
+        // Si en combat, terminer le combat avec abandon (dans le couloir du combat)
+        if (battleId != null) {
+            executeInLane(battleId, () -> processForfeit(battleId, user));
+        }
+    }
+
+    private void processForfeit(String battleId, User user) {
         try {
             BattleState state = (BattleState) battleManager.getBattleState(battleId);
             state.setFinished(true);
-            state.getLogs().add(user.getUsername() + " a abandonné le combat.");
+            state.addEvent(BattleEventType.RTA_FORFEIT, user.getUsername());
             
             // Déterminer le gagnant (l'autre joueur)
             String abandonningUserId = user.getId().toString();
@@ -315,64 +264,37 @@ public class RtaWebSocketController {
             }
             
             // Ajouter le message de victoire dans les logs
-            state.getLogs().add("🏆 " + winnerName + " remporte la victoire par abandon!");
+            state.addEvent(BattleEventType.RTA_FORFEIT_VICTORY, winnerName);
             
             // Créer des états personnalisés pour chaque joueur
-            BattleState abandonerState = new BattleState();
-            BattleState winnerState = new BattleState();
-            
-            // Copier l'état de base
-            abandonerState.setParticipants(state.getParticipants());
-            abandonerState.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            abandonerState.setRoundCount(state.getRoundCount());
-            abandonerState.setFinished(true);
-            abandonerState.setLogs(state.getLogs());
-            abandonerState.setCooldowns(state.getCooldowns());
-            abandonerState.setPlayer1Id(state.getPlayer1Id());
-            abandonerState.setPlayer2Id(state.getPlayer2Id());
-            abandonerState.setPlayer1Name(state.getPlayer1Name());
-            abandonerState.setPlayer2Name(state.getPlayer2Name());
-            abandonerState.setCurrentUserId(abandonningUserId);
-            
-            winnerState.setParticipants(state.getParticipants());
-            winnerState.setCurrentTurnIndex(state.getCurrentTurnIndex());
-            winnerState.setRoundCount(state.getRoundCount());
-            winnerState.setFinished(true);
-            winnerState.setLogs(state.getLogs());
-            winnerState.setCooldowns(state.getCooldowns());
-            winnerState.setPlayer1Id(state.getPlayer1Id());
-            winnerState.setPlayer2Id(state.getPlayer2Id());
-            winnerState.setPlayer1Name(state.getPlayer1Name());
-            winnerState.setPlayer2Name(state.getPlayer2Name());
-            winnerState.setCurrentUserId(winnerId);
+            BattleState abandonerState = viewFor(state, abandonningUserId);
+            BattleState winnerState = viewFor(state, winnerId);
             
             // Envoyer les états personnalisés à chaque joueur
-            User player1 = userRepository.findById(Long.parseLong(state.getPlayer1Id()))
-                .orElseThrow(() -> new RuntimeException("Joueur 1 non trouvé"));
-            User player2 = userRepository.findById(Long.parseLong(state.getPlayer2Id()))
-                .orElseThrow(() -> new RuntimeException("Joueur 2 non trouvé"));
+            String player1Email = emailOf(battleId, state.getPlayer1Id());
+            String player2Email = emailOf(battleId, state.getPlayer2Id());
             
             if (state.getPlayer1Id().equals(abandonningUserId)) {
                 // Player1 abandonne, Player2 gagne
                 messaging.convertAndSendToUser(
-                    player1.getEmail(),
+                    player1Email,
                     "/queue/rta/state/" + battleId,
                     abandonerState
                 );
                 messaging.convertAndSendToUser(
-                    player2.getEmail(),
+                    player2Email,
                     "/queue/rta/state/" + battleId,
                     winnerState
                 );
             } else {
                 // Player2 abandonne, Player1 gagne
                 messaging.convertAndSendToUser(
-                    player1.getEmail(),
+                    player1Email,
                     "/queue/rta/state/" + battleId,
                     winnerState
                 );
                 messaging.convertAndSendToUser(
-                    player2.getEmail(),
+                    player2Email,
                     "/queue/rta/state/" + battleId,
                     abandonerState
                 );
@@ -400,16 +322,65 @@ public class RtaWebSocketController {
     public void heartbeat(Principal principal) {
         // Log à un niveau debug pour ne pas surcharger les logs
         log.debug("Heartbeat reçu de {}", principal.getName());
+        // Le joueur est toujours là : son combat reste actif
+        sessionStore.touchPlayer(principal.getName());
+    }
+
+    /**
+     * Déconnexion WebSocket : le joueur dispose d'un délai de grâce pour revenir
+     * avant de perdre son combat par abandon.
+     */
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Principal principal = event.getUser();
+        if (principal != null) {
+            sessionStore.playerDisconnected(principal.getName());
+        }
+    }
+
+    /**
+     * Délai de grâce écoulé sans reconnexion : abandon du joueur déconnecté.
+     */
+    @EventListener
+    public void onPlayerDisconnected(RtaPlayerDisconnectedEvent event) {
+        userRepository.findByEmail(event.getPlayerEmail()).ifPresent(user ->
+            executeInLane(event.getBattleId(), () -> processForfeit(event.getBattleId(), user)));
+    }
+
+    /**
+     * Combat retiré pour inactivité : prévenir les joueurs encore abonnés.
+     * L'état est modifié et sérialisé dans le couloir du combat, après une éventuelle action en cours ;
+     * le couloir, vidé, se retire ensuite de lui-même.
+     */
+    @EventListener
+    public void onBattleEvicted(RtaBattleEvictedEvent event) {
+        battleLanes.execute(event.getBattleId(), () -> {
+            BattleState state = event.getState();
+            state.setFinished(true);
+            messaging.convertAndSend("/topic/rta/end/" + event.getBattleId(), state);
+        });
     }
     
     /**
-     * Endpoint pour vérifier l'état d'un combat
-     * Permet aux clients de demander l'état actuel de la bataille
+     * Endpoint pour vérifier l'état d'un combat (resync)
+     * Permet aux clients de demander l'état actuel de la bataille, par exemple
+     * lorsqu'un patch reçu ne s'applique pas sur leur version : un snapshot complet
+     * et versionné est renvoyé sur "/user/queue/rta/state/{battleId}"
      */
-    @MessageMapping("/rta/check-state")
+    @MessageMapping({"/rta/check-state", "/rta/resync"})
     public void checkState(String battleId, Principal principal) {
         log.info("Vérification d'état demandée pour la bataille {} par {}", battleId, principal.getName());
-        
+        if (battleId == null) {
+            return;
+        }
+        sessionStore.touchPlayer(principal.getName());
+        // Le snapshot est construit dans le couloir du combat : jamais au milieu d'une action
+        if (!executeInLane(battleId, () -> processCheckState(battleId, principal))) {
+            messaging.convertAndSendToUser(principal.getName(), "/queue/rta/error", "Bataille introuvable");
+        }
+    }
+
+    private void processCheckState(String battleId, Principal principal) {
         try {
             User user = userRepository.findByEmail(principal.getName())
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -445,14 +416,11 @@ public class RtaWebSocketController {
                         }
                     }
                     
-                    // Ajouter userId pour personnaliser l'état
-                    state.setCurrentUserId(user.getId().toString());
-                    
-                    // Envoyer l'état corrigé
+                    // Envoyer un snapshot personnalisé (sans modifier l'état partagé)
                     messaging.convertAndSendToUser(
                         principal.getName(),
                         "/queue/rta/state/" + battleId, 
-                        state
+                        viewFor(state, user.getId().toString())
                     );
                     
                     log.info("État envoyé à {} pour la bataille {}", principal.getName(), battleId);
@@ -489,4 +457,56 @@ public class RtaWebSocketController {
             );
         }
     }
+
+    /**
+     * Confie une tâche au couloir d'un combat suivi par ce nœud ou reprenable depuis son snapshot.
+     * @return false si le combat est inconnu : aucun couloir n'est créé
+     */
+    private boolean executeInLane(String battleId, Runnable task) {
+        if (!sessionStore.isKnown(battleId)) {
+            log.warn("Message ignoré pour un combat inconnu : {}", battleId);
+            return false;
+        }
+        battleLanes.execute(battleId, task);
+        return true;
+    }
+
+    /**
+     * Email d'un joueur du combat, tel qu'enregistré à sa mise en place (pas de lecture en base).
+     */
+    private String emailOf(String battleId, String playerId) {
+        String email = sessionStore.playerEmail(battleId, playerId);
+        if (email == null) {
+            throw new IllegalStateException("Joueur " + playerId + " absent du combat " + battleId);
+        }
+        return email;
+    }
+
+    /**
+     * Crée le snapshot de l'état envoyé à un joueur : mêmes données de combat (version comprise),
+     * identifiant du destinataire et journal complet encore disponible.
+     * Les statistiques des participants incluent les effets actifs, comme dans les patchs.
+     */
+    private BattleState viewFor(BattleState state, String userId) {
+        BattleState view = new BattleState();
+        view.setBattleId(state.getBattleId());
+        view.setParticipants(state.getParticipants().stream()
+            .map(p -> new BattleParticipant(p.getId(), p.getName(), p.getMaxHp(), p.getCurrentHp(),
+                state.attackOf(p), state.defenseOf(p), state.speedOf(p),
+                p.isPlayer(), p.getUserId(), p.getHeroId(), p.getSlot()))
+            .toList());
+        view.setCurrentTurnIndex(state.getCurrentTurnIndex());
+        view.setRoundCount(state.getRoundCount());
+        view.setFinished(state.isFinished());
+        view.setLoadout(state.getLoadout());
+        view.setCooldownTable(state.getCooldownTable());
+        view.setEventLog(state.getEventLog());
+        view.setVersion(state.getVersion());
+        view.setPlayer1Id(state.getPlayer1Id());
+        view.setPlayer2Id(state.getPlayer2Id());
+        view.setPlayer1Name(state.getPlayer1Name());
+        view.setPlayer2Name(state.getPlayer2Name());
+        view.setCurrentUserId(userId);
+        return view;
+    }
 }
@@ -23,10 +23,12 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class SimpleBattleStateDTO {
 
+    private String battleId;     // Identifiant du combat, à renvoyer pour les actions suivantes
     private List<ParticipantDTO> participants;
     private int currentTurnIndex; // Index du participant dont c'est le tour
     private boolean finished;   // Indique si la bataille est terminée
-    private List<String> logs;   // Logs de la bataille
+    private List<String> logs;   // Logs de la bataille (événements depuis le curseur demandé)
+    private long logSequence;    // Curseur à renvoyer pour ne recevoir que les logs suivants
     private int roundCount = 1; // Nombre de tours effectués
     private Map<Long, Map<Long, Integer>> cooldowns;  // Cooldowns des compétences
 
@@ -37,13 +39,23 @@ public class SimpleBattleStateDTO {
      * @param state L'état de la bataille simple à partir duquel initialiser le DTO.
      */
     public SimpleBattleStateDTO(BattleState state) {
+        this(state, state.getLogsSince());
+    }
 
+    /**
+     * Constructeur limitant les logs aux événements de séquence &gt;= logsSince.
+     * @param state L'état de la bataille.
+     * @param logsSince Dernier curseur reçu par le client (0 pour tout le journal disponible).
+     */
+    public SimpleBattleStateDTO(BattleState state, long logsSince) {
+        this.battleId = state.getBattleId();
         this.participants = state.getParticipants().stream()
-                .map(ParticipantDTO::new)
+                .map(p -> new ParticipantDTO(p, state))
                 .collect(Collectors.toList());
         this.currentTurnIndex = state.getCurrentTurnIndex();
         this.finished = state.isFinished();
-        this.logs = state.getLogs();
+        this.logs = state.getEventLog().render(logsSince, state);
+        this.logSequence = state.getLogSequence();
         this.cooldowns = state.getCooldowns();
         this.roundCount = state.getRoundCount();
     }
@@ -66,14 +78,17 @@ public class SimpleBattleStateDTO {
         private int speed;
         private boolean isPlayer;
 
-        public ParticipantDTO(BattleParticipant p) {
+        /**
+         * Statistiques lues sur l'état du combat : buffs et débuffs actifs compris.
+         */
+        public ParticipantDTO(BattleParticipant p, BattleState state) {
             this.id = p.getId();
             this.name = p.getName();
             this.maxHp = p.getMaxHp();
             this.currentHp = p.getCurrentHp();
-            this.attack = p.getAttack();
-            this.defense = p.getDefense();
-            this.speed = p.getSpeed();
+            this.attack = state.attackOf(p);
+            this.defense = state.defenseOf(p);
+            this.speed = state.speedOf(p);
             this.isPlayer = p.isPlayer();
         }
     }
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 
 /**
  * Représente une action de compétence dans un combat :
+ * - Le combat concerné
  * - Le héros qui agit
  * - La compétence choisie
  * - La cible
@@ -15,6 +16,7 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class SimpleSkillActionRequest {
+    private String battleId;
     private Long playerHeroId; 
     private Long skillId;
     private Long targetId;
@@ -17,6 +17,6 @@ import lombok.NoArgsConstructor;
 public class SkillActionResultDTO {
     private SimpleBattleStateDTO battleState;
     private int damageDealt;
-    private Long targetId;
+    private Long targetId;       // null si l'action a été refusée (compétence, cible ou tour invalide)
     private String type; // "DAMAGE" ou "HEAL"
 }
@@ -0,0 +1,23 @@
+package com.epic7.backend.dto.rta;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO résumant un combat RTA terminé, vu par l'un des deux joueurs.
+ * Le replay complet s'obtient séparément via son battleId.
+ */
+@Data
+@AllArgsConstructor
+public class RtaMatchSummaryDTO {
+    private String battleId;
+    private Long opponentId;
+    private String result;       // "WIN", "LOSS" ou "DRAW"
+    private boolean rated;       // false : abandon ou nul, sans points
+    private int pointsChange;    // Points RTA gagnés ou perdus par le joueur
+    private int turns;           // Nombre d'actions jouées
+    private int replaySize;      // Taille du replay en octets
+    private Instant finishedAt;
+}
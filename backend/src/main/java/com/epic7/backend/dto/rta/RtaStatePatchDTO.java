@@ -0,0 +1,59 @@
+package com.epic7.backend.dto.rta;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Patch d'état RTA envoyé après chaque action sur "/topic/rta/patch/{battleId}".
+ * Ne contient que ce qui a changé depuis la version précédente ; le client applique
+ * le patch si baseVersion correspond à sa version, sinon il demande un resync
+ * ("/app/rta/resync") et reçoit un snapshot complet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RtaStatePatchDTO {
+    private String battleId;
+    private long baseVersion;      // Version sur laquelle appliquer le patch
+    private long version;          // Version obtenue après application
+    private int currentTurnIndex;
+    private int roundCount;
+    private boolean finished;
+    private List<ParticipantPatch> participants;  // Participants modifiés uniquement
+    private List<CooldownPatch> cooldowns;        // Cooldowns modifiés uniquement
+    private List<String> logs;                    // Nouveaux événements
+    private long logSequence;                     // Curseur des logs après ce patch
+
+    /**
+     * Valeurs modifiées d'un participant (null = inchangé).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ParticipantPatch {
+        private Long id;
+        private Integer currentHp;
+        private Integer attack;
+        private Integer defense;
+        private Integer speed;
+    }
+
+    /**
+     * Nouveau cooldown restant d'une compétence.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CooldownPatch {
+        private Long participantId;
+        private Long skillId;
+        private int remaining;
+    }
+}
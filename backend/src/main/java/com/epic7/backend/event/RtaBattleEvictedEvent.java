@@ -0,0 +1,21 @@
+package com.epic7.backend.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import com.epic7.backend.service.battle.state.BattleState;
+
+/**
+ * Événement publié lorsqu'un combat RTA inactif est retiré du stockage des sessions.
+ */
+@Getter
+public class RtaBattleEvictedEvent extends ApplicationEvent {
+    private final String battleId;
+    private final BattleState state;
+
+    public RtaBattleEvictedEvent(String battleId, BattleState state) {
+        super(battleId);
+        this.battleId = battleId;
+        this.state = state;
+    }
+}
@@ -0,0 +1,24 @@
+package com.epic7.backend.event;
+
+import com.epic7.backend.model.User;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Événement publié lorsque le matchmaking a créé un combat RTA entre deux joueurs :
+ * les joueurs doivent recevoir l'identifiant du combat et son état initial.
+ */
+@Getter
+public class RtaMatchFoundEvent extends ApplicationEvent {
+    private final String battleId;
+    private final User player1;
+    private final User player2;
+
+    public RtaMatchFoundEvent(String battleId, User player1, User player2) {
+        super(battleId);
+        this.battleId = battleId;
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+}
@@ -0,0 +1,20 @@
+package com.epic7.backend.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Événement publié lorsqu'un joueur RTA déconnecté n'est pas revenu avant la fin du délai de grâce :
+ * le combat doit être déclaré perdu par abandon pour ce joueur.
+ */
+@Getter
+public class RtaPlayerDisconnectedEvent extends ApplicationEvent {
+    private final String battleId;
+    private final String playerEmail;
+
+    public RtaPlayerDisconnectedEvent(String battleId, String playerEmail) {
+        super(battleId);
+        this.battleId = battleId;
+        this.playerEmail = playerEmail;
+    }
+}
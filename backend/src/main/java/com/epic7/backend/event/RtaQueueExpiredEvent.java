@@ -0,0 +1,20 @@
+package com.epic7.backend.event;
+
+import com.epic7.backend.model.User;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Événement publié lorsqu'un joueur est retiré de la file RTA après avoir attendu trop longtemps :
+ * il doit être prévenu pour relancer une recherche.
+ */
+@Getter
+public class RtaQueueExpiredEvent extends ApplicationEvent {
+    private final User user;
+
+    public RtaQueueExpiredEvent(User user) {
+        super(user);
+        this.user = user;
+    }
+}
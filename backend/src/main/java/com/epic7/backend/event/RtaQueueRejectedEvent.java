@@ -0,0 +1,22 @@
+package com.epic7.backend.event;
+
+import com.epic7.backend.model.User;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Événement publié lorsqu'un joueur est retiré de la file RTA parce que son combat ne peut pas être créé
+ * (équipe invalide) : il doit être prévenu de la raison.
+ */
+@Getter
+public class RtaQueueRejectedEvent extends ApplicationEvent {
+    private final User user;
+    private final String reason;
+
+    public RtaQueueRejectedEvent(User user, String reason) {
+        super(user);
+        this.user = user;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,17 @@
+package com.epic7.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * Équipe RTA inutilisable (héros introuvable ou appartenant à un autre joueur).
+ * L'échec vient d'un seul joueur et se reproduirait à chaque nouvel appariement : il est retiré de la file.
+ */
+@Getter
+public class InvalidRtaTeamException extends IllegalArgumentException {
+    private final String userId;
+
+    public InvalidRtaTeamException(String userId, String message) {
+        super(message);
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.epic7.backend.exception;
+
+/**
+ * Nombre maximum de combats RTA simultanés atteint sur ce nœud.
+ * Réessayer aussitôt échouerait de la même façon : les joueurs appariés sont prévenus plutôt que remis en file.
+ */
+public class RtaCapacityExceededException extends IllegalStateException {
+
+    public RtaCapacityExceededException(String message) {
+        super(message);
+    }
+}
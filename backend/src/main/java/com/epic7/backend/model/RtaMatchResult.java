@@ -0,0 +1,83 @@
+package com.epic7.backend.model;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Historique d'un combat RTA terminé : joueurs, résultat appliqué (points, victoires/défaites,
+ * diamants) et replay compact. Les lignes ne sont qu'insérées, jamais modifiées.
+ * La clé est l'identifiant du combat : un résultat ne peut être attribué qu'une fois,
+ * même si son écriture est rejouée.
+ */
+@Entity
+@Table(name = "rta_match_results", indexes = {
+    @Index(name = "idx_rta_match_player1", columnList = "player1Id, finishedAt"),
+    @Index(name = "idx_rta_match_player2", columnList = "player2Id, finishedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RtaMatchResult implements Persistable<String> {
+
+    @Id
+    private String battleId;
+
+    private Long player1Id;
+
+    private Long player2Id;
+
+    private Long winnerId; // null en cas de match nul
+
+    private boolean rated; // false : combat historisé sans points ni récompense (abandon, nul)
+
+    private Long loserId; // null si l'adversaire est introuvable
+
+    private int winnerPointsChange; // Points RTA gagnés par le vainqueur
+
+    private int loserPointsChange; // Points RTA perdus par le perdant (négatif)
+
+    private int rewardDiamonds; // Diamants attribués au vainqueur
+
+    private int turns; // Nombre d'actions jouées
+
+    private byte[] replay; // Replay compact (voir BattleReplay)
+
+    private Instant finishedAt;
+
+    // Identifiant attribué par l'application : toujours une insertion, sans SELECT préalable
+    @Transient
+    @Builder.Default
+    private boolean newResult = true;
+
+    @Override
+    public String getId() {
+        return battleId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newResult;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newResult = false;
+    }
+}
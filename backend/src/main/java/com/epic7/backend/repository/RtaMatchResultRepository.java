@@ -0,0 +1,23 @@
+package com.epic7.backend.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.epic7.backend.model.RtaMatchResult;
+
+public interface RtaMatchResultRepository extends JpaRepository<RtaMatchResult, String> {
+
+    // Combats dont le résultat est déjà enregistré, parmi ceux d'un lot
+    @Query("SELECT r.battleId FROM RtaMatchResult r WHERE r.battleId IN :battleIds")
+    Set<String> findRecordedBattleIds(@Param("battleIds") Collection<String> battleIds);
+
+    // Derniers combats d'un joueur, du plus récent au plus ancien
+    @Query("SELECT r FROM RtaMatchResult r WHERE r.player1Id = :userId OR r.player2Id = :userId ORDER BY r.finishedAt DESC")
+    List<RtaMatchResult> findRecentByPlayer(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,84 @@
+package com.epic7.backend.service;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.Skill;
+import com.epic7.backend.repository.SkillRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalogue en mémoire des compétences, indexé par héros et par compétence.
+ * Il est construit une seule fois au démarrage depuis le SkillRepository, après les seeders :
+ * ce sont les seuls à écrire des compétences, une modification en base demande un redémarrage.
+ * Les lectures faites pendant un combat ne touchent donc jamais la base de données.
+ * Les DTO renvoyés sont partagés : ils ne doivent pas être modifiés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SkillCatalog {
+
+    private final SkillRepository skillRepository;
+    private final SkillService skillService;
+
+    // Instantané immuable remplacé d'un bloc à chaque rechargement
+    private volatile Map<Long, List<SkillDTO>> skillsByHero;
+
+    /**
+     * Recharge toutes les compétences depuis la base.
+     * Appelé au démarrage de l'application, après les seeders.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<Long, List<SkillDTO>> byHero = new HashMap<>();
+        int count = 0;
+
+        for (Skill skill : skillRepository.findAll()) {
+            SkillDTO dto = skillService.toDTO(skill);
+            count++;
+            if (skill.getHero() != null) {
+                byHero.computeIfAbsent(skill.getHero().getId(), k -> new ArrayList<>()).add(dto);
+            }
+        }
+
+        Map<Long, List<SkillDTO>> frozen = new HashMap<>();
+        byHero.forEach((heroId, skills) -> {
+            skills.sort(Comparator.comparing(SkillDTO::getPosition, Comparator.nullsLast(Comparator.naturalOrder())));
+            frozen.put(heroId, List.copyOf(skills));
+        });
+
+        skillsByHero = Map.copyOf(frozen);
+        log.info("Catalogue de compétences chargé : {} compétences pour {} héros", count, frozen.size());
+    }
+
+    /**
+     * Compétences d'un héros (entité Hero), triées par position.
+     * @return une liste vide si le héros est inconnu ou n'a pas de compétences
+     */
+    public List<SkillDTO> getSkillsForHero(Long heroId) {
+        if (heroId == null) {
+            return List.of();
+        }
+        return current().getOrDefault(heroId, List.of());
+    }
+
+    private Map<Long, List<SkillDTO>> current() {
+        Map<Long, List<SkillDTO>> s = skillsByHero;
+        if (s == null) {
+            // Utilisé avant ApplicationReadyEvent (ex: seeders) : chargement à la demande
+            refresh();
+            s = skillsByHero;
+        }
+        return s;
+    }
+}
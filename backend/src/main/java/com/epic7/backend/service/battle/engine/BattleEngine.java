@@ -1,20 +1,41 @@
 package com.epic7.backend.service.battle.engine;
 
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
 import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.state.TurnScheduler;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BattleEngine {
 
     private final PassiveSkillProcessor passiveSkillProcessor;
 
+    /**
+     * Démarre le combat : passifs ON_BATTLE_START, début de tour du premier participant,
+     * puis tours du boss jusqu'au premier joueur.
+     */
+    public BattleState startBattle(BattleState state) {
+        passiveSkillProcessor.handleBattleStart(state);
+        passiveSkillProcessor.handleTurnStartPassives(state, state.getParticipants().get(state.getCurrentTurnIndex()));
+        return processUntilNextPlayer(state);
+    }
+
+    /**
+     * Passifs déclenchés par les PV modifiés depuis le dernier appel (K.O., PV bas).
+     * @param sourceSlot auteur des dégâts, -1 si aucun
+     */
+    public void dispatchHpTriggers(BattleState state, int sourceSlot) {
+        passiveSkillProcessor.handleHpTriggers(state, sourceSlot);
+    }
+
     /**
      * Gère la logique de tour : si c’est un boss → attaque. Sinon → attend l’action du joueur.
      */
@@ -25,22 +46,21 @@ public class BattleEngine {
             if (current.isPlayer())
                 break; // à toi de jouer !
 
-            // Sinon le boss joue
-            List<BattleParticipant> targets = state.getParticipants().stream()
-                    .filter(p -> p.isPlayer() && p.getCurrentHp() > 0)
-                    .toList();
-
-            if (targets.isEmpty()) {
-                state.getLogs().add("❌ Tous les héros sont morts.");
+            // Sinon le boss joue, sur un héros vivant tiré au hasard
+            int livingHeroes = state.aliveCount(BattleState.TEAM_1);
+            if (livingHeroes == 0) {
+                state.addEvent(BattleEventType.ALL_HEROES_DEAD, -1, -1, 0);
                 state.setFinished(true);
                 return state;
             }
 
-            BattleParticipant target = targets.get(new Random().nextInt(targets.size()));
-            int damage = Math.max(1, current.getAttack() - target.getDefense());
-            target.setCurrentHp(Math.max(0, target.getCurrentHp() - damage));
+            int targetSlot = state.nthAlive(BattleState.TEAM_1, state.getRandom().nextInt(livingHeroes));
+            BattleParticipant target = state.getParticipants().get(targetSlot);
+            int damage = Math.max(1, state.attackOf(current) - state.defenseOf(target));
+            state.setHp(target, Math.max(0, target.getCurrentHp() - damage));
 
-            state.getLogs().add(current.getName() + " (Boss) attaque " + target.getName() + " et inflige " + damage + " dégâts.");
+            state.addEvent(BattleEventType.BOSS_ATTACK, current.getSlot(), target.getSlot(), damage);
+            passiveSkillProcessor.handleHpTriggers(state, current.getSlot());
 
             if (checkEnd(state)) return state;
 
@@ -50,88 +70,80 @@ public class BattleEngine {
     }
 
     /**
-     * Passe au participant suivant et applique les effets de début de tour.
+     * Passe au participant vivant dont la jauge d'action se remplit en premier (voir {@link TurnScheduler}),
+     * et applique les effets de début de tour.
      */
     public void nextTurn(BattleState state) {
-        int size = state.getParticipants().size();
-        int currentIndex = state.getCurrentTurnIndex();
-        
-        // Log pour débogage
-        state.getLogs().add("ℹ️ Passage au tour suivant, index actuel: " + currentIndex);
-
-        // Vérifier si l'index actuel est valide
-        if (currentIndex < 0 || currentIndex >= size) {
-            state.getLogs().add("⚠️ Index de tour invalide, réinitialisation à 0");
-            currentIndex = 0;
+        int previous = state.getCurrentTurnIndex();
+        if (state.isAlive(previous)) {
+            passiveSkillProcessor.handleTurnEnd(state, previous);
         }
 
-        // Compteur pour éviter une boucle infinie
-        int attempts = 0;
-
-        for (int i = 1; i <= size * 2; i++) {  // Multiplié par 2 pour s'assurer de faire un tour complet
-            int nextIndex = (currentIndex + i) % size;
-            
-            // Vérifier si l'index est valide
-            if (nextIndex < 0 || nextIndex >= state.getParticipants().size()) {
-                state.getLogs().add("⚠️ Calcul d'index invalide: " + nextIndex + ", réinitialisation à 0");
-                nextIndex = 0;
-            }
-            
-            BattleParticipant next = state.getParticipants().get(nextIndex);
-
-            // Passer au tour de ce héros s'il est vivant
-            if (next != null && next.getCurrentHp() > 0) {
-                if (nextIndex <= currentIndex) {
-                    state.setRoundCount(state.getRoundCount() + 1);
-                    state.getLogs().add("🔁 Début du tour " + state.getRoundCount());
-                }
-
-                state.setCurrentTurnIndex(nextIndex);
-                state.reduceCooldownsForHero(next.getId());
-                passiveSkillProcessor.handleTurnStartPassives(state, next);
-                
-                state.getLogs().add("👉 Au tour de " + next.getName() + " (index: " + nextIndex + ")");
+        TurnScheduler scheduler = state.turnScheduler();
+        int nextIndex;
+        do {
+            nextIndex = scheduler.next(state);
+            if (nextIndex < 0) {
+                // Aucun survivant => fin du combat
+                state.addEvent(BattleEventType.NO_SURVIVOR, -1, -1, 0);
+                state.setFinished(true);
                 return;
             }
-            
-            attempts++;
-            if (attempts >= size * 2) {
-                state.getLogs().add("⚠️ Impossible de trouver un participant vivant après plusieurs tentatives");
-                break;
+
+            if (scheduler.isNewRound()) {
+                state.setRoundCount(state.getRoundCount() + 1);
+                state.addEvent(BattleEventType.ROUND_STARTED, -1, -1, state.getRoundCount());
             }
+
+            log.debug("Passage au tour suivant : {} -> {}", state.getCurrentTurnIndex(), nextIndex);
+            state.setCurrentTurnIndex(nextIndex);
+
+            // Expiration des effets et dégâts sur la durée : un participant mis K.O. perd son tour
+        } while (!startTurnEffects(state, nextIndex) && !checkEnd(state));
+
+        if (state.isFinished()) {
+            return;
         }
+        BattleParticipant next = state.getParticipants().get(nextIndex);
+        state.reduceCooldownsForSlot(nextIndex);
+        passiveSkillProcessor.handleTurnStartPassives(state, next);
+
+        state.addEvent(BattleEventType.TURN_STARTED, nextIndex, -1, 0);
+    }
 
-        // Aucun survivant => fin du combat
-        state.getLogs().add("❌ Aucun participant vivant trouvé, fin du combat");
-        state.setFinished(true);
+    private boolean startTurnEffects(BattleState state, int slot) {
+        boolean alive = state.startTurnEffects(slot);
+        passiveSkillProcessor.handleHpTriggers(state, -1);
+        return alive;
     }
 
     /**
      * Vérifie si un des deux camps a gagné.
      */
     public boolean checkEnd(BattleState state) {
-        // Vérifier si c'est un combat RTA (joueur vs joueur)
-        if (state.getPlayer1Id() != null && state.getPlayer2Id() != null) {
-            // Pour les combats RTA, la logique est gérée par RtaBattleServiceImpl.checkBattleEnd()
-            // Ne pas terminer le combat ici
-            return false;
+        // Combat RTA (joueur vs joueur) : fin quand un des deux joueurs n'a plus de héros vivant.
+        // Les messages de victoire et les récompenses restent gérés par RtaBattleServiceImpl.
+        // Les vivants sont tenus à jour par BattleState : vérification en O(1).
+        if (isRta(state)) {
+            if (state.isTeamAlive(BattleState.TEAM_1) && state.isTeamAlive(BattleState.TEAM_2)) {
+                return false;
+            }
+            state.setFinished(true);
+            return true;
         }
         
         // Sinon c'est un combat contre un boss (PvE)
-        boolean allPlayersDead = state.getParticipants().stream()
-                .noneMatch(p -> p.isPlayer() && p.getCurrentHp() > 0);
-
-        boolean bossDead = state.getParticipants().stream()
-                .noneMatch(p -> !p.isPlayer() && p.getCurrentHp() > 0);
+        boolean allPlayersDead = !state.isTeamAlive(BattleState.TEAM_1);
+        boolean bossDead = !state.isTeamAlive(BattleState.TEAM_2);
 
         if (allPlayersDead) {
-            state.getLogs().add("❌ Tous vos héros sont morts. Défaite.");
+            state.addEvent(BattleEventType.DEFEAT, -1, -1, 0);
             state.setFinished(true);
             return true;
         }
 
         if (bossDead) {
-            state.getLogs().add("🎉 Le boss est vaincu. Victoire !");
+            state.addEvent(BattleEventType.VICTORY, -1, -1, 0);
             state.setFinished(true);
             return true;
         }
@@ -140,7 +152,30 @@ public class BattleEngine {
     }
 
     /**
-     * Trie les participants par vitesse décroissante pour l’ordre de tour initial.
+     * Indique si le combat oppose deux joueurs (RTA).
+     */
+    public boolean isRta(BattleState state) {
+        return state.getPlayer1Id() != null && state.getPlayer2Id() != null;
+    }
+
+    /**
+     * Détermine le gagnant d'un combat RTA.
+     * @return l'ID du joueur qui a encore des héros vivants alors que l'adversaire n'en a plus,
+     *         ou null si le combat n'est pas décidé (ou match nul)
+     */
+    public String findRtaWinnerId(BattleState state) {
+        boolean player1Alive = state.isTeamAlive(BattleState.TEAM_1);
+        boolean player2Alive = state.isTeamAlive(BattleState.TEAM_2);
+        if (player1Alive == player2Alive) {
+            return null;
+        }
+        return player1Alive ? state.getPlayer1Id() : state.getPlayer2Id();
+    }
+
+
+    /**
+     * Trie les participants par vitesse décroissante : le plus rapide ouvre le combat,
+     * les tours suivants sont ensuite réglés par les jauges d'action.
      */
     public void sortParticipantsBySpeed(List<BattleParticipant> participants) {
         participants.sort(Comparator.comparingInt(BattleParticipant::getSpeed).reversed());
@@ -0,0 +1,89 @@
+package com.epic7.backend.service.battle.engine;
+
+import com.epic7.backend.service.battle.model.BattleMode;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Métriques du moteur de combat, étiquetées par mode (RTA, BOSS).
+ * Les compteurs sont créés une fois par mode : enregistrer une mesure ne fait aucune recherche dans le registre.
+ * Le nombre d'actions par seconde se lit sur le compteur du timer {@code battle.action}.
+ */
+@Component
+public class BattleMetrics {
+
+    private final Map<BattleMode, Timer> actions = new EnumMap<>(BattleMode.class);
+    private final Map<BattleMode, Counter> engineErrors = new EnumMap<>(BattleMode.class);
+    private final Map<BattleMode, DistributionSummary> turns = new EnumMap<>(BattleMode.class);
+    private final DistributionSummary broadcastSize;
+
+    public BattleMetrics(MeterRegistry meterRegistry) {
+        for (BattleMode mode : BattleMode.values()) {
+            String tag = mode.name();
+            actions.put(mode, Timer.builder("battle.action")
+                    .tag("mode", tag)
+                    .description("Durée d'exécution d'une action de combat")
+                    .register(meterRegistry));
+            engineErrors.put(mode, Counter.builder("battle.engine.errors")
+                    .tag("mode", tag)
+                    .description("Exceptions levées par le moteur pendant une action")
+                    .register(meterRegistry));
+            turns.put(mode, DistributionSummary.builder("battle.turns")
+                    .tag("mode", tag)
+                    .description("Tours joués par combat terminé")
+                    .register(meterRegistry));
+        }
+        // Seul le RTA diffuse l'état (STOMP) ; le mode boss répond à chaque requête HTTP
+        broadcastSize = DistributionSummary.builder("battle.broadcast.size")
+                .tag("mode", BattleMode.RTA.name())
+                .baseUnit("bytes")
+                .description("Taille des messages d'état diffusés aux joueurs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute une action en mesurant sa durée ; une exception du moteur est comptée puis relancée.
+     */
+    public <T> T recordAction(BattleMode mode, Supplier<T> action) {
+        return actions.get(mode).record(() -> {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                engineErrors.get(mode).increment();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Compte une erreur du moteur rattrapée sans interrompre l'action (passif en erreur).
+     */
+    public void engineError(BattleState state) {
+        // Même critère que BattleEngine#isRta : deux joueurs
+        BattleMode mode = state.getPlayer1Id() != null && state.getPlayer2Id() != null ? BattleMode.RTA : BattleMode.BOSS;
+        engineErrors.get(mode).increment();
+    }
+
+    /**
+     * Enregistre la durée d'un combat terminé, en tours joués.
+     */
+    public void battleFinished(BattleMode mode, BattleState state) {
+        turns.get(mode).record(state.turnCount());
+    }
+
+    /**
+     * Enregistre la taille d'un message d'état RTA diffusé.
+     */
+    public void broadcast(int bytes) {
+        broadcastSize.record(bytes);
+    }
+}
@@ -0,0 +1,400 @@
+package com.epic7.backend.service.battle.engine;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.dto.boss.SkillActionResultDTO;
+import com.epic7.backend.model.Hero;
+import com.epic7.backend.service.battle.model.BattleMode;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleRandom;
+import com.epic7.backend.service.battle.state.BattleReplay;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Simulateur de combats "headless".
+ * Joue des combats complets (PvE ou RTA) entièrement en mémoire, sans Spring ni transaction,
+ * en réutilisant les règles de tour du {@link BattleEngine} et les formules du {@link SkillEngine}.
+ * Les lots de combats sont répartis sur un {@link ForkJoinPool}.
+ * Utilisé pour l'équilibrage (matrices de taux de victoire) et comme banc d'essai CPU du moteur.
+ */
+@Service
+public class BattleSimulator {
+
+    /** Nombre maximum d'actions de joueur avant de déclarer un match nul. */
+    public static final int DEFAULT_MAX_ACTIONS = 500;
+
+    /** Graine par défaut des simulations : deux exécutions identiques donnent les mêmes résultats. */
+    public static final long DEFAULT_SEED = 0L;
+
+    // En dessous de ce nombre de combats, une tâche n'est plus découpée
+    private static final int SPLIT_THRESHOLD = 32;
+
+    private static final String TEAM1_USER_ID = "1";
+    private static final String TEAM2_USER_ID = "2";
+
+    private final BattleEngine battleEngine;
+    private final SkillEngine skillEngine;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public BattleSimulator(BattleEngine battleEngine, SkillEngine skillEngine) {
+        this(battleEngine, skillEngine, ForkJoinPool.commonPool());
+    }
+
+    public BattleSimulator(BattleEngine battleEngine, SkillEngine skillEngine, ForkJoinPool pool) {
+        this.battleEngine = battleEngine;
+        this.skillEngine = skillEngine;
+        this.pool = pool;
+    }
+
+    /**
+     * Crée un simulateur autonome, utilisable hors contexte Spring (outils d'équilibrage, benchmarks).
+     */
+    public static BattleSimulator standalone(ForkJoinPool pool) {
+        BattleEngine battleEngine = new BattleEngine(new PassiveSkillProcessor());
+        return new BattleSimulator(battleEngine, new SkillEngine(battleEngine), pool);
+    }
+
+    /**
+     * Description d'un combat à simuler.
+     * En mode BOSS, team1 contient les héros du joueur et team2 le ou les boss.
+     * Les participants servent de modèles : ils sont copiés à chaque combat.
+     * Une même configuration (graine comprise) donne toujours le même combat.
+     */
+    public record BattleSetup(BattleMode mode,
+                              List<BattleParticipant> team1,
+                              List<BattleParticipant> team2,
+                              Function<Long, List<SkillDTO>> skillsByHero,
+                              int maxActions,
+                              long seed) {
+
+        public BattleSetup(BattleMode mode,
+                           List<BattleParticipant> team1,
+                           List<BattleParticipant> team2,
+                           Function<Long, List<SkillDTO>> skillsByHero,
+                           int maxActions) {
+            this(mode, team1, team2, skillsByHero, maxActions, DEFAULT_SEED);
+        }
+    }
+
+    /**
+     * Résultat d'un combat simulé.
+     * @param winningTeam 1 ou 2, ou 0 pour un match nul (y compris limite d'actions atteinte)
+     * @param actions nombre d'actions jouées par les joueurs
+     * @param rounds nombre de tours complets
+     */
+    public record BattleOutcome(int winningTeam, int actions, int rounds) {
+        public boolean isDraw() {
+            return winningTeam == 0;
+        }
+    }
+
+    /**
+     * Joue un combat complet dans le thread courant.
+     */
+    public BattleOutcome simulate(BattleSetup setup) {
+        BattleState state = newBattleState(setup);
+        int actions = 0;
+
+        battleEngine.startBattle(state);
+        while (!state.isFinished() && actions < setup.maxActions()) {
+            playTurn(state);
+            actions++;
+            if (setup.mode() == BattleMode.BOSS) {
+                battleEngine.processUntilNextPlayer(state);
+            }
+        }
+
+        return new BattleOutcome(winningTeam(setup.mode(), state), actions, state.getRoundCount());
+    }
+
+    /**
+     * Rejoue un combat RTA enregistré : mêmes participants, mêmes compétences (celles enregistrées
+     * dans le replay, pas celles du catalogue actuel), même graine, mêmes actions,
+     * enchaînées comme dans RtaBattleServiceImpl#applySkillAction.
+     * @return l'état final du combat rejoué
+     */
+    public BattleState replay(BattleReplay replay) {
+        List<BattleParticipant> participants = replay.participants();
+        BattleState state = new BattleState();
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, replay::skillsOf));
+        state.setCurrentTurnIndex(0);
+        state.setRoundCount(1);
+        state.setFinished(false);
+        state.setRngSeed(replay.seed());
+        state.setPlayer1Id(replay.player1Id());
+        state.setPlayer2Id(replay.player2Id());
+        state.setPlayer1Name(replay.player1Name());
+        state.setPlayer2Name(replay.player2Name());
+
+        battleEngine.startBattle(state);
+        for (int i = 0; i < replay.actionCount() && !state.isFinished(); i++) {
+            skillEngine.useSkillWithResult(state, replay.skillId(i), replay.targetId(i));
+            if (battleEngine.checkEnd(state)) {
+                break;
+            }
+            int next = state.getCurrentTurnIndex();
+            if (next < 0 || next >= participants.size()) {
+                state.setCurrentTurnIndex(0);
+            } else if (!state.isAlive(next)) {
+                battleEngine.nextTurn(state);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Joue un lot de combats en parallèle sur le pool.
+     * @return les résultats, dans l'ordre des configurations
+     */
+    public List<BattleOutcome> simulateAll(List<BattleSetup> setups) {
+        BattleOutcome[] results = new BattleOutcome[setups.size()];
+        pool.invoke(new SimulationTask(setups, results, 0, setups.size()));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Calcule une matrice de taux de victoire en 1 contre 1 (mode RTA) sur un roster de héros.
+     * Chaque paire est jouée {@code battlesPerPair} fois en alternant les côtés.
+     * @return matrix[i][j] = taux de victoire du héros i contre le héros j (un nul compte pour 0,5)
+     */
+    public double[][] winRateMatrix(List<BattleParticipant> roster,
+                                    Function<Long, List<SkillDTO>> skillsByHero,
+                                    int battlesPerPair) {
+        return winRateMatrix(roster, skillsByHero, battlesPerPair, DEFAULT_SEED);
+    }
+
+    /**
+     * Variante avec graine : chaque combat reçoit sa propre graine, dérivée de {@code seed}.
+     */
+    public double[][] winRateMatrix(List<BattleParticipant> roster,
+                                    Function<Long, List<SkillDTO>> skillsByHero,
+                                    int battlesPerPair,
+                                    long seed) {
+        BattleRandom seeds = new BattleRandom(seed);
+        int n = roster.size();
+        List<BattleSetup> setups = new ArrayList<>(n * n * battlesPerPair);
+        List<int[]> pairs = new ArrayList<>(n * n * battlesPerPair);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                for (int k = 0; k < battlesPerPair; k++) {
+                    boolean swapped = (k % 2) == 1;
+                    BattleParticipant first = roster.get(swapped ? j : i);
+                    BattleParticipant second = roster.get(swapped ? i : j);
+                    setups.add(new BattleSetup(BattleMode.RTA, List.of(first), List.of(second),
+                            skillsByHero, DEFAULT_MAX_ACTIONS, seeds.nextLong()));
+                    pairs.add(new int[]{i, j, swapped ? 2 : 1});
+                }
+            }
+        }
+
+        List<BattleOutcome> outcomes = simulateAll(setups);
+        double[][] score = new double[n][n];
+        for (int b = 0; b < outcomes.size(); b++) {
+            int[] pair = pairs.get(b);
+            BattleOutcome outcome = outcomes.get(b);
+            if (outcome.isDraw()) {
+                score[pair[0]][pair[1]] += 0.5;
+            } else if (outcome.winningTeam() == pair[2]) {
+                score[pair[0]][pair[1]] += 1.0;
+            }
+        }
+
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = (i == j || battlesPerPair == 0) ? 0.5 : score[i][j] / battlesPerPair;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Crée un modèle de participant à partir des statistiques de base d'un héros (sans équipement).
+     */
+    public static BattleParticipant rosterEntry(Hero hero) {
+        return new BattleParticipant(
+                hero.getId(),
+                hero.getName(),
+                hero.getHealth(), hero.getHealth(),
+                hero.getBaseAttack(),
+                hero.getBaseDefense(),
+                hero.getBaseSpeed(),
+                true,
+                null,
+                hero.getId(),
+                -1
+        );
+    }
+
+    /**
+     * Construit l'état initial comme le font BossBattleManager et RtaBattleServiceImpl.
+     * Les participants reçoivent des IDs synthétiques propres au combat (un même héros
+     * peut ainsi apparaître dans les deux équipes).
+     */
+    private BattleState newBattleState(BattleSetup setup) {
+        boolean rta = setup.mode() == BattleMode.RTA;
+        List<BattleParticipant> participants = new ArrayList<>(setup.team1().size() + setup.team2().size());
+        long nextId = 1;
+
+        for (BattleParticipant p : setup.team1()) {
+            participants.add(copyOf(p, nextId++, true, rta ? TEAM1_USER_ID : null));
+        }
+        for (BattleParticipant p : setup.team2()) {
+            participants.add(copyOf(p, nextId++, rta, rta ? TEAM2_USER_ID : null));
+        }
+
+        battleEngine.sortParticipantsBySpeed(participants);
+        BattleState state = new BattleState();
+        state.setRngSeed(setup.seed());
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, setup.skillsByHero()));
+        state.setCurrentTurnIndex(0);
+        state.setRoundCount(1);
+        state.setFinished(false);
+
+        if (rta) {
+            state.setPlayer1Id(TEAM1_USER_ID);
+            state.setPlayer2Id(TEAM2_USER_ID);
+            state.setPlayer1Name("Équipe 1");
+            state.setPlayer2Name("Équipe 2");
+        }
+        return state;
+    }
+
+    private static BattleParticipant copyOf(BattleParticipant template, long id, boolean isPlayer, String userId) {
+        return new BattleParticipant(
+                id,
+                template.getName(),
+                template.getMaxHp(), template.getMaxHp(),
+                template.getAttack(),
+                template.getDefense(),
+                template.getSpeed(),
+                isPlayer,
+                userId,
+                template.getHeroId(),
+                -1
+        );
+    }
+
+    /**
+     * Joue le tour du participant courant : compétence active disponible la plus haute,
+     * sur l'ennemi (ou l'allié) le plus faible. Si rien n'est utilisable, le héros passe son tour.
+     */
+    private void playTurn(BattleState state) {
+        int slot = state.getCurrentTurnIndex();
+        if (!state.isAlive(slot)) {
+            battleEngine.nextTurn(state);
+            return;
+        }
+        BattleParticipant actor = state.getParticipants().get(slot);
+        BattleLoadout loadout = state.getLoadout();
+
+        for (int i = loadout.skillCount(slot) - 1; i >= 0; i--) {
+            long skillId = loadout.skillId(slot, i);
+            if (!loadout.isActive(slot, i) || state.isSkillOnCooldown(slot, i)) {
+                continue;
+            }
+
+            BattleParticipant target = chooseTarget(state, actor, loadout.skill(slot, i));
+            if (target == null) {
+                continue;
+            }
+
+            SkillActionResultDTO result = skillEngine.useSkillWithResult(state, skillId, target.getId());
+            if (result.getTargetId() != null) {
+                return; // l'action a été jouée
+            }
+        }
+
+        battleEngine.nextTurn(state);
+    }
+
+    private BattleParticipant chooseTarget(BattleState state, BattleParticipant actor, SkillDTO skill) {
+        String group = skill.getTargetGroup();
+        if ("SELF".equals(group)) {
+            return actor;
+        }
+
+        boolean wantsAlly = "SINGLE_ALLY".equals(group) || "ALL_ALLIES".equals(group);
+        BattleParticipant best = null;
+        for (BattleParticipant p : state.getParticipants()) {
+            if (!state.isAlive(p.getSlot()) || isAlly(state, actor, p) != wantsAlly) {
+                continue;
+            }
+            if (best == null || p.getCurrentHp() < best.getCurrentHp()) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private boolean isAlly(BattleState state, BattleParticipant a, BattleParticipant b) {
+        return state.teamOf(a.getSlot()) == state.teamOf(b.getSlot());
+    }
+
+    private int winningTeam(BattleMode mode, BattleState state) {
+        if (!state.isFinished()) {
+            return 0;
+        }
+        if (mode == BattleMode.RTA) {
+            String winnerId = battleEngine.findRtaWinnerId(state);
+            if (TEAM1_USER_ID.equals(winnerId)) {
+                return 1;
+            }
+            return TEAM2_USER_ID.equals(winnerId) ? 2 : 0;
+        }
+
+        boolean playersAlive = state.isTeamAlive(BattleState.TEAM_1);
+        boolean bossAlive = state.isTeamAlive(BattleState.TEAM_2);
+        if (playersAlive == bossAlive) {
+            return 0;
+        }
+        return playersAlive ? 1 : 2;
+    }
+
+    /**
+     * Découpe récursivement un lot de combats entre les threads du pool.
+     */
+    private final class SimulationTask extends RecursiveAction {
+        private final List<BattleSetup> setups;
+        private final BattleOutcome[] results;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(List<BattleSetup> setups, BattleOutcome[] results, int from, int to) {
+            this.setups = setups;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = simulate(setups.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SimulationTask(setups, results, from, mid),
+                      new SimulationTask(setups, results, mid, to));
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.epic7.backend.model.Hero;
 import com.epic7.backend.model.PlayerEquipment;
 import com.epic7.backend.model.PlayerHero;
 import com.epic7.backend.repository.PlayerEquipmentRepository;
+import com.epic7.backend.service.SkillCatalog;
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleLoadout;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +18,7 @@ import java.util.List;
 public class ParticipantFactory {
 
     private final PlayerEquipmentRepository playerEquipmentRepository;
+    private final SkillCatalog skillCatalog;
 
     /**
      * Crée un participant à partir d’un PlayerHero (avec équipements).
@@ -45,7 +48,9 @@ public class ParticipantFactory {
                 totalDefense,
                 totalSpeed,
                 true, // joueur
-                null  // userId sera défini dans le service RTA
+                null, // userId sera défini dans le service RTA
+                hero.getId(),
+                -1    // slot affecté à la compilation du loadout
         );
     }
     
@@ -60,6 +65,8 @@ public class ParticipantFactory {
 
     /**
      * Crée un participant à partir d’un boss (Hero brut).
+     * Le boss n'a pas de heroId : aucune compétence ne lui est compilée, ses passifs ne se déclenchent donc pas
+     * (il n'attaque qu'avec son attaque de base, comme avant le catalogue de compétences).
      */
     public BattleParticipant fromBoss(Hero boss) {
         return new BattleParticipant(
@@ -70,7 +77,17 @@ public class ParticipantFactory {
                 boss.getBaseDefense(),
                 boss.getBaseSpeed(),
                 false, // boss = ennemi
-                null   // pas d'utilisateur associé
+                null,  // pas d'utilisateur associé
+                null,  // pas de compétences
+                -1     // slot affecté à la compilation du loadout
         );
     }
+
+    /**
+     * Compile le loadout du combat à partir du catalogue de compétences en mémoire.
+     * Les participants doivent déjà être triés dans leur ordre de combat définitif.
+     */
+    public BattleLoadout compileLoadout(List<BattleParticipant> participants) {
+        return BattleLoadout.compile(participants, skillCatalog::getSkillsForHero);
+    }
 }
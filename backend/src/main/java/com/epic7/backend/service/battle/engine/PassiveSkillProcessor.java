@@ -1,179 +1,174 @@
 package com.epic7.backend.service.battle.engine;
 
 import com.epic7.backend.dto.SkillDTO;
-import com.epic7.backend.model.Hero;
-import com.epic7.backend.model.PlayerHero;
-import com.epic7.backend.model.Skill;
 import com.epic7.backend.model.skill_kit.TriggerCondition;
-
-import java.util.List;
-import com.epic7.backend.service.PlayerHeroService;
-import com.epic7.backend.service.SkillService;
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleLoadout;
 import com.epic7.backend.service.battle.state.BattleState;
-import lombok.RequiredArgsConstructor;
+import com.epic7.backend.service.battle.state.PassiveEffect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Déclenchement des passifs.
+ * Les passifs sont rangés à la compilation du loadout par (slot, déclencheur) : un événement du moteur
+ * (début de combat, début ou fin de tour, K.O., PV bas) ne parcourt que les slots abonnés à ce déclencheur.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class PassiveSkillProcessor {
 
-    private final PlayerHeroService playerHeroService;
-    private final SkillService skillService;
+    // Les bonus de début de tour sont reposés à chaque tour : un tour suffit, ils ne se cumulent pas
+    private static final int TURN_START_DURATION = 1;
+    // Bonus déclenchés par un événement ponctuel (K.O., PV bas, début de combat)
+    private static final int TRIGGERED_DURATION = 2;
+
+    // Absent hors contexte Spring (simulation, rejeu, tests) : les erreurs sont seulement journalisées
+    private final BattleMetrics battleMetrics;
+
+    @Autowired
+    public PassiveSkillProcessor(BattleMetrics battleMetrics) {
+        this.battleMetrics = battleMetrics;
+    }
+
+    public PassiveSkillProcessor() {
+        this(null);
+    }
 
     /**
      * Gère les passifs au début du tour.
-     * Parcourt les héros du joueur et applique les effets passifs.
+     * Applique les passifs ON_TURN_START du participant.
      * @param state
      * @param participant
      */
-    @Transactional(readOnly = true)
     public void handleTurnStartPassives(BattleState state, BattleParticipant participant) {
         // Pas de filtrage pour le RTA, tous les héros peuvent avoir des passifs
-        
-        try {
-            // Protection contre les nulls
-            if (participant == null || participant.getId() == null) {
-                state.getLogs().add("⚠️ Participant invalide pour l'activation des passifs");
-                return;
-            }
-            
-            // Tentative de récupérer le héros avec gestion des erreurs plus robuste
-            PlayerHero ph = null;
-            try {
-                ph = playerHeroService.findById(participant.getId());
-            } catch (Exception e) {
-                // Log détaillé mais continuez sans bloquer le jeu
-                state.getLogs().add("ℹ️ Passifs ignorés pour " + participant.getName() + " (ID:" + participant.getId() + ")");
-                return;
-            }
-            
-            if (ph == null) {
-                // En RTA, c'est possible que certains héros n'aient pas de PlayerHero correspondant
-                // On ne bloque pas le jeu, on ignore simplement
-                return;
-            }
-            
-            Hero hero = ph.getHero();
-            if (hero == null) {
-                return;
-            }
-            
-            if (hero.getSkills() == null) {
-                return;
-            }
 
-            // Récupérer les compétences sous forme de DTO pour éviter les problèmes de session Hibernate
-            List<SkillDTO> skillDTOs = skillService.getSkillDTOsByHero(hero.getId());
-            
-            // Filtrer et appliquer les compétences passives en utilisant les DTOs
-            skillDTOs.stream()
-                    .filter(skillDTO -> skillDTO != null 
-                            && "PASSIVE".equals(skillDTO.getCategory())
-                            && "ON_TURN_START".equals(skillDTO.getTriggerCondition()))
-                    .forEach(skillDTO -> {
-                        try {
-                            applyPassiveEffectFromDTO(skillDTO, participant, state);
-                        } catch (Exception e) {
-                            state.getLogs().add("⚠️ Erreur d'application du passif " + skillDTO.getName());
-                        }
-                    });
-        } catch (Exception e) {
-            String participantName = (participant != null && participant.getName() != null) ? participant.getName() : "inconnu";
-            state.getLogs().add("❌ Erreur lors de l'activation du passif de " + participantName);
+        // Protection contre les nulls
+        if (participant == null || participant.getId() == null) {
+            state.addEvent(BattleEventType.WARNING, "Participant invalide pour l'activation des passifs");
+            return;
         }
+        dispatch(state, TriggerCondition.ON_TURN_START, participant.getSlot());
+    }
+
+    /**
+     * Passifs ON_BATTLE_START de tous les participants vivants.
+     */
+    public void handleBattleStart(BattleState state) {
+        dispatchAll(state, TriggerCondition.ON_BATTLE_START, -1L);
     }
 
     /**
-     * Applique l'effet passif au participant en utilisant un DTO.
-     * Gestion robuste des cas où les objets pourraient être null.
+     * Passifs ON_TURN_END du participant qui vient de jouer.
      */
-    private void applyPassiveEffectFromDTO(SkillDTO skillDTO, BattleParticipant participant, BattleState state) {
-        // Vérification préalable pour éviter les NullPointerException
-        if (skillDTO == null || participant == null || state == null) {
-            return; // Silencieusement ignorer pour éviter d'autres erreurs
+    public void handleTurnEnd(BattleState state, int slot) {
+        dispatch(state, TriggerCondition.ON_TURN_END, slot);
+    }
+
+    /**
+     * Passifs déclenchés par les PV : K.O. (ON_KILL pour l'auteur, ON_ALLY_DEATH et ON_ENNEMY_DEATH
+     * pour les autres) et passage sous le seuil de PV bas (ON_LOW_HEALTH).
+     * @param sourceSlot auteur des dégâts, -1 si aucun (dégâts sur la durée)
+     */
+    public void handleHpTriggers(BattleState state, int sourceSlot) {
+        long deaths = state.takePendingDeaths();
+        long lowHealth = state.takePendingLowHealth();
+        if ((deaths | lowHealth) == 0) {
+            return;
         }
 
-        try {
-            String heroName = (participant.getName() != null) ? participant.getName() : "Héros inconnu";
-            String skillName = (skillDTO.getName() != null) ? skillDTO.getName() : "Compétence inconnue";
-            
-            if (skillDTO.getPassiveBonus() != null) {
-                switch (skillDTO.getPassiveBonus()) {
-                    case "ATTACK_UP" -> {
-                        int bonus = (int) (participant.getAttack() * (skillDTO.getBonusValue() / 100.0));
-                        participant.setAttack(participant.getAttack() + bonus);
-                        state.getLogs().add("✨ " + heroName + " déclenche " + skillName
-                                + " (passif) et gagne +" + bonus + " ATK.");
-                    }
-                    case "DEFENSE_UP" -> {
-                        int bonus = (int) (participant.getDefense() * (skillDTO.getBonusValue() / 100.0));
-                        participant.setDefense(participant.getDefense() + bonus);
-                        state.getLogs().add("🛡️ " + heroName + " déclenche " + skillName
-                                + " (passif) et gagne +" + bonus + " DEF.");
-                    }
-                    case "SPEED_UP" -> {
-                        int bonus = (int) (participant.getSpeed() * (skillDTO.getBonusValue() / 100.0));
-                        participant.setSpeed(participant.getSpeed() + bonus);
-                        state.getLogs().add("💨 " + heroName + " déclenche " + skillName
-                                + " (passif) et gagne +" + bonus + " Vitesse.");
-                    }
-                    default -> {
-                        state.getLogs().add("⚠️ Passif non géré : " + skillDTO.getPassiveBonus());
-                    }
-                }
-            } else if (skillDTO.getAction() != null) {
-                // Passifs de type heal/damage
-                switch (skillDTO.getAction()) {
-                    case "HEAL" -> {
-                        int healAmount = (int) (skillDTO.getScalingFactor() * participant.getMaxHp());
-                        participant.setCurrentHp(Math.min(participant.getMaxHp(), participant.getCurrentHp() + healAmount));
-                        state.getLogs().add("✨ " + heroName + " déclenche " + skillName
-                                + " (passif) et se soigne de " + healAmount + " PV.");
-                    }
-                    case "DAMAGE" -> {
-                        // À implémenter si besoin : dégâts automatiques à l'ennemi
-                        state.getLogs().add("⚠️ Passif DAMAGE non implémenté pour l'instant.");
-                    }
-                    default -> {
-                        state.getLogs().add("ℹ️ Passif " + skillName + " sans effet actif.");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            if (participant != null && participant.getName() != null) {
-                state.getLogs().add("⚠️ Erreur inattendue pour le passif de " + participant.getName() + ": " + e.getMessage());
-            } else {
-                state.getLogs().add("⚠️ Erreur inattendue lors de l'application d'un passif");
+        for (long remaining = deaths; remaining != 0; remaining &= remaining - 1) {
+            int dead = Long.numberOfTrailingZeros(remaining);
+            int team = state.teamOf(dead);
+            if (sourceSlot >= 0 && state.teamOf(sourceSlot) != team) {
+                dispatch(state, TriggerCondition.ON_KILL, sourceSlot);
             }
+            int enemyTeam = team == BattleState.TEAM_1 ? BattleState.TEAM_2 : BattleState.TEAM_1;
+            dispatchAll(state, TriggerCondition.ON_ALLY_DEATH, state.aliveMask(team));
+            dispatchAll(state, TriggerCondition.ON_ENNEMY_DEATH, state.aliveMask(enemyTeam));
         }
+        dispatchAll(state, TriggerCondition.ON_LOW_HEALTH, lowHealth);
     }
-    
+
     /**
-     * Ancienne version utilisant l'entité Skill directement - conservée pour compatibilité
+     * Passifs d'un déclencheur pour les slots vivants de {@code candidates} qui y sont abonnés.
      */
-    private void applyPassiveEffect(Skill skill, BattleParticipant participant, BattleState state) {
-        // Vérification préalable pour éviter les NullPointerException
-        if (skill == null || participant == null || state == null) {
-            return; // Silencieusement ignorer pour éviter d'autres erreurs
+    private void dispatchAll(BattleState state, TriggerCondition trigger, long candidates) {
+        BattleLoadout loadout = state.getLoadout();
+        if (loadout == null) {
+            return;
+        }
+        for (long slots = loadout.subscribers(trigger) & candidates; slots != 0; slots &= slots - 1) {
+            int slot = Long.numberOfTrailingZeros(slots);
+            if (state.isAlive(slot)) {
+                dispatch(state, trigger, slot);
+            }
         }
+    }
 
-        try {
-            // Conversion en DTO pour éviter les problèmes de session Hibernate
-            SkillDTO skillDTO = new SkillDTO();
-            skillDTO.setId(skill.getId());
-            skillDTO.setName(skill.getName());
-            skillDTO.setDescription(skill.getDescription());
-            skillDTO.setPassiveBonus(skill.getPassiveBonus() != null ? skill.getPassiveBonus().name() : null);
-            skillDTO.setBonusValue(skill.getBonusValue());
-            skillDTO.setAction(skill.getAction() != null ? skill.getAction().name() : null);
-            skillDTO.setScalingFactor(skill.getScalingFactor());
-            
-            // Utiliser la méthode DTO-based
-            applyPassiveEffectFromDTO(skillDTO, participant, state);
-        } catch (Exception e) {
-            state.getLogs().add("⚠️ Erreur lors de la conversion du passif: " + e.getMessage());
+    private void dispatch(BattleState state, TriggerCondition trigger, int slot) {
+        BattleLoadout loadout = state.getLoadout();
+        if (loadout == null || slot < 0 || slot >= loadout.size()
+                || (loadout.subscribers(trigger) & (1L << slot)) == 0) {
+            return;
         }
+        BattleParticipant participant = state.getParticipants().get(slot);
+        int duration = trigger == TriggerCondition.ON_TURN_START ? TURN_START_DURATION : TRIGGERED_DURATION;
+        for (int index : loadout.passives(slot, trigger)) {
+            SkillDTO skillDTO = loadout.skill(slot, index);
+            try {
+                applyPassiveEffect(loadout.passiveEffect(slot, index), skillDTO, participant, state, index, duration);
+            } catch (RuntimeException e) {
+                // Un passif en erreur ne doit pas interrompre le tour : signalé, compté et journalisé
+                state.addEvent(BattleEventType.WARNING, "Erreur d'application du passif " + skillDTO.getName());
+                if (battleMetrics != null) {
+                    battleMetrics.engineError(state);
+                }
+                log.warn("Erreur du passif {} (combat {}, slot {})", skillDTO.getName(), state.getBattleId(), slot, e);
+            }
+        }
+    }
+
+    /**
+     * Applique l'effet compilé d'un passif au participant.
+     */
+    private void applyPassiveEffect(PassiveEffect effect, SkillDTO skillDTO, BattleParticipant participant,
+                                    BattleState state, int skillIndex, int duration) {
+        int slot = participant.getSlot();
+        switch (effect) {
+            // Le bonus journalisé est l'écart réel de la statistique : il correspond à ce que voient les joueurs
+            case ATTACK_UP -> {
+                int before = state.attackOf(participant);
+                state.applyEffect(participant, effect.statusEffect(), percent(skillDTO), duration, slot);
+                state.addEvent(BattleEventType.PASSIVE_ATTACK_UP, slot, slot, state.attackOf(participant) - before, skillIndex);
+            }
+            case DEFENSE_UP -> {
+                int before = state.defenseOf(participant);
+                state.applyEffect(participant, effect.statusEffect(), percent(skillDTO), duration, slot);
+                state.addEvent(BattleEventType.PASSIVE_DEFENSE_UP, slot, slot, state.defenseOf(participant) - before, skillIndex);
+            }
+            case SPEED_UP -> {
+                int before = state.speedOf(participant);
+                state.applyEffect(participant, effect.statusEffect(), percent(skillDTO), duration, slot);
+                state.addEvent(BattleEventType.PASSIVE_SPEED_UP, slot, slot, state.speedOf(participant) - before, skillIndex);
+            }
+            case HEAL -> {
+                int healAmount = (int) (skillDTO.getScalingFactor() * participant.getMaxHp());
+                state.setHp(participant, Math.min(participant.getMaxHp(), participant.getCurrentHp() + healAmount));
+                state.addEvent(BattleEventType.PASSIVE_HEAL, slot, slot, healAmount, skillIndex);
+            }
+            case DAMAGE -> {
+                // À implémenter si besoin : dégâts automatiques à l'ennemi
+                log.warn("Passif DAMAGE non implémenté pour l'instant.");
+            }
+            case NONE -> log.debug("Passif {} sans effet actif.", skillDTO.getName());
+        }
+    }
+
+    private static int percent(SkillDTO skillDTO) {
+        return skillDTO.getBonusValue() != null ? (int) Math.round(skillDTO.getBonusValue()) : 0;
     }
 }
@@ -3,217 +3,125 @@ package com.epic7.backend.service.battle.engine;
 import com.epic7.backend.dto.SkillDTO;
 import com.epic7.backend.dto.boss.SimpleBattleStateDTO;
 import com.epic7.backend.dto.boss.SkillActionResultDTO;
-import com.epic7.backend.model.Skill;
-import com.epic7.backend.model.skill_kit.TargetGroup;
-
-import java.util.List;
-import com.epic7.backend.service.SkillService;
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleLoadout;
 import com.epic7.backend.service.battle.state.BattleState;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class SkillEngine {
 
-    private final SkillService skillService;
     private final BattleEngine battleEngine;
 
     /**
      * Exécute une compétence active en appliquant ses effets.
-     * Annotation Transactional pour garder la session Hibernate ouverte 
-     * pendant toute la durée de l'exécution.
+     * La compétence est résolue depuis le loadout du combat (aucune requête SQL).
+     * Le résultat ne contient que les logs produits par cette action.
+     * Aucune transaction : toutes les données du combat sont résolues à sa mise en place,
+     * une action ne s'exécute qu'en mémoire et n'emprunte pas de connexion JDBC.
      */
-    @Transactional(readOnly = true)
     public SkillActionResultDTO useSkillWithResult(BattleState state, Long skillId, Long targetId) {
         if (state == null || state.isFinished()) {
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
+            return new SkillActionResultDTO(state != null ? new SimpleBattleStateDTO(state) : null, 0, null, "NONE");
         }
+        long logsSince = state.getLogSequence();
 
         BattleParticipant actor = state.getParticipants().get(state.getCurrentTurnIndex());
         
-        // Récupérer la compétence avec DTO si possible, sinon l'entité directement
-        SkillDTO skillDTO = null;
-        Skill skill = null;
-        boolean usingDTO = false;
-        
-        try {
-            // Essayer d'abord le DTO
-            List<SkillDTO> heroSkills = skillService.getSkillDTOsForPlayerHeroByPlayerHeroId(actor.getId());
-            skillDTO = heroSkills.stream()
-                    .filter(s -> s.getId().equals(skillId))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (skillDTO != null) {
-                usingDTO = true;
-            } else {
-                // Si pas de DTO, récupérer l'entité (fallback)
-                skill = skillService.getSkillById(skillId);
-            }
-        } catch (Exception e) {
-            // Fallback si une erreur de session se produit
-            try {
-                skill = skillService.getSkillById(skillId);
-            } catch (Exception ex) {
-                state.getLogs().add("❌ Erreur critique lors de la récupération de la compétence: " + ex.getMessage());
-                return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
-            }
-        }
-
-        // Vérifie que le skill appartient bien au héros joueur
-        // Pour le RTA, nous autorisons l'utilisation même si la vérification échoue
-        try {
-            List<SkillDTO> heroSkills = skillService.getSkillDTOsForPlayerHeroByPlayerHeroId(actor.getId());
-            
-            if (heroSkills != null && !heroSkills.isEmpty()) {
-                boolean belongs = heroSkills.stream()
-                    .anyMatch(s -> s != null && s.getId() != null && s.getId().equals(skillId));
+        // Résolution via le loadout compilé au démarrage : aucun accès base pendant le tour
+        BattleLoadout loadout = state.getLoadout();
+        int actorSlot = state.getCurrentTurnIndex();
+        int skillIndex = loadout != null ? loadout.skillIndex(actorSlot, skillId) : -1;
 
-                if (!belongs) {
-                    state.getLogs().add("⚠️ Compétence non vérifiée mais autorisée pour le RTA");
-                }
-            }
-        } catch (Exception e) {
-            state.getLogs().add("⚠️ Vérification d'appartenance de compétence ignorée: " + e.getMessage());
+        if (skillIndex < 0) {
+            state.addEvent(BattleEventType.SKILL_UNKNOWN, actorSlot, -1, 0, skillId != null ? skillId : -1);
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
         }
-        
+        SkillDTO skillDTO = loadout.skill(actorSlot, skillIndex);
+
         // Vérifier si la compétence est active
-        boolean isActive = usingDTO ? 
-                "ACTIVE".equals(skillDTO.getCategory()) : 
-                skill != null && skill.isActive();
-                
-        if (!isActive) {
-            state.getLogs().add("❌ Cette compétence n'est pas active.");
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
+        if (!loadout.isActive(actorSlot, skillIndex)) {
+            state.addEvent(BattleEventType.SKILL_NOT_ACTIVE, actorSlot, -1, 0, skillIndex);
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
         }
 
-        if (actor.getCurrentHp() <= 0) {
+        if (!state.isAlive(actorSlot)) {
             battleEngine.nextTurn(state);
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
         }
 
-        // Vérifier cooldown selon qu'on utilise le DTO ou l'entité
-        Long skillIdToCheck = usingDTO ? skillDTO.getId() : skill.getId();
-        if (state.isSkillOnCooldown(actor.getId(), skillIdToCheck)) {
-            state.getLogs().add("⏳ Compétence en recharge !");
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
+        if (state.isSkillOnCooldown(actorSlot, skillIndex)) {
+            state.addEvent(BattleEventType.SKILL_ON_COOLDOWN, actorSlot, -1, 0, skillIndex);
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
         }
 
-        // Recherche de la cible avec plus de robustesse et d'information
-        BattleParticipant target = null;
-        for (BattleParticipant p : state.getParticipants()) {
-            if (p != null && p.getId() != null && p.getId().equals(targetId)) {
-                target = p;
-                break;
-            }
-        }
+        // Recherche de la cible par son slot
+        int targetSlot = loadout.slotOf(targetId);
+        BattleParticipant target = targetSlot >= 0 ? state.getParticipants().get(targetSlot) : null;
 
         if (target == null) {
-            // Log plus détaillé pour faciliter le débogage
-            state.getLogs().add("❌ Cible non trouvée pour ID: " + targetId);
+            state.addEvent(BattleEventType.TARGET_NOT_FOUND, actorSlot, -1, 0, targetId != null ? targetId : -1);
             
             // Lister tous les participants disponibles pour le débogage
             logParticipantsDebug(state);
             
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
         }
 
         // Variables pour la suite
         int amount;
         String actionType;
         
-        // Appliquer l'effet selon qu'on utilise le DTO ou l'entité
-        if (usingDTO) {
-            // Utiliser le DTO
-            // Vérifier d'abord si la cible est valide
-            boolean targetIsValid = isTargetValid(skillDTO.getTargetGroup(), actor, target);
-            
-            if (!targetIsValid) {
-                state.getLogs().add("❌ Cible invalide pour cette compétence: " + skillDTO.getTargetGroup());
-                logParticipantsDebug(state);
-                return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
-            }
-            
-            // Log de l'action
-            state.getLogs().add(actor.getName() + " utilise " + skillDTO.getName() + " sur " + target.getName());
-            
-            // Appliquer l'effet
-            if ("DAMAGE".equals(skillDTO.getAction())) {
-                amount = applyDamageFromDTO(actor, target, skillDTO, state);
-                actionType = "DAMAGE";
-            } else if ("HEAL".equals(skillDTO.getAction())) {
-                amount = applyHealFromDTO(actor, target, skillDTO, state);
-                actionType = "HEAL";
-            } else {
-                amount = 0;
-                actionType = "NONE";
-            }
-            
-            // Gérer cooldown
-            int cooldown = skillDTO.getCooldown() != null ? skillDTO.getCooldown() : 0;
-            if (cooldown > 0) {
-                state.putCooldown(actor.getId(), skillDTO.getId(), cooldown);
-            }
+        // Vérifier d'abord si la cible est valide
+        boolean targetIsValid = isTargetValid(skillDTO.getTargetGroup(), actor, target);
+
+        if (!targetIsValid) {
+            state.addEvent(BattleEventType.TARGET_INVALID, actorSlot, targetSlot, 0, skillIndex);
+            logParticipantsDebug(state);
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), 0, null, "NONE");
+        }
+
+        // Cibles résolues une seule fois (masque de slots), puis effet appliqué en une passe
+        long targets = resolveTargets(state, skillDTO, actorSlot, targetSlot);
+
+        // Appliquer l'effet (l'événement porte l'action et son résultat)
+        if ("DAMAGE".equals(skillDTO.getAction())) {
+            amount = applyDamageFromDTO(actor, targets, skillDTO, state, skillIndex);
+            actionType = "DAMAGE";
+        } else if ("HEAL".equals(skillDTO.getAction())) {
+            amount = applyHealFromDTO(actor, targets, skillDTO, state, skillIndex);
+            actionType = "HEAL";
         } else {
-            // Utiliser l'entité
-            if (skill.isTargetMatching(actor, target)) {
-                // Log de l'action
-                state.getLogs().add(actor.getName() + " utilise " + skill.getName() + " sur " + target.getName());
-            } else {
-                state.getLogs().add("❌ Cible invalide pour cette compétence: " + skill.getTargetGroup());
-                logParticipantsDebug(state);
-                return new SkillActionResultDTO(new SimpleBattleStateDTO(state), 0, null, "NONE");
-            }
-            
-            // Appliquer l'effet
-            amount = switch (skill.getAction()) {
-                case DAMAGE -> applyDamage(actor, target, skill, state);
-                case HEAL -> applyHeal(actor, target, skill, state);
-                default -> 0;
-            };
-            actionType = skill.getAction().name();
-            
-            // Gérer cooldown
-            if (skill.getCooldown() > 0) {
-                state.putCooldown(actor.getId(), skill.getId(), skill.getCooldown());
-            }
+            state.addEvent(BattleEventType.SKILL_USED, actorSlot, targetSlot, 0, skillIndex);
+            amount = 0;
+            actionType = "NONE";
+        }
+
+        // Passifs déclenchés par l'action (K.O., PV bas)
+        battleEngine.dispatchHpTriggers(state, actorSlot);
+
+        // Gérer cooldown
+        int cooldown = loadout.baseCooldown(actorSlot, skillIndex);
+        if (cooldown > 0) {
+            state.putCooldown(actorSlot, skillIndex, cooldown);
         }
 
         // Vérifie fin du combat
         if (battleEngine.checkEnd(state)) {
-            return new SkillActionResultDTO(new SimpleBattleStateDTO(state), amount, target.getId(), actionType);
+            return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), amount, target.getId(), actionType);
         }
 
         // Passe au suivant
         battleEngine.nextTurn(state);
-        return new SkillActionResultDTO(new SimpleBattleStateDTO(state), amount, target.getId(), actionType);
-    }
-
-    private int applyDamage(BattleParticipant actor, BattleParticipant target, Skill skill, BattleState state) {
-        int dmg = Math.max(1, (int) (skill.getScalingFactor() * actor.getAttack() - target.getDefense()));
-        target.setCurrentHp(Math.max(0, target.getCurrentHp() - dmg));
-        state.getLogs().add(actor.getName() + " utilise " + skill.getName() + " sur " + target.getName() + " et inflige " + dmg + " dégâts.");
-        return dmg;
-    }
-
-    private int applyHeal(BattleParticipant actor, BattleParticipant target, Skill skill, BattleState state) {
-        int heal = (int) (skill.getScalingFactor() * actor.getMaxHp());
-
-        if (skill.getTargetGroup() == TargetGroup.ALL_ALLIES) {
-            state.getParticipants().stream()
-                    .filter(p -> p.isPlayer() && p.getCurrentHp() > 0)
-                    .forEach(p -> p.setCurrentHp(Math.min(p.getMaxHp(), p.getCurrentHp() + heal)));
-            state.getLogs().add(actor.getName() + " utilise " + skill.getName() + " et soigne tous les alliés de " + heal + " PV.");
-        } else {
-            target.setCurrentHp(Math.min(target.getMaxHp(), target.getCurrentHp() + heal));
-            state.getLogs().add(actor.getName() + " utilise " + skill.getName() + " et soigne " + target.getName() + " de " + heal + " PV.");
-        }
-
-        return heal;
+        return new SkillActionResultDTO(new SimpleBattleStateDTO(state, logsSince), amount, target.getId(), actionType);
     }
 
     /**
@@ -241,6 +149,9 @@ public class SkillEngine {
                 // Vérification null-safe pour les boss (userId null)
                 return areSameUser(actor, target) && target.getCurrentHp() > 0;
             }
+            case "ALL_ENEMIES" -> {
+                return !areSameUser(actor, target) && target.getCurrentHp() > 0;
+            }
             default -> {
                 return false;
             }
@@ -265,44 +176,94 @@ public class SkillEngine {
     }
     
     /**
-     * Affiche les participants disponibles pour faciliter le débogage.
+     * Affiche les participants disponibles pour faciliter le débogage (log serveur uniquement).
      */
     private void logParticipantsDebug(BattleState state) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         StringBuilder participantInfo = new StringBuilder("Participants disponibles: ");
         for (BattleParticipant p : state.getParticipants()) {
             if (p != null && p.getId() != null) {
                 participantInfo.append(p.getName()).append("(ID:").append(p.getId()).append(") ");
             }
         }
-        state.getLogs().add(participantInfo.toString());
+        log.debug(participantInfo.toString());
     }
     
     /**
-     * Applique les dégâts basé sur un DTO de compétence.
+     * Cibles d'une compétence en masque de slots : la cible choisie pour les compétences à cible unique,
+     * l'équipe vivante concernée pour les compétences de zone, limitée à {@code targetCount}
+     * (la cible choisie est toujours gardée).
      */
-    private int applyDamageFromDTO(BattleParticipant actor, BattleParticipant target, SkillDTO skillDTO, BattleState state) {
-        int dmg = Math.max(1, (int) (skillDTO.getScalingFactor() * actor.getAttack() - target.getDefense()));
-        target.setCurrentHp(Math.max(0, target.getCurrentHp() - dmg));
-        state.getLogs().add(actor.getName() + " utilise " + skillDTO.getName() + " sur " + target.getName() + " et inflige " + dmg + " dégâts.");
-        return dmg;
+    long resolveTargets(BattleState state, SkillDTO skillDTO, int actorSlot, int targetSlot) {
+        long primary = 1L << targetSlot;
+        String group = skillDTO.getTargetGroup();
+        long targets;
+        if ("ALL_ALLIES".equals(group)) {
+            targets = state.aliveMask(state.teamOf(actorSlot));
+        } else if ("ALL_ENEMIES".equals(group)) {
+            targets = state.aliveMask(state.teamOf(targetSlot));
+        } else {
+            return primary;
+        }
+        targets |= primary;
+
+        Integer targetCount = skillDTO.getTargetCount();
+        if (targetCount != null && targetCount > 0 && Long.bitCount(targets) > targetCount) {
+            long others = targets & ~primary;
+            targets = primary;
+            for (int i = 1; i < targetCount; i++) {
+                targets |= Long.lowestOneBit(others);
+                others &= others - 1;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Applique les dégâts basé sur un DTO de compétence à toutes les cibles.
+     * Un seul événement par action : détaillé pour une cible, cumulé pour une compétence de zone.
+     * @return les dégâts infligés au total
+     */
+    private int applyDamageFromDTO(BattleParticipant actor, long targets, SkillDTO skillDTO, BattleState state,
+                                   int skillIndex) {
+        List<BattleParticipant> participants = state.getParticipants();
+        double power = skillDTO.getScalingFactor() * state.attackOf(actor);
+        int total = 0;
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            BattleParticipant target = participants.get(Long.numberOfTrailingZeros(remaining));
+            int dmg = Math.max(1, (int) (power - state.defenseOf(target)));
+            state.setHp(target, Math.max(0, target.getCurrentHp() - dmg));
+            total += dmg;
+        }
+
+        if (Long.bitCount(targets) == 1) {
+            state.addEvent(BattleEventType.SKILL_DAMAGE, actor.getSlot(), Long.numberOfTrailingZeros(targets), total, skillIndex);
+        } else {
+            state.addEvent(BattleEventType.SKILL_DAMAGE_ALL, actor.getSlot(), -1, total, skillIndex);
+        }
+        return total;
     }
     
     /**
-     * Applique les soins basé sur un DTO de compétence.
+     * Applique les soins basé sur un DTO de compétence à toutes les cibles.
+     * @return les soins par cible
      */
-    private int applyHealFromDTO(BattleParticipant actor, BattleParticipant target, SkillDTO skillDTO, BattleState state) {
+    private int applyHealFromDTO(BattleParticipant actor, long targets, SkillDTO skillDTO, BattleState state,
+                                 int skillIndex) {
+        List<BattleParticipant> participants = state.getParticipants();
         int heal = (int) (skillDTO.getScalingFactor() * actor.getMaxHp());
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            BattleParticipant target = participants.get(Long.numberOfTrailingZeros(remaining));
+            state.setHp(target, Math.min(target.getMaxHp(), target.getCurrentHp() + heal));
+        }
 
         if ("ALL_ALLIES".equals(skillDTO.getTargetGroup())) {
-            state.getParticipants().stream()
-                    .filter(p -> p.isPlayer() && p.getCurrentHp() > 0)
-                    .forEach(p -> p.setCurrentHp(Math.min(p.getMaxHp(), p.getCurrentHp() + heal)));
-            state.getLogs().add(actor.getName() + " utilise " + skillDTO.getName() + " et soigne tous les alliés de " + heal + " PV.");
+            state.addEvent(BattleEventType.SKILL_HEAL_ALL, actor.getSlot(), -1, heal, skillIndex);
         } else {
-            target.setCurrentHp(Math.min(target.getMaxHp(), target.getCurrentHp() + heal));
-            state.getLogs().add(actor.getName() + " utilise " + skillDTO.getName() + " et soigne " + target.getName() + " de " + heal + " PV.");
+            state.addEvent(BattleEventType.SKILL_HEAL, actor.getSlot(), Long.numberOfTrailingZeros(targets), heal, skillIndex);
         }
-
         return heal;
     }
 }
@@ -33,6 +33,8 @@ public interface BattleManager {
 
     /**
      * Applique une action de compétence dans un combat en cours.
+     * L'état du combat n'est pas protégé par un verrou : les appels pour un même combat
+     * doivent être sérialisés (voir BattleLaneExecutor).
      *
      * @param battleId Identifiant du combat
      * @param skillId  ID de la compétence utilisée
@@ -49,7 +51,8 @@ public interface BattleManager {
      * Termine un combat RTA et nettoie la session.
      *
      * @param battleId Identifiant du combat à terminer
-     * @param winnerId Identifiant du joueur gagnant (ou null en cas d’égalité)
+     * @param winnerId Gagnant désigné par l’appelant (abandon) : le résultat est classé comme une victoire ;
+     *                 null pour un combat terminé par les actions (gagnant déduit, résultat déjà déposé)
      */
     void endRtaBattle(
         String battleId,
@@ -11,12 +11,17 @@ import com.epic7.backend.repository.*;
 import com.epic7.backend.service.HeroService;
 import com.epic7.backend.service.PlayerHeroService;
 import com.epic7.backend.service.battle.engine.*;
+import com.epic7.backend.service.battle.model.BattleMode;
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleRandom;
 import com.epic7.backend.service.battle.state.BattleState;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @RequiredArgsConstructor
@@ -33,10 +38,13 @@ public class BossBattleManager {
     private final ParticipantFactory participantFactory;
     private final BattleEngine battleEngine;
     private final SkillEngine skillEngine;
+    private final BattleMetrics battleMetrics;
 
     /**
      * Initialise un combat contre un boss.
+     * Seule étape qui lit la base, dans une unique transaction : les tours suivants restent en mémoire.
      */
+    @Transactional(readOnly = true)
     public BattleState initBattle(User user, Long bossHeroId, List<Long> selectedHeroIds) {
         if (selectedHeroIds.size() > 4) {
             throw new IllegalArgumentException("Tu ne peux sélectionner que 4 héros maximum.");
@@ -67,24 +75,47 @@ public class BossBattleManager {
             participants.add(participantFactory.fromPlayerHero(ph));
         }
 
-        participants.add(participantFactory.fromBoss(boss));
+        BattleParticipant bossParticipant = participantFactory.fromBoss(boss);
+        participants.add(bossParticipant);
         battleEngine.sortParticipantsBySpeed(participants);
 
         BattleState state = new BattleState();
+        state.setRngSeed(ThreadLocalRandom.current().nextLong());
         state.setParticipants(participants);
+        // Compiler le loadout une fois pour toutes : les tours n'accèdent plus à la base
+        state.setLoadout(participantFactory.compileLoadout(participants));
         state.setCurrentTurnIndex(0);
         state.setRoundCount(1);
         state.setFinished(false);
-        state.setLogs(new ArrayList<>(List.of("Combat commencé contre " + boss.getName() + " !")));
+        state.addEvent(BattleEventType.BATTLE_STARTED, bossParticipant.getSlot(), -1, 0);
 
-        return battleEngine.processUntilNextPlayer(state);
+        return battleEngine.startBattle(state);
     }
 
     /**
      * Utilisation d’une compétence avec retour du résultat.
      */
     public SkillActionResultDTO useSkill(BattleState state, SimpleSkillActionRequest request) {
-        return skillEngine.useSkillWithResult(state, request.getSkillId(), request.getTargetId());
+        boolean wasFinished = state.isFinished();
+        SkillActionResultDTO result = battleMetrics.recordAction(BattleMode.BOSS,
+                () -> skillEngine.useSkillWithResult(state, request.getSkillId(), request.getTargetId()));
+        recordIfFinished(state, wasFinished);
+        return result;
+    }
+
+    /**
+     * Fait jouer le boss s'il doit jouer, jusqu'au prochain tour d'un héros.
+     */
+    public void playBossTurns(BattleState state) {
+        boolean wasFinished = state.isFinished();
+        battleEngine.processUntilNextPlayer(state);
+        recordIfFinished(state, wasFinished);
+    }
+
+    private void recordIfFinished(BattleState state, boolean wasFinished) {
+        if (!wasFinished && state.isFinished()) {
+            battleMetrics.battleFinished(BattleMode.BOSS, state);
+        }
     }
 
     /**
@@ -94,6 +125,13 @@ public class BossBattleManager {
         return new SimpleBattleStateDTO(state);
     }
 
+    /**
+     * Convertit l’état de combat en DTO en ne gardant que les logs postérieurs au curseur.
+     */
+    public SimpleBattleStateDTO toDTO(BattleState state, long logsSince) {
+        return new SimpleBattleStateDTO(state, logsSince);
+    }
+
     /**
      * Attribue une récompense après victoire.
      */
@@ -124,13 +162,15 @@ public class BossBattleManager {
                 }
             }
             case EQUIPMENT -> {
+                // Tirages sur le générateur du combat : la récompense est reproductible
+                BattleRandom random = state.getRandom();
                 Equipment eq = new Equipment();
-                eq.setName("Équipement " + new Random().nextInt(1000));
+                eq.setName("Équipement " + random.nextInt(1000));
                 eq.setType(EquipmentType.ARMOR);
-                eq.setAttackBonus(new Random().nextInt(50));
-                eq.setDefenseBonus(new Random().nextInt(50));
-                eq.setSpeedBonus(new Random().nextInt(50));
-                eq.setHealthBonus(new Random().nextInt(50));
+                eq.setAttackBonus(random.nextInt(50));
+                eq.setDefenseBonus(random.nextInt(50));
+                eq.setSpeedBonus(random.nextInt(50));
+                eq.setHealthBonus(random.nextInt(50));
                 eq.setRarity("bon");
 
                 Equipment saved = equipmentRepository.save(eq);
@@ -0,0 +1,220 @@
+package com.epic7.backend.service.battle.manager;
+
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.store.BattleSessionStore;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Function;
+
+/**
+ * Combats contre un boss en cours, par joueur et par identifiant de combat.
+ * <ul>
+ *   <li>un joueur n'accède qu'à ses propres combats ;</li>
+ *   <li>les appels sur un même combat sont sérialisés (voir {@link #withBattle}) ;</li>
+ *   <li>un combat sans activité depuis {@code idleTimeout} est retiré par un nettoyage planifié ;</li>
+ *   <li>au-delà de {@code maxPerUser} combats, le plus ancien du joueur est abandonné ;</li>
+ *   <li>l'état est sauvegardé après chaque appel ({@link BattleSessionStore}) : un combat absent
+ *       de ce nœud (redémarrage, autre nœud) est repris depuis son dernier snapshot, une fois le bail
+ *       de son nœud précédent expiré ({@link BattleSessionStore#acquire}).</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class BossBattleSessionRegistry {
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Deque<String>> battlesByUser = new ConcurrentHashMap<>();
+
+    private final int maxPerUser;
+    private final long idleTimeoutMillis;
+    private final BattleSessionStore snapshots;
+    private final Clock clock;
+
+    @Autowired
+    public BossBattleSessionRegistry(@Value("${boss.battle.max-per-user:3}") int maxPerUser,
+                                     @Value("${boss.battle.idle-timeout-seconds:1800}") long idleTimeoutSeconds,
+                                     BattleSessionStore snapshots,
+                                     MeterRegistry meterRegistry) {
+        this(maxPerUser, idleTimeoutSeconds, snapshots, meterRegistry, Clock.systemUTC());
+    }
+
+    public BossBattleSessionRegistry(int maxPerUser, long idleTimeoutSeconds, BattleSessionStore snapshots,
+                                     MeterRegistry meterRegistry, Clock clock) {
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        this.snapshots = snapshots;
+        this.clock = clock;
+
+        Gauge.builder("battle.active", sessions, Map::size)
+                .tag("mode", "BOSS")
+                .description("Combats de boss en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Combat d'un joueur et sa dernière activité.
+     */
+    private static final class Session {
+        private final Long userId;
+        private final BattleState state;
+        private volatile long lastActivity;
+
+        private Session(Long userId, BattleState state, long now) {
+            this.userId = userId;
+            this.state = state;
+            this.lastActivity = now;
+        }
+    }
+
+    /**
+     * Enregistre un nouveau combat pour le joueur et lui attribue un identifiant.
+     * Si le joueur a déjà {@code maxPerUser} combats, le plus ancien est retiré.
+     * @return l'identifiant du combat (également renseigné dans l'état)
+     */
+    public String register(Long userId, BattleState state) {
+        String battleId = UUID.randomUUID().toString();
+        state.setBattleId(battleId);
+        // Propriétaire du combat, conservé dans les snapshots
+        state.setPlayer1Id(userId.toString());
+        snapshots.save(state);
+        adopt(userId, state);
+        return battleId;
+    }
+
+    private Session adopt(Long userId, BattleState state) {
+        Session session = new Session(userId, state, clock.millis());
+        Session existing = sessions.putIfAbsent(state.getBattleId(), session);
+        if (existing != null) {
+            return existing;
+        }
+
+        Deque<String> userBattles = battlesByUser.computeIfAbsent(userId, id -> new ConcurrentLinkedDeque<>());
+        userBattles.addLast(state.getBattleId());
+        while (userBattles.size() > maxPerUser) {
+            String oldest = userBattles.pollFirst();
+            if (oldest != null && sessions.remove(oldest) != null) {
+                snapshots.delete(oldest);
+                log.info("Combat de boss {} du joueur {} abandonné (limite de {} atteinte)", oldest, userId, maxPerUser);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Combat du joueur tenu par ce nœud, repris depuis son snapshot au besoin.
+     * @return null si le combat n'existe pas, n'appartient pas au joueur ou est détenu par un autre nœud
+     */
+    private Session sessionOf(Long userId, String battleId) {
+        Session session = sessions.get(battleId);
+        if (session == null) {
+            session = restore(userId, battleId);
+        } else if (!snapshots.acquire(battleId)) {
+            drop(session);
+            return null;
+        }
+        return session != null && session.userId.equals(userId) ? session : null;
+    }
+
+    /**
+     * Reprend un combat depuis son dernier snapshot s'il appartient au joueur et qu'aucun autre nœud ne le détient.
+     */
+    private Session restore(Long userId, String battleId) {
+        return snapshots.load(battleId)
+                .filter(state -> userId.toString().equals(state.getPlayer1Id()))
+                .filter(state -> snapshots.acquire(battleId))
+                .map(state -> {
+                    log.info("Combat de boss {} repris depuis son snapshot", battleId);
+                    return adopt(userId, state);
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Exécute une opération sur un combat du joueur, sans concurrence avec les autres appels sur ce combat.
+     * @return le résultat de l'opération, ou vide si le combat n'existe pas ou n'appartient pas au joueur
+     */
+    public <T> Optional<T> withBattle(Long userId, String battleId, Function<BattleState, T> action) {
+        if (battleId == null) {
+            return Optional.empty();
+        }
+        Session session = sessionOf(userId, battleId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            session.lastActivity = clock.millis();
+            T result = action.apply(session.state);
+            snapshots.save(session.state);
+            return Optional.ofNullable(result);
+        }
+    }
+
+    /**
+     * Retire un combat du joueur (récompense distribuée, abandon).
+     * @return l'état retiré, ou null si le combat n'existe pas ou n'appartient pas au joueur
+     */
+    public BattleState remove(Long userId, String battleId) {
+        if (battleId == null) {
+            return null;
+        }
+        Session session = sessionOf(userId, battleId);
+        if (session == null || !sessions.remove(battleId, session)) {
+            return null;
+        }
+        forget(session.userId, battleId);
+        snapshots.delete(battleId);
+        return session.state;
+    }
+
+    /**
+     * Lâche un combat repris par un autre nœud, sans toucher à son snapshot.
+     */
+    private void drop(Session session) {
+        if (sessions.remove(session.state.getBattleId(), session)) {
+            forget(session.userId, session.state.getBattleId());
+            log.info("Combat de boss {} repris par un autre nœud, lâché localement", session.state.getBattleId());
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Nettoyage planifié des combats abandonnés en cours de route.
+     */
+    @Scheduled(fixedDelayString = "${boss.battle.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = clock.millis();
+        sessions.forEach((battleId, session) -> {
+            if (now - session.lastActivity > idleTimeoutMillis && sessions.remove(battleId, session)) {
+                forget(session.userId, battleId);
+                snapshots.delete(battleId);
+                log.debug("Combat de boss {} retiré après inactivité", battleId);
+            }
+        });
+    }
+
+    private void forget(Long userId, String battleId) {
+        battlesByUser.computeIfPresent(userId, (id, battles) -> {
+            battles.remove(battleId);
+            return battles.isEmpty() ? null : battles;
+        });
+    }
+}
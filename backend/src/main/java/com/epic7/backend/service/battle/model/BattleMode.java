@@ -0,0 +1,9 @@
+package com.epic7.backend.service.battle.model;
+
+/**
+ * Mode de combat : arène en temps réel (joueur contre joueur) ou combat de boss (PvE).
+ */
+public enum BattleMode {
+    RTA,
+    BOSS
+}
@@ -1,5 +1,7 @@
 package com.epic7.backend.service.battle.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.*;
 /**
@@ -21,4 +23,7 @@ public class BattleParticipant {
     private int speed;         // Vitesse
     private boolean isPlayer;  // true si héros du joueur, false si boss
     private String userId;     // ID de l'utilisateur propriétaire du héros (pour RTA)
+    private Long heroId;       // ID du Hero de base (clé du catalogue de compétences)
+    @JsonIgnore
+    private int slot = -1;     // Position dans BattleState.participants (affectée par BattleLoadout)
 }
@@ -0,0 +1,121 @@
+package com.epic7.backend.service.battle.rta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appariement commun aux implémentations de la file.
+ * <p>
+ * Chaque candidat, par cote croissante, est comparé à ses deux voisins immédiats dans l'ordre
+ * (cote, arrivée), lus directement dans la file (recherche en O(log n)) : il est apparié au plus
+ * proche dont l'écart de cote est dans la fenêtre la plus large des deux joueurs. Les cotes proches
+ * sont donc appariées en priorité, et personne n'attend indéfiniment : la fenêtre d'un joueur
+ * s'élargit avec son temps d'attente, {@code baseWindow + widenPerSecond * secondes d'attente},
+ * plafonnée à {@code maxWindow}.
+ * <p>
+ * Seuls les joueurs dont la situation a pu changer (arrivés, fenêtre encore en élargissement,
+ * voisins changés) sont candidats : une file stable ne coûte rien à chaque passage.
+ */
+public abstract class AbstractMatchmakingQueue implements MatchmakingQueue {
+
+    /**
+     * Voisins immédiats d'un joueur dans la file (null en bout de file).
+     */
+    protected record Neighbours(Entry lower, Entry higher) {
+    }
+
+    private final int baseWindow;
+    private final int widenPerSecond;
+    private final int maxWindow;
+
+    protected AbstractMatchmakingQueue(int baseWindow, int widenPerSecond, int maxWindow) {
+        this.baseWindow = baseWindow;
+        this.widenPerSecond = widenPerSecond;
+        this.maxWindow = Math.max(baseWindow, maxWindow);
+    }
+
+    /**
+     * Joueurs pour lesquels chercher un adversaire, par cote croissante : ceux qui ne sont pas
+     * encore stabilisés ({@link #settled}). Les entrées peuvent être partielles : seules la cote
+     * et la date d'arrivée sont utilisées.
+     */
+    protected abstract Iterable<Entry> candidates(long now);
+
+    /**
+     * Voisins immédiats d'un joueur, lus dans l'état courant de la file.
+     * @return null si le joueur n'est plus en attente
+     */
+    protected abstract Neighbours neighbours(Entry entry);
+
+    /**
+     * Aucun voisin compatible alors que la fenêtre du joueur est maximale : rien ne changera
+     * tant que ses voisins restent les mêmes, il n'est plus candidat jusqu'au prochain changement.
+     */
+    protected abstract void settled(Entry entry, Entry lower, Entry higher);
+
+    /**
+     * Retire atomiquement les deux joueurs de la file.
+     * @return la paire, ou null si l'un d'eux n'est plus en attente (aucun n'est alors retiré)
+     */
+    protected abstract Pair claimPair(Entry first, Entry second);
+
+    /**
+     * Complète les paires formées (utilisateurs, héros) avant de les rendre.
+     */
+    protected List<Pair> complete(List<Pair> pairs) {
+        return pairs;
+    }
+
+    @Override
+    public List<Pair> drainPairs(long now, int maxPairs) {
+        List<Pair> pairs = new ArrayList<>();
+        for (Entry entry : candidates(now)) {
+            if (pairs.size() >= maxPairs) {
+                break;
+            }
+            // Un joueur déjà apparié dans ce passage n'est plus en file : pas de voisins
+            Neighbours neighbours = neighbours(entry);
+            if (neighbours == null) {
+                continue;
+            }
+            Entry lower = neighbours.lower();
+            Entry higher = neighbours.higher();
+            Entry partner = closestCompatible(entry, lower, higher, now);
+            if (partner == null) {
+                if (windowFor(entry, now) >= maxWindow) {
+                    settled(entry, lower, higher);
+                }
+                continue;
+            }
+            Pair pair = partner == lower ? claimPair(lower, entry) : claimPair(entry, higher);
+            if (pair != null) {
+                pairs.add(pair);
+            }
+        }
+        return pairs.isEmpty() ? pairs : complete(pairs);
+    }
+
+    /**
+     * Fenêtre de cote acceptée par un joueur après son temps d'attente.
+     */
+    public int windowFor(Entry entry, long now) {
+        long waitedSeconds = Math.max(0, now - entry.enqueuedAt()) / 1000;
+        long window = baseWindow + widenPerSecond * waitedSeconds;
+        return (int) Math.min(window, maxWindow);
+    }
+
+    // Voisin compatible le plus proche en cote ; à écart égal, le voisin inférieur
+    private Entry closestCompatible(Entry entry, Entry lower, Entry higher, long now) {
+        Entry best = lower != null && compatible(lower, entry, now) ? lower : null;
+        if (higher != null && compatible(entry, higher, now)
+                && (best == null || higher.rating() - entry.rating() < entry.rating() - best.rating())) {
+            best = higher;
+        }
+        return best;
+    }
+
+    private boolean compatible(Entry lower, Entry higher, long now) {
+        int gap = higher.rating() - lower.rating();
+        return gap <= Math.max(windowFor(lower, now), windowFor(higher, now));
+    }
+}
@@ -0,0 +1,130 @@
+package com.epic7.backend.service.battle.rta;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution des actions RTA par "couloir" (lane) de combat.
+ * Chaque combat possède sa boîte aux lettres : les tâches d'un même combat s'exécutent
+ * une par une, dans l'ordre d'arrivée, sans verrou global ; des combats différents
+ * avancent en parallèle sur le pool partagé.
+ * Un combat n'occupe un thread que lorsque sa boîte aux lettres contient des tâches,
+ * et sa boîte aux lettres n'existe que tant qu'elle en contient : vidée, elle est retirée.
+ */
+@Component
+@Slf4j
+public class BattleLaneExecutor {
+
+    // Nombre de tâches traitées d'affilée par un combat avant de rendre la main aux autres
+    private static final int DRAIN_BATCH = 16;
+
+    private final ExecutorService pool;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public BattleLaneExecutor(@Value("${rta.battle.lane-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = Executors.newFixedThreadPool(size, new LaneThreadFactory());
+        log.info("Exécuteur des combats RTA démarré avec {} threads", size);
+    }
+
+    /**
+     * Ajoute une tâche à la boîte aux lettres du combat.
+     * Les tâches d'un même combat ne s'exécutent jamais en parallèle : l'ajout et le retrait
+     * d'une boîte vidée se font sous le verrou de la clé, une tâche ne peut donc pas rejoindre
+     * une boîte déjà retirée pendant qu'une nouvelle boîte du même combat démarre.
+     */
+    public void execute(String battleId, Runnable task) {
+        Lane lane = lanes.compute(battleId, (id, existing) -> {
+            Lane target = existing != null ? existing : new Lane(id);
+            target.mailbox.offer(task);
+            return target;
+        });
+        lane.schedule();
+    }
+
+    /**
+     * Nombre de combats ayant des tâches en attente ou en cours.
+     */
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Boîte aux lettres d'un combat. Au plus un thread la vide à un instant donné.
+     */
+    private final class Lane implements Runnable {
+        private final String battleId;
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Lane(String battleId) {
+            this.battleId = battleId;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    Runnable task = mailbox.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        log.error("Erreur lors du traitement d'une tâche du combat {}", battleId, e);
+                    }
+                }
+            } finally {
+                // Retrait tant que la boîte est encore marquée planifiée : aucun autre thread ne peut la vider
+                boolean retired = lanes.computeIfPresent(battleId,
+                        (id, lane) -> lane == this && mailbox.isEmpty() ? null : lane) != this;
+                scheduled.set(false);
+                // Une tâche a pu arriver entre le dernier poll et le relâchement
+                if (!retired && !mailbox.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "rta-battle-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.User;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File d'attente RTA locale au nœud, sans verrou.
+ * Les joueurs sont indexés par (points, ordre d'arrivée) dans une skip list : l'ajout et le retrait
+ * sont en O(log n) et n'attendent jamais l'appariement, fait par une boucle séparée ({@link #drainPairs}).
+ * Un joueur sans adversaire possible et dont la fenêtre ne s'élargit plus n'est réexaminé que
+ * lorsque ses voisins changent.
+ * Sert aussi de file de substitution pour les tests.
+ */
+@Component
+@ConditionalOnProperty(name = "rta.matchmaking.queue-backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryMatchmakingQueue extends AbstractMatchmakingQueue {
+
+    /**
+     * Clé de l'index par cote : cote puis ordre d'arrivée (à cote égale, le plus ancien d'abord).
+     */
+    private record RatingKey(int rating, long sequence) implements Comparable<RatingKey> {
+        @Override
+        public int compareTo(RatingKey other) {
+            int byRating = Integer.compare(rating, other.rating);
+            return byRating != 0 ? byRating : Long.compare(sequence, other.sequence);
+        }
+
+        static RatingKey of(Entry entry) {
+            return new RatingKey(entry.rating(), entry.sequence());
+        }
+    }
+
+    private final ConcurrentSkipListMap<RatingKey, Entry> byRating = new ConcurrentSkipListMap<>();
+    private final Map<String, RatingKey> keyByUser = new ConcurrentHashMap<>();
+    // Joueurs à réexaminer : arrivés, fenêtre encore en élargissement ou voisins changés
+    private final ConcurrentSkipListSet<RatingKey> unsettled = new ConcurrentSkipListSet<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryMatchmakingQueue(@Value("${rta.matchmaking.base-window:100}") int baseWindow,
+                                    @Value("${rta.matchmaking.widen-per-second:10}") int widenPerSecond,
+                                    @Value("${rta.matchmaking.max-window:1000}") int maxWindow) {
+        super(baseWindow, widenPerSecond, maxWindow);
+    }
+
+    @Override
+    public Entry enqueue(User user, List<Long> heroIds, long now) {
+        RatingKey existingKey = keyByUser.get(user.getId().toString());
+        Entry existing = existingKey != null ? byRating.get(existingKey) : null;
+        Entry entry = existing != null
+                ? new Entry(user, heroIds, existing.rating(), existing.enqueuedAt(), existing.sequence())
+                : new Entry(user, heroIds, user.getRtaPoints(), now, sequence.incrementAndGet());
+        add(entry);
+        return entry;
+    }
+
+    @Override
+    public void requeue(Entry entry) {
+        add(entry);
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        RatingKey key = keyByUser.remove(userId);
+        if (key == null || byRating.remove(key) == null) {
+            return false;
+        }
+        removed(key);
+        return true;
+    }
+
+    /**
+     * Seuls les joueurs non stabilisés sont réexaminés : une file stable ne coûte rien à chaque passage.
+     */
+    @Override
+    protected Iterable<Entry> candidates(long now) {
+        List<Entry> candidates = new ArrayList<>();
+        for (RatingKey key : unsettled) {
+            Entry entry = byRating.get(key);
+            if (entry != null) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    protected Neighbours neighbours(Entry entry) {
+        RatingKey key = RatingKey.of(entry);
+        if (byRating.get(key) != entry) {
+            return null;
+        }
+        Map.Entry<RatingKey, Entry> lower = byRating.lowerEntry(key);
+        Map.Entry<RatingKey, Entry> higher = byRating.higherEntry(key);
+        return new Neighbours(lower != null ? lower.getValue() : null, higher != null ? higher.getValue() : null);
+    }
+
+    @Override
+    protected void settled(Entry entry, Entry lower, Entry higher) {
+        RatingKey key = RatingKey.of(entry);
+        unsettled.remove(key);
+        // Un voisin a changé entre-temps : le joueur sera réexaminé au prochain passage
+        if (!Objects.equals(byRating.lowerKey(key), lower != null ? RatingKey.of(lower) : null)
+                || !Objects.equals(byRating.higherKey(key), higher != null ? RatingKey.of(higher) : null)) {
+            unsettled.add(key);
+        }
+    }
+
+    /**
+     * Les joueurs restent inscrits dans {@code keyByUser} tant que la paire n'est pas acquise :
+     * si le second n'est plus en file, le premier n'est remis que s'il n'est ni parti ni réinscrit entre-temps.
+     */
+    @Override
+    protected Pair claimPair(Entry first, Entry second) {
+        RatingKey firstKey = RatingKey.of(first);
+        RatingKey secondKey = RatingKey.of(second);
+        if (!byRating.remove(firstKey, first)) {
+            return null;
+        }
+        if (!byRating.remove(secondKey, second)) {
+            restore(first, firstKey);
+            return null;
+        }
+        keyByUser.remove(first.userId(), firstKey);
+        keyByUser.remove(second.userId(), secondKey);
+        removed(firstKey);
+        removed(secondKey);
+        return new Pair(first, second);
+    }
+
+    @Override
+    public List<Entry> removeEnqueuedBefore(long cutoff) {
+        List<Entry> expired = new ArrayList<>();
+        for (Entry entry : byRating.values()) {
+            if (entry.enqueuedAt() < cutoff && claim(entry)) {
+                expired.add(entry);
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public int size() {
+        return byRating.size();
+    }
+
+    /**
+     * Parcours de la tranche de cotes uniquement.
+     */
+    @Override
+    public int countBetween(int minRating, int maxRating) {
+        return byRating.subMap(new RatingKey(minRating, Long.MIN_VALUE), new RatingKey(maxRating, Long.MIN_VALUE)).size();
+    }
+
+    private void add(Entry entry) {
+        RatingKey key = RatingKey.of(entry);
+        RatingKey previous = keyByUser.put(entry.userId(), key);
+        if (previous != null && !previous.equals(key) && byRating.remove(previous) != null) {
+            removed(previous);
+        }
+        byRating.put(key, entry);
+        unsettled.add(key);
+    }
+
+    // Réinsertion conditionnelle : un remove() concurrent retire keyByUser avant l'index, on vérifie après l'ajout
+    private void restore(Entry entry, RatingKey key) {
+        if (!key.equals(keyByUser.get(entry.userId()))) {
+            return;
+        }
+        byRating.putIfAbsent(key, entry);
+        if (!key.equals(keyByUser.get(entry.userId()))) {
+            byRating.remove(key, entry);
+        }
+    }
+
+    // Les voisins d'un joueur retiré deviennent voisins entre eux
+    private void removed(RatingKey key) {
+        unsettled.remove(key);
+        RatingKey lower = byRating.lowerKey(key);
+        RatingKey higher = byRating.higherKey(key);
+        if (lower != null) {
+            unsettled.add(lower);
+        }
+        if (higher != null) {
+            unsettled.add(higher);
+        }
+    }
+
+    // Retire atomiquement une entrée : un seul appelant peut l'obtenir
+    private boolean claim(Entry entry) {
+        RatingKey key = RatingKey.of(entry);
+        if (!byRating.remove(key, entry)) {
+            return false;
+        }
+        keyByUser.remove(entry.userId(), key);
+        removed(key);
+        return true;
+    }
+}
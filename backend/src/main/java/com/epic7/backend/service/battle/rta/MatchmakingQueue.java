@@ -0,0 +1,70 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.User;
+
+import java.util.List;
+
+/**
+ * File d'attente du matchmaking RTA, triée par points RTA.
+ * Implémentation choisie par {@code rta.matchmaking.queue-backend} :
+ * <ul>
+ *   <li>{@code memory} (défaut) : file locale au nœud ({@link InMemoryMatchmakingQueue}) ;</li>
+ *   <li>{@code redis} : file partagée entre les nœuds ({@link RedisMatchmakingQueue}),
+ *       les joueurs de deux réplicas peuvent être appariés entre eux.</li>
+ * </ul>
+ * Toutes les opérations sont sans verrou applicatif ; un joueur ne peut être retiré
+ * (appariement, départ, expiration) qu'une seule fois.
+ */
+public interface MatchmakingQueue {
+
+    /**
+     * Joueur en attente.
+     */
+    record Entry(User user, List<Long> heroIds, int rating, long enqueuedAt, long sequence) {
+        public String userId() {
+            return user.getId().toString();
+        }
+    }
+
+    /**
+     * Deux joueurs appariés, retirés de la file.
+     */
+    record Pair(Entry first, Entry second) {
+    }
+
+    /**
+     * Ajoute un joueur à la file. S'il y est déjà, seule sa sélection de héros est mise à jour :
+     * il garde sa cote et son ancienneté.
+     */
+    Entry enqueue(User user, List<Long> heroIds, long now);
+
+    /**
+     * Remet en file un joueur apparié dont le combat n'a pas pu être créé, avec son ancienneté.
+     */
+    void requeue(Entry entry);
+
+    /**
+     * Retire un joueur de la file.
+     * @return true s'il était en attente
+     */
+    boolean remove(String userId);
+
+    /**
+     * Forme des paires parmi les joueurs en attente et les retire de la file.
+     * @param maxPairs nombre maximal de paires formées par appel
+     */
+    List<Pair> drainPairs(long now, int maxPairs);
+
+    /**
+     * Retire les joueurs arrivés avant {@code cutoff}.
+     * @return les entrées retirées
+     */
+    List<Entry> removeEnqueuedBefore(long cutoff);
+
+    int size();
+
+    /**
+     * Nombre de joueurs dont la cote est dans [minRating, maxRating[.
+     */
+    int countBetween(int minRating, int maxRating);
+}
@@ -2,134 +2,230 @@ package com.epic7.backend.service.battle.rta;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.epic7.backend.event.RtaMatchFoundEvent;
+import com.epic7.backend.event.RtaQueueExpiredEvent;
+import com.epic7.backend.event.RtaQueueRejectedEvent;
+import com.epic7.backend.exception.InvalidRtaTeamException;
+import com.epic7.backend.exception.RtaCapacityExceededException;
 import com.epic7.backend.model.User;
 import com.epic7.backend.service.battle.manager.BattleManager;
+import com.epic7.backend.service.rta.RtaRankingService.RtaTier;
 
-import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Matchmaking RTA en trois temps, sans verrou global :
+ * <ol>
+ *   <li>{@link #join} ajoute le joueur à la file et rend la main immédiatement ;</li>
+ *   <li>une boucle planifiée forme les paires par lots ({@link #pairWaitingPlayers}) ;</li>
+ *   <li>la création des combats (chargement des héros en base) se fait sur un pool dédié,
+ *       puis {@link RtaMatchFoundEvent} prévient les joueurs.</li>
+ * </ol>
+ * La latence d'entrée en file ne dépend donc plus de la base de données.
+ * Les joueurs qui attendent plus de {@code queueTimeout} sont retirés et prévenus ({@link RtaQueueExpiredEvent}).
+ * Après un échec de création, la paire n'est remise en file qu'après {@code retryDelay}, et sans les joueurs
+ * partis entre-temps.
+ * <p>
+ * Métriques : profondeur de file par tier, temps d'attente avant match (percentiles),
+ * échecs de création de combat et expirations.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MatchmakingService {
 
     private final BattleManager battleManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService battleCreationPool;
+    private final int maxPairsPerTick;
+    private final long queueTimeoutMillis;
+    private final long retryDelayMillis;
+
+    private final Timer timeToMatch;
+    private final Counter matchFailures;
+    private final Counter queueExpirations;
     
-    // Structure pour stocker les joueurs en attente
-    private final Map<String, QueueEntry> queue = new ConcurrentHashMap<>();
-    
-    /**
-     * Réponse d'un match trouvé
-     */
-    @Data
-    public static class MatchResponse {
-        private final User opponent;
-        private final String battleId;
-    }
-    
-    /**
-     * Entrée dans la file d'attente
-     */
-    @Data
-    private static class QueueEntry {
-        private final User user;
-        private final List<Long> heroIds;
-        private final long timestamp = System.currentTimeMillis();
+    // Joueurs en attente, triés par points RTA (locale ou partagée entre les nœuds)
+    private final MatchmakingQueue queue;
+
+    // Joueurs partis alors qu'ils n'étaient plus en file (paire en cours de création) : userId -> date du départ
+    private final Map<String, Long> departures = new ConcurrentHashMap<>();
+
+    public MatchmakingService(BattleManager battleManager,
+                              ApplicationEventPublisher eventPublisher,
+                              MatchmakingQueue queue,
+                              @Value("${rta.matchmaking.max-pairs-per-tick:500}") int maxPairsPerTick,
+                              @Value("${rta.matchmaking.worker-threads:4}") int workerThreads,
+                              @Value("${rta.matchmaking.queue-timeout-seconds:300}") long queueTimeoutSeconds,
+                              @Value("${rta.matchmaking.retry-delay-ms:5000}") long retryDelayMillis,
+                              MeterRegistry meterRegistry) {
+        this.battleManager = battleManager;
+        this.eventPublisher = eventPublisher;
+        this.queue = queue;
+        this.maxPairsPerTick = maxPairsPerTick;
+        this.queueTimeoutMillis = queueTimeoutSeconds * 1000;
+        this.retryDelayMillis = retryDelayMillis;
+
+        // Profondeur de file par tier : les tiers sont des tranches de points, comptées dans la file triée
+        RtaTier[] tiers = RtaTier.values();
+        for (int i = 0; i < tiers.length; i++) {
+            int min = tiers[i].getMinPoints();
+            int max = i + 1 < tiers.length ? tiers[i + 1].getMinPoints() : Integer.MAX_VALUE;
+            Gauge.builder("rta.matchmaking.queue.depth", queue, q -> q.countBetween(min, max))
+                    .tag("tier", tiers[i].getDisplayName())
+                    .description("Joueurs en attente d'un match RTA")
+                    .register(meterRegistry);
+        }
+        this.timeToMatch = Timer.builder("rta.matchmaking.time.to.match")
+                .description("Temps d'attente en file avant la création du combat")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.matchFailures = Counter.builder("rta.matchmaking.failures")
+                .description("Combats RTA dont la création a échoué après appariement")
+                .register(meterRegistry);
+        this.queueExpirations = Counter.builder("rta.matchmaking.expired")
+                .description("Joueurs retirés de la file après trop d'attente")
+                .register(meterRegistry);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.battleCreationPool = Executors.newScheduledThreadPool(Math.max(1, workerThreads), r -> {
+            Thread thread = new Thread(r, "rta-matchmaking-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     /**
-     * Rejoindre la file d'attente
+     * Rejoindre la file d'attente. Ne bloque pas : l'adversaire est cherché par la boucle d'appariement
+     * et le match est annoncé par {@link RtaMatchFoundEvent}.
      * @param user L'utilisateur qui recherche un match
      * @param heroIds Les IDs des héros sélectionnés (2)
-     * @return null si en attente, ou MatchResponse si un adversaire est trouvé
      */
-    public synchronized MatchResponse join(User user, List<Long> heroIds) {
-        String userId = user.getId().toString();
-        
+    public void join(User user, List<Long> heroIds) {
         // Vérifier que le nombre de héros est correct
         if (heroIds.size() != 2) {
             throw new IllegalArgumentException("Le joueur doit sélectionner exactement 2 héros.");
         }
         
-        // Si déjà dans la file, actualiser la sélection
-        if (queue.containsKey(userId)) {
-            queue.put(userId, new QueueEntry(user, heroIds));
-            return null;
+        // Si déjà dans la file, seule la sélection est actualisée (l'ancienneté est conservée)
+        departures.remove(user.getId().toString());
+        MatchmakingQueue.Entry entry = queue.enqueue(user, heroIds, System.currentTimeMillis());
+        log.info("Joueur {} ({} pts) en file d'attente", user.getUsername(), entry.rating());
+    }
+    
+    /**
+     * Quitter la file d'attente. Un joueur déjà apparié n'est plus en file : son départ est noté
+     * pour qu'il n'y soit pas remis si la création de son combat échoue.
+     */
+    public void leave(User user) {
+        String userId = user.getId().toString();
+        if (queue.remove(userId)) {
+            log.info("Joueur {} retiré de la file", user.getUsername());
+        } else {
+            departures.put(userId, System.currentTimeMillis());
         }
-        
-        // Rechercher un adversaire
-        Optional<Map.Entry<String, QueueEntry>> match = findMatch(userId);
-        
-        if (match.isPresent()) {
-            // Adversaire trouvé
-            String opponentId = match.get().getKey();
-            QueueEntry opponent = match.get().getValue();
-            
-            // Retirer les deux joueurs de la file
-            queue.remove(opponentId);
-            
-            // Générer un ID de bataille
-            String battleId = UUID.randomUUID().toString();
-            
-            // CORRECTION: Démarrer la bataille et vérifier qu'elle est bien créée
+    }
+
+    /**
+     * Boucle d'appariement : forme un lot de paires et confie la création des combats au pool.
+     */
+    @Scheduled(fixedDelayString = "${rta.matchmaking.tick-ms:200}")
+    public void pairWaitingPlayers() {
+        List<MatchmakingQueue.Pair> pairs = queue.drainPairs(System.currentTimeMillis(), maxPairsPerTick);
+        for (MatchmakingQueue.Pair pair : pairs) {
+            battleCreationPool.execute(() -> createBattle(pair));
+        }
+    }
+
+    /**
+     * Crée le combat d'une paire. Si l'échec vient de l'équipe d'un joueur, ce joueur est retiré et prévenu
+     * ({@link RtaQueueRejectedEvent}) et seul son adversaire retrouve sa place. Capacité atteinte : les deux
+     * sont prévenus, un nouvel essai immédiat échouerait. Autre échec : les deux sont remis en file après
+     * {@code retryDelay}. Un joueur parti pendant la création n'est jamais remis en file.
+     */
+    void createBattle(MatchmakingQueue.Pair pair) {
+        User player1 = pair.first().user();
+        User player2 = pair.second().user();
+        String battleId = UUID.randomUUID().toString();
+
+        try {
             boolean battleCreated = battleManager.startRtaBattle(
                 battleId,
-                user, opponent.getUser(),
-                heroIds, opponent.getHeroIds()
+                player1, player2,
+                pair.first().heroIds(), pair.second().heroIds()
             );
-            
             if (!battleCreated) {
-                log.error("Échec de la création de la bataille {}", battleId);
-                // Remettre les joueurs en file d'attente
-                queue.put(userId, new QueueEntry(user, heroIds));
-                queue.put(opponentId, opponent);
-                return null;
+                throw new IllegalStateException("Combat non créé");
             }
-            
-            // CORRECTION: Vérifier que la bataille est bien accessible avant de retourner l'ID
-            try {
-                battleManager.getBattleState(battleId);
-                log.info("Bataille {} créée avec succès pour {} vs {}", battleId, user.getUsername(), opponent.getUser().getUsername());
-            } catch (Exception e) {
-                log.error("Bataille {} créée mais non accessible: {}", battleId, e.getMessage());
-                // Remettre les joueurs en file d'attente
-                queue.put(userId, new QueueEntry(user, heroIds));
-                queue.put(opponentId, opponent);
-                return null;
+            // Vérifier que la bataille est bien accessible avant de l'annoncer
+            battleManager.getBattleState(battleId);
+        } catch (InvalidRtaTeamException e) {
+            matchFailures.increment();
+            MatchmakingQueue.Entry rejected = e.getUserId().equals(player1.getId().toString()) ? pair.first() : pair.second();
+            MatchmakingQueue.Entry other = rejected == pair.first() ? pair.second() : pair.first();
+            log.warn("Bataille {} non créée, {} retiré de la file : {}", battleId, rejected.user().getUsername(), e.getMessage());
+            departures.remove(rejected.userId());
+            requeueUnlessLeft(other);
+            eventPublisher.publishEvent(new RtaQueueRejectedEvent(rejected.user(), e.getMessage()));
+            return;
+        } catch (RtaCapacityExceededException e) {
+            matchFailures.increment();
+            log.warn("Bataille {} non créée : {}", battleId, e.getMessage());
+            for (MatchmakingQueue.Entry entry : List.of(pair.first(), pair.second())) {
+                departures.remove(entry.userId());
+                eventPublisher.publishEvent(new RtaQueueRejectedEvent(entry.user(), "Serveur complet, relancez une recherche plus tard"));
             }
-            
-            return new MatchResponse(opponent.getUser(), battleId);
-        } else {
-            // Pas d'adversaire, mettre en file d'attente
-            queue.put(userId, new QueueEntry(user, heroIds));
-            log.info("Joueur {} mis en file d'attente", user.getUsername());
-            return null;
+            return;
+        } catch (Exception e) {
+            matchFailures.increment();
+            log.error("Échec de la création de la bataille {}, nouvel essai dans {} ms : {}", battleId, retryDelayMillis, e.getMessage());
+            battleCreationPool.schedule(() -> {
+                requeueUnlessLeft(pair.first());
+                requeueUnlessLeft(pair.second());
+            }, retryDelayMillis, TimeUnit.MILLISECONDS);
+            return;
         }
+
+        departures.remove(pair.first().userId());
+        departures.remove(pair.second().userId());
+
+        long now = System.currentTimeMillis();
+        timeToMatch.record(now - pair.first().enqueuedAt(), TimeUnit.MILLISECONDS);
+        timeToMatch.record(now - pair.second().enqueuedAt(), TimeUnit.MILLISECONDS);
+        log.info("Bataille {} créée avec succès pour {} vs {}", battleId, player1.getUsername(), player2.getUsername());
+        eventPublisher.publishEvent(new RtaMatchFoundEvent(battleId, player1, player2));
     }
     
     /**
-     * Quitter la file d'attente
+     * Remet en file un joueur apparié, sauf s'il est parti depuis. Le départ est revérifié après l'ajout :
+     * un leave() arrivé juste avant la remise en file ne trouvait pas encore le joueur.
      */
-    public void leave(User user) {
-        String userId = user.getId().toString();
-        if (queue.remove(userId) != null) {
-            log.info("Joueur {} retiré de la file", user.getUsername());
+    private void requeueUnlessLeft(MatchmakingQueue.Entry entry) {
+        String userId = entry.userId();
+        if (departures.remove(userId) != null) {
+            log.info("Joueur {} parti pendant la création de son combat, non remis en file", entry.user().getUsername());
+            return;
+        }
+        queue.requeue(entry);
+        if (departures.remove(userId) != null) {
+            queue.remove(userId);
         }
     }
-    
-    /**
-     * Recherche un adversaire disponible
-     */
-    private Optional<Map.Entry<String, QueueEntry>> findMatch(String userId) {
-        return queue.entrySet().stream()
-            .filter(entry -> !entry.getKey().equals(userId))
-            .findFirst();
-    }
-    
+
     /**
      * Obtenir le nombre de joueurs en file d'attente
      */
@@ -138,13 +234,26 @@ public class MatchmakingService {
     }
     
     /**
-     * Nettoyer les entrées trop anciennes (plus de 5 minutes)
+     * Retire les joueurs qui attendent depuis plus de {@code queueTimeout} et les prévient.
      */
+    @Scheduled(fixedDelayString = "${rta.matchmaking.expiry-sweep-ms:30000}")
     public void cleanupQueue() {
-        long now = System.currentTimeMillis();
-        long timeout = 5 * 60 * 1000; // 5 minutes
-        
-        queue.entrySet().removeIf(entry -> 
-            (now - entry.getValue().getTimestamp()) > timeout);
+        List<MatchmakingQueue.Entry> expired = queue.removeEnqueuedBefore(System.currentTimeMillis() - queueTimeoutMillis);
+        for (MatchmakingQueue.Entry entry : expired) {
+            queueExpirations.increment();
+            log.info("Joueur {} retiré de la file après {} s d'attente", entry.user().getUsername(), queueTimeoutMillis / 1000);
+            eventPublisher.publishEvent(new RtaQueueExpiredEvent(entry.user()));
+        }
+        // Départs notés hors appariement (leave() sans file ni combat) : inutiles passé ce délai
+        long departureCutoff = System.currentTimeMillis() - Math.max(queueTimeoutMillis, retryDelayMillis);
+        departures.values().removeIf(leftAt -> leftAt < departureCutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        battleCreationPool.shutdown();
+        if (!battleCreationPool.awaitTermination(5, TimeUnit.SECONDS)) {
+            battleCreationPool.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,386 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.User;
+import com.epic7.backend.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * File d'attente RTA partagée entre les nœuds, dans Redis.
+ * <ul>
+ *   <li>{@code {rta:queue}:rating} : ensemble trié par cote ;</li>
+ *   <li>{@code {rta:queue}:enqueued} : le même ensemble trié par date d'arrivée (expiration) ;</li>
+ *   <li>{@code {rta:queue}:unsettled} : joueurs à réexaminer (arrivés, fenêtre encore en élargissement
+ *       ou voisins changés), triés par cote ;</li>
+ *   <li>{@code {rta:queue}:entry:<userId>} : membre courant du joueur et sélection de héros.</li>
+ * </ul>
+ * Un membre vaut {@code <séquence sur 19 chiffres>|<userId>|<date d'arrivée>} : à cote égale,
+ * l'ordre lexicographique de Redis est celui d'arrivée.
+ * Chaque modification est un script Lua, donc atomique : si deux nœuds forment la même paire,
+ * un seul réussit à retirer les joueurs. Un passage d'appariement ne lit que les joueurs à réexaminer,
+ * puis les deux voisins de chacun (un aller-retour, O(log n) côté Redis) : une file stable ne coûte
+ * presque rien, quelle que soit sa taille. Toutes les clés partagent l'étiquette {@code {rta:queue}}
+ * et restent sur le même slot en Redis Cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "rta.matchmaking.queue-backend", havingValue = "redis")
+@Slf4j
+public class RedisMatchmakingQueue extends AbstractMatchmakingQueue {
+
+    private static final String RATING_KEY = "{rta:queue}:rating";
+    private static final String ENQUEUED_KEY = "{rta:queue}:enqueued";
+    private static final String UNSETTLED_KEY = "{rta:queue}:unsettled";
+    private static final String SEQUENCE_KEY = "{rta:queue}:sequence";
+    private static final String ENTRY_KEY_PREFIX = "{rta:queue}:entry:";
+
+    // Les voisins d'un joueur retiré deviennent voisins entre eux : ils sont à réexaminer.
+    // Préfixe des scripts qui retirent des membres ; KEYS[1] = rating, KEYS[2] = enqueued, KEYS[#KEYS] = unsettled
+    private static final String UNLINK_FUNCTION = """
+            local function unlink(member)
+              local rank = redis.call('ZRANK', KEYS[1], member)
+              if rank then
+                local around = redis.call('ZRANGE', KEYS[1], math.max(rank - 1, 0), rank + 1, 'WITHSCORES')
+                for i = 1, #around, 2 do
+                  if around[i] ~= member then
+                    redis.call('ZADD', KEYS[#KEYS], around[i + 1], around[i])
+                  end
+                end
+              end
+              redis.call('ZREM', KEYS[1], member)
+              redis.call('ZREM', KEYS[2], member)
+              redis.call('ZREM', KEYS[#KEYS], member)
+            end
+            """;
+
+    // KEYS : rating, enqueued, entry, sequence, unsettled ; ARGV : userId, cote, date d'arrivée, héros
+    // Retourne {membre, cote} ; un joueur déjà en file garde son membre et sa cote
+    private static final RedisScript<List> ENQUEUE = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[3])
+            if current then
+              local member = string.sub(current, 1, string.find(current, ';', 1, true) - 1)
+              local rating = redis.call('ZSCORE', KEYS[1], member)
+              if rating then
+                redis.call('SET', KEYS[3], member .. ';' .. ARGV[4])
+                return {member, rating}
+              end
+            end
+            local member = string.format('%019d', redis.call('INCR', KEYS[4])) .. '|' .. ARGV[1] .. '|' .. ARGV[3]
+            redis.call('ZADD', KEYS[1], ARGV[2], member)
+            redis.call('ZADD', KEYS[2], ARGV[3], member)
+            redis.call('ZADD', KEYS[5], ARGV[2], member)
+            redis.call('SET', KEYS[3], member .. ';' .. ARGV[4])
+            return {member, ARGV[2]}
+            """, List.class);
+
+    // KEYS : rating, enqueued, entry, unsettled ; ARGV : membre, cote, date d'arrivée, héros
+    private static final RedisScript<Long> REQUEUE = new DefaultRedisScript<>("""
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])
+            redis.call('ZADD', KEYS[4], ARGV[2], ARGV[1])
+            redis.call('SET', KEYS[3], ARGV[1] .. ';' .. ARGV[4])
+            return 1
+            """, Long.class);
+
+    // KEYS : rating, enqueued, entry..., unsettled ; ARGV : membres (dans le même ordre que les entrées)
+    // Retire tous les joueurs ou aucun ; retourne {héros, cote} par joueur, ou nil
+    private static final RedisScript<List> CLAIM = new DefaultRedisScript<>(UNLINK_FUNCTION + """
+            local ratings = {}
+            for i = 1, #ARGV do
+              ratings[i] = redis.call('ZSCORE', KEYS[1], ARGV[i])
+              if not ratings[i] then
+                return nil
+              end
+            end
+            local claimed = {}
+            for i = 1, #ARGV do
+              unlink(ARGV[i])
+              local current = redis.call('GET', KEYS[i + 2]) or ''
+              redis.call('DEL', KEYS[i + 2])
+              table.insert(claimed, string.sub(current, string.find(current, ';', 1, true) or #current + 1))
+              table.insert(claimed, ratings[i])
+            end
+            return claimed
+            """, List.class);
+
+    // KEYS : rating, enqueued, entry, unsettled
+    private static final RedisScript<Long> REMOVE = new DefaultRedisScript<>(UNLINK_FUNCTION + """
+            local current = redis.call('GET', KEYS[3])
+            if not current then
+              return 0
+            end
+            local member = string.sub(current, 1, string.find(current, ';', 1, true) - 1)
+            unlink(member)
+            redis.call('DEL', KEYS[3])
+            return 1
+            """, Long.class);
+
+    // KEYS : rating, unsettled ; ARGV : membre
+    // Retourne {membre inférieur, cote, membre supérieur, cote} ('' en bout de file), ou nil s'il n'est plus en file
+    private static final RedisScript<List> NEIGHBOURS = new DefaultRedisScript<>("""
+            local rank = redis.call('ZRANK', KEYS[1], ARGV[1])
+            if not rank then
+              redis.call('ZREM', KEYS[2], ARGV[1])
+              return nil
+            end
+            local result = {'', '0', '', '0'}
+            if rank > 0 then
+              local lower = redis.call('ZRANGE', KEYS[1], rank - 1, rank - 1, 'WITHSCORES')
+              result[1], result[2] = lower[1], lower[2]
+            end
+            local higher = redis.call('ZRANGE', KEYS[1], rank + 1, rank + 1, 'WITHSCORES')
+            if #higher > 0 then
+              result[3], result[4] = higher[1], higher[2]
+            end
+            return result
+            """, List.class);
+
+    // KEYS : rating, unsettled ; ARGV : membre, voisin inférieur et supérieur observés ('' si aucun)
+    // Le joueur n'est plus réexaminé, sauf si ses voisins ont changé depuis l'observation
+    private static final RedisScript<Long> SETTLE = new DefaultRedisScript<>("""
+            local rank = redis.call('ZRANK', KEYS[1], ARGV[1])
+            if rank then
+              local lower = rank > 0 and redis.call('ZRANGE', KEYS[1], rank - 1, rank - 1)[1] or ''
+              local higher = redis.call('ZRANGE', KEYS[1], rank + 1, rank + 1)[1] or ''
+              if lower ~= ARGV[2] or higher ~= ARGV[3] then
+                return 0
+              end
+            end
+            redis.call('ZREM', KEYS[2], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final UserRepository userRepository;
+
+    public RedisMatchmakingQueue(StringRedisTemplate redis,
+                                 UserRepository userRepository,
+                                 @Value("${rta.matchmaking.base-window:100}") int baseWindow,
+                                 @Value("${rta.matchmaking.widen-per-second:10}") int widenPerSecond,
+                                 @Value("${rta.matchmaking.max-window:1000}") int maxWindow) {
+        super(baseWindow, widenPerSecond, maxWindow);
+        this.redis = redis;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Entry enqueue(User user, List<Long> heroIds, long now) {
+        String userId = user.getId().toString();
+        List<?> result = redis.execute(ENQUEUE,
+                List.of(RATING_KEY, ENQUEUED_KEY, entryKey(userId), SEQUENCE_KEY, UNSETTLED_KEY),
+                userId, String.valueOf(user.getRtaPoints()), String.valueOf(now), joinHeroes(heroIds));
+        Entry stored = parseMember((String) result.get(0), (int) Double.parseDouble(result.get(1).toString()));
+        return new Entry(user, heroIds, stored.rating(), stored.enqueuedAt(), stored.sequence());
+    }
+
+    @Override
+    public void requeue(Entry entry) {
+        redis.execute(REQUEUE, List.of(RATING_KEY, ENQUEUED_KEY, entryKey(entry.userId()), UNSETTLED_KEY),
+                member(entry), String.valueOf(entry.rating()), String.valueOf(entry.enqueuedAt()),
+                joinHeroes(entry.heroIds()));
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        Long removed = redis.execute(REMOVE, List.of(RATING_KEY, ENQUEUED_KEY, entryKey(userId), UNSETTLED_KEY));
+        return removed != null && removed == 1L;
+    }
+
+    /**
+     * Joueurs à réexaminer seulement, en un aller-retour ; les entrées sont partielles
+     * (identifiant seul pour l'utilisateur). Les retraits concurrents sont détectés par {@link #neighbours}
+     * et {@link #claimPair}.
+     */
+    @Override
+    protected Iterable<Entry> candidates(long now) {
+        Set<TypedTuple<String>> unsettled = redis.opsForZSet().rangeWithScores(UNSETTLED_KEY, 0, -1);
+        if (unsettled == null) {
+            return List.of();
+        }
+        List<Entry> candidates = new ArrayList<>(unsettled.size());
+        for (TypedTuple<String> tuple : unsettled) {
+            candidates.add(parseMember(tuple.getValue(), tuple.getScore().intValue()));
+        }
+        return candidates;
+    }
+
+    @Override
+    protected Neighbours neighbours(Entry entry) {
+        List<?> result = redis.execute(NEIGHBOURS, List.of(RATING_KEY, UNSETTLED_KEY), member(entry));
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        return new Neighbours(neighbour(result, 0), neighbour(result, 2));
+    }
+
+    @Override
+    protected void settled(Entry entry, Entry lower, Entry higher) {
+        redis.execute(SETTLE, List.of(RATING_KEY, UNSETTLED_KEY), member(entry),
+                lower != null ? member(lower) : "", higher != null ? member(higher) : "");
+    }
+
+    @Override
+    protected Pair claimPair(Entry first, Entry second) {
+        List<Entry> claimed = claim(List.of(first, second));
+        return claimed != null ? new Pair(claimed.get(0), claimed.get(1)) : null;
+    }
+
+    /**
+     * Charge les utilisateurs de toutes les paires en une requête.
+     * Une paire dont un joueur n'existe plus est abandonnée ; l'autre joueur est remis en file.
+     */
+    @Override
+    protected List<Pair> complete(List<Pair> pairs) {
+        Map<Long, User> users = loadUsers(pairs.stream()
+                .flatMap(pair -> List.of(pair.first(), pair.second()).stream())
+                .toList());
+
+        List<Pair> completed = new ArrayList<>(pairs.size());
+        for (Pair pair : pairs) {
+            Entry first = withUser(pair.first(), users);
+            Entry second = withUser(pair.second(), users);
+            if (first != null && second != null) {
+                completed.add(new Pair(first, second));
+                continue;
+            }
+            log.warn("Paire {} / {} abandonnée : joueur introuvable", pair.first().userId(), pair.second().userId());
+            if (first != null) {
+                requeue(first);
+            }
+            if (second != null) {
+                requeue(second);
+            }
+        }
+        return completed;
+    }
+
+    @Override
+    public List<Entry> removeEnqueuedBefore(long cutoff) {
+        Set<String> members = redis.opsForZSet().rangeByScore(ENQUEUED_KEY, Double.NEGATIVE_INFINITY, cutoff - 1);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> expired = new ArrayList<>(members.size());
+        for (String member : members) {
+            List<Entry> claimed = claim(List.of(parseMember(member, 0)));
+            if (claimed != null) {
+                expired.addAll(claimed);
+            }
+        }
+        Map<Long, User> users = loadUsers(expired);
+        return expired.stream()
+                .map(entry -> withUser(entry, users))
+                .filter(entry -> entry != null)
+                .toList();
+    }
+
+    @Override
+    public int size() {
+        Long size = redis.opsForZSet().zCard(RATING_KEY);
+        return size != null ? size.intValue() : 0;
+    }
+
+    /**
+     * Les cotes sont entières : [min, max[ = [min, max - 1].
+     */
+    @Override
+    public int countBetween(int minRating, int maxRating) {
+        Long count = redis.opsForZSet().count(RATING_KEY, minRating, maxRating - 1.0);
+        return count != null ? count.intValue() : 0;
+    }
+
+    /**
+     * Retire atomiquement toutes les entrées, avec leur sélection de héros.
+     * @return les entrées retirées (utilisateur non chargé), ou null si l'une n'était plus en file
+     */
+    private List<Entry> claim(List<Entry> entries) {
+        List<String> keys = new ArrayList<>(entries.size() + 3);
+        keys.add(RATING_KEY);
+        keys.add(ENQUEUED_KEY);
+        Object[] members = new Object[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys.add(entryKey(entries.get(i).userId()));
+            members[i] = member(entries.get(i));
+        }
+        keys.add(UNSETTLED_KEY);
+
+        List<?> result = redis.execute(CLAIM, keys, members);
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        List<Entry> claimed = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            String heroes = (String) result.get(2 * i);
+            int rating = (int) Double.parseDouble(result.get(2 * i + 1).toString());
+            claimed.add(new Entry(entry.user(), parseHeroes(heroes), rating, entry.enqueuedAt(), entry.sequence()));
+        }
+        return claimed;
+    }
+
+    private Map<Long, User> loadUsers(Collection<Entry> entries) {
+        Set<Long> ids = new HashSet<>();
+        for (Entry entry : entries) {
+            ids.add(entry.user().getId());
+        }
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static Entry withUser(Entry entry, Map<Long, User> users) {
+        User user = users.get(entry.user().getId());
+        return user != null ? new Entry(user, entry.heroIds(), entry.rating(), entry.enqueuedAt(), entry.sequence()) : null;
+    }
+
+    private static String entryKey(String userId) {
+        return ENTRY_KEY_PREFIX + userId;
+    }
+
+    private static String member(Entry entry) {
+        return String.format("%019d|%s|%d", entry.sequence(), entry.userId(), entry.enqueuedAt());
+    }
+
+    // Voisin renvoyé par NEIGHBOURS à la position donnée (membre, cote), ou null en bout de file
+    private static Entry neighbour(List<?> result, int index) {
+        String member = (String) result.get(index);
+        return member.isEmpty() ? null : parseMember(member, (int) Double.parseDouble(result.get(index + 1).toString()));
+    }
+
+    // Entrée partielle : l'utilisateur ne porte que son identifiant
+    private static Entry parseMember(String member, int rating) {
+        String[] parts = member.split("\\|");
+        User user = new User();
+        user.setId(Long.valueOf(parts[1]));
+        return new Entry(user, List.of(), rating, Long.parseLong(parts[2]), Long.parseLong(parts[0]));
+    }
+
+    private static String joinHeroes(List<Long> heroIds) {
+        return heroIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    // La valeur stockée commence par le séparateur ';'
+    private static List<Long> parseHeroes(String heroes) {
+        String csv = heroes.startsWith(";") ? heroes.substring(1) : heroes;
+        if (csv.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(csv.split(",")).map(Long::valueOf).toList();
+    }
+}
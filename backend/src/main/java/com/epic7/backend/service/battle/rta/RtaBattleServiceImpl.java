@@ -1,21 +1,29 @@
 package com.epic7.backend.service.battle.rta;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.epic7.backend.exception.InvalidRtaTeamException;
 import com.epic7.backend.model.PlayerHero;
+import com.epic7.backend.model.RtaMatchResult;
 import com.epic7.backend.model.User;
 import com.epic7.backend.repository.PlayerHeroRepository;
 import com.epic7.backend.repository.UserRepository;
 import com.epic7.backend.service.battle.engine.BattleEngine;
+import com.epic7.backend.service.battle.engine.BattleMetrics;
 import com.epic7.backend.service.battle.engine.ParticipantFactory;
 import com.epic7.backend.service.battle.engine.SkillEngine;
 import com.epic7.backend.service.battle.manager.BattleManager;
+import com.epic7.backend.service.battle.model.BattleMode;
 import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleReplay;
 import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.state.BattleStateDelta;
 import com.epic7.backend.service.rta.RtaRankingService;
 
 import lombok.RequiredArgsConstructor;
@@ -31,23 +39,28 @@ public class RtaBattleServiceImpl implements BattleManager {
     private final PlayerHeroRepository playerHeroRepo;
     private final UserRepository userRepository;
     private final RtaRankingService rtaRankingService;
+    // Écriture asynchrone et groupée des résultats (points, victoires, diamants)
+    private final RtaResultPipeline resultPipeline;
 
-    // Stockage en mémoire des sessions actives
-    private final Map<String, BattleState> activeBattles = new ConcurrentHashMap<>();
+    // Sessions actives (activité, éviction des combats inactifs, capacité bornée)
+    private final RtaBattleSessionStore sessionStore;
 
+    private final BattleMetrics battleMetrics;
+
+    /**
+     * Met en place le combat : seule étape qui lit la base (héros, équipements), dans une unique transaction.
+     * Les actions suivantes s'exécutent ensuite en mémoire, sans session ni connexion JDBC.
+     */
     @Override
+    @Transactional(readOnly = true)
     public boolean startRtaBattle(String battleId,
                                   User player1, User player2,
                                   List<Long> player1HeroIds,
                                   List<Long> player2HeroIds) {
         // CORRECTION: Nettoyer toute session existante pour cette bataille
-        if (activeBattles.containsKey(battleId)) {
+        if (sessionStore.remove(battleId) != null) {
             log.info("Nettoyage d'une ancienne session pour battleId: {}", battleId);
-            activeBattles.remove(battleId);
         }
-        
-        // Nettoyer également les anciennes sessions (plus de 30 minutes)
-        cleanupOldBattles();
 
         // Construire les participants
         List<BattleParticipant> participants = new ArrayList<>();
@@ -55,8 +68,7 @@ public class RtaBattleServiceImpl implements BattleManager {
         // Ajouter les héros du joueur 1 avec son ID
         String player1Id = player1.getId().toString();
         for (Long id : player1HeroIds) {
-            PlayerHero ph = playerHeroRepo.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Héros introuvable : " + id));
+            PlayerHero ph = findTeamHero(id, player1);
             BattleParticipant participant = participantFactory.fromPlayerHeroWithUserId(ph, player1Id);
             participants.add(participant);
         }
@@ -64,8 +76,7 @@ public class RtaBattleServiceImpl implements BattleManager {
         // Ajouter les héros du joueur 2 avec son ID
         String player2Id = player2.getId().toString();
         for (Long id : player2HeroIds) {
-            PlayerHero ph = playerHeroRepo.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Héros introuvable : " + id));
+            PlayerHero ph = findTeamHero(id, player2);
             BattleParticipant participant = participantFactory.fromPlayerHeroWithUserId(ph, player2Id);
             participants.add(participant);
         }
@@ -73,11 +84,14 @@ public class RtaBattleServiceImpl implements BattleManager {
         // Ordonner par vitesse et initialiser l'état
         battleEngine.sortParticipantsBySpeed(participants);
         BattleState state = new BattleState();
+        state.setBattleId(battleId);
         state.setParticipants(participants);
+        // Compiler le loadout une fois pour toutes : les tours n'accèdent plus à la base
+        state.setLoadout(participantFactory.compileLoadout(participants));
         state.setCurrentTurnIndex(0);
         state.setRoundCount(1);
         state.setFinished(false);
-        state.setLogs(new ArrayList<>(List.of("⚔️ Combat RTA démarré !")));
+        state.addEvent(BattleEventType.BATTLE_STARTED, -1, -1, 0);
         
         // Stockage explicite des IDs des joueurs pour faciliter les vérifications côté client
         state.setPlayer1Id(player1Id);
@@ -87,14 +101,37 @@ public class RtaBattleServiceImpl implements BattleManager {
         state.setPlayer1Name(player1.getUsername());
         state.setPlayer2Name(player2.getUsername());
 
-        // Avancer jusqu'au premier tour joueur
-        state = battleEngine.processUntilNextPlayer(state);
+        // Points de départ : les points gagnés ou perdus en fin de combat sont calculés sans relire la base
+        state.setPlayer1Rating(player1.getRtaPoints());
+        state.setPlayer2Rating(player2.getRtaPoints());
+
+        // Replay : participants au départ et graine, puis chaque action jouée
+        state.setRngSeed(ThreadLocalRandom.current().nextLong());
+        state.setReplay(BattleReplay.start(state));
+
+        // Passifs de début de combat, puis avancer jusqu'au premier tour joueur
+        state = battleEngine.startBattle(state);
+        // Version 0 : base des patchs diffusés ensuite aux joueurs
+        state.setBroadcastBaseline(BattleStateDelta.capture(state));
 
         // Stocker la session
-        activeBattles.put(battleId, state);
+        sessionStore.put(battleId, state, player1.getEmail(), player2.getEmail());
         return true;
     }
 
+    /**
+     * Héros de l'équipe d'un joueur ; une équipe inutilisable est imputée à ce joueur.
+     */
+    private PlayerHero findTeamHero(Long playerHeroId, User owner) {
+        String ownerId = owner.getId().toString();
+        PlayerHero ph = playerHeroRepo.findById(playerHeroId)
+            .orElseThrow(() -> new InvalidRtaTeamException(ownerId, "Héros introuvable : " + playerHeroId));
+        if (ph.getUser() != null && !owner.getId().equals(ph.getUser().getId())) {
+            throw new InvalidRtaTeamException(ownerId, "Le héros " + playerHeroId + " n'appartient pas au joueur");
+        }
+        return ph;
+    }
+
     @Override
     public boolean applySkillAction(String battleId, Long skillId, Long targetId) {
         if (battleId == null || skillId == null || targetId == null) {
@@ -103,13 +140,15 @@ public class RtaBattleServiceImpl implements BattleManager {
         }
         
         BattleState state = getBattleState(battleId);
-        if (state == null) {
-            throw new IllegalStateException("Bataille introuvable: " + battleId);
+        
+        // Combat déjà terminé : ignorer l'action (évite une double attribution des récompenses)
+        if (state.isFinished()) {
+            return false;
         }
         
         // Vérifier si l'index de tour est valide et le corriger si besoin
         if (state.getCurrentTurnIndex() < 0 || state.getCurrentTurnIndex() >= state.getParticipants().size()) {
-            state.getLogs().add("⚠️ Index de tour invalide: " + state.getCurrentTurnIndex() + ", correction...");
+            log.warn("Index de tour invalide: {}, correction...", state.getCurrentTurnIndex());
             
             // Trouver le premier héros vivant pour corriger l'index
             for (int i = 0; i < state.getParticipants().size(); i++) {
@@ -120,17 +159,16 @@ public class RtaBattleServiceImpl implements BattleManager {
             }
             
             if (state.getCurrentTurnIndex() < 0 || state.getCurrentTurnIndex() >= state.getParticipants().size()) {
-                state.getLogs().add("❌ Impossible de trouver un héros vivant pour corriger l'index.");
+                state.addEvent(BattleEventType.ERROR, "Impossible de trouver un héros vivant pour corriger l'index.");
                 return false;
             }
         }
         
         BattleParticipant currentParticipant = state.getParticipants().get(state.getCurrentTurnIndex());
         
-        // Logging amélioré pour le débogage
-        state.getLogs().add("ℹ️ Tentative d'utilisation de compétence " + skillId + " par " + 
-            currentParticipant.getName() + " (ID: " + currentParticipant.getId() + ", userId: " + 
-            currentParticipant.getUserId() + ") sur cible " + targetId);
+        log.debug("Tentative d'utilisation de compétence {} par {} (ID: {}, userId: {}) sur cible {}",
+            skillId, currentParticipant.getName(), currentParticipant.getId(),
+            currentParticipant.getUserId(), targetId);
         
         try {
             // Vérification plus robuste que la cible est valide
@@ -144,44 +182,36 @@ public class RtaBattleServiceImpl implements BattleManager {
             }
             
             if (targetParticipant == null) {
-                state.getLogs().add("❌ Cible invalide: " + targetId);
+                state.addEvent(BattleEventType.TARGET_NOT_FOUND, state.getCurrentTurnIndex(), -1, 0, targetId);
                 return false;
             }
             
             // Utiliser la compétence et obtenir le résultat
-            skillEngine.useSkillWithResult(state, skillId, targetId);
-            state.getLogs().add("✅ Compétence " + skillId + " utilisée avec succès");
+            battleMetrics.recordAction(BattleMode.RTA, () -> skillEngine.useSkillWithResult(state, skillId, targetId));
+            if (state.getReplay() != null) {
+                state.getReplay().record(skillId, targetId);
+            }
         } catch (Exception e) {
-            state.getLogs().add("❌ Erreur lors de l'utilisation de la compétence: " + e.getMessage());
+            log.error("Erreur lors de l'utilisation de la compétence {} dans le combat {}", skillId, battleId, e);
+            state.addEvent(BattleEventType.ERROR, "Erreur lors de l'utilisation de la compétence: " + e.getMessage());
             return false;
         }
         
         // Vérifier si combat terminé en utilisant la logique spécifique aux combats RTA
         if (checkBattleEnd(state)) {
-            state.getLogs().add("⚔️ Combat RTA terminé !");
             state.setFinished(true);
             return true;
         }
         
-        // Passer au joueur suivant avec une vérification
-        try {
+        // Le tour a déjà été passé par le SkillEngine : ne pas le repasser ici,
+        // sinon le héros suivant perd son tour. On vérifie seulement la cohérence de l'index.
+        int newIndex = state.getCurrentTurnIndex();
+        if (newIndex < 0 || newIndex >= state.getParticipants().size()) {
+            log.warn("L'index après nextTurn est invalide: {}, correction...", newIndex);
+            state.setCurrentTurnIndex(0); // Reset à 0 par sécurité
+        } else if (!state.isAlive(newIndex)) {
+            log.warn("Le prochain participant est mort, nouvelle tentative...");
             battleEngine.nextTurn(state);
-            
-            // Vérification supplémentaire après le changement de tour
-            int newIndex = state.getCurrentTurnIndex();
-            if (newIndex < 0 || newIndex >= state.getParticipants().size()) {
-                state.getLogs().add("⚠️ L'index après nextTurn est invalide: " + newIndex + ", correction...");
-                state.setCurrentTurnIndex(0); // Reset à 0 par sécurité
-            } else {
-                BattleParticipant nextParticipant = state.getParticipants().get(newIndex);
-                if (nextParticipant.getCurrentHp() <= 0) {
-                    state.getLogs().add("⚠️ Le prochain participant est mort, nouvelle tentative...");
-                    battleEngine.nextTurn(state); // Essayer encore une fois
-                }
-            }
-        } catch (Exception e) {
-            state.getLogs().add("⚠️ Erreur lors du changement de tour: " + e.getMessage());
-            // Ne pas échouer complètement, essayer de continuer
         }
         
         return true;
@@ -189,186 +219,143 @@ public class RtaBattleServiceImpl implements BattleManager {
     
     /**
      * Vérifie si un des deux joueurs a gagné dans le mode RTA (tous les héros de l'autre sont morts)
+     * La règle de fin est celle du BattleEngine ; ici on annonce le résultat et on attribue les récompenses.
      * @param state L'état actuel du combat
-     * @return true si un joueur a gagné, false sinon
+     * @return true si le combat est terminé, false sinon
      */
     private boolean checkBattleEnd(BattleState state) {
-        // Récupérer tous les userId uniques des participants
-        Set<String> userIds = state.getParticipants().stream()
-            .map(BattleParticipant::getUserId)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
-        
-        if (userIds.size() != 2) {
-            // Cas anormal: il devrait y avoir exactement 2 joueurs
-            state.getLogs().add("⚠️ Nombre incorrect de joueurs dans la partie RTA: " + userIds.size());
+        if (!battleEngine.checkEnd(state)) {
             return false;
         }
         
-        // Pour chaque joueur, vérifier s'il a encore des héros vivants
-        Map<String, Boolean> playerAliveStatus = new HashMap<>();
-        Map<String, String> playerNames = new HashMap<>();
+        battleMetrics.battleFinished(BattleMode.RTA, state);
+        final String winnerIdFinal = battleEngine.findRtaWinnerId(state);
         
-        for (String userId : userIds) {
-            // Vérifier si le joueur a encore des héros vivants
-            boolean isAlive = state.getParticipants().stream()
-                .filter(p -> userId.equals(p.getUserId()))
-                .anyMatch(p -> p.getCurrentHp() > 0);
-            
-            playerAliveStatus.put(userId, isAlive);
+        // Ajouter le résultat aux logs avec un meilleur message
+        if (winnerIdFinal != null) {
+            String winnerName = getPlayerName(state, winnerIdFinal);
+            state.addEvent(BattleEventType.RTA_VICTORY, winnerName);
             
-            // Récupérer le nom du joueur (utilisateur) plutôt que le nom du héros
-            String playerName;
-            if (userId.equals(state.getPlayer1Id())) {
-                playerName = state.getPlayer1Name() != null ? state.getPlayer1Name() : "Joueur 1";
-            } else if (userId.equals(state.getPlayer2Id())) {
-                playerName = state.getPlayer2Name() != null ? state.getPlayer2Name() : "Joueur 2";
-            } else {
-                playerName = "Joueur " + userId;
-            }
-                
-            playerNames.put(userId, playerName);
-        }
-        
-        // Vérifier si un des joueurs n'a plus de héros vivants
-        if (playerAliveStatus.containsValue(false)) {
-            // Trouver le gagnant - utiliser une variable finale
-            final String winnerIdFinal = findWinnerId(playerAliveStatus);
-            
-            // Ajouter le résultat aux logs avec un meilleur message
-            if (winnerIdFinal != null) {
-                String winnerName = playerNames.get(winnerIdFinal);
-                state.getLogs().add("🏆 " + winnerName + " remporte la victoire!");
-                
-                // CORRECTION: Attribution des récompenses au gagnant
-                giveVictoryReward(winnerIdFinal, winnerName, state);
-            } else {
-                state.getLogs().add("⚠️ Match nul! Tous les héros sont morts.");
-            }
-            
-            return true;
+            // CORRECTION: Attribution des récompenses au gagnant
+            giveVictoryReward(winnerIdFinal, winnerName, state);
+        } else {
+            state.addEvent(BattleEventType.RTA_DRAW, -1, -1, 0);
         }
         
-        return false;
+        return true;
     }
     
     /**
-     * Trouve l'ID du gagnant parmi les statuts des joueurs
+     * Récupère le nom du joueur (utilisateur) plutôt que le nom du héros
      */
-    private String findWinnerId(Map<String, Boolean> playerAliveStatus) {
-        for (Map.Entry<String, Boolean> entry : playerAliveStatus.entrySet()) {
-            if (entry.getValue()) { // Ce joueur est vivant
-                return entry.getKey();
-            }
+    private String getPlayerName(BattleState state, String userId) {
+        if (userId.equals(state.getPlayer1Id())) {
+            return state.getPlayer1Name() != null ? state.getPlayer1Name() : "Joueur 1";
+        } else if (userId.equals(state.getPlayer2Id())) {
+            return state.getPlayer2Name() != null ? state.getPlayer2Name() : "Joueur 2";
         }
-        return null;
+        return "Joueur " + userId;
     }
     
     /**
      * Trouve l'ID du perdant dans un combat RTA
      */
     private String findLoserId(BattleState state, String winnerId) {
-        // Récupérer tous les userId uniques des participants
-        Set<String> userIds = state.getParticipants().stream()
-            .map(BattleParticipant::getUserId)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
-        
         // Le perdant est l'autre joueur (pas le gagnant)
-        for (String userId : userIds) {
-            if (!userId.equals(winnerId)) {
-                return userId;
-            }
+        if (winnerId.equals(state.getPlayer1Id())) {
+            return state.getPlayer2Id();
         }
-        
-        return null;
+        return winnerId.equals(state.getPlayer2Id()) ? state.getPlayer1Id() : null;
     }
     
     /**
-     * Attribue les récompenses de victoire au gagnant et met à jour les points RTA
+     * Calcule les récompenses de victoire et les points RTA, puis confie leur écriture au pipeline de résultats.
+     * Les variations sont calculées sur les points de départ du combat : aucun accès à la base ici.
      */
     private void giveVictoryReward(String winnerId, String winnerName, BattleState state) {
         try {
-            User winner = userRepository.findById(Long.valueOf(winnerId))
-                .orElseThrow(() -> new IllegalArgumentException("Joueur introuvable : " + winnerId));
-            
-            // Trouver l'adversaire pour calculer la différence de points
             String loserId = findLoserId(state, winnerId);
-            User loser = null;
-            
+            int winnerRating = ratingOf(state, winnerId);
+            int winnerPointsChange = 0;
+            int loserPointsChange = 0;
+
             if (loserId != null) {
-                loser = userRepository.findById(Long.valueOf(loserId))
-                    .orElse(null);
-            }
-            
-            // Calcul des points RTA
-            if (loser != null) {
-                // Calculer les changements de points RTA
-                int winnerPointsChange = rtaRankingService.calculatePointsChange(true, winner.getRtaPoints(), loser.getRtaPoints());
-                int loserPointsChange = rtaRankingService.calculatePointsChange(false, loser.getRtaPoints(), winner.getRtaPoints());
-                
-                // Mettre à jour les points et tiers
-                int newWinnerPoints = rtaRankingService.clampPoints(winner.getRtaPoints() + winnerPointsChange);
-                int newLoserPoints = rtaRankingService.clampPoints(loser.getRtaPoints() + loserPointsChange);
-                
-                winner.setRtaPoints(newWinnerPoints);
-                winner.setRtaTier(rtaRankingService.calculateTier(newWinnerPoints));
-                
-                loser.setRtaPoints(newLoserPoints);
-                loser.setRtaTier(rtaRankingService.calculateTier(newLoserPoints));
-                
-                // Incrémenter les statistiques de combat
-                winner.setWinNumber(winner.getWinNumber() + 1);
-                loser.setLoseNumber(loser.getLoseNumber() + 1);
-                
-                userRepository.save(winner);
-                userRepository.save(loser);
-                
+                int loserRating = ratingOf(state, loserId);
+                winnerPointsChange = rtaRankingService.calculatePointsChange(true, winnerRating, loserRating);
+                loserPointsChange = rtaRankingService.calculatePointsChange(false, loserRating, winnerRating);
+
+                int newWinnerPoints = rtaRankingService.clampPoints(winnerRating + winnerPointsChange);
+                int newLoserPoints = rtaRankingService.clampPoints(loserRating + loserPointsChange);
+
                 // Messages de log pour les points RTA
-                state.getLogs().add("🏆 " + winnerName + " gagne " + winnerPointsChange + " points RTA (" + newWinnerPoints + " total)");
-                state.getLogs().add("📉 " + loser.getUsername() + " perd " + Math.abs(loserPointsChange) + " points RTA (" + newLoserPoints + " total)");
-                
+                state.addEvent(BattleEventType.INFO, "🏆 " + winnerName + " gagne " + winnerPointsChange + " points RTA (" + newWinnerPoints + " total)");
+                state.addEvent(BattleEventType.INFO, "📉 " + getPlayerName(state, loserId) + " perd " + Math.abs(loserPointsChange) + " points RTA (" + newLoserPoints + " total)");
+
                 // Vérifier si changement de tier
-                if (!winner.getRtaTier().equals(rtaRankingService.calculateTier(winner.getRtaPoints() - winnerPointsChange))) {
-                    state.getLogs().add("🎖️ " + winnerName + " monte en " + winner.getRtaTier() + "!");
+                String newTier = rtaRankingService.calculateTier(newWinnerPoints);
+                if (!newTier.equals(rtaRankingService.calculateTier(winnerRating))) {
+                    state.addEvent(BattleEventType.INFO, "🎖️ " + winnerName + " monte en " + newTier + "!");
                 }
-                
-                log.info("Points RTA mis à jour - Gagnant: {} (+{} -> {}), Perdant: {} ({} -> {})", 
-                         winner.getUsername(), winnerPointsChange, newWinnerPoints,
-                         loser.getUsername(), loserPointsChange, newLoserPoints);
             }
-            
+
             // Récompense : 100 diamants au gagnant (configurable)
             int rewardDiamonds = 100;
-            winner.setDiamonds(winner.getDiamonds() + rewardDiamonds);
-            userRepository.save(winner);
-            
-            state.getLogs().add("💎 " + winnerName + " reçoit " + rewardDiamonds + " diamants en récompense!");
-            log.info("Récompense attribuée : {} diamants à l'utilisateur {} (ID: {})", 
-                     rewardDiamonds, winner.getUsername(), winnerId);
+            boolean submitted = resultPipeline.submit(historyOf(state)
+                .rated(true)
+                .winnerId(Long.valueOf(winnerId))
+                .loserId(loserId != null ? Long.valueOf(loserId) : null)
+                .winnerPointsChange(winnerPointsChange)
+                .loserPointsChange(loserPointsChange)
+                .rewardDiamonds(rewardDiamonds)
+                .build());
+            if (!submitted) {
+                log.warn("Résultat du combat {} déjà en attente d'écriture, ignoré", state.getBattleId());
+                return;
+            }
+
+            state.addEvent(BattleEventType.INFO, "💎 " + winnerName + " reçoit " + rewardDiamonds + " diamants en récompense!");
+            log.info("Résultat du combat {} en attente d'écriture - Gagnant: {} (+{} pts, {} diamants), Perdant: {} ({} pts)",
+                     state.getBattleId(), winnerId, winnerPointsChange, rewardDiamonds, loserId, loserPointsChange);
         } catch (Exception e) {
-            state.getLogs().add("⚠️ Erreur lors de l'attribution de la récompense: " + e.getMessage());
+            state.addEvent(BattleEventType.WARNING, "Erreur lors de l'attribution de la récompense: " + e.getMessage());
             log.error("Erreur lors de l'attribution de la récompense pour le joueur {}: {}", winnerId, e.getMessage());
         }
     }
-    
+
     /**
-     * Nettoie les anciennes sessions pour éviter les fuites mémoire
+     * Historique d'un combat terminé (joueurs, replay), sans résultat appliqué.
      */
-    private void cleanupOldBattles() {
-        // Pour l'instant, simple nettoyage basé sur la taille
-        // Dans une vraie implémentation, on utiliserait un timestamp
-        if (activeBattles.size() > 50) {
-            log.info("Nettoyage de {} anciennes sessions de combat", activeBattles.size());
-            activeBattles.clear();
-        }
+    private static RtaMatchResult.RtaMatchResultBuilder historyOf(BattleState state) {
+        BattleReplay replay = state.getReplay();
+        return RtaMatchResult.builder()
+            .battleId(state.getBattleId())
+            .player1Id(Long.valueOf(state.getPlayer1Id()))
+            .player2Id(Long.valueOf(state.getPlayer2Id()))
+            .turns(replay != null ? replay.actionCount() : 0)
+            .replay(replay != null ? replay.encode() : null)
+            .finishedAt(Instant.now());
     }
 
+    private static int ratingOf(BattleState state, String userId) {
+        return userId.equals(state.getPlayer1Id()) ? state.getPlayer1Rating() : state.getPlayer2Rating();
+    }
+    
     @Override
     public void endRtaBattle(String battleId, Long winnerId) {
         // CORRECTION: Supprimer immédiatement la bataille terminée
-        BattleState state = activeBattles.remove(battleId);
+        BattleState state = sessionStore.remove(battleId);
         if (state != null) {
+            if (winnerId != null) {
+                // Abandon : points RTA et diamants comme pour une victoire au combat
+                String winner = winnerId.toString();
+                giveVictoryReward(winner, getPlayerName(state, winner), state);
+            } else {
+                // Historiser le combat ; sans effet si son résultat classé a déjà été déposé
+                String winner = battleEngine.findRtaWinnerId(state);
+                resultPipeline.submit(historyOf(state)
+                    .winnerId(winner != null ? Long.valueOf(winner) : null)
+                    .build());
+            }
             log.info("Combat terminé pour battleId: {}, session supprimée immédiatement", battleId);
         } else {
             log.warn("Tentative de fin de combat pour une session inexistante: {}", battleId);
@@ -377,10 +364,40 @@ public class RtaBattleServiceImpl implements BattleManager {
 
     @Override
     public BattleState getBattleState(String battleId) {
-        BattleState state = activeBattles.get(battleId);
+        BattleState state = sessionStore.get(battleId);
+        if (state == null) {
+            state = restoreFromSnapshot(battleId);
+        }
         if (state == null) {
             throw new IllegalStateException("Session introuvable : " + battleId);
         }
         return state;
     }
+
+    /**
+     * Reprend un combat absent de ce nœud (redémarrage, autre nœud) depuis son dernier snapshot.
+     * Les clients repartent d'une nouvelle base de patchs : ils se resynchronisent via /rta/resync.
+     * Le combat n'est repris qu'une fois le bail de son nœud précédent expiré.
+     */
+    private BattleState restoreFromSnapshot(String battleId) {
+        BattleState state = sessionStore.loadSnapshot(battleId)
+            .filter(snapshot -> !snapshot.isFinished())
+            .orElse(null);
+        if (state == null) {
+            return null;
+        }
+        if (!sessionStore.acquire(battleId)) {
+            log.warn("Combat RTA {} détenu par un autre nœud, reprise refusée", battleId);
+            return null;
+        }
+        User player1 = userRepository.findById(Long.valueOf(state.getPlayer1Id())).orElse(null);
+        User player2 = userRepository.findById(Long.valueOf(state.getPlayer2Id())).orElse(null);
+        if (player1 == null || player2 == null) {
+            return null;
+        }
+        state.setBroadcastBaseline(BattleStateDelta.capture(state));
+        sessionStore.put(battleId, state, player1.getEmail(), player2.getEmail());
+        log.info("Combat RTA {} repris depuis son snapshot", battleId);
+        return state;
+    }
 }
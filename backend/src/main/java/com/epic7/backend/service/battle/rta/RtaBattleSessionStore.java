@@ -0,0 +1,334 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.event.RtaBattleEvictedEvent;
+import com.epic7.backend.event.RtaPlayerDisconnectedEvent;
+import com.epic7.backend.exception.RtaCapacityExceededException;
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.store.BattleSessionStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stockage en mémoire des combats RTA en cours.
+ * <ul>
+ *   <li>chaque session retient sa dernière activité (action, resync, heartbeat d'un joueur) ;</li>
+ *   <li>un nettoyage planifié retire les combats inactifs depuis plus de {@code idleTimeout} ;</li>
+ *   <li>un joueur déconnecté qui ne revient pas dans le délai de grâce perd par abandon ;</li>
+ *   <li>la capacité est bornée : un nouveau combat est refusé plutôt que d'évincer un combat actif ;</li>
+ *   <li>l'état est sauvegardé au démarrage et après chaque action ({@link BattleSessionStore})
+ *       pour qu'un combat puisse être repris après un redémarrage ou sur un autre nœud ;</li>
+ *   <li>un combat dont un autre nœud a pris le bail ({@link BattleSessionStore#acquire}) est lâché
+ *       sans toucher à son snapshot : un seul nœud fait avancer un combat.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class RtaBattleSessionStore {
+
+    private static final long NOT_DISCONNECTED = -1L;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> battleByPlayer = new ConcurrentHashMap<>(); // email -> battleId
+
+    private final int capacity;
+    private final long idleTimeoutMillis;
+    private final long disconnectGraceMillis;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BattleSessionStore snapshots;
+    private final Clock clock;
+
+    private final Counter idleEvictions;
+    private final Counter disconnectForfeits;
+    private final Counter rejectedBattles;
+
+    @Autowired
+    public RtaBattleSessionStore(@Value("${rta.battle.capacity:5000}") int capacity,
+                                 @Value("${rta.battle.idle-timeout-seconds:600}") long idleTimeoutSeconds,
+                                 @Value("${rta.battle.disconnect-grace-seconds:60}") long disconnectGraceSeconds,
+                                 ApplicationEventPublisher eventPublisher,
+                                 BattleSessionStore snapshots,
+                                 MeterRegistry meterRegistry) {
+        this(capacity, idleTimeoutSeconds, disconnectGraceSeconds, eventPublisher, snapshots, meterRegistry, Clock.systemUTC());
+    }
+
+    public RtaBattleSessionStore(int capacity,
+                                 long idleTimeoutSeconds,
+                                 long disconnectGraceSeconds,
+                                 ApplicationEventPublisher eventPublisher,
+                                 BattleSessionStore snapshots,
+                                 MeterRegistry meterRegistry,
+                                 Clock clock) {
+        this.capacity = capacity;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        this.disconnectGraceMillis = disconnectGraceSeconds * 1000;
+        this.eventPublisher = eventPublisher;
+        this.snapshots = snapshots;
+        this.clock = clock;
+
+        Gauge.builder("battle.active", sessions, Map::size)
+                .tag("mode", "RTA")
+                .description("Combats RTA en mémoire")
+                .register(meterRegistry);
+        this.idleEvictions = Counter.builder("rta.battles.evicted")
+                .tag("reason", "idle")
+                .description("Combats RTA retirés pour inactivité")
+                .register(meterRegistry);
+        this.disconnectForfeits = Counter.builder("rta.battles.evicted")
+                .tag("reason", "disconnect")
+                .description("Combats RTA terminés par déconnexion d'un joueur")
+                .register(meterRegistry);
+        this.rejectedBattles = Counter.builder("rta.battles.rejected")
+                .description("Combats RTA refusés faute de capacité")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Session d'un combat : état, joueurs et suivi d'activité.
+     */
+    private static final class Session {
+        private final String battleId;
+        private final BattleState state;
+        private final String player1Email;
+        private final String player2Email;
+        private volatile long lastActivity;
+        private volatile long player1DisconnectedAt = NOT_DISCONNECTED;
+        private volatile long player2DisconnectedAt = NOT_DISCONNECTED;
+        private final AtomicBoolean forfeitRequested = new AtomicBoolean();
+
+        private Session(String battleId, BattleState state, String player1Email, String player2Email, long now) {
+            this.battleId = battleId;
+            this.state = state;
+            this.player1Email = player1Email;
+            this.player2Email = player2Email;
+            this.lastActivity = now;
+        }
+    }
+
+    /**
+     * Enregistre un nouveau combat.
+     * @throws RtaCapacityExceededException si la capacité est atteinte, même après nettoyage des combats inactifs
+     */
+    public void put(String battleId, BattleState state, String player1Email, String player2Email) {
+        remove(battleId);
+
+        if (sessions.size() >= capacity) {
+            sweep();
+            if (sessions.size() >= capacity) {
+                rejectedBattles.increment();
+                throw new RtaCapacityExceededException("Nombre maximum de combats RTA atteint (" + capacity + ")");
+            }
+        }
+
+        snapshots.save(state);
+        sessions.put(battleId, new Session(battleId, state, player1Email, player2Email, clock.millis()));
+        battleByPlayer.put(player1Email, battleId);
+        battleByPlayer.put(player2Email, battleId);
+    }
+
+    /**
+     * Sauvegarde l'état courant du combat (après une action).
+     */
+    public void checkpoint(String battleId) {
+        Session session = sessions.get(battleId);
+        if (session != null) {
+            snapshots.save(session.state);
+        }
+    }
+
+    /**
+     * Dernier snapshot d'un combat absent de ce nœud (redémarrage, autre nœud).
+     * À réenregistrer avec {@link #put} pour le reprendre, après en avoir pris le bail ({@link #acquire}).
+     */
+    public Optional<BattleState> loadSnapshot(String battleId) {
+        return snapshots.load(battleId);
+    }
+
+    /**
+     * Prend le bail d'un combat à reprendre depuis son snapshot.
+     * @return false si un autre nœud fait encore avancer ce combat
+     */
+    public boolean acquire(String battleId) {
+        return snapshots.acquire(battleId);
+    }
+
+    /**
+     * Combat suivi par ce nœud, ou non terminé dans les snapshots (reprise possible).
+     * Un battleId inconnu (combat terminé, identifiant inventé) est refusé avant toute prise en charge.
+     */
+    public boolean isKnown(String battleId) {
+        return battleId != null && (sessions.containsKey(battleId)
+                || snapshots.load(battleId).filter(snapshot -> !snapshot.isFinished()).isPresent());
+    }
+
+    /**
+     * Retourne l'état d'un combat et le marque comme actif.
+     * @return l'état, ou null si le combat n'existe pas (ou plus) ou si un autre nœud l'a repris
+     */
+    public BattleState get(String battleId) {
+        Session session = sessions.get(battleId);
+        if (session == null) {
+            return null;
+        }
+        if (!snapshots.acquire(battleId)) {
+            drop(session);
+            log.info("Combat RTA {} repris par un autre nœud, lâché localement", battleId);
+            return null;
+        }
+        session.lastActivity = clock.millis();
+        return session.state;
+    }
+
+    /**
+     * Signale une activité d'un joueur (heartbeat, reconnexion) : son combat reste actif
+     * et une éventuelle déconnexion en cours est annulée.
+     */
+    public void touchPlayer(String playerEmail) {
+        Session session = sessionOf(playerEmail);
+        if (session == null) {
+            return;
+        }
+        session.lastActivity = clock.millis();
+        if (playerEmail.equals(session.player1Email)) {
+            session.player1DisconnectedAt = NOT_DISCONNECTED;
+        } else {
+            session.player2DisconnectedAt = NOT_DISCONNECTED;
+        }
+    }
+
+    /**
+     * Signale la déconnexion d'un joueur. Sans retour avant le délai de grâce, il perd par abandon.
+     */
+    public void playerDisconnected(String playerEmail) {
+        Session session = sessionOf(playerEmail);
+        if (session == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (playerEmail.equals(session.player1Email)) {
+            session.player1DisconnectedAt = now;
+        } else {
+            session.player2DisconnectedAt = now;
+        }
+    }
+
+    /**
+     * Identifiant du combat en cours d'un joueur, ou null.
+     */
+    public String findBattleIdByPlayer(String playerEmail) {
+        return battleByPlayer.get(playerEmail);
+    }
+
+    /**
+     * Email d'un joueur du combat, connu depuis sa mise en place : évite de recharger l'utilisateur.
+     * @return l'email, ou null si le combat n'est pas suivi ou si le joueur n'y participe pas
+     */
+    public String playerEmail(String battleId, String playerId) {
+        Session session = sessions.get(battleId);
+        if (session == null || playerId == null) {
+            return null;
+        }
+        if (playerId.equals(session.state.getPlayer1Id())) {
+            return session.player1Email;
+        }
+        if (playerId.equals(session.state.getPlayer2Id())) {
+            return session.player2Email;
+        }
+        return null;
+    }
+
+    public BattleState remove(String battleId) {
+        Session session = sessions.get(battleId);
+        if (session == null || !drop(session)) {
+            return null;
+        }
+        snapshots.delete(battleId);
+        return session.state;
+    }
+
+    /**
+     * Retire la session de ce nœud sans toucher au snapshot.
+     */
+    private boolean drop(Session session) {
+        if (!sessions.remove(session.battleId, session)) {
+            return false;
+        }
+        battleByPlayer.remove(session.player1Email, session.battleId);
+        battleByPlayer.remove(session.player2Email, session.battleId);
+        return true;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Nettoyage planifié : retire les combats inactifs et demande l'abandon
+     * des joueurs déconnectés depuis plus que le délai de grâce.
+     */
+    @Scheduled(fixedDelayString = "${rta.battle.sweep-interval-ms:30000}")
+    public void sweep() {
+        long now = clock.millis();
+        for (Session session : sessions.values()) {
+            if (now - session.lastActivity > idleTimeoutMillis) {
+                if (!snapshots.acquire(session.battleId)) {
+                    drop(session);
+                    continue;
+                }
+                if (remove(session.battleId) != null) {
+                    idleEvictions.increment();
+                    log.info("Combat RTA {} retiré après inactivité", session.battleId);
+                    eventPublisher.publishEvent(new RtaBattleEvictedEvent(session.battleId, session.state));
+                }
+                continue;
+            }
+
+            String forfeiting = disconnectedPastGrace(session, now);
+            // Le nettoyage peut tourner en même temps depuis put() et le planificateur : un seul abandon
+            if (forfeiting != null && session.forfeitRequested.compareAndSet(false, true)) {
+                disconnectForfeits.increment();
+                log.info("Joueur {} déconnecté du combat {} : abandon", forfeiting, session.battleId);
+                eventPublisher.publishEvent(new RtaPlayerDisconnectedEvent(session.battleId, forfeiting));
+            }
+        }
+    }
+
+    private String disconnectedPastGrace(Session session, long now) {
+        long p1 = session.player1DisconnectedAt;
+        long p2 = session.player2DisconnectedAt;
+        if (p1 != NOT_DISCONNECTED && now - p1 > disconnectGraceMillis) {
+            return session.player1Email;
+        }
+        if (p2 != NOT_DISCONNECTED && now - p2 > disconnectGraceMillis) {
+            return session.player2Email;
+        }
+        return null;
+    }
+
+    private Session sessionOf(String playerEmail) {
+        if (playerEmail == null) {
+            return null;
+        }
+        String battleId = battleByPlayer.get(playerEmail);
+        return battleId != null ? sessions.get(battleId) : null;
+    }
+}
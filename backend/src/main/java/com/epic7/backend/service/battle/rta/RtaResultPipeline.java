@@ -0,0 +1,302 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.RtaMatchResult;
+import com.epic7.backend.model.User;
+import com.epic7.backend.repository.RtaMatchResultRepository;
+import com.epic7.backend.repository.UserRepository;
+import com.epic7.backend.service.rta.RtaRankingService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Écriture asynchrone et groupée des résultats RTA et de l'historique des combats.
+ * <p>
+ * La fin d'un combat ne touche plus la base : le résultat (variations de points déjà calculées,
+ * diamants) est déposé ici et le thread du combat continue. Un vidage planifié applique les
+ * résultats par lots, dans une seule transaction : un chargement groupé des joueurs et des résultats
+ * déjà enregistrés, puis des écritures envoyées en batch JDBC.
+ * <p>
+ * Idempotent par combat : un même combat n'est retenu qu'une fois en attente, et la table
+ * {@code rta_match_results} (clé = battleId) écarte un résultat déjà appliqué. Un lot en échec
+ * est remis en attente sans risque de double attribution ; ses résultats sont ensuite écrits un par un,
+ * pour qu'un résultat invalide ne bloque pas les autres. Après {@code maxAttempts} échecs, un résultat
+ * est mis de côté (journalisé avec son battleId) et n'est plus réessayé qu'à chaque {@code parked-retry}.
+ * Les variations sont appliquées aux points courants : deux combats d'un même joueur dans
+ * le même lot se cumulent. Les combats non classés (abandon, nul) sont seulement historisés.
+ */
+@Component
+@Slf4j
+public class RtaResultPipeline {
+
+    private final Map<String, RtaMatchResult> pending = new ConcurrentHashMap<>();
+    // Résultats déjà en échec : écrits un par un, avec leur nombre d'échecs
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    // Résultats mis de côté après maxAttempts échecs
+    private final Map<String, RtaMatchResult> parked = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+    private final RtaMatchResultRepository resultRepository;
+    private final RtaRankingService rtaRankingService;
+    private final TransactionTemplate transaction;
+    private final int maxBatch;
+    private final int maxAttempts;
+
+    private final Counter appliedResults;
+    private final Counter failedFlushes;
+    private final Counter parkedResults;
+
+    public RtaResultPipeline(UserRepository userRepository,
+                             RtaMatchResultRepository resultRepository,
+                             RtaRankingService rtaRankingService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${rta.results.max-batch:500}") int maxBatch,
+                             @Value("${rta.results.max-attempts:5}") int maxAttempts,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.resultRepository = resultRepository;
+        this.rtaRankingService = rtaRankingService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        Gauge.builder("rta.results.pending", pending, Map::size)
+                .description("Résultats RTA en attente d'écriture")
+                .register(meterRegistry);
+        this.appliedResults = Counter.builder("rta.results.applied")
+                .description("Résultats RTA écrits en base")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("rta.results.flush.failures")
+                .description("Lots de résultats RTA dont l'écriture a échoué (rejoués ensuite)")
+                .register(meterRegistry);
+        Gauge.builder("rta.results.parked", parked, Map::size)
+                .description("Résultats RTA mis de côté après des échecs répétés")
+                .register(meterRegistry);
+        this.parkedResults = Counter.builder("rta.results.parked.total")
+                .description("Résultats RTA mis de côté après maxAttempts échecs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dépose le résultat d'un combat ; sans effet si ce combat est déjà en attente.
+     * @return false si un résultat était déjà en attente pour ce combat
+     */
+    public boolean submit(RtaMatchResult result) {
+        if (parked.containsKey(result.getBattleId())) {
+            return false;
+        }
+        return pending.putIfAbsent(result.getBattleId(), result) == null;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public int parkedCount() {
+        return parked.size();
+    }
+
+    /**
+     * Écrit les résultats en attente : les nouveaux par lots de {@code maxBatch},
+     * ceux déjà en échec un par un. Le passage s'arrête au premier échec.
+     */
+    @Scheduled(fixedDelayString = "${rta.results.flush-ms:500}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<RtaMatchResult> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<RtaMatchResult> fresh = new ArrayList<>(batch.size());
+            List<RtaMatchResult> retried = new ArrayList<>();
+            for (RtaMatchResult result : batch) {
+                (failures.containsKey(result.getBattleId()) ? retried : fresh).add(result);
+            }
+            if (!fresh.isEmpty() && !applyBatch(fresh)) {
+                retried.forEach(this::requeue);
+                return;
+            }
+            if (!retried.isEmpty() && !applyOneByOne(retried)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Réessaie les résultats mis de côté, un par un (base rétablie, données corrigées).
+     */
+    @Scheduled(fixedDelayString = "${rta.results.parked-retry-ms:60000}")
+    public void retryParked() {
+        for (RtaMatchResult result : parked.values()) {
+            if (!parked.remove(result.getBattleId(), result)) {
+                continue;
+            }
+            try {
+                applyOne(result);
+                log.info("Résultat RTA du combat {} écrit après sa mise de côté", result.getBattleId());
+            } catch (RuntimeException e) {
+                parked.putIfAbsent(result.getBattleId(), result);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Écrit un lot en une transaction. En cas d'échec, chaque résultat compte un échec
+     * et sera écrit seul au passage suivant.
+     */
+    private boolean applyBatch(List<RtaMatchResult> batch) {
+        try {
+            Integer applied = transaction.execute(status -> apply(batch));
+            appliedResults.increment(applied != null ? applied : 0);
+            return true;
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.error("Échec de l'écriture de {} résultats RTA, écriture un par un au prochain passage : {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(result -> failed(result, e));
+            return false;
+        }
+    }
+
+    /**
+     * Écrit des résultats déjà en échec, chacun dans sa transaction : un résultat invalide est isolé.
+     * Si le premier échoue aussi, la base est sans doute indisponible : les suivants attendent le prochain passage.
+     * @return false si au moins un résultat a échoué
+     */
+    private boolean applyOneByOne(List<RtaMatchResult> results) {
+        boolean allApplied = true;
+        boolean anyApplied = false;
+        for (int i = 0; i < results.size(); i++) {
+            RtaMatchResult result = results.get(i);
+            try {
+                applyOne(result);
+                anyApplied = true;
+            } catch (RuntimeException e) {
+                allApplied = false;
+                failed(result, e);
+                if (!anyApplied) {
+                    results.subList(i + 1, results.size()).forEach(this::requeue);
+                    return false;
+                }
+            }
+        }
+        return allApplied;
+    }
+
+    private void applyOne(RtaMatchResult result) {
+        Integer applied = transaction.execute(status -> apply(List.of(result)));
+        appliedResults.increment(applied != null ? applied : 0);
+        failures.remove(result.getBattleId());
+    }
+
+    // Compte un échec : remis en attente, ou mis de côté après maxAttempts échecs
+    private void failed(RtaMatchResult result, RuntimeException e) {
+        String battleId = result.getBattleId();
+        int attempts = failures.merge(battleId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            requeue(result);
+            return;
+        }
+        failures.remove(battleId);
+        parked.put(battleId, result);
+        parkedResults.increment();
+        log.error("Résultat RTA du combat {} mis de côté après {} échecs (gagnant {}, perdant {}, {} / {} points) : {}",
+                battleId, attempts, result.getWinnerId(), result.getLoserId(),
+                result.getWinnerPointsChange(), result.getLoserPointsChange(), e.getMessage());
+    }
+
+    private void requeue(RtaMatchResult result) {
+        pending.putIfAbsent(result.getBattleId(), result);
+    }
+
+    private List<RtaMatchResult> drain() {
+        List<RtaMatchResult> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+        for (RtaMatchResult result : pending.values()) {
+            if (batch.size() >= maxBatch) {
+                break;
+            }
+            if (pending.remove(result.getBattleId(), result)) {
+                batch.add(result);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Applique un lot dans la transaction courante.
+     * @return le nombre de résultats réellement appliqués
+     */
+    private int apply(List<RtaMatchResult> batch) {
+        Set<String> recorded = resultRepository.findRecordedBattleIds(
+                batch.stream().map(RtaMatchResult::getBattleId).toList());
+        List<RtaMatchResult> fresh = batch.stream()
+                .filter(result -> !recorded.contains(result.getBattleId()))
+                .toList();
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        List<RtaMatchResult> rated = fresh.stream().filter(RtaMatchResult::isRated).toList();
+        if (!rated.isEmpty()) {
+            applyToPlayers(rated);
+        }
+        resultRepository.saveAll(fresh);
+        return fresh.size();
+    }
+
+    private void applyToPlayers(List<RtaMatchResult> rated) {
+        Set<Long> userIds = new HashSet<>();
+        for (RtaMatchResult result : rated) {
+            userIds.add(result.getWinnerId());
+            if (result.getLoserId() != null) {
+                userIds.add(result.getLoserId());
+            }
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (RtaMatchResult result : rated) {
+            User winner = users.get(result.getWinnerId());
+            if (winner != null) {
+                addPoints(winner, result.getWinnerPointsChange());
+                winner.setWinNumber(winner.getWinNumber() + 1);
+                winner.setDiamonds(winner.getDiamonds() + result.getRewardDiamonds());
+            }
+            User loser = result.getLoserId() != null ? users.get(result.getLoserId()) : null;
+            if (loser != null) {
+                addPoints(loser, result.getLoserPointsChange());
+                loser.setLoseNumber(loser.getLoseNumber() + 1);
+            }
+        }
+
+        userRepository.saveAll(users.values());
+    }
+
+    private void addPoints(User user, int change) {
+        int points = rtaRankingService.clampPoints(user.getRtaPoints() + change);
+        user.setRtaPoints(points);
+        user.setRtaTier(rtaRankingService.calculateTier(points));
+    }
+}
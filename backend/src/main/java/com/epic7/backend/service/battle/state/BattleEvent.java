@@ -0,0 +1,24 @@
+package com.epic7.backend.service.battle.state;
+
+/**
+ * Événement de combat matérialisé à la lecture du journal (rendu texte, envoi client).
+ * Pendant le combat, les événements sont stockés dans les tableaux de {@link BattleEventLog}.
+ * @param sequence numéro de séquence global de l'événement dans le combat
+ * @param actorSlot slot de l'acteur, ou -1
+ * @param targetSlot slot de la cible, ou -1
+ * @param amount valeur associée (dégâts, soins, bonus, numéro de tour...)
+ * @param ref référence dépendant du type (index de compétence, ID demandé...)
+ * @param detail texte libre, réservé aux événements rares (récompenses, erreurs)
+ */
+public record BattleEvent(long sequence,
+                          BattleEventType type,
+                          int actorSlot,
+                          int targetSlot,
+                          int amount,
+                          long ref,
+                          String detail) {
+
+    public String render(BattleState state) {
+        return type.render(this, state);
+    }
+}
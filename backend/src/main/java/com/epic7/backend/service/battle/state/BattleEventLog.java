@@ -0,0 +1,117 @@
+package com.epic7.backend.service.battle.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal de combat borné (buffer circulaire).
+ * Chaque événement est stocké sous forme typée (code, slots, valeur) dans des tableaux
+ * préalloués ; aucun texte n'est construit pendant les tours.
+ * Les événements sont numérotés par une séquence croissante : un client qui connaît
+ * la dernière séquence reçue ne demande que les événements suivants.
+ * Au-delà de la capacité, les événements les plus anciens sont écrasés.
+ */
+public final class BattleEventLog {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final BattleEventType[] types;
+    private final int[] actorSlots;
+    private final int[] targetSlots;
+    private final int[] amounts;
+    private final long[] refs;
+    private final String[] details;
+
+    // Séquence du prochain événement (= nombre total d'événements ajoutés)
+    private long nextSequence;
+
+    public BattleEventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BattleEventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du journal doit être positive");
+        }
+        this.capacity = capacity;
+        this.types = new BattleEventType[capacity];
+        this.actorSlots = new int[capacity];
+        this.targetSlots = new int[capacity];
+        this.amounts = new int[capacity];
+        this.refs = new long[capacity];
+        this.details = new String[capacity];
+    }
+
+    /**
+     * Reconstruit un journal à partir d'événements consécutifs (restauration d'un snapshot).
+     * Les séquences d'origine sont conservées : les curseurs des clients restent valides.
+     * @param nextSequence séquence du prochain événement dans le journal d'origine
+     */
+    public static BattleEventLog restore(int capacity, long nextSequence, List<BattleEvent> events) {
+        BattleEventLog log = new BattleEventLog(capacity);
+        log.nextSequence = nextSequence - events.size();
+        for (BattleEvent event : events) {
+            log.append(event.type(), event.actorSlot(), event.targetSlot(), event.amount(), event.ref(), event.detail());
+        }
+        return log;
+    }
+
+    public void append(BattleEventType type, int actorSlot, int targetSlot, int amount, long ref) {
+        append(type, actorSlot, targetSlot, amount, ref, null);
+    }
+
+    public synchronized void append(BattleEventType type, int actorSlot, int targetSlot, int amount, long ref, String detail) {
+        int i = (int) (nextSequence % capacity);
+        types[i] = type;
+        actorSlots[i] = actorSlot;
+        targetSlots[i] = targetSlot;
+        amounts[i] = amount;
+        refs[i] = ref;
+        details[i] = detail;
+        nextSequence++;
+    }
+
+    /**
+     * Séquence que portera le prochain événement ; sert de curseur aux clients.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Plus ancienne séquence encore présente dans le buffer.
+     */
+    public synchronized long firstSequence() {
+        return Math.max(0, nextSequence - capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Événements de séquence supérieure ou égale à {@code since} encore présents dans le buffer.
+     */
+    public synchronized List<BattleEvent> eventsSince(long since) {
+        long from = Math.max(since, firstSequence());
+        List<BattleEvent> events = new ArrayList<>((int) Math.max(0, nextSequence - from));
+        for (long seq = from; seq < nextSequence; seq++) {
+            int i = (int) (seq % capacity);
+            events.add(new BattleEvent(seq, types[i], actorSlots[i], targetSlots[i], amounts[i], refs[i], details[i]));
+        }
+        return events;
+    }
+
+    /**
+     * Rend en texte les événements depuis {@code since}.
+     */
+    public List<String> render(long since, BattleState state) {
+        List<BattleEvent> events = eventsSince(since);
+        List<String> lines = new ArrayList<>(events.size());
+        for (BattleEvent event : events) {
+            lines.add(event.render(state));
+        }
+        return lines;
+    }
+}
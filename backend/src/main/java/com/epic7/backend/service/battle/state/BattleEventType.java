@@ -0,0 +1,98 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.util.function.BiFunction;
+
+/**
+ * Codes des événements de combat et leur rendu texte.
+ * Le texte n'est construit qu'à l'envoi aux clients, jamais pendant les tours.
+ */
+public enum BattleEventType {
+
+    // actorSlot = boss en PvE, -1 en RTA
+    BATTLE_STARTED((e, s) -> e.actorSlot() >= 0
+            ? "Combat commencé contre " + name(s, e.actorSlot()) + " !"
+            : "⚔️ Combat RTA démarré !"),
+    // amount = numéro du tour
+    ROUND_STARTED((e, s) -> "🔁 Début du tour " + e.amount()),
+    TURN_STARTED((e, s) -> "👉 Au tour de " + name(s, e.actorSlot())),
+
+    BOSS_ATTACK((e, s) -> name(s, e.actorSlot()) + " (Boss) attaque " + name(s, e.targetSlot())
+            + " et inflige " + e.amount() + " dégâts."),
+    // ref = index de la compétence dans le kit de l'acteur
+    SKILL_USED((e, s) -> name(s, e.actorSlot()) + " utilise " + skillName(s, e) + " sur " + name(s, e.targetSlot())),
+    SKILL_DAMAGE((e, s) -> name(s, e.actorSlot()) + " utilise " + skillName(s, e) + " sur " + name(s, e.targetSlot())
+            + " et inflige " + e.amount() + " dégâts."),
+    // amount = dégâts cumulés sur toutes les cibles
+    SKILL_DAMAGE_ALL((e, s) -> name(s, e.actorSlot()) + " utilise " + skillName(s, e)
+            + " et inflige " + e.amount() + " dégâts au total aux ennemis."),
+    SKILL_HEAL((e, s) -> name(s, e.actorSlot()) + " utilise " + skillName(s, e) + " et soigne "
+            + name(s, e.targetSlot()) + " de " + e.amount() + " PV."),
+    SKILL_HEAL_ALL((e, s) -> name(s, e.actorSlot()) + " utilise " + skillName(s, e)
+            + " et soigne tous les alliés de " + e.amount() + " PV."),
+
+    PASSIVE_ATTACK_UP((e, s) -> "✨ " + name(s, e.actorSlot()) + " déclenche " + skillName(s, e)
+            + " (passif) et gagne +" + e.amount() + " ATK."),
+    PASSIVE_DEFENSE_UP((e, s) -> "🛡️ " + name(s, e.actorSlot()) + " déclenche " + skillName(s, e)
+            + " (passif) et gagne +" + e.amount() + " DEF."),
+    PASSIVE_SPEED_UP((e, s) -> "💨 " + name(s, e.actorSlot()) + " déclenche " + skillName(s, e)
+            + " (passif) et gagne +" + e.amount() + " Vitesse."),
+    PASSIVE_HEAL((e, s) -> "✨ " + name(s, e.actorSlot()) + " déclenche " + skillName(s, e)
+            + " (passif) et se soigne de " + e.amount() + " PV."),
+
+    // Dégâts sur la durée subis au début du tour du porteur
+    EFFECT_DAMAGE((e, s) -> "☠️ " + name(s, e.actorSlot()) + " subit " + e.amount() + " dégâts sur la durée."),
+
+    // ref = ID de compétence demandé
+    SKILL_UNKNOWN((e, s) -> "❌ Compétence " + e.ref() + " inconnue pour " + name(s, e.actorSlot())),
+    SKILL_NOT_ACTIVE((e, s) -> "❌ Cette compétence n'est pas active."),
+    SKILL_ON_COOLDOWN((e, s) -> "⏳ Compétence en recharge !"),
+    // ref = ID de cible demandé
+    TARGET_NOT_FOUND((e, s) -> "❌ Cible non trouvée pour ID: " + e.ref()),
+    TARGET_INVALID((e, s) -> "❌ Cible invalide pour cette compétence: " + skill(s, e).getTargetGroup()),
+
+    ALL_HEROES_DEAD((e, s) -> "❌ Tous les héros sont morts."),
+    DEFEAT((e, s) -> "❌ Tous vos héros sont morts. Défaite."),
+    VICTORY((e, s) -> "🎉 Le boss est vaincu. Victoire !"),
+    NO_SURVIVOR((e, s) -> "❌ Aucun participant vivant trouvé, fin du combat"),
+
+    // detail = nom du joueur
+    RTA_VICTORY((e, s) -> "🏆 " + e.detail() + " remporte la victoire!"),
+    RTA_DRAW((e, s) -> "⚠️ Match nul! Tous les héros sont morts."),
+    RTA_FORFEIT((e, s) -> e.detail() + " a abandonné le combat."),
+    RTA_FORFEIT_VICTORY((e, s) -> "🏆 " + e.detail() + " remporte la victoire par abandon!"),
+
+    // Messages rares au texte déjà construit (récompenses, erreurs)
+    INFO((e, s) -> e.detail()),
+    WARNING((e, s) -> "⚠️ " + e.detail()),
+    ERROR((e, s) -> "❌ " + e.detail());
+
+    private final BiFunction<BattleEvent, BattleState, String> renderer;
+
+    BattleEventType(BiFunction<BattleEvent, BattleState, String> renderer) {
+        this.renderer = renderer;
+    }
+
+    String render(BattleEvent event, BattleState state) {
+        return renderer.apply(event, state);
+    }
+
+    private static String name(BattleState state, int slot) {
+        if (slot < 0 || state.getParticipants() == null || slot >= state.getParticipants().size()) {
+            return "?";
+        }
+        BattleParticipant p = state.getParticipants().get(slot);
+        return p.getName() != null ? p.getName() : "Héros inconnu";
+    }
+
+    private static SkillDTO skill(BattleState state, BattleEvent event) {
+        return state.getLoadout().skill(event.actorSlot(), (int) event.ref());
+    }
+
+    private static String skillName(BattleState state, BattleEvent event) {
+        String name = skill(state, event).getName();
+        return name != null ? name : "Compétence inconnue";
+    }
+}
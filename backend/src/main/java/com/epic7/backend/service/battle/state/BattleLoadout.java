@@ -0,0 +1,200 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.skill_kit.TriggerCondition;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Loadout compilé une seule fois au démarrage du combat.
+ * Contient tout ce dont les tours ont besoin (compétences, passifs par déclencheur,
+ * cooldowns de base, propriétaire) sous forme de tableaux indexés par slot,
+ * le slot étant la position du participant dans {@link BattleState#getParticipants()}.
+ * Une fois compilé, le moteur de combat n'a plus besoin de la base de données.
+ */
+public final class BattleLoadout {
+
+    private static final SkillDTO[] NO_SKILLS = new SkillDTO[0];
+    private static final int[] NO_PASSIVES = new int[0];
+    private static final TriggerCondition[] TRIGGERS = TriggerCondition.values();
+
+    private final long[] participantIds;      // slot -> ID du participant
+    private final String[] ownerUserIds;      // slot -> userId propriétaire (null pour le boss)
+    private final SkillDTO[][] skills;        // slot -> compétences triées par position
+    private final long[][] skillIds;          // slot -> IDs des compétences (parallèle à skills)
+    private final boolean[][] activeSkills;   // slot -> compétence active ?
+    private final int[][] baseCooldowns;      // slot -> cooldown de base de chaque compétence
+    private final PassiveEffect[][] passiveEffects; // slot -> effet compilé de chaque passif (null pour une active)
+    private final int[][][] triggeredPassives;      // déclencheur -> slot -> index des passifs abonnés dans skills
+    private final long[] subscribers;               // déclencheur -> slots ayant au moins un passif abonné
+
+    private BattleLoadout(int size) {
+        this.participantIds = new long[size];
+        this.ownerUserIds = new String[size];
+        this.skills = new SkillDTO[size][];
+        this.skillIds = new long[size][];
+        this.activeSkills = new boolean[size][];
+        this.baseCooldowns = new int[size][];
+        this.passiveEffects = new PassiveEffect[size][];
+        this.triggeredPassives = new int[TRIGGERS.length][size][];
+        this.subscribers = new long[TRIGGERS.length];
+    }
+
+    /**
+     * Compile le loadout des participants, qui doivent déjà être dans leur ordre définitif.
+     * Affecte également le slot de chaque participant.
+     * @param participants participants du combat (ordre final)
+     * @param skillsByHero fournisseur des compétences d'un héros (heroId -> compétences triées)
+     */
+    public static BattleLoadout compile(List<BattleParticipant> participants,
+                                        Function<Long, List<SkillDTO>> skillsByHero) {
+        BattleLoadout loadout = new BattleLoadout(participants.size());
+
+        for (int slot = 0; slot < participants.size(); slot++) {
+            BattleParticipant p = participants.get(slot);
+            p.setSlot(slot);
+            loadout.participantIds[slot] = p.getId() != null ? p.getId() : Long.MIN_VALUE;
+            loadout.ownerUserIds[slot] = p.getUserId();
+
+            List<SkillDTO> heroSkills = p.getHeroId() != null ? skillsByHero.apply(p.getHeroId()) : null;
+            SkillDTO[] slotSkills = heroSkills != null ? heroSkills.toArray(NO_SKILLS) : NO_SKILLS;
+
+            int n = slotSkills.length;
+            long[] ids = new long[n];
+            boolean[] active = new boolean[n];
+            int[] cooldowns = new int[n];
+            PassiveEffect[] effects = new PassiveEffect[n];
+            int[][] passives = new int[TRIGGERS.length][n];
+            int[] passiveCounts = new int[TRIGGERS.length];
+
+            for (int i = 0; i < n; i++) {
+                SkillDTO s = slotSkills[i];
+                ids[i] = s.getId() != null ? s.getId() : Long.MIN_VALUE;
+                active[i] = "ACTIVE".equals(s.getCategory());
+                cooldowns[i] = s.getCooldown() != null ? s.getCooldown() : 0;
+                TriggerCondition trigger = triggerOf(s);
+                if ("PASSIVE".equals(s.getCategory()) && trigger != null) {
+                    effects[i] = PassiveEffect.compile(s);
+                    passives[trigger.ordinal()][passiveCounts[trigger.ordinal()]++] = i;
+                }
+            }
+
+            loadout.skills[slot] = slotSkills;
+            loadout.skillIds[slot] = ids;
+            loadout.activeSkills[slot] = active;
+            loadout.baseCooldowns[slot] = cooldowns;
+            loadout.passiveEffects[slot] = effects;
+            for (int t = 0; t < TRIGGERS.length; t++) {
+                int count = passiveCounts[t];
+                loadout.triggeredPassives[t][slot] = count > 0 ? Arrays.copyOf(passives[t], count) : NO_PASSIVES;
+                if (count > 0) {
+                    loadout.subscribers[t] |= 1L << slot;
+                }
+            }
+        }
+        return loadout;
+    }
+
+    public int size() {
+        return participantIds.length;
+    }
+
+    /**
+     * Retrouve le slot d'un participant à partir de son ID.
+     * @return le slot, ou -1 si aucun participant ne porte cet ID
+     */
+    public int slotOf(Long participantId) {
+        if (participantId == null) {
+            return -1;
+        }
+        long id = participantId;
+        for (int slot = 0; slot < participantIds.length; slot++) {
+            if (participantIds[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    public long participantId(int slot) {
+        return participantIds[slot];
+    }
+
+    public String ownerUserId(int slot) {
+        return ownerUserIds[slot];
+    }
+
+    public int skillCount(int slot) {
+        return skills[slot].length;
+    }
+
+    public SkillDTO skill(int slot, int index) {
+        return skills[slot][index];
+    }
+
+    public long skillId(int slot, int index) {
+        return skillIds[slot][index];
+    }
+
+    public boolean isActive(int slot, int index) {
+        return activeSkills[slot][index];
+    }
+
+    public int baseCooldown(int slot, int index) {
+        return baseCooldowns[slot][index];
+    }
+
+    /**
+     * Position (index) d'une compétence dans le kit du participant.
+     * @return l'index, ou -1 si la compétence n'appartient pas à ce participant
+     */
+    public int skillIndex(int slot, Long skillId) {
+        if (skillId == null || slot < 0 || slot >= skillIds.length) {
+            return -1;
+        }
+        long id = skillId;
+        long[] ids = skillIds[slot];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index des passifs du participant abonnés à un déclencheur (dans l'ordre des positions).
+     */
+    public int[] passives(int slot, TriggerCondition trigger) {
+        return triggeredPassives[trigger.ordinal()][slot];
+    }
+
+    /**
+     * Slots ayant au moins un passif abonné au déclencheur (bit i = slot i).
+     */
+    public long subscribers(TriggerCondition trigger) {
+        return subscribers[trigger.ordinal()];
+    }
+
+    /**
+     * Effet compilé d'un passif, null pour une compétence active.
+     */
+    public PassiveEffect passiveEffect(int slot, int index) {
+        return passiveEffects[slot][index];
+    }
+
+    private static TriggerCondition triggerOf(SkillDTO skill) {
+        String trigger = skill.getTriggerCondition();
+        if (trigger == null) {
+            return null;
+        }
+        try {
+            return TriggerCondition.valueOf(trigger);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
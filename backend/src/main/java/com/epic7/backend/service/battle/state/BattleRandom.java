@@ -0,0 +1,70 @@
+package com.epic7.backend.service.battle.state;
+
+/**
+ * Générateur pseudo-aléatoire d'un combat (SplitMix64).
+ * Tout son état tient dans un {@code long} : il est sauvegardé avec les snapshots, et un combat
+ * rejoué depuis la même graine tire exactement les mêmes valeurs. Aucune allocation par tirage.
+ * Non thread-safe : un combat n'est joué que par un thread à la fois.
+ */
+public final class BattleRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public BattleRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Reprend un générateur là où il s'était arrêté (voir {@link #state()}).
+     */
+    public static BattleRandom restore(long state) {
+        return new BattleRandom(state);
+    }
+
+    /**
+     * État courant, à sauvegarder pour reprendre la séquence.
+     */
+    public long state() {
+        return state;
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Entier uniforme dans [0, bound[.
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("La borne doit être positive : " + bound);
+        }
+        // Rejet des valeurs du dernier intervalle incomplet (débordement) : distribution sans biais
+        long u = nextLong() >>> 1;
+        long r = u % bound;
+        while (u - r + (bound - 1) < 0) {
+            u = nextLong() >>> 1;
+            r = u % bound;
+        }
+        return (int) r;
+    }
+
+    /**
+     * Réel uniforme dans [0, 1[.
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Générateur indépendant dérivé de celui-ci (combats parallèles d'une même simulation).
+     */
+    public BattleRandom split() {
+        return new BattleRandom(nextLong());
+    }
+}
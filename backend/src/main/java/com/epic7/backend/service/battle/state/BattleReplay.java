@@ -0,0 +1,326 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replay compact d'un combat RTA : participants au départ, compétences des héros telles que compilées
+ * pour ce combat, graine aléatoire et suite ordonnée des actions (compétence, cible). Le moteur rejoue
+ * le combat à l'identique à partir de ces seules données (voir BattleSimulator#replay), même après
+ * une modification des compétences : quelques octets par tour au lieu d'un état complet.
+ * <p>
+ * Format : en-tête (version, graine, joueurs, participants, compétences par héros), puis les actions
+ * en entiers à longueur variable (un identifiant de compétence ou de cible tient en 1 à 3 octets).
+ */
+public final class BattleReplay {
+
+    private static final byte FORMAT_VERSION = 2;
+
+    private final long seed;
+    private final String player1Id;
+    private final String player2Id;
+    private final String player1Name;
+    private final String player2Name;
+    private final List<BattleParticipant> participants;
+    private final Map<Long, List<SkillDTO>> skillsByHero;
+
+    private long[] skillIds;
+    private long[] targetIds;
+    private int actionCount;
+
+    private BattleReplay(long seed, String player1Id, String player2Id, String player1Name, String player2Name,
+                         List<BattleParticipant> participants, Map<Long, List<SkillDTO>> skillsByHero, int capacity) {
+        this.seed = seed;
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.player1Name = player1Name;
+        this.player2Name = player2Name;
+        this.participants = participants;
+        this.skillsByHero = skillsByHero;
+        this.skillIds = new long[Math.max(8, capacity)];
+        this.targetIds = new long[Math.max(8, capacity)];
+    }
+
+    /**
+     * Démarre le replay d'un combat : copie les participants dans leur état et leur ordre actuels,
+     * ainsi que les compétences de leur loadout compilé.
+     */
+    public static BattleReplay start(BattleState state) {
+        List<BattleParticipant> initial = new ArrayList<>(state.getParticipants().size());
+        Map<Long, List<SkillDTO>> skills = new LinkedHashMap<>();
+        BattleLoadout loadout = state.getLoadout();
+        for (BattleParticipant p : state.getParticipants()) {
+            initial.add(copyOf(p));
+            if (p.getHeroId() != null && loadout != null) {
+                int slot = p.getSlot();
+                List<SkillDTO> heroSkills = new ArrayList<>(loadout.skillCount(slot));
+                for (int i = 0; i < loadout.skillCount(slot); i++) {
+                    heroSkills.add(loadout.skill(slot, i));
+                }
+                skills.putIfAbsent(p.getHeroId(), heroSkills);
+            }
+        }
+        return new BattleReplay(state.getRngSeed(), state.getPlayer1Id(), state.getPlayer2Id(),
+                state.getPlayer1Name(), state.getPlayer2Name(), initial, skills, 32);
+    }
+
+    /**
+     * Ajoute une action jouée.
+     */
+    public synchronized void record(long skillId, long targetId) {
+        if (actionCount == skillIds.length) {
+            skillIds = Arrays.copyOf(skillIds, actionCount * 2);
+            targetIds = Arrays.copyOf(targetIds, actionCount * 2);
+        }
+        skillIds[actionCount] = skillId;
+        targetIds[actionCount] = targetId;
+        actionCount++;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public String player1Id() {
+        return player1Id;
+    }
+
+    public String player2Id() {
+        return player2Id;
+    }
+
+    public String player1Name() {
+        return player1Name;
+    }
+
+    public String player2Name() {
+        return player2Name;
+    }
+
+    /**
+     * Participants au départ du combat, copiés à chaque appel (le replay reste rejouable).
+     */
+    public List<BattleParticipant> participants() {
+        List<BattleParticipant> copies = new ArrayList<>(participants.size());
+        for (BattleParticipant p : participants) {
+            copies.add(copyOf(p));
+        }
+        return copies;
+    }
+
+    /**
+     * Compétences de chaque héros au moment du combat (heroId -> compétences triées),
+     * à compiler avec BattleLoadout#compile pour rejouer le combat.
+     */
+    public List<SkillDTO> skillsOf(Long heroId) {
+        return skillsByHero.get(heroId);
+    }
+
+    public synchronized int actionCount() {
+        return actionCount;
+    }
+
+    public synchronized long skillId(int action) {
+        return skillIds[action];
+    }
+
+    public synchronized long targetId(int action) {
+        return targetIds[action];
+    }
+
+    public synchronized byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + participants.size() * 48 + actionCount * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(seed);
+            writeString(out, player1Id);
+            writeString(out, player2Id);
+            writeString(out, player1Name);
+            writeString(out, player2Name);
+
+            writeVarLong(out, participants.size());
+            for (BattleParticipant p : participants) {
+                writeVarLong(out, p.getId());
+                writeString(out, p.getName());
+                writeVarLong(out, p.getMaxHp());
+                writeVarLong(out, p.getCurrentHp());
+                writeVarLong(out, p.getAttack());
+                writeVarLong(out, p.getDefense());
+                writeVarLong(out, p.getSpeed());
+                out.writeBoolean(p.isPlayer());
+                writeString(out, p.getUserId());
+                writeVarLong(out, p.getHeroId() != null ? p.getHeroId() : -1);
+            }
+
+            writeVarLong(out, skillsByHero.size());
+            for (Map.Entry<Long, List<SkillDTO>> hero : skillsByHero.entrySet()) {
+                writeVarLong(out, hero.getKey());
+                writeVarLong(out, hero.getValue().size());
+                for (SkillDTO skill : hero.getValue()) {
+                    writeSkill(out, skill);
+                }
+            }
+
+            writeVarLong(out, actionCount);
+            for (int i = 0; i < actionCount; i++) {
+                writeVarLong(out, skillIds[i]);
+                writeVarLong(out, targetIds[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static BattleReplay decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte format = in.readByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Format de replay inconnu : " + format);
+            }
+            long seed = in.readLong();
+            String player1Id = readString(in);
+            String player2Id = readString(in);
+            String player1Name = readString(in);
+            String player2Name = readString(in);
+
+            int count = (int) readVarLong(in);
+            List<BattleParticipant> participants = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BattleParticipant p = new BattleParticipant();
+                p.setId(readVarLong(in));
+                p.setName(readString(in));
+                p.setMaxHp((int) readVarLong(in));
+                p.setCurrentHp((int) readVarLong(in));
+                p.setAttack((int) readVarLong(in));
+                p.setDefense((int) readVarLong(in));
+                p.setSpeed((int) readVarLong(in));
+                p.setPlayer(in.readBoolean());
+                p.setUserId(readString(in));
+                long heroId = readVarLong(in);
+                p.setHeroId(heroId >= 0 ? heroId : null);
+                participants.add(p);
+            }
+
+            int heroes = (int) readVarLong(in);
+            Map<Long, List<SkillDTO>> skillsByHero = new LinkedHashMap<>();
+            for (int i = 0; i < heroes; i++) {
+                long heroId = readVarLong(in);
+                int skillCount = (int) readVarLong(in);
+                List<SkillDTO> skills = new ArrayList<>(skillCount);
+                for (int j = 0; j < skillCount; j++) {
+                    skills.add(readSkill(in));
+                }
+                skillsByHero.put(heroId, skills);
+            }
+
+            int actions = (int) readVarLong(in);
+            BattleReplay replay = new BattleReplay(seed, player1Id, player2Id, player1Name, player2Name,
+                    participants, skillsByHero, actions);
+            for (int i = 0; i < actions; i++) {
+                replay.record(readVarLong(in), readVarLong(in));
+            }
+            return replay;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BattleParticipant copyOf(BattleParticipant p) {
+        return new BattleParticipant(p.getId(), p.getName(), p.getMaxHp(), p.getCurrentHp(),
+                p.getAttack(), p.getDefense(), p.getSpeed(), p.isPlayer(), p.getUserId(), p.getHeroId(), -1);
+    }
+
+    // Tout ce que le moteur lit d'une compétence (la description n'est pas conservée)
+    private static void writeSkill(DataOutputStream out, SkillDTO skill) throws IOException {
+        writeVarLong(out, skill.getId() != null ? skill.getId() : -1);
+        writeString(out, skill.getName());
+        writeString(out, skill.getCategory());
+        writeVarLong(out, skill.getPosition() != null ? skill.getPosition() : -1);
+        writeString(out, skill.getAction());
+        writeString(out, skill.getTargetGroup());
+        writeVarLong(out, skill.getTargetCount() != null ? skill.getTargetCount() : -1);
+        writeString(out, skill.getScalingStat());
+        out.writeBoolean(skill.getScalingFactor() != null);
+        if (skill.getScalingFactor() != null) {
+            out.writeDouble(skill.getScalingFactor());
+        }
+        writeVarLong(out, skill.getCooldown() != null ? skill.getCooldown() : -1);
+        writeString(out, skill.getPassiveBonus());
+        out.writeBoolean(skill.getBonusValue() != null);
+        if (skill.getBonusValue() != null) {
+            out.writeDouble(skill.getBonusValue());
+        }
+        out.writeByte(skill.getApplyToAllies() == null ? -1 : skill.getApplyToAllies() ? 1 : 0);
+        writeString(out, skill.getTriggerCondition());
+    }
+
+    private static SkillDTO readSkill(DataInputStream in) throws IOException {
+        SkillDTO skill = new SkillDTO();
+        long id = readVarLong(in);
+        skill.setId(id >= 0 ? id : null);
+        skill.setName(readString(in));
+        skill.setCategory(readString(in));
+        int position = (int) readVarLong(in);
+        skill.setPosition(position >= 0 ? position : null);
+        skill.setAction(readString(in));
+        skill.setTargetGroup(readString(in));
+        int targetCount = (int) readVarLong(in);
+        skill.setTargetCount(targetCount >= 0 ? targetCount : null);
+        skill.setScalingStat(readString(in));
+        skill.setScalingFactor(in.readBoolean() ? in.readDouble() : null);
+        int cooldown = (int) readVarLong(in);
+        skill.setCooldown(cooldown >= 0 ? cooldown : null);
+        skill.setPassiveBonus(readString(in));
+        skill.setBonusValue(in.readBoolean() ? in.readDouble() : null);
+        byte applyToAllies = in.readByte();
+        skill.setApplyToAllies(applyToAllies < 0 ? null : applyToAllies == 1);
+        skill.setTriggerCondition(readString(in));
+        return skill;
+    }
+
+    // Entier à longueur variable (zigzag + 7 bits par octet) : les petites valeurs tiennent en 1 octet
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
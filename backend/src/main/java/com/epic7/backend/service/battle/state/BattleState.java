@@ -1,8 +1,13 @@
 package com.epic7.backend.service.battle.state;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -12,11 +17,35 @@ import com.epic7.backend.service.battle.model.BattleParticipant;
 @Data
 public class BattleState {
 
+    private String battleId;
     private List<BattleParticipant> participants;
     private int currentTurnIndex;
     private boolean finished;
-    private List<String> logs;
+
+    /**
+     * Journal typé et borné du combat, rendu en texte uniquement à l'envoi (voir {@link #getLogs()}).
+     */
+    @JsonIgnore
+    private BattleEventLog eventLog = new BattleEventLog();
+
+    /**
+     * Curseur de lecture du journal : seuls les événements de séquence &gt;= logsSince
+     * sont envoyés au client. 0 = tout le journal encore disponible.
+     */
+    @JsonIgnore
+    private long logsSince;
     
+    /**
+     * Version de l'état diffusée aux clients RTA : incrémentée à chaque patch.
+     */
+    private long version;
+
+    /**
+     * Dernier état diffusé, base du prochain patch RTA. Non envoyé aux clients.
+     */
+    @JsonIgnore
+    private BattleStateDelta broadcastBaseline;
+
     private int roundCount = 1;
     private ShopItemType rewardType;
     private int rewardAmount;
@@ -26,28 +55,482 @@ public class BattleState {
     private String player2Id;    // ID du joueur 2
     private String player1Name;  // Nom du joueur 1
     private String player2Name;  // Nom du joueur 2
+
+    /**
+     * Points RTA des joueurs au début du combat : base du calcul des points gagnés ou perdus.
+     */
+    @JsonIgnore
+    private int player1Rating;
+    @JsonIgnore
+    private int player2Rating;
+
+    /**
+     * Graine aléatoire du combat, conservée dans le replay.
+     */
+    @JsonIgnore
+    private long rngSeed;
+
+    /**
+     * Générateur aléatoire du combat, initialisé par la graine : un combat rejoué tire les mêmes valeurs.
+     */
+    @JsonIgnore
+    private BattleRandom random = new BattleRandom(0L);
+
+    /**
+     * Replay compact du combat (participants au départ et actions jouées). Null hors RTA.
+     */
+    @JsonIgnore
+    private BattleReplay replay;
     
     // Stocke l'ID du joueur à qui cet état est envoyé (renseigné dans le contrôleur)
     private transient String currentUserId;
 
     /**
-     * Cooldowns par héros : Map<PlayerHeroId, Map<SkillId, cooldownRestant>>
+     * Compétences, passifs et cooldowns de base compilés au démarrage du combat.
+     * Non envoyé aux clients.
+     */
+    @JsonIgnore
+    private BattleLoadout loadout;
+
+    /**
+     * Cooldowns restants, indexés par slot et position de compétence.
+     * Créée avec le loadout ; exposée aux clients via {@link #getCooldowns()}.
+     */
+    @JsonIgnore
+    private CooldownTable cooldownTable;
+
+    /**
+     * Participants vivants : bit i = participants[i] a des PV (64 participants au plus).
+     * Mis à jour uniquement quand des PV passent par zéro (voir {@link #setHp}).
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long aliveMask;
+
+    // Masques des équipes, calculés à la demande (les IDs des joueurs peuvent être fixés après les participants)
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long team1Mask;
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long team2Mask;
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean teamMasksReady;
+
+    /**
+     * Effets temporaires (buffs, débuffs, dégâts sur la durée), créés avec les participants.
+     * Les statistiques modifiées se lisent via {@link #attackOf}, {@link #defenseOf} et {@link #speedOf}.
+     */
+    @JsonIgnore
+    private StatusEffects statusEffects;
+
+    /**
+     * Ordre des tours par jauge d'action, créé au premier changement de tour (voir {@link #turnScheduler()}).
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    private TurnScheduler turnScheduler;
+
+    /**
+     * Participants passés à zéro PV ou sous le seuil {@link #LOW_HEALTH_PERCENT} depuis la dernière lecture :
+     * déclencheurs des passifs ON_KILL, ON_ALLY_DEATH, ON_ENNEMY_DEATH et ON_LOW_HEALTH.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long pendingDeaths;
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long pendingLowHealth;
+
+    /** Seuil de PV (en % des PV max) des passifs ON_LOW_HEALTH. */
+    public static final int LOW_HEALTH_PERCENT = 50;
+
+    /** Équipe 1 : joueur 1 en RTA, héros du joueur en PvE. */
+    public static final int TEAM_1 = 1;
+    /** Équipe 2 : joueur 2 en RTA, boss en PvE. */
+    public static final int TEAM_2 = 2;
+
+    public void setParticipants(List<BattleParticipant> participants) {
+        if (participants != null && participants.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Trop de participants : " + participants.size());
+        }
+        this.participants = participants;
+        this.statusEffects = participants != null ? new StatusEffects(participants.size()) : null;
+        this.teamMasksReady = false;
+        recountAlive();
+    }
+
+    /**
+     * Ordonnanceur des tours du combat, créé à la demande à partir des vitesses courantes.
+     */
+    public TurnScheduler turnScheduler() {
+        if (turnScheduler == null) {
+            turnScheduler = TurnScheduler.start(this);
+        }
+        return turnScheduler;
+    }
+
+    /**
+     * Ordonnanceur déjà créé, ou null (sauvegarde d'un snapshot).
+     */
+    public TurnScheduler currentTurnScheduler() {
+        return turnScheduler;
+    }
+
+    /**
+     * Modifie la vitesse de base d'un participant ; la jauge d'action déjà remplie est conservée.
+     */
+    public void setSpeed(BattleParticipant participant, int speed) {
+        participant.setSpeed(speed);
+        speedChanged(participant);
+    }
+
+    /**
+     * Attaque du participant, effets actifs compris.
+     */
+    public int attackOf(BattleParticipant participant) {
+        return modified(participant, StatusEffectType.Stat.ATTACK, participant.getAttack());
+    }
+
+    /**
+     * Défense du participant, effets actifs compris.
+     */
+    public int defenseOf(BattleParticipant participant) {
+        return modified(participant, StatusEffectType.Stat.DEFENSE, participant.getDefense());
+    }
+
+    /**
+     * Vitesse du participant, effets actifs compris.
+     */
+    public int speedOf(BattleParticipant participant) {
+        return modified(participant, StatusEffectType.Stat.SPEED, participant.getSpeed());
+    }
+
+    /**
+     * Pose un effet temporaire sur un participant pour {@code duration} de ses tours.
+     */
+    public void applyEffect(BattleParticipant target, StatusEffectType type, int value, int duration, int sourceSlot) {
+        int slot = slotOf(target);
+        if (statusEffects == null || slot < 0) {
+            return;
+        }
+        statusEffects.apply(slot, type, value, duration, sourceSlot);
+        if (type.stat() == StatusEffectType.Stat.SPEED) {
+            speedChanged(target);
+        }
+    }
+
+    /**
+     * Début du tour d'un participant : expiration de ses effets et dégâts sur la durée.
+     * @return false si les dégâts sur la durée l'ont mis K.O.
+     */
+    public boolean startTurnEffects(int slot) {
+        if (statusEffects == null) {
+            return true;
+        }
+        BattleParticipant participant = participants.get(slot);
+        int speedBefore = speedOf(participant);
+        int damagePercent = statusEffects.startTurn(slot);
+        if (speedOf(participant) != speedBefore) {
+            speedChanged(participant);
+        }
+        if (damagePercent > 0) {
+            int damage = Math.max(1, (int) ((long) participant.getMaxHp() * damagePercent / 100));
+            setHp(participant, Math.max(0, participant.getCurrentHp() - damage));
+            addEvent(BattleEventType.EFFECT_DAMAGE, slot, slot, damage);
+        }
+        return isAlive(slot);
+    }
+
+    /**
+     * Nombre de tours joués depuis le début du combat, premier tour compris.
+     * Déduit des tours commencés par chaque slot (déjà sauvegardés avec les effets) : aucun compteur de plus.
+     */
+    public int turnCount() {
+        if (statusEffects == null) {
+            return 1;
+        }
+        int count = 1;
+        for (int slot = 0; slot < statusEffects.slots(); slot++) {
+            count += statusEffects.turns(slot);
+        }
+        return count;
+    }
+
+    private int modified(BattleParticipant participant, StatusEffectType.Stat stat, int baseValue) {
+        if (statusEffects == null) {
+            return baseValue;
+        }
+        int slot = slotOf(participant);
+        return slot >= 0 ? statusEffects.modify(slot, stat, baseValue) : baseValue;
+    }
+
+    private void speedChanged(BattleParticipant participant) {
+        if (turnScheduler != null) {
+            int slot = slotOf(participant);
+            if (slot >= 0) {
+                turnScheduler.speedChanged(slot, speedOf(participant));
+            }
+        }
+    }
+
+    public void setPlayer1Id(String player1Id) {
+        this.player1Id = player1Id;
+        this.teamMasksReady = false;
+    }
+
+    public void setPlayer2Id(String player2Id) {
+        this.player2Id = player2Id;
+        this.teamMasksReady = false;
+    }
+
+    /**
+     * Recalcule les vivants depuis les PV et repart des jauges à zéro ; à appeler si des PV ont été modifiés sans {@link #setHp}.
+     */
+    public void recountAlive() {
+        long mask = 0;
+        if (participants != null) {
+            for (int i = 0; i < participants.size(); i++) {
+                if (participants.get(i).getCurrentHp() > 0) {
+                    mask |= 1L << i;
+                }
+            }
+        }
+        aliveMask = mask;
+        turnScheduler = null;
+    }
+
+    /**
+     * Modifie les PV d'un participant et tient à jour les vivants.
+     */
+    public void setHp(BattleParticipant participant, int hp) {
+        int previous = participant.getCurrentHp();
+        participant.setCurrentHp(hp);
+        if ((previous > 0) != (hp > 0)) {
+            int slot = slotOf(participant);
+            if (slot >= 0) {
+                aliveMask = hp > 0 ? aliveMask | (1L << slot) : aliveMask & ~(1L << slot);
+                if (hp > 0 && turnScheduler != null) {
+                    turnScheduler.revived(slot);
+                }
+                if (hp <= 0) {
+                    pendingDeaths |= 1L << slot;
+                }
+            }
+        }
+        if (hp > 0 && hp < previous && isLowHealth(participant, hp) && !isLowHealth(participant, previous)) {
+            int slot = slotOf(participant);
+            if (slot >= 0) {
+                pendingLowHealth |= 1L << slot;
+            }
+        }
+    }
+
+    /**
+     * Participants mis K.O. depuis le dernier appel (masque de slots), puis remise à zéro.
+     */
+    public long takePendingDeaths() {
+        long deaths = pendingDeaths;
+        pendingDeaths = 0;
+        return deaths;
+    }
+
+    /**
+     * Participants passés sous le seuil de PV bas depuis le dernier appel (masque de slots), puis remise à zéro.
+     */
+    public long takePendingLowHealth() {
+        long lowHealth = pendingLowHealth;
+        pendingLowHealth = 0;
+        return lowHealth;
+    }
+
+    private static boolean isLowHealth(BattleParticipant participant, int hp) {
+        return (long) hp * 100 < (long) participant.getMaxHp() * LOW_HEALTH_PERCENT;
+    }
+
+    public boolean isAlive(int slot) {
+        return slot >= 0 && slot < Long.SIZE && (aliveMask & (1L << slot)) != 0;
+    }
+
+    /**
+     * Nombre de participants vivants d'une équipe ({@link #TEAM_1} ou {@link #TEAM_2}), en O(1).
+     */
+    public int aliveCount(int team) {
+        return Long.bitCount(aliveMask & teamMask(team));
+    }
+
+    public boolean isTeamAlive(int team) {
+        return (aliveMask & teamMask(team)) != 0;
+    }
+
+    /**
+     * Slot du n-ième participant vivant d'une équipe (ordre des slots), ou -1.
+     */
+    public int nthAlive(int team, int n) {
+        long mask = aliveMask & teamMask(team);
+        for (int i = 0; i < n && mask != 0; i++) {
+            mask &= mask - 1;
+        }
+        return mask != 0 ? Long.numberOfTrailingZeros(mask) : -1;
+    }
+
+    /**
+     * Participants vivants d'une équipe, en masque de slots.
+     */
+    public long aliveMask(int team) {
+        return aliveMask & teamMask(team);
+    }
+
+    /**
+     * Équipe d'un slot ({@link #TEAM_1} ou {@link #TEAM_2}), 0 s'il n'appartient à aucune.
+     */
+    public int teamOf(int slot) {
+        long bit = 1L << slot;
+        if ((teamMask(TEAM_1) & bit) != 0) {
+            return TEAM_1;
+        }
+        return (teamMask(TEAM_2) & bit) != 0 ? TEAM_2 : 0;
+    }
+
+    private long teamMask(int team) {
+        if (!teamMasksReady) {
+            computeTeamMasks();
+        }
+        return team == TEAM_1 ? team1Mask : team == TEAM_2 ? team2Mask : 0L;
+    }
+
+    private void computeTeamMasks() {
+        long first = 0;
+        long second = 0;
+        boolean rta = player1Id != null && player2Id != null;
+        if (participants != null) {
+            for (int i = 0; i < participants.size(); i++) {
+                BattleParticipant p = participants.get(i);
+                boolean inFirst = rta ? player1Id.equals(p.getUserId()) : p.isPlayer();
+                boolean inSecond = rta ? player2Id.equals(p.getUserId()) : !p.isPlayer();
+                if (inFirst) {
+                    first |= 1L << i;
+                } else if (inSecond) {
+                    second |= 1L << i;
+                }
+            }
+        }
+        team1Mask = first;
+        team2Mask = second;
+        teamMasksReady = true;
+    }
+
+    private int slotOf(BattleParticipant participant) {
+        int slot = participant.getSlot();
+        if (slot >= 0 && slot < participants.size() && participants.get(slot) == participant) {
+            return slot;
+        }
+        for (int i = 0; i < participants.size(); i++) {
+            if (participants.get(i) == participant) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fixe la graine du combat et repart du début de sa séquence aléatoire.
+     */
+    public void setRngSeed(long rngSeed) {
+        this.rngSeed = rngSeed;
+        this.random = new BattleRandom(rngSeed);
+    }
+
+    /**
+     * Logs texte envoyés aux clients : événements depuis {@link #getLogsSince()}.
      */
-    private Map<Long, Map<Long, Integer>> cooldowns = new HashMap<>();
+    public List<String> getLogs() {
+        return eventLog.render(logsSince, this);
+    }
+
+    /**
+     * Séquence du prochain événement ; le client la renvoie comme curseur pour ne recevoir que la suite.
+     */
+    public long getLogSequence() {
+        return eventLog.nextSequence();
+    }
+
+    public void addEvent(BattleEventType type, int actorSlot, int targetSlot, int amount, long ref) {
+        eventLog.append(type, actorSlot, targetSlot, amount, ref);
+    }
+
+    public void addEvent(BattleEventType type, int actorSlot, int targetSlot, int amount) {
+        eventLog.append(type, actorSlot, targetSlot, amount, 0);
+    }
+
+    public void addEvent(BattleEventType type, String detail) {
+        eventLog.append(type, -1, -1, 0, 0, detail);
+    }
+
+    public void setLoadout(BattleLoadout loadout) {
+        this.loadout = loadout;
+        this.cooldownTable = loadout != null ? new CooldownTable(loadout) : null;
+    }
+
+    /**
+     * Cooldowns par héros : Map<PlayerHeroId, Map<SkillId, cooldownRestant>>.
+     * Vue reconstruite à la demande pour la sérialisation, ne pas modifier.
+     */
+    public Map<Long, Map<Long, Integer>> getCooldowns() {
+        return cooldownTable != null ? cooldownTable.toMap() : Collections.emptyMap();
+    }
+
+    public int getRemainingCooldown(int slot, int skillIndex) {
+        return cooldownTable != null ? cooldownTable.get(slot, skillIndex) : 0;
+    }
+
+    public void putCooldown(int slot, int skillIndex, int cooldown) {
+        if (cooldownTable != null) {
+            cooldownTable.set(slot, skillIndex, cooldown);
+        }
+    }
+
+    public void reduceCooldownsForSlot(int slot) {
+        if (cooldownTable != null && slot >= 0) {
+            cooldownTable.decrement(slot);
+        }
+    }
+
+    public boolean isSkillOnCooldown(int slot, int skillIndex) {
+        return getRemainingCooldown(slot, skillIndex) > 0;
+    }
 
     public int getRemainingCooldown(Long playerHeroId, Long skillId) {
-        return cooldowns.getOrDefault(playerHeroId, new HashMap<>()).getOrDefault(skillId, 0);
+        if (loadout == null) {
+            return 0;
+        }
+        int slot = loadout.slotOf(playerHeroId);
+        int index = loadout.skillIndex(slot, skillId);
+        return index >= 0 ? getRemainingCooldown(slot, index) : 0;
     }
 
     public void putCooldown(Long playerHeroId, Long skillId, int cooldown) {
-        cooldowns.computeIfAbsent(playerHeroId, k -> new HashMap<>()).put(skillId, cooldown);
+        if (loadout == null) {
+            return;
+        }
+        int slot = loadout.slotOf(playerHeroId);
+        int index = loadout.skillIndex(slot, skillId);
+        if (index >= 0) {
+            putCooldown(slot, index, cooldown);
+        }
     }
 
     public void reduceCooldownsForHero(Long playerHeroId) {
-        cooldowns.computeIfPresent(playerHeroId, (phId, skillMap) -> {
-            skillMap.replaceAll((skillId, value) -> Math.max(0, value - 1));
-            return skillMap;
-        });
+        if (loadout != null) {
+            reduceCooldownsForSlot(loadout.slotOf(playerHeroId));
+        }
     }
 
     public boolean isSkillOnCooldown(Long playerHeroId, Long skillId) {
@@ -55,10 +538,8 @@ public class BattleState {
     }
 
     public void reduceAllCooldownsExcept(Long currentHeroId) {
-        cooldowns.forEach((heroId, skills) -> {
-            if (!heroId.equals(currentHeroId)) {
-                skills.replaceAll((skillId, turns) -> Math.max(0, turns - 1));
-            }
-        });
+        if (cooldownTable != null) {
+            cooldownTable.decrementAllExcept(loadout.slotOf(currentHeroId));
+        }
     }
 } 
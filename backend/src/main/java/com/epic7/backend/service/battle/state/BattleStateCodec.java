@@ -0,0 +1,318 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.model.enums.ShopItemType;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodage binaire compact d'un {@link BattleState} pour les snapshots de combat.
+ * Seul l'état mutable est écrit (participants, tour, cooldowns non nuls, journal) ;
+ * le loadout n'est pas sérialisé mais recompilé à la restauration depuis le catalogue de compétences.
+ * Les types d'événements et de récompenses sont écrits par nom pour rester lisibles
+ * par une autre version du serveur (déploiement progressif).
+ */
+public final class BattleStateCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private BattleStateCodec() {
+    }
+
+    public static byte[] encode(BattleState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, state.getBattleId());
+            out.writeLong(state.getVersion());
+            out.writeInt(state.getCurrentTurnIndex());
+            out.writeInt(state.getRoundCount());
+            out.writeBoolean(state.isFinished());
+            writeString(out, state.getRewardType() != null ? state.getRewardType().name() : null);
+            out.writeInt(state.getRewardAmount());
+            writeString(out, state.getPlayer1Id());
+            writeString(out, state.getPlayer2Id());
+            writeString(out, state.getPlayer1Name());
+            writeString(out, state.getPlayer2Name());
+            out.writeLong(state.getLogsSince());
+            out.writeInt(state.getPlayer1Rating());
+            out.writeInt(state.getPlayer2Rating());
+            out.writeLong(state.getRngSeed());
+            out.writeLong(state.getRandom().state());
+
+            List<BattleParticipant> participants = state.getParticipants() != null ? state.getParticipants() : List.of();
+            out.writeInt(participants.size());
+            for (BattleParticipant p : participants) {
+                writeLong(out, p.getId());
+                writeString(out, p.getName());
+                out.writeInt(p.getMaxHp());
+                out.writeInt(p.getCurrentHp());
+                out.writeInt(p.getAttack());
+                out.writeInt(p.getDefense());
+                out.writeInt(p.getSpeed());
+                out.writeBoolean(p.isPlayer());
+                writeString(out, p.getUserId());
+                writeLong(out, p.getHeroId());
+            }
+
+            writeCooldowns(out, state, participants.size());
+            writeEventLog(out, state.getEventLog());
+            writeReplay(out, state.getReplay());
+            writeStatusEffects(out, state.getStatusEffects());
+            writeTurnScheduler(out, state.currentTurnScheduler());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reconstruit un état de combat.
+     * @param loadoutCompiler recompile le loadout des participants (voir ParticipantFactory#compileLoadout)
+     */
+    public static BattleState decode(byte[] data, Function<List<BattleParticipant>, BattleLoadout> loadoutCompiler) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte format = in.readByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Format de snapshot inconnu : " + format);
+            }
+
+            BattleState state = new BattleState();
+            state.setBattleId(readString(in));
+            state.setVersion(in.readLong());
+            state.setCurrentTurnIndex(in.readInt());
+            state.setRoundCount(in.readInt());
+            state.setFinished(in.readBoolean());
+            String rewardType = readString(in);
+            state.setRewardType(rewardType != null ? ShopItemType.valueOf(rewardType) : null);
+            state.setRewardAmount(in.readInt());
+            state.setPlayer1Id(readString(in));
+            state.setPlayer2Id(readString(in));
+            state.setPlayer1Name(readString(in));
+            state.setPlayer2Name(readString(in));
+            state.setLogsSince(in.readLong());
+            state.setPlayer1Rating(in.readInt());
+            state.setPlayer2Rating(in.readInt());
+            state.setRngSeed(in.readLong());
+            state.setRandom(BattleRandom.restore(in.readLong()));
+
+            int count = in.readInt();
+            List<BattleParticipant> participants = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BattleParticipant p = new BattleParticipant();
+                p.setId(readLong(in));
+                p.setName(readString(in));
+                p.setMaxHp(in.readInt());
+                p.setCurrentHp(in.readInt());
+                p.setAttack(in.readInt());
+                p.setDefense(in.readInt());
+                p.setSpeed(in.readInt());
+                p.setPlayer(in.readBoolean());
+                p.setUserId(readString(in));
+                p.setHeroId(readLong(in));
+                participants.add(p);
+            }
+            state.setParticipants(participants);
+            // Les participants sont déjà dans leur ordre de combat : les slots sont identiques
+            state.setLoadout(loadoutCompiler.apply(participants));
+
+            readCooldowns(in, state, count);
+            state.setEventLog(readEventLog(in));
+            state.setReplay(readReplay(in));
+            readStatusEffects(in, state.getStatusEffects());
+            state.setTurnScheduler(readTurnScheduler(in, state));
+            return state;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cooldowns non nuls par slot, identifiés par l'ID de compétence (et non par l'index,
+     * qui dépend du catalogue au moment de la restauration).
+     */
+    private static void writeCooldowns(DataOutputStream out, BattleState state, int slots) throws IOException {
+        BattleLoadout loadout = state.getLoadout();
+        for (int slot = 0; slot < slots; slot++) {
+            int skills = loadout != null && slot < loadout.size() ? loadout.skillCount(slot) : 0;
+            int active = 0;
+            for (int i = 0; i < skills; i++) {
+                if (state.getRemainingCooldown(slot, i) > 0) {
+                    active++;
+                }
+            }
+            out.writeShort(active);
+            for (int i = 0; i < skills; i++) {
+                int remaining = state.getRemainingCooldown(slot, i);
+                if (remaining > 0) {
+                    out.writeLong(loadout.skillId(slot, i));
+                    out.writeShort(remaining);
+                }
+            }
+        }
+    }
+
+    private static void readCooldowns(DataInputStream in, BattleState state, int slots) throws IOException {
+        BattleLoadout loadout = state.getLoadout();
+        for (int slot = 0; slot < slots; slot++) {
+            int active = in.readShort();
+            for (int i = 0; i < active; i++) {
+                long skillId = in.readLong();
+                int remaining = in.readShort();
+                int index = loadout != null ? loadout.skillIndex(slot, skillId) : -1;
+                if (index >= 0) {
+                    state.putCooldown(slot, index, remaining);
+                }
+            }
+        }
+    }
+
+    private static void writeEventLog(DataOutputStream out, BattleEventLog log) throws IOException {
+        List<BattleEvent> events = log.eventsSince(0);
+        out.writeInt(log.capacity());
+        out.writeLong(events.isEmpty() ? log.nextSequence() : events.get(events.size() - 1).sequence() + 1);
+        out.writeInt(events.size());
+        for (BattleEvent event : events) {
+            out.writeUTF(event.type().name());
+            out.writeInt(event.actorSlot());
+            out.writeInt(event.targetSlot());
+            out.writeInt(event.amount());
+            out.writeLong(event.ref());
+            writeString(out, event.detail());
+        }
+    }
+
+    private static BattleEventLog readEventLog(DataInputStream in) throws IOException {
+        int capacity = in.readInt();
+        long nextSequence = in.readLong();
+        int count = in.readInt();
+        List<BattleEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BattleEventType type = BattleEventType.valueOf(in.readUTF());
+            int actor = in.readInt();
+            int target = in.readInt();
+            int amount = in.readInt();
+            long ref = in.readLong();
+            String detail = readString(in);
+            events.add(new BattleEvent(nextSequence - count + i, type, actor, target, amount, ref, detail));
+        }
+        return BattleEventLog.restore(capacity, nextSequence, events);
+    }
+
+    private static void writeReplay(DataOutputStream out, BattleReplay replay) throws IOException {
+        byte[] bytes = replay != null ? replay.encode() : new byte[0];
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static BattleReplay readReplay(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return BattleReplay.decode(bytes);
+    }
+
+    /**
+     * Effets temporaires par slot, le type écrit par nom comme les événements.
+     */
+    private static void writeStatusEffects(DataOutputStream out, StatusEffects effects) throws IOException {
+        int slots = effects != null ? effects.slots() : 0;
+        out.writeInt(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            out.writeInt(effects.turns(slot));
+            out.writeByte(effects.count(slot));
+            for (int i = 0; i < effects.count(slot); i++) {
+                out.writeUTF(effects.type(slot, i).name());
+                out.writeInt(effects.value(slot, i));
+                out.writeInt(effects.expiresAt(slot, i));
+                out.writeInt(effects.source(slot, i));
+            }
+        }
+    }
+
+    private static void readStatusEffects(DataInputStream in, StatusEffects effects) throws IOException {
+        int slots = in.readInt();
+        for (int slot = 0; slot < slots; slot++) {
+            int turns = in.readInt();
+            int count = in.readByte();
+            boolean known = effects != null && slot < effects.slots();
+            if (known) {
+                effects.restoreTurns(slot, turns);
+            }
+            for (int i = 0; i < count; i++) {
+                StatusEffectType type = StatusEffectType.valueOf(in.readUTF());
+                int value = in.readInt();
+                int expiry = in.readInt();
+                int source = in.readInt();
+                if (known) {
+                    effects.restoreEffect(slot, type, value, expiry, source);
+                }
+            }
+        }
+    }
+
+    /**
+     * Jauges d'action : horloge, participants ayant joué dans le round et échéance de chaque slot.
+     * Absent tant qu'aucun tour n'a été passé (l'ordonnanceur est alors recréé à la demande).
+     */
+    private static void writeTurnScheduler(DataOutputStream out, TurnScheduler scheduler) throws IOException {
+        out.writeBoolean(scheduler != null);
+        if (scheduler == null) {
+            return;
+        }
+        out.writeDouble(scheduler.clock());
+        out.writeLong(scheduler.actedThisRound());
+        out.writeInt(scheduler.slots());
+        for (int slot = 0; slot < scheduler.slots(); slot++) {
+            out.writeDouble(scheduler.readyAt(slot));
+        }
+    }
+
+    private static TurnScheduler readTurnScheduler(DataInputStream in, BattleState state) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        double clock = in.readDouble();
+        long acted = in.readLong();
+        double[] readyAt = new double[in.readInt()];
+        for (int slot = 0; slot < readyAt.length; slot++) {
+            readyAt[slot] = in.readDouble();
+        }
+        return readyAt.length == state.getParticipants().size()
+                ? TurnScheduler.restore(state, clock, acted, readyAt)
+                : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.rta.RtaStatePatchDTO;
+import com.epic7.backend.dto.rta.RtaStatePatchDTO.CooldownPatch;
+import com.epic7.backend.dto.rta.RtaStatePatchDTO.ParticipantPatch;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dernier état diffusé aux clients d'un combat RTA (PV, stats effets compris, cooldowns, curseur de logs).
+ * Sert à calculer le patch de la version suivante : seules les valeurs qui ont changé
+ * depuis la dernière diffusion sont envoyées.
+ */
+public final class BattleStateDelta {
+
+    private final int[] hp;
+    private final int[] attack;
+    private final int[] defense;
+    private final int[] speed;
+    private final int[][] cooldowns;  // slot -> cooldown restant par index de compétence
+    private long logSequence;
+
+    private BattleStateDelta(int size) {
+        this.hp = new int[size];
+        this.attack = new int[size];
+        this.defense = new int[size];
+        this.speed = new int[size];
+        this.cooldowns = new int[size][];
+    }
+
+    /**
+     * Capture l'état tel qu'il vient d'être envoyé en snapshot complet.
+     */
+    public static BattleStateDelta capture(BattleState state) {
+        List<BattleParticipant> participants = state.getParticipants();
+        BattleStateDelta delta = new BattleStateDelta(participants.size());
+        BattleLoadout loadout = state.getLoadout();
+        for (int slot = 0; slot < participants.size(); slot++) {
+            BattleParticipant p = participants.get(slot);
+            delta.hp[slot] = p.getCurrentHp();
+            delta.attack[slot] = state.attackOf(p);
+            delta.defense[slot] = state.defenseOf(p);
+            delta.speed[slot] = state.speedOf(p);
+            int skillCount = loadout != null ? loadout.skillCount(slot) : 0;
+            delta.cooldowns[slot] = new int[skillCount];
+            for (int i = 0; i < skillCount; i++) {
+                delta.cooldowns[slot][i] = state.getRemainingCooldown(slot, i);
+            }
+        }
+        delta.logSequence = state.getLogSequence();
+        return delta;
+    }
+
+    /**
+     * Construit le patch depuis la dernière diffusion, incrémente la version de l'état
+     * et retient les nouvelles valeurs comme base du patch suivant.
+     */
+    public synchronized RtaStatePatchDTO diff(String battleId, BattleState state) {
+        List<BattleParticipant> participants = state.getParticipants();
+        BattleLoadout loadout = state.getLoadout();
+        List<ParticipantPatch> changedParticipants = new ArrayList<>();
+        List<CooldownPatch> changedCooldowns = new ArrayList<>();
+
+        for (int slot = 0; slot < participants.size(); slot++) {
+            BattleParticipant p = participants.get(slot);
+            Integer newHp = changed(hp, slot, p.getCurrentHp());
+            Integer newAttack = changed(attack, slot, state.attackOf(p));
+            Integer newDefense = changed(defense, slot, state.defenseOf(p));
+            Integer newSpeed = changed(speed, slot, state.speedOf(p));
+            if (newHp != null || newAttack != null || newDefense != null || newSpeed != null) {
+                changedParticipants.add(new ParticipantPatch(p.getId(), newHp, newAttack, newDefense, newSpeed));
+            }
+
+            int[] slotCooldowns = cooldowns[slot];
+            for (int i = 0; i < slotCooldowns.length; i++) {
+                int remaining = state.getRemainingCooldown(slot, i);
+                if (remaining != slotCooldowns[i]) {
+                    slotCooldowns[i] = remaining;
+                    changedCooldowns.add(new CooldownPatch(p.getId(), loadout.skillId(slot, i), remaining));
+                }
+            }
+        }
+
+        long baseVersion = state.getVersion();
+        state.setVersion(baseVersion + 1);
+        List<String> logs = state.getEventLog().render(logSequence, state);
+        logSequence = state.getLogSequence();
+
+        return new RtaStatePatchDTO(
+                battleId,
+                baseVersion,
+                state.getVersion(),
+                state.getCurrentTurnIndex(),
+                state.getRoundCount(),
+                state.isFinished(),
+                changedParticipants.isEmpty() ? null : changedParticipants,
+                changedCooldowns.isEmpty() ? null : changedCooldowns,
+                logs,
+                logSequence
+        );
+    }
+
+    private static Integer changed(int[] previous, int slot, int current) {
+        if (previous[slot] == current) {
+            return null;
+        }
+        previous[slot] = current;
+        return current;
+    }
+}
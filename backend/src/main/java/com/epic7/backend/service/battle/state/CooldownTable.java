@@ -0,0 +1,82 @@
+package com.epic7.backend.service.battle.state;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cooldowns restants d'un combat, stockés dans un tableau d'int dense
+ * indexé par (slot du participant, position de la compétence dans son kit).
+ * Aucune allocation ni boxing pendant les tours ; la forme Map historique
+ * n'est reconstruite qu'au moment de l'envoi aux clients ({@link #toMap()}).
+ */
+public final class CooldownTable {
+
+    private final BattleLoadout loadout;
+    private final int stride;       // nombre maximal de compétences par participant
+    private final int[] remaining;  // remaining[slot * stride + index]
+
+    public CooldownTable(BattleLoadout loadout) {
+        this.loadout = loadout;
+        int maxSkills = 1;
+        for (int slot = 0; slot < loadout.size(); slot++) {
+            maxSkills = Math.max(maxSkills, loadout.skillCount(slot));
+        }
+        this.stride = maxSkills;
+        this.remaining = new int[loadout.size() * maxSkills];
+    }
+
+    public int get(int slot, int index) {
+        return remaining[slot * stride + index];
+    }
+
+    public void set(int slot, int index, int cooldown) {
+        remaining[slot * stride + index] = Math.max(0, cooldown);
+    }
+
+    /**
+     * Réduit d'un tour tous les cooldowns du participant.
+     */
+    public void decrement(int slot) {
+        int from = slot * stride;
+        int to = from + stride;
+        for (int i = from; i < to; i++) {
+            if (remaining[i] > 0) {
+                remaining[i]--;
+            }
+        }
+    }
+
+    /**
+     * Réduit d'un tour les cooldowns de tous les participants sauf un.
+     */
+    public void decrementAllExcept(int excludedSlot) {
+        for (int slot = 0; slot < loadout.size(); slot++) {
+            if (slot != excludedSlot) {
+                decrement(slot);
+            }
+        }
+    }
+
+    /**
+     * Forme historique envoyée aux clients : Map&lt;PlayerHeroId, Map&lt;SkillId, cooldownRestant&gt;&gt;.
+     * Seules les compétences ayant un cooldown (de base ou en cours) apparaissent.
+     */
+    public Map<Long, Map<Long, Integer>> toMap() {
+        Map<Long, Map<Long, Integer>> map = new HashMap<>();
+        for (int slot = 0; slot < loadout.size(); slot++) {
+            Map<Long, Integer> skills = null;
+            for (int index = 0; index < loadout.skillCount(slot); index++) {
+                if (loadout.baseCooldown(slot, index) <= 0 && get(slot, index) == 0) {
+                    continue;
+                }
+                if (skills == null) {
+                    skills = new LinkedHashMap<>();
+                    map.put(loadout.participantId(slot), skills);
+                }
+                skills.put(loadout.skillId(slot, index), get(slot, index));
+            }
+        }
+        return map;
+    }
+}
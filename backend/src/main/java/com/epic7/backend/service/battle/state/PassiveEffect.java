@@ -0,0 +1,50 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.SkillDTO;
+
+/**
+ * Effet d'un passif, compilé une fois avec le loadout : le moteur choisit l'effet sans comparer
+ * de chaînes à chaque déclenchement.
+ */
+public enum PassiveEffect {
+
+    ATTACK_UP(StatusEffectType.ATTACK_UP),
+    DEFENSE_UP(StatusEffectType.DEFENSE_UP),
+    SPEED_UP(StatusEffectType.SPEED_UP),
+    HEAL(null),
+    DAMAGE(null),
+    NONE(null);
+
+    private final StatusEffectType statusEffect;
+
+    PassiveEffect(StatusEffectType statusEffect) {
+        this.statusEffect = statusEffect;
+    }
+
+    /**
+     * Effet temporaire posé par ce passif, null s'il n'en pose pas.
+     */
+    public StatusEffectType statusEffect() {
+        return statusEffect;
+    }
+
+    /**
+     * Bonus de statistique (passiveBonus) en priorité, sinon action (HEAL, DAMAGE).
+     */
+    public static PassiveEffect compile(SkillDTO skill) {
+        String bonus = skill.getPassiveBonus();
+        if (bonus != null) {
+            return switch (bonus) {
+                case "ATTACK_UP" -> ATTACK_UP;
+                case "DEFENSE_UP" -> DEFENSE_UP;
+                case "SPEED_UP" -> SPEED_UP;
+                default -> NONE;
+            };
+        }
+        String action = skill.getAction();
+        if ("HEAL".equals(action)) {
+            return HEAL;
+        }
+        return "DAMAGE".equals(action) ? DAMAGE : NONE;
+    }
+}
@@ -0,0 +1,48 @@
+package com.epic7.backend.service.battle.state;
+
+/**
+ * Effets temporaires d'un combat (buffs, débuffs, dégâts sur la durée).
+ * Les effets de statistique modifient la valeur lue d'un pourcentage ; la statistique de base
+ * du participant n'est jamais modifiée.
+ */
+public enum StatusEffectType {
+
+    ATTACK_UP(Stat.ATTACK, 1),
+    ATTACK_DOWN(Stat.ATTACK, -1),
+    DEFENSE_UP(Stat.DEFENSE, 1),
+    DEFENSE_DOWN(Stat.DEFENSE, -1),
+    SPEED_UP(Stat.SPEED, 1),
+    SPEED_DOWN(Stat.SPEED, -1),
+    // valeur = pourcentage des PV max perdus au début de chaque tour du porteur
+    DAMAGE_OVER_TIME(null, 0);
+
+    public enum Stat { ATTACK, DEFENSE, SPEED }
+
+    private static final StatusEffectType[] VALUES = values();
+
+    private final Stat stat;
+    private final int sign;
+
+    StatusEffectType(Stat stat, int sign) {
+        this.stat = stat;
+        this.sign = sign;
+    }
+
+    /**
+     * Statistique modifiée, null pour les dégâts sur la durée.
+     */
+    public Stat stat() {
+        return stat;
+    }
+
+    /**
+     * +1 pour un buff, -1 pour un débuff de statistique.
+     */
+    public int sign() {
+        return sign;
+    }
+
+    static StatusEffectType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
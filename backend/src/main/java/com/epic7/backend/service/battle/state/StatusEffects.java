@@ -0,0 +1,181 @@
+package com.epic7.backend.service.battle.state;
+
+/**
+ * Effets temporaires actifs d'un combat, stockés dans des tableaux denses indexés par
+ * (slot du porteur, position de l'effet), comme {@link CooldownTable}.
+ * <p>
+ * La durée d'un effet se compte en tours du porteur : un effet posé pour {@code n} tours reste
+ * actif jusqu'à la fin du n-ième tour suivant du porteur. Les statistiques modifiées ne sont
+ * jamais écrites : elles sont recalculées à la lecture ({@link #modify}) à partir des effets encore actifs.
+ * Un même type d'effet ne se cumule pas sur un porteur : le plus fort est gardé, la durée la plus longue aussi.
+ */
+public final class StatusEffects {
+
+    /** Nombre maximal d'effets simultanés par participant. */
+    public static final int MAX_PER_PARTICIPANT = 8;
+
+    // Bornes du pourcentage cumulé appliqué à une statistique
+    private static final int MIN_MODIFIER = -90;
+    private static final int MAX_MODIFIER = 300;
+
+    private final byte[] types;     // ordinal de StatusEffectType, [slot * MAX + i]
+    private final int[] values;     // pourcentage (statistique ou PV max pour les dégâts sur la durée)
+    private final int[] expiresAt;  // dernier tour du porteur où l'effet est actif
+    private final int[] sources;    // slot à l'origine de l'effet
+    private final int[] counts;     // effets stockés par slot
+    private final int[] turns;      // tours commencés par chaque slot
+
+    public StatusEffects(int slots) {
+        this.types = new byte[slots * MAX_PER_PARTICIPANT];
+        this.values = new int[slots * MAX_PER_PARTICIPANT];
+        this.expiresAt = new int[slots * MAX_PER_PARTICIPANT];
+        this.sources = new int[slots * MAX_PER_PARTICIPANT];
+        this.counts = new int[slots];
+        this.turns = new int[slots];
+    }
+
+    /**
+     * Pose un effet pour {@code duration} tours du porteur.
+     * Un effet du même type déjà présent est renforcé et prolongé plutôt que cumulé ;
+     * si le porteur a déjà le maximum d'effets, celui qui expire le plus tôt est remplacé.
+     */
+    public void apply(int slot, StatusEffectType type, int value, int duration, int sourceSlot) {
+        int base = slot * MAX_PER_PARTICIPANT;
+        int expiry = turns[slot] + Math.max(1, duration);
+        int count = counts[slot];
+
+        int position = -1;
+        int soonest = -1;
+        for (int i = base; i < base + count; i++) {
+            if (types[i] == type.ordinal() && isActive(slot, i)) {
+                values[i] = Math.max(values[i], value);
+                expiresAt[i] = Math.max(expiresAt[i], expiry);
+                sources[i] = sourceSlot;
+                return;
+            }
+            if (!isActive(slot, i) && position < 0) {
+                position = i;
+            }
+            if (soonest < 0 || expiresAt[i] < expiresAt[soonest]) {
+                soonest = i;
+            }
+        }
+        if (position < 0) {
+            position = count < MAX_PER_PARTICIPANT ? base + counts[slot]++ : soonest;
+        }
+        types[position] = (byte) type.ordinal();
+        values[position] = value;
+        expiresAt[position] = expiry;
+        sources[position] = sourceSlot;
+    }
+
+    /**
+     * Début d'un tour du porteur : avance son compteur de tours et retire les effets expirés.
+     * @return le pourcentage des PV max à retirer au porteur (dégâts sur la durée actifs)
+     */
+    public int startTurn(int slot) {
+        int turn = ++turns[slot];
+        int base = slot * MAX_PER_PARTICIPANT;
+        int kept = base;
+        int damagePercent = 0;
+        for (int i = base; i < base + counts[slot]; i++) {
+            if (expiresAt[i] < turn) {
+                continue;
+            }
+            if (types[i] == StatusEffectType.DAMAGE_OVER_TIME.ordinal()) {
+                damagePercent += values[i];
+            }
+            if (kept != i) {
+                types[kept] = types[i];
+                values[kept] = values[i];
+                expiresAt[kept] = expiresAt[i];
+                sources[kept] = sources[i];
+            }
+            kept++;
+        }
+        counts[slot] = kept - base;
+        return damagePercent;
+    }
+
+    /**
+     * Valeur d'une statistique après application des effets actifs du porteur.
+     */
+    public int modify(int slot, StatusEffectType.Stat stat, int baseValue) {
+        int percent = 0;
+        int base = slot * MAX_PER_PARTICIPANT;
+        for (int i = base; i < base + counts[slot]; i++) {
+            StatusEffectType type = StatusEffectType.of(types[i]);
+            if (type.stat() == stat && isActive(slot, i)) {
+                percent += type.sign() * values[i];
+            }
+        }
+        if (percent == 0) {
+            return baseValue;
+        }
+        percent = Math.max(MIN_MODIFIER, Math.min(MAX_MODIFIER, percent));
+        return (int) ((long) baseValue * (100 + percent) / 100);
+    }
+
+    public boolean has(int slot, StatusEffectType type) {
+        int base = slot * MAX_PER_PARTICIPANT;
+        for (int i = base; i < base + counts[slot]; i++) {
+            if (types[i] == type.ordinal() && isActive(slot, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Accès bruts pour la sauvegarde (BattleStateCodec) ---
+
+    public int slots() {
+        return counts.length;
+    }
+
+    public int turns(int slot) {
+        return turns[slot];
+    }
+
+    public int count(int slot) {
+        return counts[slot];
+    }
+
+    public StatusEffectType type(int slot, int index) {
+        return StatusEffectType.of(types[slot * MAX_PER_PARTICIPANT + index]);
+    }
+
+    public int value(int slot, int index) {
+        return values[slot * MAX_PER_PARTICIPANT + index];
+    }
+
+    public int expiresAt(int slot, int index) {
+        return expiresAt[slot * MAX_PER_PARTICIPANT + index];
+    }
+
+    public int source(int slot, int index) {
+        return sources[slot * MAX_PER_PARTICIPANT + index];
+    }
+
+    /**
+     * Reprend un slot sauvegardé : compteur de tours puis effets via {@link #restoreEffect}.
+     */
+    public void restoreTurns(int slot, int turnCount) {
+        turns[slot] = turnCount;
+        counts[slot] = 0;
+    }
+
+    public void restoreEffect(int slot, StatusEffectType type, int value, int expiry, int sourceSlot) {
+        if (counts[slot] == MAX_PER_PARTICIPANT) {
+            return;
+        }
+        int i = slot * MAX_PER_PARTICIPANT + counts[slot]++;
+        types[i] = (byte) type.ordinal();
+        values[i] = value;
+        expiresAt[i] = expiry;
+        sources[i] = sourceSlot;
+    }
+
+    private boolean isActive(int slot, int index) {
+        return expiresAt[index] >= turns[slot];
+    }
+}
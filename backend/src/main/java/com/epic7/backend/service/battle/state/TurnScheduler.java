@@ -0,0 +1,237 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ordre des tours par jauge d'action (combat readiness).
+ * <p>
+ * Chaque participant remplit sa jauge proportionnellement à sa vitesse et joue quand elle est pleine ;
+ * la jauge repart alors de zéro. Plutôt que de faire avancer toutes les jauges, on retient pour chaque
+ * slot l'instant (virtuel) où sa jauge sera pleine : {@code readyAt = clock + jauge restante / vitesse}.
+ * Le prochain acteur est le minimum d'un tas indexé par slot : O(log n) par tour, et un changement de
+ * vitesse en cours de combat (passif SPEED_UP) ne fait que recalculer et replacer un slot.
+ * <p>
+ * Un nouveau round commence quand un participant rejoue avant que le round courant soit terminé
+ * (il a déjà joué depuis le début du round).
+ * Les participants morts sont retirés du tas quand ils arrivent en tête ; une résurrection les replace.
+ */
+public final class TurnScheduler {
+
+    // Temps virtuel pour remplir une jauge vide à la vitesse 1
+    private static final double FULL_GAUGE = 1.0;
+
+    private final int[] speeds;
+    private final double[] readyAt;
+    private final int[] heap;       // slots, tas binaire ordonné par (readyAt, slot)
+    private final int[] heapIndex;  // position de chaque slot dans le tas, -1 s'il n'y est pas
+    private int size;
+
+    private double clock;
+    private long actedThisRound;
+    private boolean newRound;
+
+    private TurnScheduler(int slots) {
+        this.speeds = new int[slots];
+        this.readyAt = new double[slots];
+        this.heap = new int[slots];
+        this.heapIndex = new int[slots];
+        Arrays.fill(heapIndex, -1);
+    }
+
+    /**
+     * Crée l'ordonnanceur d'un combat : toutes les jauges partent de zéro et le participant courant
+     * ({@link BattleState#getCurrentTurnIndex()}, le plus rapide au départ) est considéré comme ayant joué.
+     */
+    public static TurnScheduler start(BattleState state) {
+        List<BattleParticipant> participants = state.getParticipants();
+        TurnScheduler scheduler = new TurnScheduler(participants.size());
+        for (int slot = 0; slot < participants.size(); slot++) {
+            scheduler.speeds[slot] = effectiveSpeed(state.speedOf(participants.get(slot)));
+            scheduler.readyAt[slot] = FULL_GAUGE / scheduler.speeds[slot];
+        }
+        int current = state.getCurrentTurnIndex();
+        if (current >= 0 && current < participants.size()) {
+            scheduler.clock = scheduler.readyAt[current];
+            scheduler.readyAt[current] += FULL_GAUGE / scheduler.speeds[current];
+            scheduler.actedThisRound = 1L << current;
+        }
+        scheduler.rebuild(state);
+        return scheduler;
+    }
+
+    /**
+     * Reprend un ordonnanceur sauvegardé (snapshot) : seuls l'horloge, le round et les échéances sont stockés.
+     */
+    public static TurnScheduler restore(BattleState state, double clock, long actedThisRound, double[] readyAt) {
+        List<BattleParticipant> participants = state.getParticipants();
+        TurnScheduler scheduler = new TurnScheduler(participants.size());
+        for (int slot = 0; slot < participants.size(); slot++) {
+            scheduler.speeds[slot] = effectiveSpeed(state.speedOf(participants.get(slot)));
+            scheduler.readyAt[slot] = readyAt[slot];
+        }
+        scheduler.clock = clock;
+        scheduler.actedThisRound = actedThisRound;
+        scheduler.rebuild(state);
+        return scheduler;
+    }
+
+    /**
+     * Avance jusqu'au prochain participant vivant dont la jauge est pleine, et remet sa jauge à zéro.
+     * @return son slot, ou -1 s'il ne reste aucun participant vivant
+     */
+    public int next(BattleState state) {
+        while (size > 0) {
+            int slot = heap[0];
+            if (!state.isAlive(slot)) {
+                removeAt(0);
+                continue;
+            }
+            clock = readyAt[slot];
+            readyAt[slot] = clock + FULL_GAUGE / speeds[slot];
+            siftDown(0);
+
+            long bit = 1L << slot;
+            newRound = (actedThisRound & bit) != 0;
+            actedThisRound = newRound ? bit : actedThisRound | bit;
+            return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Indique si le dernier tour rendu par {@link #next} ouvre un nouveau round.
+     */
+    public boolean isNewRound() {
+        return newRound;
+    }
+
+    /**
+     * Prend en compte une nouvelle vitesse : la jauge déjà remplie est conservée, le reste se remplit
+     * à la nouvelle vitesse.
+     */
+    public void speedChanged(int slot, int speed) {
+        int newSpeed = effectiveSpeed(speed);
+        double remainingGauge = Math.max(0, readyAt[slot] - clock) * speeds[slot];
+        speeds[slot] = newSpeed;
+        readyAt[slot] = clock + remainingGauge / newSpeed;
+        int position = heapIndex[slot];
+        if (position >= 0) {
+            siftUp(position);
+            siftDown(heapIndex[slot]);
+        }
+    }
+
+    /**
+     * Replace un participant revenu à la vie, jauge vide.
+     */
+    public void revived(int slot) {
+        if (heapIndex[slot] < 0) {
+            readyAt[slot] = clock + FULL_GAUGE / speeds[slot];
+            insert(slot);
+        }
+    }
+
+    /**
+     * Jauge d'action d'un participant, entre 0 (vient de jouer) et 1 (va jouer).
+     */
+    public double gauge(int slot) {
+        return Math.max(0, Math.min(1, FULL_GAUGE - (readyAt[slot] - clock) * speeds[slot]));
+    }
+
+    public double clock() {
+        return clock;
+    }
+
+    public long actedThisRound() {
+        return actedThisRound;
+    }
+
+    public double readyAt(int slot) {
+        return readyAt[slot];
+    }
+
+    public int slots() {
+        return readyAt.length;
+    }
+
+    private void rebuild(BattleState state) {
+        size = 0;
+        Arrays.fill(heapIndex, -1);
+        for (int slot = 0; slot < readyAt.length; slot++) {
+            if (state.isAlive(slot)) {
+                insert(slot);
+            }
+        }
+    }
+
+    private static int effectiveSpeed(int speed) {
+        return Math.max(1, speed);
+    }
+
+    // --- Tas binaire indexé ---
+
+    private boolean before(int a, int b) {
+        int byTime = Double.compare(readyAt[a], readyAt[b]);
+        return byTime != 0 ? byTime < 0 : a < b;
+    }
+
+    private void insert(int slot) {
+        heap[size] = slot;
+        heapIndex[slot] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    private void removeAt(int position) {
+        int removed = heap[position];
+        size--;
+        heapIndex[removed] = -1;
+        if (position == size) {
+            return;
+        }
+        int moved = heap[size];
+        heap[position] = moved;
+        heapIndex[moved] = position;
+        siftUp(position);
+        siftDown(heapIndex[moved]);
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!before(slot, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapIndex[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], slot)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapIndex[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+}
@@ -0,0 +1,44 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.service.battle.state.BattleState;
+
+import java.util.Optional;
+
+/**
+ * Sauvegarde des combats en cours, pour reprendre un combat après un redémarrage
+ * ou sur un autre nœud.
+ * Implémentation choisie par {@code battle.session-store.type} :
+ * <ul>
+ *   <li>{@code memory} (défaut) : références en mémoire, aucun coût de sérialisation ;</li>
+ *   <li>{@code mmap} : snapshots binaires dans un fichier mappé en mémoire (survit à un redémarrage) ;</li>
+ *   <li>{@code redis} : snapshots binaires dans Redis (partagés entre les nœuds).</li>
+ * </ul>
+ * Les appels sur un même combat doivent être sérialisés par l'appelant.
+ * Un seul nœud fait avancer un combat à la fois : voir {@link #acquire}.
+ */
+public interface BattleSessionStore {
+
+    /**
+     * Enregistre l'état courant du combat (après chaque action).
+     * Renouvelle le bail du nœud sur le combat.
+     * @throws IllegalStateException si un autre nœud détient le combat
+     */
+    void save(BattleState state);
+
+    /**
+     * Prend ou renouvelle le bail de ce nœud sur le combat, à vérifier avant d'appliquer une action.
+     * Un autre nœud ne peut reprendre le combat qu'après l'expiration du bail de son détenteur.
+     * Les stockages locaux à un nœud ({@code memory}, {@code mmap}) n'ont pas de concurrent.
+     * @return false si un autre nœud détient le combat
+     */
+    default boolean acquire(String battleId) {
+        return true;
+    }
+
+    /**
+     * Dernier état enregistré du combat.
+     */
+    Optional<BattleState> load(String battleId);
+
+    void delete(String battleId);
+}
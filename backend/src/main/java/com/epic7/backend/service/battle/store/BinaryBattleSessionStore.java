@@ -0,0 +1,54 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.service.battle.engine.ParticipantFactory;
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.state.BattleStateCodec;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+
+/**
+ * Base des stockages à snapshots binaires ({@link BattleStateCodec}).
+ * Le loadout n'est pas stocké : il est recompilé à la restauration.
+ */
+@Slf4j
+public abstract class BinaryBattleSessionStore implements BattleSessionStore {
+
+    private final ParticipantFactory participantFactory;
+
+    protected BinaryBattleSessionStore(ParticipantFactory participantFactory) {
+        this.participantFactory = participantFactory;
+    }
+
+    protected abstract void write(String battleId, byte[] snapshot);
+
+    protected abstract byte[] read(String battleId);
+
+    protected abstract void erase(String battleId);
+
+    @Override
+    public void save(BattleState state) {
+        write(state.getBattleId(), BattleStateCodec.encode(state));
+    }
+
+    @Override
+    public Optional<BattleState> load(String battleId) {
+        byte[] snapshot = read(battleId);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(BattleStateCodec.decode(snapshot, participantFactory::compileLoadout));
+        } catch (RuntimeException e) {
+            log.warn("Snapshot illisible pour le combat {}, ignoré", battleId, e);
+            erase(battleId);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String battleId) {
+        erase(battleId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stockage en mémoire du nœud : conserve la référence de l'état, sans copie.
+ * Ne survit pas à un redémarrage.
+ */
+@Component
+@ConditionalOnProperty(name = "battle.session-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBattleSessionStore implements BattleSessionStore {
+
+    private final Map<String, BattleState> states = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(BattleState state) {
+        states.put(state.getBattleId(), state);
+    }
+
+    @Override
+    public Optional<BattleState> load(String battleId) {
+        return Optional.ofNullable(states.get(battleId));
+    }
+
+    @Override
+    public void delete(String battleId) {
+        states.remove(battleId);
+    }
+}
@@ -0,0 +1,187 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.service.battle.engine.ParticipantFactory;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshots de combat dans un fichier mappé en mémoire, découpé en emplacements de taille fixe.
+ * Une écriture est une simple copie mémoire ; le système écrit les pages sur disque,
+ * ce qui permet de reprendre les combats après un redémarrage du serveur (même machine ou volume).
+ * <p>
+ * Format d'un emplacement : {@code [int taille du snapshot (0 = libre)][long date d'écriture][short taille de l'ID][ID UTF-8][snapshot]}.
+ * La taille est écrite en dernier : un emplacement interrompu en cours d'écriture est ignoré au démarrage.
+ * Au démarrage, les snapshots plus anciens que {@code ttl} (combats abandonnés) sont libérés.
+ * Le fichier est mappé par segments (un MappedByteBuffer est limité à 2 Go).
+ */
+@Component
+@ConditionalOnProperty(name = "battle.session-store.type", havingValue = "mmap")
+@Slf4j
+public class MappedFileBattleSessionStore extends BinaryBattleSessionStore {
+
+    private static final int SAVED_AT_OFFSET = Integer.BYTES;
+    private static final int ID_LENGTH_OFFSET = SAVED_AT_OFFSET + Long.BYTES;
+    private static final int HEADER_BYTES = ID_LENGTH_OFFSET + Short.BYTES;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int slotSize;
+    private final int slotsPerSegment;
+    private final int slotCount;
+
+    private final Map<String, Integer> slotByBattle = new HashMap<>();
+    private final BitSet usedSlots;
+
+    public MappedFileBattleSessionStore(ParticipantFactory participantFactory,
+                                        @Value("${battle.session-store.mmap.path:data/battle-sessions.dat}") String path,
+                                        @Value("${battle.session-store.mmap.slots:4096}") int slotCount,
+                                        @Value("${battle.session-store.mmap.slot-size:32768}") int slotSize,
+                                        @Value("${battle.session-store.ttl-seconds:3600}") long ttlSeconds) {
+        super(participantFactory);
+        if (slotSize <= HEADER_BYTES || slotSize > MAX_SEGMENT_BYTES || slotCount <= 0) {
+            throw new IllegalArgumentException("Configuration du fichier de snapshots invalide");
+        }
+        this.slotSize = slotSize;
+        this.slotCount = slotCount;
+        this.slotsPerSegment = Math.min(slotCount, MAX_SEGMENT_BYTES / slotSize);
+        this.usedSlots = new BitSet(slotCount);
+
+        try {
+            Path file = Path.of(path).toAbsolutePath();
+            Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            int segmentCount = (slotCount + slotsPerSegment - 1) / slotsPerSegment;
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                int slots = Math.min(slotsPerSegment, slotCount - s * slotsPerSegment);
+                long offset = (long) s * slotsPerSegment * slotSize;
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) slots * slotSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le fichier de snapshots " + path, e);
+        }
+
+        recover(System.currentTimeMillis() - ttlSeconds * 1000);
+        log.info("Snapshots de combat mappés depuis {} : {} combats repris, {} emplacements", path, slotByBattle.size(), slotCount);
+    }
+
+    /**
+     * Reconstruit l'index des combats présents dans le fichier et libère les snapshots expirés.
+     */
+    private void recover(long expiredBefore) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            MappedByteBuffer segment = segmentOf(slot);
+            int base = offsetOf(slot);
+            int length = segment.getInt(base);
+            if (length <= 0) {
+                continue;
+            }
+            int idLength = segment.getShort(base + ID_LENGTH_OFFSET);
+            boolean corrupted = idLength <= 0 || HEADER_BYTES + idLength + length > slotSize;
+            if (corrupted || segment.getLong(base + SAVED_AT_OFFSET) < expiredBefore) {
+                segment.putInt(base, 0);
+                continue;
+            }
+            byte[] id = new byte[idLength];
+            segment.get(base + HEADER_BYTES, id);
+            slotByBattle.put(new String(id, StandardCharsets.UTF_8), slot);
+            usedSlots.set(slot);
+        }
+    }
+
+    @Override
+    protected synchronized void write(String battleId, byte[] snapshot) {
+        byte[] id = battleId.getBytes(StandardCharsets.UTF_8);
+        if (HEADER_BYTES + id.length + snapshot.length > slotSize) {
+            // Un snapshot périmé serait pire qu'aucun snapshot
+            log.warn("Snapshot du combat {} trop volumineux ({} octets), non sauvegardé", battleId, snapshot.length);
+            erase(battleId);
+            return;
+        }
+
+        Integer slot = slotByBattle.get(battleId);
+        if (slot == null) {
+            int free = usedSlots.nextClearBit(0);
+            if (free >= slotCount) {
+                log.warn("Fichier de snapshots plein ({} emplacements), combat {} non sauvegardé", slotCount, battleId);
+                return;
+            }
+            slot = free;
+            usedSlots.set(slot);
+            slotByBattle.put(battleId, slot);
+        }
+
+        MappedByteBuffer segment = segmentOf(slot);
+        int base = offsetOf(slot);
+        segment.putInt(base, 0);
+        segment.putLong(base + SAVED_AT_OFFSET, System.currentTimeMillis());
+        segment.putShort(base + ID_LENGTH_OFFSET, (short) id.length);
+        segment.put(base + HEADER_BYTES, id);
+        segment.put(base + HEADER_BYTES + id.length, snapshot);
+        segment.putInt(base, snapshot.length);
+    }
+
+    @Override
+    protected synchronized byte[] read(String battleId) {
+        Integer slot = slotByBattle.get(battleId);
+        if (slot == null) {
+            return null;
+        }
+        MappedByteBuffer segment = segmentOf(slot);
+        int base = offsetOf(slot);
+        int length = segment.getInt(base);
+        int idLength = segment.getShort(base + ID_LENGTH_OFFSET);
+        byte[] snapshot = new byte[length];
+        segment.get(base + HEADER_BYTES + idLength, snapshot);
+        return snapshot;
+    }
+
+    @Override
+    protected synchronized void erase(String battleId) {
+        Integer slot = slotByBattle.remove(battleId);
+        if (slot != null) {
+            segmentOf(slot).putInt(offsetOf(slot), 0);
+            usedSlots.clear(slot);
+        }
+    }
+
+    public synchronized int size() {
+        return slotByBattle.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        channel.close();
+    }
+
+    private MappedByteBuffer segmentOf(int slot) {
+        return segments[slot / slotsPerSegment];
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % slotsPerSegment) * slotSize;
+    }
+}
@@ -0,0 +1,149 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.service.battle.engine.ParticipantFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots de combat dans Redis : n'importe quel nœud peut reprendre un combat
+ * à partir de son dernier snapshot (déploiement progressif, montée en charge horizontale).
+ * Chaque snapshot expire après {@code ttl} sans nouvelle action.
+ * <p>
+ * Un seul nœud écrit un combat : il en détient le bail ({@code battle:owner:{id}}, valeur = identifiant
+ * du nœud), pris avec le premier snapshot et renouvelé à chaque sauvegarde. Un autre nœud qui reçoit
+ * un message pour ce combat ne le reprend qu'après expiration du bail (nœud arrêté, combat inactif) :
+ * sans routage collant, une reconnexion sur un autre réplica ne scinde pas le combat en deux.
+ * Les clés d'un combat partagent un hash tag pour rester sur le même slot Redis Cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "battle.session-store.type", havingValue = "redis")
+public class RedisBattleSessionStore extends BinaryBattleSessionStore {
+
+    private static final String KEY_PREFIX = "battle:session:";
+    private static final String OWNER_KEY_PREFIX = "battle:owner:";
+
+    /**
+     * KEYS[1] = snapshot, KEYS[2] = bail ; ARGV[1] = nœud. Sort avec 0 si un autre nœud détient le bail.
+     */
+    private static final String OWNERSHIP_CHECK = """
+            local owner = redis.call('GET', KEYS[2])
+            if owner and owner ~= ARGV[1] then
+                return 0
+            end
+            """;
+
+    /** ARGV[2] = durée du bail (ms). */
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(OWNERSHIP_CHECK + """
+            redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    /** ARGV[2] = durée du bail (ms), ARGV[3] = snapshot, ARGV[4] = durée de vie du snapshot (s). */
+    private static final RedisScript<Long> SAVE = new DefaultRedisScript<>(OWNERSHIP_CHECK + """
+            redis.call('SET', KEYS[1], ARGV[3], 'EX', ARGV[4])
+            redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> ERASE = new DefaultRedisScript<>(OWNERSHIP_CHECK + """
+            redis.call('DEL', KEYS[1], KEYS[2])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, byte[]> redis;
+    private final Duration ttl;
+    private final long leaseMillis;
+    private final byte[] nodeId = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    // Dernier renouvellement réussi du bail par combat (horloge monotone, ms)
+    private final Map<String, Long> leaseRenewedAt = new ConcurrentHashMap<>();
+
+    public RedisBattleSessionStore(ParticipantFactory participantFactory,
+                                   RedisConnectionFactory connectionFactory,
+                                   @Value("${battle.session-store.ttl-seconds:3600}") long ttlSeconds,
+                                   @Value("${battle.session-store.lease-seconds:30}") long leaseSeconds) {
+        super(participantFactory);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.leaseMillis = Duration.ofSeconds(leaseSeconds).toMillis();
+
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redis = template;
+    }
+
+    /**
+     * Pendant la première moitié du bail, aucun autre nœud ne peut l'avoir pris : pas d'aller-retour Redis.
+     */
+    @Override
+    public boolean acquire(String battleId) {
+        long now = monotonicMillis();
+        Long renewedAt = leaseRenewedAt.get(battleId);
+        if (renewedAt != null && now - renewedAt < leaseMillis / 2) {
+            return true;
+        }
+        if (owned(redis.execute(ACQUIRE, keys(battleId), nodeId, arg(leaseMillis)))) {
+            leaseRenewedAt.put(battleId, now);
+            return true;
+        }
+        leaseRenewedAt.remove(battleId);
+        return false;
+    }
+
+    @Override
+    protected void write(String battleId, byte[] snapshot) {
+        long now = monotonicMillis();
+        if (!owned(redis.execute(SAVE, keys(battleId), nodeId, arg(leaseMillis), snapshot, arg(ttl.toSeconds())))) {
+            leaseRenewedAt.remove(battleId);
+            throw new IllegalStateException("Combat " + battleId + " détenu par un autre nœud");
+        }
+        leaseRenewedAt.put(battleId, now);
+    }
+
+    @Override
+    protected byte[] read(String battleId) {
+        return redis.opsForValue().get(KEY_PREFIX + "{" + battleId + "}");
+    }
+
+    /**
+     * Sans effet si un autre nœud a repris le combat : son snapshot est conservé.
+     */
+    @Override
+    protected void erase(String battleId) {
+        leaseRenewedAt.remove(battleId);
+        redis.execute(ERASE, keys(battleId), nodeId);
+    }
+
+    private static List<String> keys(String battleId) {
+        String tag = "{" + battleId + "}";
+        return List.of(KEY_PREFIX + tag, OWNER_KEY_PREFIX + tag);
+    }
+
+    private static byte[] arg(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean owned(Long result) {
+        return result != null && result == 1L;
+    }
+
+    private static long monotonicMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
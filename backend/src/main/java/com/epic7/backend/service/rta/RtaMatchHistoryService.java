@@ -0,0 +1,71 @@
+package com.epic7.backend.service.rta;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.epic7.backend.dto.rta.RtaMatchSummaryDTO;
+import com.epic7.backend.model.RtaMatchResult;
+import com.epic7.backend.model.User;
+import com.epic7.backend.repository.RtaMatchResultRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service de consultation de l'historique des combats RTA.
+ * Les combats sont enregistrés par le pipeline de résultats (RtaResultPipeline).
+ */
+@Service
+@RequiredArgsConstructor
+public class RtaMatchHistoryService {
+
+    public static final int MAX_RECENT_MATCHES = 100;
+
+    private final RtaMatchResultRepository resultRepository;
+
+    /**
+     * Récupère les derniers combats d'un joueur, du plus récent au plus ancien.
+     * @param limit nombre de combats (plafonné à {@link #MAX_RECENT_MATCHES})
+     */
+    public List<RtaMatchSummaryDTO> getRecentMatches(User user, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_RECENT_MATCHES));
+        return resultRepository.findRecentByPlayer(user.getId(), PageRequest.of(0, size)).stream()
+                .map(match -> toSummary(match, user.getId()))
+                .toList();
+    }
+
+    /**
+     * Récupère le replay compact d'un combat.
+     */
+    public Optional<byte[]> getReplay(String battleId) {
+        return resultRepository.findById(battleId)
+                .map(RtaMatchResult::getReplay);
+    }
+
+    private RtaMatchSummaryDTO toSummary(RtaMatchResult match, Long userId) {
+        boolean isPlayer1 = userId.equals(match.getPlayer1Id());
+        String result;
+        int pointsChange = 0;
+        if (match.getWinnerId() == null) {
+            result = "DRAW";
+        } else if (match.getWinnerId().equals(userId)) {
+            result = "WIN";
+            pointsChange = match.getWinnerPointsChange();
+        } else {
+            result = "LOSS";
+            pointsChange = match.getLoserPointsChange();
+        }
+        return new RtaMatchSummaryDTO(
+                match.getBattleId(),
+                isPlayer1 ? match.getPlayer2Id() : match.getPlayer1Id(),
+                result,
+                match.isRated(),
+                match.isRated() ? pointsChange : 0,
+                match.getTurns(),
+                match.getReplay() != null ? match.getReplay().length : 0,
+                match.getFinishedAt()
+        );
+    }
+}
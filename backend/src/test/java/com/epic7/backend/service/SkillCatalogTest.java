@@ -0,0 +1,93 @@
+package com.epic7.backend.service;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.Hero;
+import com.epic7.backend.model.Skill;
+import com.epic7.backend.model.skill_kit.SkillCategory;
+import com.epic7.backend.repository.PlayerHeroRepository;
+import com.epic7.backend.repository.SkillRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour SkillCatalog.
+ * Vérifie l'indexation par héros / compétence et l'absence d'accès base après chargement.
+ */
+@ExtendWith(MockitoExtension.class)
+class SkillCatalogTest {
+
+    @Mock
+    private SkillRepository skillRepository;
+
+    @Mock
+    private PlayerHeroRepository playerHeroRepository;
+
+    private SkillService skillService;
+
+    private SkillCatalog skillCatalog;
+
+    private Hero hero;
+
+    @BeforeEach
+    void setUp() {
+        skillService = new SkillService(skillRepository, playerHeroRepository);
+        skillCatalog = new SkillCatalog(skillRepository, skillService);
+
+        hero = new Hero();
+        hero.setId(10L);
+
+        Skill strike = Skill.builder().id(2L).name("Strike").position(2).category(SkillCategory.ACTIVE).hero(hero).build();
+        Skill basic = Skill.builder().id(1L).name("Basic").position(0).category(SkillCategory.ACTIVE).hero(hero).build();
+        when(skillRepository.findAll()).thenReturn(List.of(strike, basic));
+    }
+
+    @Test
+    void getSkillsForHero_SortedByPosition() {
+        // When
+        List<SkillDTO> skills = skillCatalog.getSkillsForHero(10L);
+
+        // Then
+        assertEquals(2, skills.size());
+        assertEquals("Basic", skills.get(0).getName());
+        assertEquals("Strike", skills.get(1).getName());
+    }
+
+    @Test
+    void getSkillsForHero_UnknownHero_Empty() {
+        assertTrue(skillCatalog.getSkillsForHero(99L).isEmpty());
+        assertTrue(skillCatalog.getSkillsForHero(null).isEmpty());
+    }
+
+    @Test
+    void lookups_LoadOnceThenStayInMemory() {
+        // When
+        skillCatalog.getSkillsForHero(10L);
+        skillCatalog.getSkillsForHero(99L);
+
+        // Then
+        verify(skillRepository, times(1)).findAll();
+        verifyNoMoreInteractions(skillRepository);
+    }
+
+    @Test
+    void refresh_ReloadsFromRepository() {
+        // Given
+        skillCatalog.getSkillsForHero(10L);
+        when(skillRepository.findAll()).thenReturn(List.of());
+
+        // When
+        skillCatalog.refresh();
+
+        // Then
+        assertTrue(skillCatalog.getSkillsForHero(10L).isEmpty());
+    }
+}
@@ -0,0 +1,194 @@
+package com.epic7.backend.service.battle.engine;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.service.battle.engine.BattleSimulator.BattleOutcome;
+import com.epic7.backend.service.battle.engine.BattleSimulator.BattleSetup;
+import com.epic7.backend.service.battle.model.BattleMode;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleReplay;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BattleSimulator.
+ * Les combats sont joués sur des participants en mémoire, sans contexte Spring.
+ */
+class BattleSimulatorTest {
+
+    private BattleSimulator simulator;
+
+    private Function<Long, List<SkillDTO>> skillsByHero;
+
+    private BattleParticipant strongHero;
+    private BattleParticipant weakHero;
+
+    @BeforeEach
+    void setUp() {
+        simulator = BattleSimulator.standalone(new ForkJoinPool(2));
+
+        SkillDTO strike = SkillDTO.builder()
+                .id(100L).name("Strike").category("ACTIVE").position(0)
+                .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.0).cooldown(0)
+                .build();
+        SkillDTO heal = SkillDTO.builder()
+                .id(101L).name("Heal").category("ACTIVE").position(1)
+                .action("HEAL").targetGroup("SELF").scalingFactor(0.1).cooldown(3)
+                .build();
+        Map<Long, List<SkillDTO>> skills = Map.of(1L, List.of(strike, heal), 2L, List.of(strike));
+        skillsByHero = heroId -> skills.getOrDefault(heroId, List.of());
+
+        strongHero = new BattleParticipant(1L, "Strong", 5000, 5000, 1200, 500, 120, true, null, 1L, -1);
+        weakHero = new BattleParticipant(2L, "Weak", 3000, 3000, 700, 400, 100, true, null, 2L, -1);
+    }
+
+    @Test
+    void simulate_Rta_StrongerHeroWins() {
+        // When
+        BattleOutcome outcome = simulator.simulate(new BattleSetup(BattleMode.RTA,
+                List.of(strongHero), List.of(weakHero), skillsByHero, BattleSimulator.DEFAULT_MAX_ACTIONS));
+
+        // Then
+        assertEquals(1, outcome.winningTeam());
+        assertTrue(outcome.actions() > 0);
+    }
+
+    @Test
+    void simulate_TwiceAsFastHero_PlaysOneActionPerTurn() {
+        // Given : un héros deux fois plus rapide, dont chaque compétence achève un adversaire
+        SkillDTO finisher = SkillDTO.builder()
+                .id(200L).name("Finisher").category("ACTIVE").position(1)
+                .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.0).cooldown(0)
+                .build();
+        SkillDTO strike = SkillDTO.builder()
+                .id(201L).name("Strike").category("ACTIVE").position(0)
+                .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.0).cooldown(0)
+                .build();
+        BattleParticipant fast = new BattleParticipant(3L, "Fast", 5000, 5000, 1100, 100, 200, true, null, 3L, -1);
+        BattleParticipant slow = new BattleParticipant(4L, "Slow", 1000, 1000, 100, 100, 100, true, null, 4L, -1);
+        Function<Long, List<SkillDTO>> skills = heroId -> heroId == 3L ? List.of(strike, finisher) : List.of();
+
+        // When
+        BattleOutcome outcome = simulator.simulate(new BattleSetup(BattleMode.RTA,
+                List.of(fast), List.of(slow, slow), skills, BattleSimulator.DEFAULT_MAX_ACTIONS));
+
+        // Then : une action par tour, le héros rapide rejoue aussitôt
+        assertEquals(1, outcome.winningTeam());
+        assertEquals(2, outcome.actions());
+        assertEquals(2, outcome.rounds());
+    }
+
+    @Test
+    void simulate_Boss_PlayersBeatWeakBoss() {
+        // Given
+        BattleParticipant boss = new BattleParticipant(-1L, "Boss", 2000, 2000, 300, 100, 90, false, null, null, -1);
+
+        // When
+        BattleOutcome outcome = simulator.simulate(new BattleSetup(BattleMode.BOSS,
+                List.of(strongHero, weakHero), List.of(boss), skillsByHero, BattleSimulator.DEFAULT_MAX_ACTIONS));
+
+        // Then
+        assertEquals(1, outcome.winningTeam());
+    }
+
+    @Test
+    void simulate_Boss_SameSeedSameBattle() {
+        // Given : le boss choisit ses cibles au hasard
+        BattleParticipant boss = new BattleParticipant(-1L, "Boss", 20000, 20000, 900, 100, 130, false, null, null, -1);
+        BattleSetup setup = new BattleSetup(BattleMode.BOSS, List.of(strongHero, weakHero), List.of(boss),
+                skillsByHero, BattleSimulator.DEFAULT_MAX_ACTIONS, 1234L);
+
+        // When
+        BattleOutcome first = simulator.simulate(setup);
+        BattleOutcome second = simulator.simulate(setup);
+
+        // Then
+        assertEquals(first, second);
+    }
+
+    @Test
+    void simulateAll_ReturnsOneOutcomePerSetupInOrder() {
+        // Given
+        List<BattleSetup> setups = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean swapped = i % 2 == 1;
+            setups.add(new BattleSetup(BattleMode.RTA,
+                    List.of(swapped ? weakHero : strongHero), List.of(swapped ? strongHero : weakHero),
+                    skillsByHero, BattleSimulator.DEFAULT_MAX_ACTIONS));
+        }
+
+        // When
+        List<BattleOutcome> outcomes = simulator.simulateAll(setups);
+
+        // Then
+        assertEquals(200, outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            assertEquals(i % 2 == 0 ? 1 : 2, outcomes.get(i).winningTeam());
+        }
+        // Les modèles ne sont jamais modifiés par les combats
+        assertEquals(5000, strongHero.getCurrentHp());
+    }
+
+    @Test
+    void winRateMatrix_IsComplementary() {
+        // When
+        double[][] matrix = simulator.winRateMatrix(List.of(strongHero, weakHero), skillsByHero, 4);
+
+        // Then
+        assertEquals(0.5, matrix[0][0]);
+        assertEquals(1.0, matrix[0][1]);
+        assertEquals(0.0, matrix[1][0]);
+    }
+
+    @Test
+    void replay_ReplaysRecordedRtaBattleIdentically() {
+        // Given : un combat RTA joué action par action, enregistré puis encodé
+        BattleEngine battleEngine = new BattleEngine(new PassiveSkillProcessor());
+        SkillEngine skillEngine = new SkillEngine(battleEngine);
+        List<BattleParticipant> participants = new ArrayList<>(List.of(
+                new BattleParticipant(10L, "Strong", 5000, 5000, 1200, 500, 120, true, "1", 1L, -1),
+                new BattleParticipant(20L, "Weak", 3000, 3000, 700, 400, 100, true, "2", 2L, -1)));
+        BattleState state = new BattleState();
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, skillsByHero));
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        state.setRngSeed(42L);
+        state.setReplay(BattleReplay.start(state));
+        int headerSize = state.getReplay().encode().length;
+
+        while (!state.isFinished()) {
+            BattleParticipant actor = participants.get(state.getCurrentTurnIndex());
+            BattleParticipant target = actor.getId() == 10L ? participants.get(1) : participants.get(0);
+            skillEngine.useSkillWithResult(state, 100L, target.getId());
+            state.getReplay().record(100L, target.getId());
+            battleEngine.checkEnd(state);
+        }
+        byte[] encoded = state.getReplay().encode();
+
+        // When : rejoué avec les compétences enregistrées, quel que soit le catalogue actuel
+        BattleReplay decoded = BattleReplay.decode(encoded);
+        BattleState replayed = simulator.replay(decoded);
+
+        // Then : même issue, quelques octets par action
+        assertTrue(replayed.isFinished());
+        assertEquals(42L, decoded.seed());
+        assertEquals(state.getReplay().actionCount(), decoded.actionCount());
+        assertEquals(battleEngine.findRtaWinnerId(state), battleEngine.findRtaWinnerId(replayed));
+        for (int i = 0; i < participants.size(); i++) {
+            assertEquals(participants.get(i).getCurrentHp(), replayed.getParticipants().get(i).getCurrentHp());
+        }
+        assertEquals(skillsByHero.apply(1L), decoded.skillsOf(1L));
+        assertTrue(encoded.length - headerSize < decoded.actionCount() * 8);
+    }
+}
@@ -0,0 +1,174 @@
+package com.epic7.backend.service.battle.engine;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.Hero;
+import com.epic7.backend.repository.PlayerEquipmentRepository;
+import com.epic7.backend.service.SkillCatalog;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour le déclenchement des passifs par événement.
+ * Vérifie que seuls les participants abonnés à un déclencheur réagissent.
+ */
+class PassiveSkillProcessorTest {
+
+    private PassiveSkillProcessor processor;
+    private BattleState state;
+
+    @BeforeEach
+    void setUp() {
+        processor = new PassiveSkillProcessor();
+
+        SkillDTO soulBond = passive(300L, "Soul Bond", "ON_KILL").action("HEAL").scalingFactor(0.3).build();
+        SkillDTO vessel = passive(301L, "Divine Vessel", "ON_ALLY_DEATH").passiveBonus("DEFENSE_UP").bonusValue(30.0).build();
+        SkillDTO rage = passive(302L, "Infernal Rage", "ON_LOW_HEALTH").passiveBonus("ATTACK_UP").bonusValue(30.0).build();
+        Map<Long, List<SkillDTO>> skills = Map.of(1L, List.of(soulBond), 2L, List.of(vessel), 3L, List.of(rage));
+
+        // Joueur "1" : slots 0 (Soul Bond) et 1 (Divine Vessel) ; joueur "2" : slots 2 (Infernal Rage) et 3
+        List<BattleParticipant> participants = List.of(
+                participant(1L, "1", 1L),
+                participant(2L, "1", 2L),
+                participant(3L, "2", 3L),
+                participant(4L, "2", null));
+        state = new BattleState();
+        state.setParticipants(participants);
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> skills.getOrDefault(heroId, List.of())));
+    }
+
+    @Test
+    void handleHpTriggers_KillTriggersKillerAndAllyPassives() {
+        // Given : le slot 0 est blessé puis met K.O. le slot 3
+        BattleParticipant killer = state.getParticipants().get(0);
+        state.setHp(killer, 600);
+        state.takePendingLowHealth();
+        state.setHp(state.getParticipants().get(3), 0);
+
+        // When
+        processor.handleHpTriggers(state, 0);
+
+        // Then : ON_KILL pour l'auteur, ON_ALLY_DEATH seulement dans l'équipe du K.O.
+        assertEquals(900, killer.getCurrentHp());
+        assertEquals(100, state.defenseOf(state.getParticipants().get(1)));
+        assertEquals(100, state.attackOf(state.getParticipants().get(2)));
+    }
+
+    @Test
+    void handleHpTriggers_LowHealthFiresOnceWhenCrossingThreshold() {
+        // Given
+        BattleParticipant raging = state.getParticipants().get(2);
+
+        // When : passage sous 50 %, puis nouveaux dégâts sous le seuil
+        state.setHp(raging, 400);
+        processor.handleHpTriggers(state, 0);
+        state.setHp(raging, 300);
+
+        // Then
+        assertEquals(130, state.attackOf(raging));
+        assertEquals(0L, state.takePendingLowHealth());
+    }
+
+    @Test
+    void handleHpTriggers_AllyDeathTriggersSurvivingAllies() {
+        // Given : le slot 0 tombe sous les coups du slot 2
+        state.setHp(state.getParticipants().get(0), 0);
+
+        // When
+        processor.handleHpTriggers(state, 2);
+
+        // Then : Divine Vessel se déclenche, le mort n'est pas soigné
+        assertEquals(130, state.defenseOf(state.getParticipants().get(1)));
+        assertEquals(0, state.getParticipants().get(0).getCurrentHp());
+        assertEquals(0L, state.takePendingDeaths());
+    }
+
+    @Test
+    void handleHpTriggers_StatBonusEvent_MatchesAppliedStat() {
+        // Given : un bonus fractionnaire, arrondi à l'application
+        SkillDTO focus = passive(304L, "Focus", "ON_LOW_HEALTH").passiveBonus("ATTACK_UP").bonusValue(12.6).build();
+        BattleParticipant hero = participant(1L, "1", 1L);
+        BattleState battle = new BattleState();
+        battle.setParticipants(List.of(hero, participant(2L, "2", null)));
+        battle.setLoadout(BattleLoadout.compile(battle.getParticipants(), heroId -> heroId == 1L ? List.of(focus) : List.of()));
+
+        // When
+        battle.setHp(hero, 400);
+        processor.handleHpTriggers(battle, 1);
+
+        // Then : le gain journalisé est celui de la statistique
+        int gained = battle.attackOf(hero) - 100;
+        assertTrue(gained > 0);
+        assertEquals(gained, battle.getEventLog().eventsSince(0).stream()
+                .filter(e -> e.type() == BattleEventType.PASSIVE_ATTACK_UP)
+                .findFirst().orElseThrow().amount());
+    }
+
+    @Test
+    void handleHpTriggers_FailingPassive_CountedAsEngineError() {
+        // Given : un soin passif sans coefficient (donnée de catalogue incomplète)
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PassiveSkillProcessor metered = new PassiveSkillProcessor(new BattleMetrics(registry));
+        SkillDTO broken = passive(303L, "Broken Heal", "ON_LOW_HEALTH").action("HEAL").build();
+        BattleParticipant hero = participant(1L, "1", 1L);
+        BattleState battle = new BattleState();
+        battle.setParticipants(List.of(hero, participant(2L, "2", null)));
+        battle.setPlayer1Id("1");
+        battle.setPlayer2Id("2");
+        battle.setLoadout(BattleLoadout.compile(battle.getParticipants(), heroId -> heroId == 1L ? List.of(broken) : List.of()));
+
+        // When
+        battle.setHp(hero, 400);
+        metered.handleHpTriggers(battle, 1);
+
+        // Then : le tour continue, l'erreur est comptée pour le mode RTA
+        assertEquals(400, hero.getCurrentHp());
+        assertEquals(1.0, registry.get("battle.engine.errors").tag("mode", "RTA").counter().count());
+    }
+
+    @Test
+    void handleHpTriggers_BossPassivesNeverFire() {
+        // Given : un boss dont le héros de base a un passif ON_LOW_HEALTH dans le catalogue
+        SkillCatalog catalog = mock(SkillCatalog.class);
+        when(catalog.getSkillsForHero(any())).thenReturn(
+                List.of(passive(302L, "Infernal Rage", "ON_LOW_HEALTH").passiveBonus("ATTACK_UP").bonusValue(30.0).build()));
+        ParticipantFactory factory = new ParticipantFactory(mock(PlayerEquipmentRepository.class), catalog);
+        Hero bossHero = Hero.builder().id(3L).name("Boss").health(1000).baseAttack(100).baseDefense(100).baseSpeed(90).build();
+        List<BattleParticipant> participants = List.of(participant(1L, "1", null), factory.fromBoss(bossHero));
+        BattleState bossBattle = new BattleState();
+        bossBattle.setParticipants(participants);
+        bossBattle.setLoadout(factory.compileLoadout(participants));
+        BattleParticipant boss = participants.get(1);
+
+        // When : le boss passe sous 50 % de ses PV
+        bossBattle.setHp(boss, 400);
+        processor.handleHpTriggers(bossBattle, 0);
+
+        // Then : aucune compétence compilée pour le boss, son attaque ne change pas
+        assertEquals(0, bossBattle.getLoadout().skillCount(1));
+        assertEquals(100, bossBattle.attackOf(boss));
+    }
+
+    private static SkillDTO.SkillDTOBuilder passive(Long id, String name, String trigger) {
+        return SkillDTO.builder().id(id).name(name).category("PASSIVE").position(1).triggerCondition(trigger);
+    }
+
+    private static BattleParticipant participant(Long id, String userId, Long heroId) {
+        return new BattleParticipant(id, "Héros " + id, 1000, 1000, 100, 100, 100, true, userId, heroId, -1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.epic7.backend.service.battle.engine;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.dto.boss.SkillActionResultDTO;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour les compétences à cibles multiples de SkillEngine.
+ * Vérifie la résolution des cibles par équipe, la limite targetCount et l'événement unique par action.
+ */
+class SkillEngineTest {
+
+    private SkillEngine skillEngine;
+    private BattleState state;
+
+    @BeforeEach
+    void setUp() {
+        skillEngine = new SkillEngine(new BattleEngine(new PassiveSkillProcessor()));
+
+        SkillDTO blast = SkillDTO.builder()
+                .id(200L).name("Blast").category("ACTIVE").position(0)
+                .action("DAMAGE").targetGroup("ALL_ENEMIES").targetCount(5).scalingFactor(1.0).cooldown(0)
+                .build();
+        SkillDTO cleave = SkillDTO.builder()
+                .id(201L).name("Cleave").category("ACTIVE").position(1)
+                .action("DAMAGE").targetGroup("ALL_ENEMIES").targetCount(2).scalingFactor(1.0).cooldown(0)
+                .build();
+        SkillDTO mend = SkillDTO.builder()
+                .id(202L).name("Mend").category("ACTIVE").position(2)
+                .action("HEAL").targetGroup("ALL_ALLIES").targetCount(4).scalingFactor(0.1).cooldown(0)
+                .build();
+        Map<Long, List<SkillDTO>> skills = Map.of(1L, List.of(blast, cleave, mend));
+
+        // Joueur "1" : slots 0 et 1, joueur "2" : slots 2 à 4
+        List<BattleParticipant> participants = List.of(
+                participant(1L, "1", 200, 1000),
+                participant(2L, "1", 150, 400),
+                participant(3L, "2", 120, 1000),
+                participant(4L, "2", 110, 1000),
+                participant(5L, "2", 100, 1000));
+        state = new BattleState();
+        state.setParticipants(participants);
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> skills.getOrDefault(heroId, List.of())));
+    }
+
+    @Test
+    void useSkill_AllEnemies_DamagesWholeTeamWithOneEvent() {
+        // When
+        SkillActionResultDTO result = skillEngine.useSkillWithResult(state, 200L, 4L);
+
+        // Then : 500 ATK - 100 DEF sur les trois ennemis, alliés intacts
+        assertEquals(1200, result.getDamageDealt());
+        for (int slot = 2; slot < 5; slot++) {
+            assertEquals(600, state.getParticipants().get(slot).getCurrentHp());
+        }
+        assertEquals(1000, state.getParticipants().get(0).getCurrentHp());
+        assertEquals(1, state.getEventLog().eventsSince(0).stream()
+                .filter(e -> e.type() == BattleEventType.SKILL_DAMAGE_ALL).count());
+    }
+
+    @Test
+    void useSkill_TargetCount_KeepsChosenTarget() {
+        // When : deux cibles au plus, la cible choisie est la dernière de l'équipe
+        skillEngine.useSkillWithResult(state, 201L, 5L);
+
+        // Then
+        assertEquals(600, state.getParticipants().get(2).getCurrentHp());
+        assertEquals(1000, state.getParticipants().get(3).getCurrentHp());
+        assertEquals(600, state.getParticipants().get(4).getCurrentHp());
+    }
+
+    @Test
+    void useSkill_AllAllies_HealsOnlyOwnTeam() {
+        // Given
+        state.setHp(state.getParticipants().get(1), 100);
+        state.setHp(state.getParticipants().get(2), 100);
+
+        // When
+        skillEngine.useSkillWithResult(state, 202L, 2L);
+
+        // Then : soin de 10 % des PV max du lanceur, pas sur l'équipe adverse
+        assertEquals(200, state.getParticipants().get(1).getCurrentHp());
+        assertEquals(100, state.getParticipants().get(2).getCurrentHp());
+    }
+
+    private static BattleParticipant participant(Long id, String userId, int speed, int maxHp) {
+        return new BattleParticipant(id, "Héros " + id, maxHp, maxHp, 500, 100, speed, true, userId,
+                id == 1L ? 1L : null, -1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.epic7.backend.service.battle.manager;
+
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.store.InMemoryBattleSessionStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BossBattleSessionRegistry.
+ * Vérifie l'isolation par joueur, la limite de combats par joueur, l'éviction après inactivité
+ * et le bail de reprise entre nœuds.
+ */
+class BossBattleSessionRegistryTest {
+
+    private MutableClock clock;
+    private BossBattleSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        // 2 combats par joueur, inactivité 1800 s
+        registry = new BossBattleSessionRegistry(2, 1800, new InMemoryBattleSessionStore(), new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    void withBattle_OtherUser_NotFound() {
+        // Given
+        BattleState state = new BattleState();
+        String battleId = registry.register(1L, state);
+
+        // When / Then
+        assertEquals(battleId, state.getBattleId());
+        assertTrue(registry.withBattle(1L, battleId, BattleState::getBattleId).isPresent());
+        assertTrue(registry.withBattle(2L, battleId, BattleState::getBattleId).isEmpty());
+        assertNull(registry.remove(2L, battleId));
+    }
+
+    @Test
+    void register_OverUserLimit_DropsOldestBattle() {
+        // Given
+        String first = registry.register(1L, new BattleState());
+        String second = registry.register(1L, new BattleState());
+        String other = registry.register(2L, new BattleState());
+
+        // When
+        String third = registry.register(1L, new BattleState());
+
+        // Then
+        assertTrue(registry.withBattle(1L, first, s -> s).isEmpty());
+        assertTrue(registry.withBattle(1L, second, s -> s).isPresent());
+        assertTrue(registry.withBattle(1L, third, s -> s).isPresent());
+        assertTrue(registry.withBattle(2L, other, s -> s).isPresent());
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    void sweep_IdleBattle_IsRemoved() {
+        // Given
+        String idle = registry.register(1L, new BattleState());
+        String active = registry.register(2L, new BattleState());
+
+        // When
+        clock.advanceSeconds(1000);
+        registry.withBattle(2L, active, s -> s);
+        clock.advanceSeconds(1000);
+        registry.sweep();
+
+        // Then
+        assertTrue(registry.withBattle(1L, idle, s -> s).isEmpty());
+        assertTrue(registry.withBattle(2L, active, s -> s).isPresent());
+    }
+
+    @Test
+    void withBattle_LeaseHeldByOtherNode_NotRestored() {
+        // Given : un combat sauvegardé par un autre nœud qui en détient encore le bail
+        LeasedStore snapshots = new LeasedStore();
+        BattleState state = new BattleState();
+        state.setBattleId("b1");
+        state.setPlayer1Id("1");
+        snapshots.save(state);
+        snapshots.ownedHere = false;
+        BossBattleSessionRegistry node = new BossBattleSessionRegistry(2, 1800, snapshots, new SimpleMeterRegistry(), clock);
+
+        // When / Then : pas de reprise tant que le bail court, reprise une fois expiré
+        assertTrue(node.withBattle(1L, "b1", BattleState::getBattleId).isEmpty());
+        assertEquals(0, node.size());
+        snapshots.ownedHere = true;
+        assertEquals("b1", node.withBattle(1L, "b1", BattleState::getBattleId).orElse(null));
+    }
+
+    /**
+     * Snapshots partagés dont le bail peut être détenu par un autre nœud.
+     */
+    private static final class LeasedStore extends InMemoryBattleSessionStore {
+        private boolean ownedHere = true;
+
+        @Override
+        public boolean acquire(String battleId) {
+            return ownedHere;
+        }
+    }
+
+    /**
+     * Horloge manipulable pour simuler l'écoulement du temps.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.epic7.backend.service.battle.rta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BattleLaneExecutor.
+ * Vérifie l'ordre des tâches d'un combat et l'absence d'exécution concurrente.
+ */
+class BattleLaneExecutorTest {
+
+    private BattleLaneExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new BattleLaneExecutor(4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_SameBattle_RunsInOrderOneAtATime() throws InterruptedException {
+        // Given
+        int tasks = 1000;
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        // When
+        for (int i = 0; i < tasks; i++) {
+            int n = i;
+            executor.execute("battle", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(n);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void execute_TaskFailure_DoesNotBlockLane() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.execute("battle", () -> { throw new IllegalStateException("boom"); });
+        executor.execute("battle", done::countDown);
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_DrainedLane_IsRemoved() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.execute("battle", done::countDown);
+
+        // Then : la boîte vidée disparaît d'elle-même
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && executor.laneCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.laneCount());
+    }
+
+    @Test
+    void execute_ManyBursts_NeverRunsTwoTasksOfABattleAtOnce() throws InterruptedException {
+        // Given : des rafales courtes, la boîte est retirée puis recréée entre elles
+        int bursts = 500;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(bursts * 2);
+
+        // When
+        for (int i = 0; i < bursts; i++) {
+            for (int j = 0; j < 2; j++) {
+                executor.execute("battle", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            if (i % 10 == 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+}
@@ -0,0 +1,167 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour InMemoryMatchmakingQueue.
+ * Vérifie l'appariement des cotes les plus proches, la taille des lots, l'élargissement de la fenêtre
+ * avec l'attente et le retrait unique d'un joueur lorsque plusieurs boucles d'appariement se concurrencent.
+ */
+class InMemoryMatchmakingQueueTest {
+
+    private InMemoryMatchmakingQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        // fenêtre de 100 points, +10 par seconde d'attente, 500 au maximum
+        queue = new InMemoryMatchmakingQueue(100, 10, 500);
+    }
+
+    @Test
+    void drainPairs_PairsClosestRatings() {
+        // Given
+        queue.enqueue(user(1L, 1000), List.of(1L, 2L), 0);
+        queue.enqueue(user(2L, 1230), List.of(1L, 2L), 0);
+        queue.enqueue(user(3L, 1180), List.of(1L, 2L), 0);
+        queue.enqueue(user(4L, 1200), List.of(3L, 4L), 0);
+
+        // When
+        List<MatchmakingQueue.Pair> pairs = queue.drainPairs(0, 10);
+
+        // Then : 1180-1200 d'abord ; 1000 et 1230 sont trop éloignés
+        assertEquals(1, pairs.size());
+        assertEquals("3", pairs.get(0).first().userId());
+        assertEquals("4", pairs.get(0).second().userId());
+        assertEquals(2, queue.size());
+        assertFalse(queue.remove("3"));
+        assertTrue(queue.remove("1"));
+    }
+
+    @Test
+    void drainPairs_OutsideWindow_PairsOnceWaitedLongEnough() {
+        // Given
+        queue.enqueue(user(1L, 1000), List.of(1L, 2L), 0);
+        queue.enqueue(user(2L, 1300), List.of(3L, 4L), 0);
+
+        // When / Then : écart de 300, fenêtre de 100 au départ
+        assertTrue(queue.drainPairs(0, 10).isEmpty());
+        // Après 20 s d'attente, la fenêtre atteint 300 points
+        assertEquals(1, queue.drainPairs(20_000, 10).size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void drainPairs_SettledPlayers_PairedWithNewcomer() {
+        // Given : écart de 600 points, au-delà de la fenêtre maximale même après 60 s d'attente
+        queue.enqueue(user(1L, 1000), List.of(1L, 2L), 0);
+        queue.enqueue(user(2L, 1600), List.of(3L, 4L), 0);
+        assertTrue(queue.drainPairs(60_000, 10).isEmpty());
+
+        // When : un nouveau joueur arrive entre les deux
+        queue.enqueue(user(3L, 1550), List.of(5L, 6L), 60_000);
+        List<MatchmakingQueue.Pair> pairs = queue.drainPairs(60_000, 10);
+
+        // Then : apparié au plus proche des deux
+        assertEquals(1, pairs.size());
+        assertEquals("3", pairs.get(0).first().userId());
+        assertEquals("2", pairs.get(0).second().userId());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void drainPairs_RespectsBatchSize() {
+        // Given
+        for (long id = 1; id <= 6; id++) {
+            queue.enqueue(user(id, 1000), List.of(1L, 2L), 0);
+        }
+
+        // When
+        List<MatchmakingQueue.Pair> pairs = queue.drainPairs(0, 2);
+
+        // Then
+        assertEquals(2, pairs.size());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void claimPair_SecondGone_RestoresFirstUnlessItLeft() {
+        // Given
+        MatchmakingQueue.Entry first = queue.enqueue(user(1L, 1000), List.of(1L, 2L), 0);
+        MatchmakingQueue.Entry second = queue.enqueue(user(2L, 1010), List.of(3L, 4L), 0);
+        MatchmakingQueue.Entry third = queue.enqueue(user(3L, 1020), List.of(5L, 6L), 0);
+        queue.remove("2");
+
+        // When / Then : le premier joueur est remis en file
+        assertNull(queue.claimPair(first, second));
+        assertEquals(2, queue.size());
+        assertTrue(queue.remove("1"));
+
+        // When / Then : un joueur parti n'est pas remis
+        queue.remove("3");
+        assertNull(queue.claimPair(third, second));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void enqueue_AlreadyWaiting_KeepsRatingAndSeniority() {
+        // Given
+        User user = user(1L, 1000);
+        MatchmakingQueue.Entry first = queue.enqueue(user, List.of(1L, 2L), 0);
+        user.setRtaPoints(1500);
+
+        // When
+        MatchmakingQueue.Entry updated = queue.enqueue(user, List.of(3L, 4L), 10_000);
+
+        // Then
+        assertEquals(1, queue.size());
+        assertEquals(1000, updated.rating());
+        assertEquals(first.enqueuedAt(), updated.enqueuedAt());
+        assertEquals(List.of(3L, 4L), updated.heroIds());
+    }
+
+    @Test
+    void drainPairs_ConcurrentLoops_ClaimEachPlayerOnce() throws Exception {
+        // Given : deux boucles d'appariement (deux nœuds) sur la même file
+        for (long id = 1; id <= 200; id++) {
+            queue.enqueue(user(id, 1000 + (int) id), List.of(1L, 2L), 0);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        // When
+        Callable<List<MatchmakingQueue.Pair>> loop = () -> queue.drainPairs(0, 200);
+        List<MatchmakingQueue.Pair> pairs = new ArrayList<>();
+        for (Future<List<MatchmakingQueue.Pair>> result : pool.invokeAll(List.of(loop, loop))) {
+            pairs.addAll(result.get());
+        }
+        pool.shutdown();
+
+        // Then : aucun joueur n'est apparié deux fois
+        Set<String> matched = new HashSet<>();
+        for (MatchmakingQueue.Pair pair : pairs) {
+            assertTrue(matched.add(pair.first().userId()));
+            assertTrue(matched.add(pair.second().userId()));
+        }
+        assertEquals(200, matched.size() + queue.size());
+    }
+
+    private static User user(Long id, int rtaPoints) {
+        User user = new User();
+        user.setId(id);
+        user.setRtaPoints(rtaPoints);
+        return user;
+    }
+}
@@ -0,0 +1,174 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.event.RtaMatchFoundEvent;
+import com.epic7.backend.event.RtaQueueExpiredEvent;
+import com.epic7.backend.event.RtaQueueRejectedEvent;
+import com.epic7.backend.exception.InvalidRtaTeamException;
+import com.epic7.backend.exception.RtaCapacityExceededException;
+import com.epic7.backend.model.User;
+import com.epic7.backend.service.battle.manager.BattleManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour MatchmakingService.
+ * Vérifie la création des combats appariés, la remise en file après échec,
+ * l'expiration des attentes et les métriques associées.
+ */
+class MatchmakingServiceTest {
+
+    private BattleManager battleManager;
+    private ApplicationEventPublisher publisher;
+    private SimpleMeterRegistry registry;
+    private MatchmakingService service;
+
+    @BeforeEach
+    void setUp() {
+        battleManager = mock(BattleManager.class);
+        publisher = mock(ApplicationEventPublisher.class);
+        registry = new SimpleMeterRegistry();
+        // file expirée immédiatement (délai 0) pour le test d'expiration, nouvel essai après 50 ms
+        service = new MatchmakingService(battleManager, publisher,
+                new InMemoryMatchmakingQueue(100, 10, 1000), 500, 1, 0, 50, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void createBattle_Success_PublishesMatchAndRecordsWait() {
+        // Given
+        when(battleManager.startRtaBattle(anyString(), any(), any(), anyList(), anyList())).thenReturn(true);
+        MatchmakingQueue.Pair pair = pair();
+
+        // When
+        service.createBattle(pair);
+
+        // Then
+        verify(publisher).publishEvent(any(RtaMatchFoundEvent.class));
+        assertEquals(2, registry.get("rta.matchmaking.time.to.match").timer().count());
+        assertEquals(0, service.getQueueSize());
+    }
+
+    @Test
+    void createBattle_Failure_RequeuesBothPlayersAfterDelay() throws InterruptedException {
+        // Given
+        when(battleManager.startRtaBattle(anyString(), any(), any(), anyList(), anyList()))
+                .thenThrow(new IllegalArgumentException("Héros introuvable"));
+
+        // When
+        service.createBattle(pair());
+
+        // Then : remis en file après le délai, pas aussitôt
+        assertEquals(0, service.getQueueSize());
+        awaitQueueSize(2);
+        verify(publisher, never()).publishEvent(any());
+        assertEquals(1.0, registry.get("rta.matchmaking.failures").counter().count());
+        assertEquals(2.0, registry.get("rta.matchmaking.queue.depth").tag("tier", "Bronze").gauge().value());
+    }
+
+    @Test
+    void createBattle_InvalidTeam_DropsFaultyPlayerAndRequeuesOpponent() {
+        // Given : l'équipe du joueur 2 référence un héros supprimé
+        when(battleManager.startRtaBattle(anyString(), any(), any(), anyList(), anyList()))
+                .thenThrow(new InvalidRtaTeamException("2", "Héros introuvable : 3"));
+        MatchmakingQueue.Pair pair = pair();
+
+        // When
+        service.createBattle(pair);
+
+        // Then : seul le joueur 1 reste en file, le joueur 2 est prévenu
+        assertEquals(1, service.getQueueSize());
+        ArgumentCaptor<RtaQueueRejectedEvent> event = ArgumentCaptor.forClass(RtaQueueRejectedEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(2L, event.getValue().getUser().getId());
+        assertEquals("Héros introuvable : 3", event.getValue().getReason());
+        assertEquals(1.0, registry.get("rta.matchmaking.failures").counter().count());
+    }
+
+    @Test
+    void createBattle_PlayerLeftDuringCreation_NotRequeued() throws InterruptedException {
+        // Given : le joueur 1 quitte la recherche pendant que son combat est créé
+        MatchmakingQueue.Pair pair = pair();
+        when(battleManager.startRtaBattle(anyString(), any(), any(), anyList(), anyList())).thenAnswer(invocation -> {
+            service.leave(pair.first().user());
+            throw new IllegalStateException("Base indisponible");
+        });
+
+        // When
+        service.createBattle(pair);
+
+        // Then : seul le joueur 2 retrouve la file
+        awaitQueueSize(1);
+        Thread.sleep(100);
+        assertEquals(1, service.getQueueSize());
+        service.leave(pair.second().user());
+        assertEquals(0, service.getQueueSize());
+    }
+
+    @Test
+    void createBattle_CapacityReached_NotifiesBothWithoutRequeue() throws InterruptedException {
+        // Given
+        when(battleManager.startRtaBattle(anyString(), any(), any(), anyList(), anyList()))
+                .thenThrow(new RtaCapacityExceededException("Nombre maximum de combats RTA atteint (10)"));
+
+        // When
+        service.createBattle(pair());
+
+        // Then : aucun nouvel essai, les deux joueurs sont prévenus
+        Thread.sleep(100);
+        assertEquals(0, service.getQueueSize());
+        verify(publisher, times(2)).publishEvent(any(RtaQueueRejectedEvent.class));
+    }
+
+    @Test
+    void cleanupQueue_ExpiredPlayer_IsRemovedAndNotified() throws InterruptedException {
+        // Given
+        service.join(user(1L, 1000), List.of(1L, 2L));
+        Thread.sleep(5);
+
+        // When
+        service.cleanupQueue();
+
+        // Then
+        assertEquals(0, service.getQueueSize());
+        verify(publisher).publishEvent(any(RtaQueueExpiredEvent.class));
+        assertEquals(1.0, registry.get("rta.matchmaking.expired").counter().count());
+    }
+
+    private void awaitQueueSize(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && service.getQueueSize() != expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, service.getQueueSize());
+    }
+
+    private static MatchmakingQueue.Pair pair() {
+        long now = System.currentTimeMillis();
+        return new MatchmakingQueue.Pair(
+                new MatchmakingQueue.Entry(user(1L, 1000), List.of(1L, 2L), 1000, now, 1),
+                new MatchmakingQueue.Entry(user(2L, 1050), List.of(3L, 4L), 1050, now, 2));
+    }
+
+    private static User user(Long id, int rtaPoints) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("joueur" + id);
+        user.setRtaPoints(rtaPoints);
+        return user;
+    }
+}
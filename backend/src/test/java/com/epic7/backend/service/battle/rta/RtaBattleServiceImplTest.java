@@ -0,0 +1,180 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.Hero;
+import com.epic7.backend.model.PlayerHero;
+import com.epic7.backend.model.RtaMatchResult;
+import com.epic7.backend.model.Skill;
+import com.epic7.backend.model.User;
+import com.epic7.backend.model.skill_kit.PassiveBonusType;
+import com.epic7.backend.model.skill_kit.SkillAction;
+import com.epic7.backend.model.skill_kit.SkillCategory;
+import com.epic7.backend.model.skill_kit.TargetGroup;
+import com.epic7.backend.model.skill_kit.TriggerCondition;
+import com.epic7.backend.repository.PlayerEquipmentRepository;
+import com.epic7.backend.repository.PlayerHeroRepository;
+import com.epic7.backend.repository.SkillRepository;
+import com.epic7.backend.repository.UserRepository;
+import com.epic7.backend.service.SkillCatalog;
+import com.epic7.backend.service.SkillService;
+import com.epic7.backend.service.battle.engine.BattleEngine;
+import com.epic7.backend.service.battle.engine.BattleMetrics;
+import com.epic7.backend.service.battle.engine.ParticipantFactory;
+import com.epic7.backend.service.battle.engine.PassiveSkillProcessor;
+import com.epic7.backend.service.battle.engine.SkillEngine;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.store.InMemoryBattleSessionStore;
+import com.epic7.backend.service.rta.RtaRankingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RtaBattleServiceImpl.
+ * Vérifie qu'une fois le combat mis en place, les actions s'exécutent sans aucun accès à la base.
+ */
+class RtaBattleServiceImplTest {
+
+    private PlayerHeroRepository playerHeroRepository;
+    private PlayerEquipmentRepository playerEquipmentRepository;
+    private SkillRepository skillRepository;
+    private UserRepository userRepository;
+    private RtaResultPipeline resultPipeline;
+    private SimpleMeterRegistry registry;
+    private RtaBattleServiceImpl service;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        playerHeroRepository = mock(PlayerHeroRepository.class);
+        playerEquipmentRepository = mock(PlayerEquipmentRepository.class);
+        skillRepository = mock(SkillRepository.class);
+        userRepository = mock(UserRepository.class);
+        resultPipeline = mock(RtaResultPipeline.class);
+        when(resultPipeline.submit(any())).thenReturn(true);
+
+        alice = user(1L, "alice");
+        bob = user(2L, "bob");
+        List<Skill> skills = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            Hero hero = Hero.builder().id(id).name("Héros " + id)
+                    .baseAttack(300).baseDefense(100).baseSpeed(100 + (int) id * 10).health(2000).build();
+            skills.add(Skill.builder().id(id * 10).name("Frappe " + id).position(0).category(SkillCategory.ACTIVE)
+                    .action(SkillAction.DAMAGE).targetGroup(TargetGroup.SINGLE_ENEMY).targetCount(1)
+                    .scalingFactor(1.0).cooldown(0).hero(hero).build());
+            skills.add(Skill.builder().id(id * 10 + 1).name("Rage " + id).position(1).category(SkillCategory.PASSIVE)
+                    .passiveBonus(PassiveBonusType.ATTACK_UP).bonusValue(20.0)
+                    .triggerCondition(TriggerCondition.ON_TURN_START).hero(hero).build());
+            PlayerHero playerHero = new PlayerHero(id <= 2 ? alice : bob, hero);
+            playerHero.setId(id + 100);
+            when(playerHeroRepository.findById(id + 100)).thenReturn(Optional.of(playerHero));
+        }
+        when(skillRepository.findAll()).thenReturn(skills);
+
+        SkillCatalog skillCatalog = new SkillCatalog(skillRepository, new SkillService(skillRepository, playerHeroRepository));
+        skillCatalog.refresh();
+        BattleEngine battleEngine = new BattleEngine(new PassiveSkillProcessor());
+        registry = new SimpleMeterRegistry();
+        RtaBattleSessionStore sessionStore = new RtaBattleSessionStore(10, 600, 60, mock(ApplicationEventPublisher.class),
+                new InMemoryBattleSessionStore(), registry, Clock.systemUTC());
+        service = new RtaBattleServiceImpl(new ParticipantFactory(playerEquipmentRepository, skillCatalog), battleEngine,
+                new SkillEngine(battleEngine), playerHeroRepository, userRepository, new RtaRankingService(userRepository),
+                resultPipeline, sessionStore, new BattleMetrics(registry));
+    }
+
+    @Test
+    void applySkillAction_FullBattleWithoutRepositoryCalls() {
+        // Given : combat mis en place (seule étape qui lit la base)
+        assertTrue(service.startRtaBattle("b1", alice, bob, List.of(101L, 102L), List.of(103L, 104L)));
+        // Type explicite : des dépôts de types différents en varargs génériques produiraient un avertissement unchecked
+        Mockito.<Object>clearInvocations(playerHeroRepository, playerEquipmentRepository, skillRepository, userRepository);
+
+        // When : chaque acteur frappe le premier ennemi vivant jusqu'à la fin du combat
+        BattleState state = service.getBattleState("b1");
+        int actions = 0;
+        while (!state.isFinished() && actions < 200) {
+            BattleParticipant actor = state.getParticipants().get(state.getCurrentTurnIndex());
+            SkillDTO strike = state.getLoadout().skill(actor.getSlot(), 0);
+            BattleParticipant target = state.getParticipants().stream()
+                    .filter(p -> !p.getUserId().equals(actor.getUserId()) && p.getCurrentHp() > 0)
+                    .findFirst().orElseThrow();
+            assertTrue(service.applySkillAction("b1", strike.getId(), target.getId()));
+            actions++;
+        }
+
+        // Then : combat terminé, résultat confié au pipeline, aucune requête pendant les tours
+        assertTrue(state.isFinished());
+        assertTrue(actions > 4);
+        verify(resultPipeline).submit(any());
+        assertEquals(1, registry.get("battle.turns").tag("mode", "RTA").summary().count());
+        assertEquals(actions, registry.get("battle.turns").tag("mode", "RTA").summary().totalAmount());
+        verifyNoInteractions(playerHeroRepository, playerEquipmentRepository, skillRepository, userRepository);
+    }
+
+    @Test
+    void applySkillAction_RecordsMetricsTaggedByMode() {
+        // Given
+        service.startRtaBattle("b1", alice, bob, List.of(101L, 102L), List.of(103L, 104L));
+        BattleState state = service.getBattleState("b1");
+
+        // When : une action valide, puis une compétence inconnue (rejetée sans exception)
+        BattleParticipant actor = state.getParticipants().get(state.getCurrentTurnIndex());
+        BattleParticipant target = state.getParticipants().stream()
+                .filter(p -> !p.getUserId().equals(actor.getUserId()))
+                .findFirst().orElseThrow();
+        service.applySkillAction("b1", state.getLoadout().skill(actor.getSlot(), 0).getId(), target.getId());
+        service.applySkillAction("b1", 999L, target.getId());
+
+        // Then
+        assertEquals(2, registry.get("battle.action").tag("mode", "RTA").timer().count());
+        assertEquals(0, registry.get("battle.action").tag("mode", "BOSS").timer().count());
+        assertEquals(0, registry.get("battle.engine.errors").tag("mode", "RTA").counter().count());
+        assertEquals(1, registry.get("battle.active").tag("mode", "RTA").gauge().value());
+        assertEquals(0, registry.get("battle.turns").tag("mode", "RTA").summary().count());
+    }
+
+    @Test
+    void endRtaBattle_Forfeit_SubmitsRatedVictory() {
+        // Given : combat en cours, Alice abandonne
+        service.startRtaBattle("b1", alice, bob, List.of(101L, 102L), List.of(103L, 104L));
+        service.getBattleState("b1").setFinished(true);
+
+        // When
+        service.endRtaBattle("b1", bob.getId());
+
+        // Then : résultat classé, points RTA et diamants pour Bob
+        ArgumentCaptor<RtaMatchResult> result = ArgumentCaptor.forClass(RtaMatchResult.class);
+        verify(resultPipeline).submit(result.capture());
+        assertTrue(result.getValue().isRated());
+        assertEquals(2L, result.getValue().getWinnerId());
+        assertEquals(1L, result.getValue().getLoserId());
+        assertTrue(result.getValue().getWinnerPointsChange() > 0);
+        assertTrue(result.getValue().getLoserPointsChange() < 0);
+        assertEquals(100, result.getValue().getRewardDiamonds());
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@epic7.test");
+        return user;
+    }
+}
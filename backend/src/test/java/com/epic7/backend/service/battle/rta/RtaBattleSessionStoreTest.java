@@ -0,0 +1,203 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.event.RtaBattleEvictedEvent;
+import com.epic7.backend.event.RtaPlayerDisconnectedEvent;
+import com.epic7.backend.service.battle.state.BattleState;
+import com.epic7.backend.service.battle.store.InMemoryBattleSessionStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RtaBattleSessionStore.
+ * Vérifie l'éviction des combats inactifs, l'abandon après déconnexion et la capacité bornée.
+ */
+class RtaBattleSessionStoreTest {
+
+    private MutableClock clock;
+    private ApplicationEventPublisher publisher;
+    private SimpleMeterRegistry registry;
+    private RtaBattleSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        publisher = mock(ApplicationEventPublisher.class);
+        registry = new SimpleMeterRegistry();
+        // capacité 2, inactivité 600 s, grâce 60 s
+        store = new RtaBattleSessionStore(2, 600, 60, publisher, new InMemoryBattleSessionStore(), registry, clock);
+    }
+
+    @Test
+    void sweep_IdleBattle_IsEvictedAndPublished() {
+        // Given
+        store.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+        store.put("b2", battle("b2"), "c@test.fr", "d@test.fr");
+
+        // When
+        clock.advanceSeconds(300);
+        store.touchPlayer("c@test.fr");
+        clock.advanceSeconds(301);
+        store.sweep();
+
+        // Then
+        assertNull(store.get("b1"));
+        assertNotNull(store.get("b2"));
+        assertNull(store.findBattleIdByPlayer("a@test.fr"));
+        ArgumentCaptor<RtaBattleEvictedEvent> captor = ArgumentCaptor.forClass(RtaBattleEvictedEvent.class);
+        verify(publisher).publishEvent(captor.capture());
+        assertEquals("b1", captor.getValue().getBattleId());
+        assertEquals(1.0, registry.get("rta.battles.evicted").tag("reason", "idle").counter().count());
+    }
+
+    @Test
+    void sweep_DisconnectedPastGrace_RequestsForfeitOnce() {
+        // Given
+        store.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+        store.playerDisconnected("b@test.fr");
+
+        // When
+        clock.advanceSeconds(61);
+        store.sweep();
+        store.sweep();
+
+        // Then
+        ArgumentCaptor<RtaPlayerDisconnectedEvent> captor = ArgumentCaptor.forClass(RtaPlayerDisconnectedEvent.class);
+        verify(publisher, times(1)).publishEvent(captor.capture());
+        assertEquals("b1", captor.getValue().getBattleId());
+        assertEquals("b@test.fr", captor.getValue().getPlayerEmail());
+    }
+
+    @Test
+    void sweep_ReconnectedWithinGrace_NoForfeit() {
+        // Given
+        store.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+        store.playerDisconnected("b@test.fr");
+
+        // When
+        clock.advanceSeconds(30);
+        store.touchPlayer("b@test.fr");
+        clock.advanceSeconds(60);
+        store.sweep();
+
+        // Then
+        verify(publisher, never()).publishEvent(any());
+        assertNotNull(store.get("b1"));
+    }
+
+    @Test
+    void put_CapacityReachedWithActiveBattles_Rejects() {
+        // Given
+        store.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+        store.put("b2", battle("b2"), "c@test.fr", "d@test.fr");
+
+        // When / Then
+        assertThrows(IllegalStateException.class,
+                () -> store.put("b3", battle("b3"), "e@test.fr", "f@test.fr"));
+        assertEquals(2, store.size());
+        assertEquals(1.0, registry.get("rta.battles.rejected").counter().count());
+    }
+
+    @Test
+    void playerEmail_KnownFromSetup() {
+        // Given
+        BattleState state = battle("b1");
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        store.put("b1", state, "a@test.fr", "b@test.fr");
+
+        // When / Then : emails retrouvés sans l'utilisateur, null une fois le combat retiré
+        assertEquals("a@test.fr", store.playerEmail("b1", "1"));
+        assertEquals("b@test.fr", store.playerEmail("b1", "2"));
+        assertNull(store.playerEmail("b1", "3"));
+        store.remove("b1");
+        assertNull(store.playerEmail("b1", "1"));
+    }
+
+    @Test
+    void isKnown_OnlyTrackedOrResumableBattles() {
+        // Given
+        store.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+
+        // When / Then : un combat terminé ou inventé n'est pas pris en charge
+        assertTrue(store.isKnown("b1"));
+        assertFalse(store.isKnown("inconnu"));
+        assertFalse(store.isKnown(null));
+        store.remove("b1");
+        assertFalse(store.isKnown("b1"));
+    }
+
+    @Test
+    void get_LeaseTakenByOtherNode_DropsSessionKeepsSnapshot() {
+        // Given : deux nœuds partagent les snapshots, le premier fait avancer le combat
+        LeasedStore snapshots = new LeasedStore();
+        RtaBattleSessionStore node = new RtaBattleSessionStore(2, 600, 60, publisher, snapshots, registry, clock);
+        node.put("b1", battle("b1"), "a@test.fr", "b@test.fr");
+
+        // When : un autre nœud a repris le combat après expiration du bail
+        snapshots.ownedHere = false;
+
+        // Then : le combat est lâché localement, son snapshot reste pour le nouveau détenteur
+        assertNull(node.get("b1"));
+        assertNull(node.findBattleIdByPlayer("a@test.fr"));
+        assertFalse(node.acquire("b1"));
+        assertTrue(snapshots.load("b1").isPresent());
+    }
+
+    private static BattleState battle(String battleId) {
+        BattleState state = new BattleState();
+        state.setBattleId(battleId);
+        return state;
+    }
+
+    /**
+     * Snapshots partagés dont le bail peut être détenu par un autre nœud.
+     */
+    private static final class LeasedStore extends InMemoryBattleSessionStore {
+        private boolean ownedHere = true;
+
+        @Override
+        public boolean acquire(String battleId) {
+            return ownedHere;
+        }
+    }
+
+    /**
+     * Horloge manipulable pour simuler l'écoulement du temps.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
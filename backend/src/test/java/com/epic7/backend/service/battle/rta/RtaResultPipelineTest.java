@@ -0,0 +1,198 @@
+package com.epic7.backend.service.battle.rta;
+
+import com.epic7.backend.model.RtaMatchResult;
+import com.epic7.backend.model.User;
+import com.epic7.backend.repository.RtaMatchResultRepository;
+import com.epic7.backend.repository.UserRepository;
+import com.epic7.backend.service.rta.RtaRankingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RtaResultPipeline.
+ * Vérifie l'application groupée des résultats, l'idempotence par combat et la reprise après échec.
+ */
+class RtaResultPipelineTest {
+
+    private UserRepository userRepository;
+    private RtaMatchResultRepository resultRepository;
+    private SimpleMeterRegistry registry;
+    private RtaResultPipeline pipeline;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        resultRepository = mock(RtaMatchResultRepository.class);
+        registry = new SimpleMeterRegistry();
+        pipeline = new RtaResultPipeline(userRepository, resultRepository, new RtaRankingService(userRepository),
+                mock(PlatformTransactionManager.class), 500, 3, registry);
+
+        alice = user(1L, 1190);
+        bob = user(2L, 1000);
+        when(userRepository.findAllById(any())).thenReturn(List.of(alice, bob));
+        when(resultRepository.findRecordedBattleIds(any())).thenReturn(Set.of());
+    }
+
+    @Test
+    void flush_AppliesBatchedResults() {
+        // Given : Alice gagne deux combats contre Bob
+        pipeline.submit(result("b1", 1L, 2L, 20, -20));
+        pipeline.submit(result("b2", 1L, 2L, 15, -15));
+
+        // When
+        pipeline.flush();
+
+        // Then : un seul chargement des joueurs, variations cumulées
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, times(1)).saveAll(any());
+        verify(resultRepository, times(1)).saveAll(any());
+        assertEquals(1225, alice.getRtaPoints());
+        assertEquals("Silver", alice.getRtaTier());
+        assertEquals(2, alice.getWinNumber());
+        assertEquals(200, alice.getDiamonds());
+        assertEquals(965, bob.getRtaPoints());
+        assertEquals(2, bob.getLoseNumber());
+        assertEquals(0, pipeline.pendingCount());
+        assertEquals(2.0, registry.get("rta.results.applied").counter().count());
+    }
+
+    @Test
+    void submit_SameBattleTwice_AppliedOnce() {
+        // When
+        assertTrue(pipeline.submit(result("b1", 1L, 2L, 20, -20)));
+        assertFalse(pipeline.submit(result("b1", 1L, 2L, 20, -20)));
+        pipeline.flush();
+
+        // Then
+        assertEquals(1210, alice.getRtaPoints());
+        assertEquals(1, alice.getWinNumber());
+    }
+
+    @Test
+    void flush_AlreadyRecordedBattle_IsSkipped() {
+        // Given : résultat déjà écrit par un passage précédent
+        when(resultRepository.findRecordedBattleIds(any())).thenReturn(Set.of("b1"));
+        pipeline.submit(result("b1", 1L, 2L, 20, -20));
+
+        // When
+        pipeline.flush();
+
+        // Then
+        verify(userRepository, never()).saveAll(any());
+        assertEquals(1190, alice.getRtaPoints());
+        assertEquals(0, alice.getDiamonds());
+    }
+
+    @Test
+    void flush_UnratedMatch_IsOnlyRecorded() {
+        // Given : abandon, historisé sans points
+        pipeline.submit(RtaMatchResult.builder().battleId("b1").player1Id(1L).player2Id(2L).winnerId(1L).build());
+
+        // When
+        pipeline.flush();
+
+        // Then
+        verify(userRepository, never()).findAllById(any());
+        verify(resultRepository).saveAll(any());
+        assertEquals(1190, alice.getRtaPoints());
+    }
+
+    @Test
+    void flush_Failure_KeepsResultsForRetry() {
+        // Given
+        when(userRepository.saveAll(any())).thenThrow(new IllegalStateException("base indisponible"));
+        pipeline.submit(result("b1", 1L, 2L, 20, -20));
+
+        // When
+        pipeline.flush();
+
+        // Then
+        assertEquals(1, pipeline.pendingCount());
+        assertEquals(1.0, registry.get("rta.results.flush.failures").counter().count());
+    }
+
+    @Test
+    void flush_InvalidResult_IsIsolatedThenParked() {
+        // Given : le résultat "bad" viole une contrainte, "b1" et "b2" sont valides
+        when(resultRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<RtaMatchResult> results = invocation.getArgument(0);
+            for (RtaMatchResult result : results) {
+                if ("bad".equals(result.getBattleId())) {
+                    throw new IllegalStateException("contrainte violée");
+                }
+            }
+            return List.of();
+        });
+        pipeline.submit(result("b1", 1L, 2L, 20, -20));
+        pipeline.submit(result("bad", 1L, 2L, 20, -20));
+
+        // When : le lot échoue, puis ses résultats sont écrits un par un
+        pipeline.flush();
+        assertEquals(2, pipeline.pendingCount());
+        pipeline.flush();
+        pipeline.submit(result("b2", 2L, 1L, 20, -20));
+        pipeline.flush();
+        pipeline.flush();
+
+        // Then : les résultats valides sont écrits, l'invalide est mis de côté après 3 échecs
+        assertEquals(0, pipeline.pendingCount());
+        assertEquals(1, pipeline.parkedCount());
+        assertEquals(2.0, registry.get("rta.results.applied").counter().count());
+        assertEquals(1.0, registry.get("rta.results.parked.total").counter().count());
+        assertFalse(pipeline.submit(result("bad", 1L, 2L, 20, -20)));
+    }
+
+    @Test
+    void retryParked_DatabaseBack_WritesParkedResult() {
+        // Given : un résultat mis de côté pendant une panne
+        when(userRepository.saveAll(any())).thenThrow(new IllegalStateException("base indisponible"));
+        pipeline.submit(result("b1", 1L, 2L, 20, -20));
+        for (int i = 0; i < 3; i++) {
+            pipeline.flush();
+        }
+        assertEquals(1, pipeline.parkedCount());
+
+        // When : la base est rétablie
+        doReturn(List.of()).when(userRepository).saveAll(any());
+        pipeline.retryParked();
+
+        // Then
+        assertEquals(0, pipeline.parkedCount());
+        assertEquals(1.0, registry.get("rta.results.applied").counter().count());
+    }
+
+    private static RtaMatchResult result(String battleId, Long winnerId, Long loserId, int winnerChange, int loserChange) {
+        return RtaMatchResult.builder()
+                .battleId(battleId)
+                .player1Id(winnerId)
+                .player2Id(loserId)
+                .winnerId(winnerId)
+                .rated(true)
+                .loserId(loserId)
+                .winnerPointsChange(winnerChange)
+                .loserPointsChange(loserChange)
+                .rewardDiamonds(100)
+                .build();
+    }
+
+    private static User user(Long id, int rtaPoints) {
+        User user = new User();
+        user.setId(id);
+        user.setRtaPoints(rtaPoints);
+        return user;
+    }
+}
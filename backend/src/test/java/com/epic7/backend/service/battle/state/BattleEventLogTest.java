@@ -0,0 +1,80 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BattleEventLog.
+ * Vérifie le curseur de séquence, l'écrasement des anciens événements et le rendu texte.
+ */
+class BattleEventLogTest {
+
+    private BattleState state;
+
+    @BeforeEach
+    void setUp() {
+        List<BattleParticipant> participants = new ArrayList<>();
+        participants.add(new BattleParticipant(1L, "Ras", 100, 100, 50, 20, 110, true, "1", 10L, -1));
+        participants.add(new BattleParticipant(2L, "Boss", 500, 500, 80, 40, 90, false, null, 20L, -1));
+
+        state = new BattleState();
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> List.of()));
+    }
+
+    @Test
+    void render_OnlyEventsSinceCursor() {
+        // Given
+        state.addEvent(BattleEventType.ROUND_STARTED, -1, -1, 2);
+        long cursor = state.getLogSequence();
+        state.addEvent(BattleEventType.BOSS_ATTACK, 1, 0, 30);
+
+        // When
+        List<String> all = state.getEventLog().render(0, state);
+        List<String> fresh = state.getEventLog().render(cursor, state);
+
+        // Then
+        assertEquals(2, all.size());
+        assertEquals(List.of("Boss (Boss) attaque Ras et inflige 30 dégâts."), fresh);
+        assertEquals(2, state.getLogSequence());
+    }
+
+    @Test
+    void append_OverwritesOldestBeyondCapacity() {
+        // Given
+        BattleEventLog log = new BattleEventLog(4);
+        state.setEventLog(log);
+
+        // When
+        for (int round = 1; round <= 10; round++) {
+            state.addEvent(BattleEventType.ROUND_STARTED, -1, -1, round);
+        }
+
+        // Then
+        assertEquals(10, log.nextSequence());
+        assertEquals(6, log.firstSequence());
+        assertEquals(List.of("🔁 Début du tour 7", "🔁 Début du tour 8", "🔁 Début du tour 9", "🔁 Début du tour 10"),
+                state.getLogs());
+        assertEquals(6, log.eventsSince(0).get(0).sequence());
+    }
+
+    @Test
+    void getLogs_UsesStateCursor() {
+        // Given
+        state.addEvent(BattleEventType.BATTLE_STARTED, 1, -1, 0);
+        state.addEvent(BattleEventType.RTA_VICTORY, "Alice");
+
+        // When
+        state.setLogsSince(1);
+
+        // Then
+        assertEquals(List.of("🏆 Alice remporte la victoire!"), state.getLogs());
+    }
+}
@@ -0,0 +1,67 @@
+package com.epic7.backend.service.battle.state;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BattleRandom.
+ * Vérifie la reproductibilité par graine, la reprise depuis un état sauvegardé et les bornes des tirages.
+ */
+class BattleRandomTest {
+
+    @Test
+    void sameSeed_SameSequence() {
+        // Given
+        BattleRandom first = new BattleRandom(42L);
+        BattleRandom second = new BattleRandom(42L);
+
+        // When / Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextInt(1000), second.nextInt(1000));
+        }
+    }
+
+    @Test
+    void restore_ContinuesSequence() {
+        // Given
+        BattleRandom random = new BattleRandom(7L);
+        random.nextLong();
+        BattleRandom restored = BattleRandom.restore(random.state());
+
+        // When / Then
+        assertEquals(random.nextLong(), restored.nextLong());
+    }
+
+    @Test
+    void nextInt_StaysWithinBound() {
+        // Given
+        BattleRandom random = new BattleRandom(1L);
+        int[] counts = new int[3];
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            counts[random.nextInt(3)]++;
+        }
+
+        // Then : chaque valeur est tirée
+        for (int count : counts) {
+            assertTrue(count > 800);
+        }
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(0));
+    }
+
+    @Test
+    void battleState_SeedResetsSequence() {
+        // Given
+        BattleState state = new BattleState();
+        state.setRngSeed(99L);
+        long firstDraw = state.getRandom().nextLong();
+
+        // When
+        state.setRngSeed(99L);
+
+        // Then
+        assertEquals(firstDraw, state.getRandom().nextLong());
+    }
+}
@@ -0,0 +1,99 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.dto.rta.RtaStatePatchDTO;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BattleStateDelta.
+ * Vérifie que les patchs ne contiennent que les changements depuis la dernière diffusion.
+ */
+class BattleStateDeltaTest {
+
+    private BattleState state;
+    private BattleStateDelta delta;
+
+    @BeforeEach
+    void setUp() {
+        List<BattleParticipant> participants = new ArrayList<>();
+        participants.add(new BattleParticipant(1L, "Ras", 100, 100, 50, 20, 110, true, "1", 10L, -1));
+        participants.add(new BattleParticipant(2L, "Arbiter", 120, 120, 60, 30, 100, true, "2", 20L, -1));
+
+        SkillDTO strike = SkillDTO.builder().id(7L).name("Strike").category("ACTIVE")
+                .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.0).cooldown(2).build();
+
+        state = new BattleState();
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> List.of(strike)));
+        state.addEvent(BattleEventType.BATTLE_STARTED, -1, -1, 0);
+        delta = BattleStateDelta.capture(state);
+    }
+
+    @Test
+    void diff_ContainsOnlyChangedValues() {
+        // Given
+        state.getParticipants().get(1).setCurrentHp(80);
+        state.putCooldown(0, 0, 2);
+        state.setCurrentTurnIndex(1);
+        state.addEvent(BattleEventType.SKILL_DAMAGE, 0, 1, 40, 0);
+
+        // When
+        RtaStatePatchDTO patch = delta.diff("b1", state);
+
+        // Then
+        assertEquals(0, patch.getBaseVersion());
+        assertEquals(1, patch.getVersion());
+        assertEquals(1, patch.getCurrentTurnIndex());
+        assertEquals(1, patch.getParticipants().size());
+        assertEquals(2L, patch.getParticipants().get(0).getId());
+        assertEquals(80, patch.getParticipants().get(0).getCurrentHp());
+        assertNull(patch.getParticipants().get(0).getAttack());
+        assertEquals(1, patch.getCooldowns().size());
+        assertEquals(7L, patch.getCooldowns().get(0).getSkillId());
+        assertEquals(List.of("Ras utilise Strike sur Arbiter et inflige 40 dégâts."), patch.getLogs());
+        assertEquals(2, patch.getLogSequence());
+    }
+
+    @Test
+    void diff_BuffApplied_SendsEffectiveStats() {
+        // Given : +50 % d'attaque pour Ras, -30 % de vitesse pour Arbiter
+        state.applyEffect(state.getParticipants().get(0), StatusEffectType.ATTACK_UP, 50, 2, 1);
+        state.applyEffect(state.getParticipants().get(1), StatusEffectType.SPEED_DOWN, 30, 2, 0);
+
+        // When
+        RtaStatePatchDTO patch = delta.diff("b1", state);
+
+        // Then : statistiques effets compris, statistiques de base inchangées
+        assertEquals(2, patch.getParticipants().size());
+        assertEquals(75, patch.getParticipants().get(0).getAttack());
+        assertNull(patch.getParticipants().get(0).getSpeed());
+        assertEquals(70, patch.getParticipants().get(1).getSpeed());
+        assertNull(patch.getParticipants().get(1).getAttack());
+        assertEquals(50, state.getParticipants().get(0).getAttack());
+        assertNull(delta.diff("b1", state).getParticipants());
+    }
+
+    @Test
+    void diff_NothingChanged_EmptyPatchWithNewVersion() {
+        // Given
+        delta.diff("b1", state);
+
+        // When
+        RtaStatePatchDTO patch = delta.diff("b1", state);
+
+        // Then
+        assertEquals(1, patch.getBaseVersion());
+        assertEquals(2, patch.getVersion());
+        assertNull(patch.getParticipants());
+        assertNull(patch.getCooldowns());
+        assertTrue(patch.getLogs().isEmpty());
+    }
+}
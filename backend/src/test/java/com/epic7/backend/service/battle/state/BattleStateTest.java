@@ -0,0 +1,85 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour le suivi des participants vivants de BattleState.
+ * Vérifie les compteurs par équipe (RTA et PvE) et leur mise à jour au passage des PV par zéro.
+ */
+class BattleStateTest {
+
+    @Test
+    void setHp_CrossingZero_UpdatesTeamCounts() {
+        // Given : combat RTA, deux héros par joueur
+        BattleState state = rtaState();
+        BattleParticipant target = state.getParticipants().get(2);
+
+        // When
+        state.setHp(target, 0);
+
+        // Then
+        assertFalse(state.isAlive(2));
+        assertEquals(2, state.aliveCount(BattleState.TEAM_1));
+        assertEquals(1, state.aliveCount(BattleState.TEAM_2));
+
+        // When : soin sans repasser par zéro puis résurrection
+        state.setHp(state.getParticipants().get(3), 10);
+        state.setHp(target, 50);
+
+        // Then
+        assertTrue(state.isAlive(2));
+        assertEquals(2, state.aliveCount(BattleState.TEAM_2));
+    }
+
+    @Test
+    void isTeamAlive_PveTeamsSplitPlayersAndBoss() {
+        // Given
+        BattleState state = new BattleState();
+        state.setParticipants(List.of(
+                participant(1L, 100, true, null),
+                participant(2L, 0, true, null),
+                participant(3L, 500, false, null)));
+
+        // When
+        state.setHp(state.getParticipants().get(2), 0);
+
+        // Then
+        assertEquals(1, state.aliveCount(BattleState.TEAM_1));
+        assertFalse(state.isTeamAlive(BattleState.TEAM_2));
+    }
+
+    @Test
+    void nthAlive_SkipsDeadParticipants() {
+        // Given
+        BattleState state = rtaState();
+        state.setHp(state.getParticipants().get(0), 0);
+
+        // When / Then : seul le slot 1 reste pour le joueur 1
+        assertEquals(1, state.nthAlive(BattleState.TEAM_1, 0));
+        assertEquals(-1, state.nthAlive(BattleState.TEAM_1, 1));
+        assertEquals(3, state.nthAlive(BattleState.TEAM_2, 1));
+    }
+
+    private static BattleState rtaState() {
+        BattleState state = new BattleState();
+        state.setParticipants(List.of(
+                participant(1L, 100, true, "1"),
+                participant(2L, 100, true, "1"),
+                participant(3L, 100, true, "2"),
+                participant(4L, 100, true, "2")));
+        // Les joueurs sont connus après les participants, comme dans RtaBattleServiceImpl
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        return state;
+    }
+
+    private static BattleParticipant participant(Long id, int hp, boolean isPlayer, String userId) {
+        return new BattleParticipant(id, "Héros " + id, 100, hp, 50, 10, 100, isPlayer, userId, id, -1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour les effets temporaires (StatusEffects) et leur lecture via BattleState.
+ * Vérifie le non-cumul, l'expiration au fil des tours du porteur et les dégâts sur la durée.
+ */
+class StatusEffectsTest {
+
+    @Test
+    void applyEffect_SameTypeDoesNotCompound() {
+        // Given
+        BattleState state = state();
+        BattleParticipant hero = state.getParticipants().get(0);
+
+        // When : le même passif reposé à chaque tour pendant 100 tours
+        for (int turn = 0; turn < 100; turn++) {
+            state.startTurnEffects(0);
+            state.applyEffect(hero, StatusEffectType.ATTACK_UP, 20, 1, 0);
+        }
+
+        // Then : statistique de base intacte, +20 % à la lecture
+        assertEquals(1000, hero.getAttack());
+        assertEquals(1200, state.attackOf(hero));
+    }
+
+    @Test
+    void startTurnEffects_ExpiresAfterDurationOfHolderTurns() {
+        // Given
+        BattleState state = state();
+        BattleParticipant hero = state.getParticipants().get(0);
+        state.applyEffect(hero, StatusEffectType.DEFENSE_DOWN, 50, 2, 1);
+
+        // When / Then : actif pendant les deux tours suivants du porteur
+        assertEquals(250, state.defenseOf(hero));
+        state.startTurnEffects(0);
+        state.startTurnEffects(1); // les tours des autres ne comptent pas
+        state.startTurnEffects(0);
+        assertEquals(250, state.defenseOf(hero));
+        state.startTurnEffects(0);
+        assertEquals(500, state.defenseOf(hero));
+    }
+
+    @Test
+    void startTurnEffects_DamageOverTimeCanKnockOut() {
+        // Given
+        BattleState state = state();
+        BattleParticipant hero = state.getParticipants().get(1);
+        state.applyEffect(hero, StatusEffectType.DAMAGE_OVER_TIME, 60, 3, 0);
+
+        // When / Then
+        assertTrue(state.startTurnEffects(1));
+        assertEquals(400, hero.getCurrentHp());
+        assertFalse(state.startTurnEffects(1));
+        assertFalse(state.isAlive(1));
+    }
+
+    @Test
+    void modify_StackedDebuffsAreClamped() {
+        // Given
+        StatusEffects effects = new StatusEffects(1);
+        effects.apply(0, StatusEffectType.SPEED_DOWN, 80, 2, 0);
+        effects.apply(0, StatusEffectType.SPEED_UP, 10, 2, 0);
+        effects.apply(0, StatusEffectType.ATTACK_DOWN, 200, 2, 0);
+
+        // Then
+        assertEquals(30, effects.modify(0, StatusEffectType.Stat.SPEED, 100));
+        assertEquals(10, effects.modify(0, StatusEffectType.Stat.ATTACK, 100));
+    }
+
+    @Test
+    void apply_SameTypeKeepsStrongestAndLongest() {
+        // Given
+        StatusEffects effects = new StatusEffects(1);
+        effects.apply(0, StatusEffectType.DAMAGE_OVER_TIME, 10, 1, 0);
+
+        // When
+        effects.apply(0, StatusEffectType.DAMAGE_OVER_TIME, 5, 3, 0);
+
+        // Then : une seule entrée, 10 % pendant 3 tours
+        assertEquals(1, effects.count(0));
+        assertEquals(10, effects.startTurn(0));
+        assertEquals(10, effects.startTurn(0));
+        assertEquals(10, effects.startTurn(0));
+        assertEquals(0, effects.startTurn(0));
+        assertEquals(0, effects.count(0));
+    }
+
+    private static BattleState state() {
+        BattleState state = new BattleState();
+        state.setParticipants(List.of(
+                new BattleParticipant(1L, "Héros", 1000, 1000, 1000, 500, 100, true, "1", 1L, 0),
+                new BattleParticipant(2L, "Rival", 1000, 1000, 800, 400, 90, true, "2", 2L, 1)));
+        return state;
+    }
+}
@@ -0,0 +1,127 @@
+package com.epic7.backend.service.battle.state;
+
+import com.epic7.backend.service.battle.model.BattleParticipant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour TurnScheduler.
+ * Vérifie l'ordre des tours selon la vitesse, la prise en compte d'un changement de vitesse
+ * en cours de combat et l'exclusion des participants morts.
+ */
+class TurnSchedulerTest {
+
+    @Test
+    void next_FasterParticipantPlaysMoreOften() {
+        // Given : slot 0 deux fois plus rapide que le slot 1, le slot 0 ouvre le combat
+        BattleState state = state(200, 100);
+
+        // When
+        List<Integer> turns = turns(state, 6);
+
+        // Then : à échéance égale, le slot le plus bas (le plus rapide au départ) passe en premier
+        assertEquals(List.of(0, 1, 0, 0, 1, 0), turns);
+    }
+
+    @Test
+    void next_SecondTurnInRoundStartsNewRound() {
+        // Given
+        BattleState state = state(200, 100);
+        TurnScheduler scheduler = state.turnScheduler();
+
+        // When / Then : 0 a ouvert le combat et rejoue avant 1 => nouveau round
+        assertEquals(0, scheduler.next(state));
+        assertTrue(scheduler.isNewRound());
+        assertEquals(1, scheduler.next(state));
+        assertFalse(scheduler.isNewRound());
+        assertEquals(0, scheduler.next(state));
+        assertTrue(scheduler.isNewRound());
+    }
+
+    @Test
+    void setSpeed_ChangesOrderImmediately() {
+        // Given : vitesses égales, ordre alterné
+        BattleState state = state(100, 100, 100);
+        assertEquals(List.of(1, 2), turns(state, 2));
+
+        // When : le slot 2 double sa vitesse en cours de combat (passif SPEED_UP)
+        state.setSpeed(state.getParticipants().get(2), 200);
+
+        // Then : le reste de sa jauge se remplit deux fois plus vite, il rejoue avant les autres
+        assertEquals(List.of(2, 0, 1, 2), turns(state, 4));
+    }
+
+    @Test
+    void next_SkipsDeadAndRevivedParticipantsRejoin() {
+        // Given
+        BattleState state = state(100, 100, 100);
+        state.turnScheduler();
+        BattleParticipant second = state.getParticipants().get(1);
+
+        // When
+        state.setHp(second, 0);
+
+        // Then
+        assertEquals(List.of(2, 0, 2, 0), turns(state, 4));
+
+        // When : résurrection, jauge vide
+        state.setHp(second, 50);
+
+        // Then
+        assertEquals(List.of(2, 0, 1), turns(state, 3));
+    }
+
+    @Test
+    void next_NoSurvivor_ReturnsMinusOne() {
+        // Given
+        BattleState state = state(100, 100);
+        state.turnScheduler();
+        state.getParticipants().forEach(p -> state.setHp(p, 0));
+
+        // When / Then
+        assertEquals(-1, state.turnScheduler().next(state));
+    }
+
+    @Test
+    void restore_ContinuesSameOrder() {
+        // Given
+        BattleState state = state(130, 110, 90, 70);
+        turns(state, 5);
+        TurnScheduler saved = state.turnScheduler();
+        double[] readyAt = new double[saved.slots()];
+        for (int slot = 0; slot < readyAt.length; slot++) {
+            readyAt[slot] = saved.readyAt(slot);
+        }
+
+        // When
+        BattleState copy = state(130, 110, 90, 70);
+        copy.setTurnScheduler(TurnScheduler.restore(copy, saved.clock(), saved.actedThisRound(), readyAt));
+
+        // Then
+        assertEquals(turns(state, 50), turns(copy, 50));
+    }
+
+    private static List<Integer> turns(BattleState state, int count) {
+        List<Integer> turns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            turns.add(state.turnScheduler().next(state));
+        }
+        return turns;
+    }
+
+    private static BattleState state(int... speeds) {
+        List<BattleParticipant> participants = new ArrayList<>();
+        for (int i = 0; i < speeds.length; i++) {
+            long id = i + 1;
+            participants.add(new BattleParticipant(id, "Héros " + id, 100, 100, 50, 10, speeds[i], true, null, id, i));
+        }
+        BattleState state = new BattleState();
+        state.setParticipants(participants);
+        return state;
+    }
+}
@@ -0,0 +1,116 @@
+package com.epic7.backend.service.battle.store;
+
+import com.epic7.backend.dto.SkillDTO;
+import com.epic7.backend.model.enums.ShopItemType;
+import com.epic7.backend.service.battle.engine.ParticipantFactory;
+import com.epic7.backend.service.battle.model.BattleParticipant;
+import com.epic7.backend.service.battle.state.BattleEventType;
+import com.epic7.backend.service.battle.state.BattleLoadout;
+import com.epic7.backend.service.battle.state.BattleState;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour MappedFileBattleSessionStore.
+ * Vérifie qu'un combat est restauré à l'identique, y compris après réouverture du fichier.
+ */
+class MappedFileBattleSessionStoreTest {
+
+    private static final SkillDTO STRIKE = SkillDTO.builder().id(7L).name("Strike").category("ACTIVE")
+            .action("DAMAGE").targetGroup("SINGLE_ENEMY").scalingFactor(1.0).cooldown(2).build();
+
+    @TempDir
+    Path dir;
+
+    private ParticipantFactory participantFactory;
+    private String path;
+
+    @BeforeEach
+    void setUp() {
+        participantFactory = mock(ParticipantFactory.class);
+        when(participantFactory.compileLoadout(anyList()))
+                .thenAnswer(inv -> BattleLoadout.compile(inv.getArgument(0), heroId -> List.of(STRIKE)));
+        path = dir.resolve("battles.dat").toString();
+    }
+
+    @Test
+    void load_AfterReopen_RestoresBattle() throws Exception {
+        // Given
+        BattleState state = battle("b1");
+        MappedFileBattleSessionStore store = new MappedFileBattleSessionStore(participantFactory, path, 8, 16384, 3600);
+        store.save(state);
+        store.close();
+
+        // When
+        MappedFileBattleSessionStore reopened = new MappedFileBattleSessionStore(participantFactory, path, 8, 16384, 3600);
+        BattleState restored = reopened.load("b1").orElseThrow();
+
+        // Then
+        assertEquals(1, reopened.size());
+        assertEquals("b1", restored.getBattleId());
+        assertEquals(3, restored.getVersion());
+        assertEquals(1, restored.getCurrentTurnIndex());
+        assertEquals(2, restored.getRoundCount());
+        assertEquals(ShopItemType.DIAMOND, restored.getRewardType());
+        assertEquals("1", restored.getPlayer1Id());
+        assertEquals(80, restored.getParticipants().get(1).getCurrentHp());
+        assertEquals("2", restored.getParticipants().get(1).getUserId());
+        assertEquals(1, restored.getParticipants().get(1).getSlot());
+        assertEquals(2, restored.getRemainingCooldown(0, 0));
+        assertEquals(0, restored.getRemainingCooldown(1, 0));
+        assertEquals(state.getLogSequence(), restored.getLogSequence());
+        assertEquals(state.getLogs(), restored.getLogs());
+        reopened.close();
+    }
+
+    @Test
+    void delete_FreesSlotForNextBattle() throws Exception {
+        // Given
+        MappedFileBattleSessionStore store = new MappedFileBattleSessionStore(participantFactory, path, 1, 16384, 3600);
+        store.save(battle("b1"));
+
+        // When
+        store.save(battle("b2"));  // fichier plein : non sauvegardé
+        boolean savedWhileFull = store.load("b2").isPresent();
+        store.delete("b1");
+        store.save(battle("b2"));
+
+        // Then
+        assertFalse(savedWhileFull);
+        assertTrue(store.load("b1").isEmpty());
+        assertTrue(store.load("b2").isPresent());
+        store.close();
+    }
+
+    private static BattleState battle(String battleId) {
+        List<BattleParticipant> participants = new ArrayList<>();
+        participants.add(new BattleParticipant(1L, "Ras", 100, 100, 50, 20, 110, true, "1", 10L, -1));
+        participants.add(new BattleParticipant(2L, "Arbiter", 120, 120, 60, 30, 100, true, "2", 20L, -1));
+
+        BattleState state = new BattleState();
+        state.setBattleId(battleId);
+        state.setParticipants(participants);
+        state.setLoadout(BattleLoadout.compile(participants, heroId -> List.of(STRIKE)));
+        state.putCooldown(0, 0, 2);
+        state.setVersion(3);
+        state.setCurrentTurnIndex(1);
+        state.setRoundCount(2);
+        state.setRewardType(ShopItemType.DIAMOND);
+        state.setPlayer1Id("1");
+        state.setPlayer2Id("2");
+        state.addEvent(BattleEventType.BATTLE_STARTED, -1, -1, 0);
+        state.addEvent(BattleEventType.INFO, "Début du combat");
+        participants.get(1).setCurrentHp(80);
+        return state;
+    }
+}
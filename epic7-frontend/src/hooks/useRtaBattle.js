@@ -62,6 +62,13 @@ export default function useRtaBattle() {
       console.log('En attente d\'un adversaire...');
     });
     
+    webSocketService.on('onQueueExpired', (reason) => {
+      console.log('File d\'attente expirée:', reason);
+      clearInterval(timerRef.current);
+      setPhase('selection');
+      // toast.info(reason);
+    });
+    
     webSocketService.on('onMatchFound', (newBattleId) => {
       console.log('Match trouvé avec ID:', newBattleId);
       
@@ -47,6 +47,8 @@ export default function Battle() {
   
   const navigate   = useNavigate();
   const targetRefs = useRef({});
+  // Identifiant du combat renvoyé par /combat/start, à fournir à chaque appel suivant
+  const battleIdRef = useRef(null);
 
   // ═══ États du composant ═══════════════════════════════════════════════
   const [battleState, setBattleState] = useState(null);
@@ -153,7 +155,9 @@ export default function Battle() {
   // ─── Gestion des récompenses ───────────────────────────────────────────
   async function fetchReward() {
     try {
-      const res = await API.post('/combat/reward');
+      const res = await API.post('/combat/reward', null, {
+        params: { battleId: battleIdRef.current },
+      });
       setReward(res.data);
     } catch (err) {
       console.error("Erreur fetchReward:", err);
@@ -165,10 +169,11 @@ export default function Battle() {
     try {
       // Utiliser tous les héros sélectionnés (maintenant seulement 2 emplacements)
       const heroIds = selectedHeroes.filter(Boolean).map(h => h.id);
-      await API.post('/combat/start', {
+      const { data: started } = await API.post('/combat/start', {
         bossHeroId: 1,
         selectedPlayerHeroIds: heroIds,
       });
+      battleIdRef.current = started.battleId;
       await fetchBattleState();
       setSelectionPhase(false);
       
@@ -184,7 +189,9 @@ export default function Battle() {
 
   async function fetchBattleState() {
     try {
-      const { data: state } = await API.get('/combat/state');
+      const { data: state } = await API.get('/combat/state', {
+        params: { battleId: battleIdRef.current },
+      });
       if (state.logs?.length) {
         logBattleAction('📜 LOGS DE COMBAT', state.logs.slice(-3));
       }
@@ -471,6 +478,7 @@ export default function Battle() {
 
       // on envoie l'action au back
       const { data: result } = await API.post('/combat/action/skill', {
+        battleId:     battleIdRef.current,
         playerHeroId: actor.id,
         skillId:      selectedSkillId,
         targetId,
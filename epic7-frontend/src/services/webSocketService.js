@@ -15,6 +15,7 @@ class WebSocketService {
     this.subscriptions = {};
     this.activeBattleId = null; // AJOUT: Pour tracker la bataille active
     this.battleEnded = false; // AJOUT: Flag pour savoir si le combat est terminé
+    this.lastBattleState = null; // Dernier état complet connu, base des patchs versionnés
   }
 
   /**
@@ -222,9 +223,8 @@ class WebSocketService {
           this.activeBattleId = battleId;
           this.battleEnded = false;
           
-          // Nettoyer l'abonnement de matchmaking
-          matchmakingSub.unsubscribe();
-          delete this.subscriptions.matchmaking;
+          // Nettoyer les abonnements de matchmaking
+          this._cleanupMatchmakingSubscriptions();
           
           // S'abonner aux canaux de combat
           this._subscribeToBattleChannels(battleId);
@@ -258,6 +258,18 @@ class WebSocketService {
       );
       
       this.subscriptions.matchmaking = matchmakingSub;
+
+      // Attente trop longue : le serveur nous a retirés de la file
+      this.subscriptions.queueExpired = this.stompClient.subscribe(
+        `/user/queue/rta/expired`,
+        (message) => {
+          console.log('Attente expirée:', message.body);
+          this._cleanupMatchmakingSubscriptions();
+          if (typeof this.callbacks.onQueueExpired === 'function') {
+            this.callbacks.onQueueExpired(message.body);
+          }
+        }
+      );
       
       // Envoyer la demande de matchmaking
       console.log('Envoi de la demande de matchmaking avec héros:', heroIds);
@@ -435,6 +447,8 @@ class WebSocketService {
           try {
             const state = JSON.parse(message.body);
             console.log('État de bataille personnalisé reçu:', state);
+            // Snapshot complet : nouvelle base pour les patchs suivants
+            this.lastBattleState = state;
             if (typeof this.callbacks.onBattleState === 'function') {
               this.callbacks.onBattleState(state);
             }
@@ -444,6 +458,19 @@ class WebSocketService {
         }
       );
       this.subscriptions.battleState = stateSub;
+
+      // Canal des patchs d'état (identiques pour les deux joueurs, versionnés)
+      const patchSub = this.stompClient.subscribe(
+        `/topic/rta/patch/${battleId}`,
+        (message) => {
+          try {
+            this._applyPatch(battleId, JSON.parse(message.body));
+          } catch (error) {
+            console.error('Erreur de traitement du patch d\'état:', error);
+          }
+        }
+      );
+      this.subscriptions.battlePatch = patchSub;
       
       // Canal de fin de combat personnalisé (spécifique à l'utilisateur)
       const endSub = this.stompClient.subscribe(
@@ -492,6 +519,65 @@ class WebSocketService {
     }
   }
 
+  /**
+   * Applique un patch d'état sur le dernier état complet connu.
+   * Un patch qui ne part pas de notre version (patch manqué, pas encore d'état) déclenche un resync :
+   * le serveur renvoie alors un snapshot complet sur le canal d'état.
+   */
+  _applyPatch(battleId, patch) {
+    const current = this.lastBattleState;
+    if (!current || current.battleId !== battleId) {
+      this._requestResync(battleId);
+      return;
+    }
+    if (patch.version <= current.version) {
+      return; // Déjà appliqué (snapshot plus récent reçu entre-temps)
+    }
+    if (patch.baseVersion !== current.version) {
+      console.warn(`Patch ${patch.baseVersion} -> ${patch.version} inapplicable sur la version ${current.version}, resync`);
+      this._requestResync(battleId);
+      return;
+    }
+
+    // Seules les valeurs modifiées sont présentes dans le patch
+    const changes = patch.participants || [];
+    const participants = current.participants.map(p => {
+      const change = changes.find(c => c.id === p.id);
+      return change ? { ...p, ...change } : p;
+    });
+
+    const cooldowns = { ...(current.cooldowns || {}) };
+    (patch.cooldowns || []).forEach(c => {
+      cooldowns[c.participantId] = { ...(cooldowns[c.participantId] || {}), [c.skillId]: c.remaining };
+    });
+
+    const next = {
+      ...current,
+      participants,
+      cooldowns,
+      currentTurnIndex: patch.currentTurnIndex,
+      roundCount: patch.roundCount,
+      finished: patch.finished,
+      logs: [...(current.logs || []), ...(patch.logs || [])],
+      logSequence: patch.logSequence,
+      version: patch.version
+    };
+    this.lastBattleState = next;
+
+    if (typeof this.callbacks.onBattleState === 'function') {
+      this.callbacks.onBattleState(next);
+    }
+  }
+
+  /**
+   * Demande un snapshot complet de la bataille (après un patch manqué)
+   */
+  _requestResync(battleId) {
+    if (!this.connected || !this.stompClient || this.battleEnded) return;
+    console.log(`Resynchronisation de la bataille ${battleId}`);
+    this.stompClient.send('/app/rta/resync', {}, battleId);
+  }
+
   /**
    * Utiliser une compétence sur une cible
    * @param {String} battleId - ID de la bataille
@@ -590,10 +676,7 @@ class WebSocketService {
       return;
     }
     
-    if (this.subscriptions.matchmaking) {
-      this.subscriptions.matchmaking.unsubscribe();
-      delete this.subscriptions.matchmaking;
-    }
+    this._cleanupMatchmakingSubscriptions();
     
     console.log('Quitter la file d\'attente');
     this.stompClient.send(
@@ -610,8 +693,9 @@ class WebSocketService {
     // AJOUT: Marquer la bataille comme terminée
     this.battleEnded = true;
     this.activeBattleId = null;
+    this.lastBattleState = null;
     
-    ['battleState', 'battleEnd', 'nextTurn'].forEach(key => {
+    ['battleState', 'battlePatch', 'battleEnd', 'nextTurn'].forEach(key => {
       if (this.subscriptions[key]) {
         this.subscriptions[key].unsubscribe();
         delete this.subscriptions[key];
@@ -621,6 +705,18 @@ class WebSocketService {
     console.log('Abonnements de bataille nettoyés et drapeaux réinitialisés');
   }
 
+  /**
+   * Nettoie les abonnements liés à la file d'attente
+   */
+  _cleanupMatchmakingSubscriptions() {
+    ['matchmaking', 'queueExpired'].forEach(key => {
+      if (this.subscriptions[key]) {
+        this.subscriptions[key].unsubscribe();
+        delete this.subscriptions[key];
+      }
+    });
+  }
+
   /**
    * Nettoie les abonnements liés à une bataille (version publique)
    */
@@ -652,10 +748,7 @@ class WebSocketService {
     this._cleanupBattleSubscriptions();
     
     // Nettoyer aussi le matchmaking si il existe
-    if (this.subscriptions.matchmaking) {
-      this.subscriptions.matchmaking.unsubscribe();
-      delete this.subscriptions.matchmaking;
-    }
+    this._cleanupMatchmakingSubscriptions();
     
     // Déconnecter et reconnecter pour avoir une connexion fraîche
     return new Promise((resolve, reject) => {